@@ -3,6 +3,7 @@ package com.amazon.ata.advertising.service.activity;
 import com.amazon.ata.advertising.service.model.requests.AddTargetingGroupRequest;
 import com.amazon.ata.advertising.service.model.responses.AddTargetingGroupResponse;
 
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
 import com.amazon.ata.advertising.service.model.translator.TargetingGroupTranslator;
 import com.amazon.ata.advertising.service.model.translator.TargetingPredicateTranslator;
@@ -30,14 +31,17 @@ public class AddTargetingGroupActivity {
     private static final Logger LOG = LogManager.getLogger(AddTargetingGroupActivity.class);
 
     private final TargetingGroupDao targetingGroupDao;
+    private final MarketplaceTargetingIndex targetingIndex;
 
     /**
      * Instantiate a AddTargetingGroupActivity.
      * @param targetingGroupDao source of targeting group data
+     * @param targetingIndex ranked targeting groups to add the new group to
      */
     @Inject
-    public AddTargetingGroupActivity(TargetingGroupDao targetingGroupDao) {
+    public AddTargetingGroupActivity(TargetingGroupDao targetingGroupDao, MarketplaceTargetingIndex targetingIndex) {
         this.targetingGroupDao = targetingGroupDao;
+        this.targetingIndex = targetingIndex;
     }
 
     /**
@@ -60,6 +64,7 @@ public class AddTargetingGroupActivity {
             .collect(Collectors.toList());
 
         TargetingGroup targetingGroup = targetingGroupDao.create(contentId, targetingPredicates);
+        targetingIndex.addTargetingGroup(targetingGroup);
 
         return AddTargetingGroupResponse.builder()
                 .withTargetingGroup(TargetingGroupTranslator.toCoral(targetingGroup))
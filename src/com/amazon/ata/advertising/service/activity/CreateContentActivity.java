@@ -2,7 +2,9 @@ package com.amazon.ata.advertising.service.activity;
 
 import com.amazon.ata.advertising.service.model.requests.CreateContentRequest;
 import com.amazon.ata.advertising.service.model.responses.CreateContentResponse;
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 import com.amazon.ata.advertising.service.dao.ContentDao;
+import com.amazon.ata.advertising.service.dao.MarketplaceContentCache;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
 
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
@@ -16,6 +18,7 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -26,16 +29,23 @@ public class CreateContentActivity {
 
     private final ContentDao contentDao;
     private final TargetingGroupDao targetingGroupDao;
+    private final MarketplaceContentCache contentCache;
+    private final MarketplaceTargetingIndex targetingIndex;
 
     /**
      * The activity for the CreateContent API.
      * @param contentDao stores the new advertisement content
      * @param targetingGroupDao stores the new targeting group
+     * @param contentCache snapshots of content to invalidate
+     * @param targetingIndex ranked targeting groups to add the new content to
      */
     @Inject
-    public CreateContentActivity(ContentDao contentDao, TargetingGroupDao targetingGroupDao) {
+    public CreateContentActivity(ContentDao contentDao, TargetingGroupDao targetingGroupDao,
+                                 MarketplaceContentCache contentCache, MarketplaceTargetingIndex targetingIndex) {
         this.contentDao = contentDao;
         this.targetingGroupDao = targetingGroupDao;
+        this.contentCache = contentCache;
+        this.targetingIndex = targetingIndex;
     }
 
     /**
@@ -64,6 +74,8 @@ public class CreateContentActivity {
                 .map(TargetingPredicateTranslator::fromCoral)
                 .collect(Collectors.toList());
         TargetingGroup group = targetingGroupDao.create(content.getContentId(), targetingPredicates);
+        contentCache.invalidate(marketplaceId);
+        targetingIndex.putContent(content, Collections.singletonList(group));
 
         return CreateContentResponse.builder()
                 .withAdvertisingContent(AdvertisementContentTranslator.toCoral(content, request.getMarketplaceId()))
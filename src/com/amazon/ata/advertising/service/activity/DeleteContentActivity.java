@@ -2,7 +2,9 @@ package com.amazon.ata.advertising.service.activity;
 
 import com.amazon.ata.advertising.service.model.requests.DeleteContentRequest;
 import com.amazon.ata.advertising.service.model.responses.DeleteContentResponse;
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 import com.amazon.ata.advertising.service.dao.ContentDao;
+import com.amazon.ata.advertising.service.dao.MarketplaceContentCache;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
 
 import org.apache.logging.log4j.LogManager;
@@ -15,16 +17,23 @@ public class DeleteContentActivity {
 
     private final ContentDao contentDao;
     private final TargetingGroupDao targetingGroupDao;
+    private final MarketplaceContentCache contentCache;
+    private final MarketplaceTargetingIndex targetingIndex;
 
     /**
      * The activity for the DeleteContent API.
      * @param contentDao contains the advertisement content to delete
      * @param targetingGroupDao contains the targeting groups to delete
+     * @param contentCache snapshots of content to invalidate
+     * @param targetingIndex ranked targeting groups to remove the content from
      */
     @Inject
-    public DeleteContentActivity(ContentDao contentDao, TargetingGroupDao targetingGroupDao) {
+    public DeleteContentActivity(ContentDao contentDao, TargetingGroupDao targetingGroupDao,
+                                 MarketplaceContentCache contentCache, MarketplaceTargetingIndex targetingIndex) {
         this.contentDao = contentDao;
         this.targetingGroupDao = targetingGroupDao;
+        this.contentCache = contentCache;
+        this.targetingIndex = targetingIndex;
     }
 
     /**
@@ -40,6 +49,8 @@ public class DeleteContentActivity {
 
         targetingGroupDao.delete(contentId);
         contentDao.delete(contentId);
+        contentCache.invalidateContent(contentId);
+        targetingIndex.removeContent(contentId);
 
         return DeleteContentResponse.builder().build();
     }
@@ -6,51 +6,75 @@ import com.amazon.ata.advertising.service.businesslogic.AdvertisementSelectionLo
 import com.amazon.ata.advertising.service.model.EmptyGeneratedAdvertisement;
 import com.amazon.ata.advertising.service.model.GeneratedAdvertisement;
 import com.amazon.ata.advertising.service.model.translator.AdvertisementTranslator;
+import com.amazon.ata.advertising.service.util.Futures;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import javax.inject.Inject;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 /**
  *
- * Activity class for generate ad operation.
+ * Activity class for generate ad operation. Concurrent requests for the same customer, marketplace and number of ads
+ * share one selection, so a burst of requests for one page only looks the customer up once. EvaluationModule provides
+ * one activity for the whole process so every request can see the selections in flight.
  *
  */
 public class GenerateAdActivity {
     private static final Logger LOG = LogManager.getLogger(GenerateAdActivity.class);
 
     private final AdvertisementSelectionLogic adSelector;
+    private final ConcurrentMap<SelectionKey, CompletableFuture<List<GeneratedAdvertisement>>> inFlightSelections =
+        new ConcurrentHashMap<>();
+    private final AtomicLong coalescedRequests = new AtomicLong();
 
     /**
      * A Coral activity for the GenerateAdvertisement API.
      * @param advertisementSelector The business logic to select an ad.
      */
-    @Inject
     public GenerateAdActivity(AdvertisementSelectionLogic advertisementSelector) {
         this.adSelector = advertisementSelector;
     }
 
     /**
      * Decides on the ad most likely to be clicked on by the provided customer, from the group of ads a customer is
-     * eligible to see.
-     * @param request Contains the customerId to generate an advertisement for, and the marketplace id where the ad
-     *                will be rendered
-     * @return the response will contain the generated advertisement. It's content will be an empty String if no
-     *      advertisement could be generated.
+     * eligible to see. If the request asks for more than one ad, decides on that many ads with distinct content in
+     * one pass, for pages with several ad slots.
+     * @param request Contains the customerId to generate an advertisement for, the marketplace id where the ad
+     *                will be rendered, and optionally the number of ads to generate
+     * @return the response will contain the generated advertisement, which is the first of the generated
+     *      advertisements. It's content will be an empty String if no advertisement could be generated. The generated
+     *      advertisements hold up to the requested number of ads, highest click through rate first.
      */
     public GenerateAdvertisementResponse generateAd(GenerateAdvertisementRequest request) {
         String customerId = request.getCustomerId();
         String marketplaceId = request.getMarketplaceId();
-        LOG.info(String.format("Generating ad for customerId: %s in marketplace: %s", customerId, marketplaceId));
+        int numberOfAds = Math.max(1, request.getNumberOfAds());
+        LOG.info(String.format("Generating %d ad(s) for customerId: %s in marketplace: %s", numberOfAds, customerId,
+            marketplaceId));
 
         GenerateAdvertisementResponse response;
         try {
             LOG.debug("This is the adSelector:" + adSelector);
-            final GeneratedAdvertisement generatedAd = adSelector.selectAdvertisement(customerId,
-                    marketplaceId);
+            final List<GeneratedAdvertisement> selectedAds = selectCoalesced(customerId, marketplaceId, numberOfAds);
+            final GeneratedAdvertisement generatedAd = selectedAds.isEmpty() ?
+                new EmptyGeneratedAdvertisement() : selectedAds.get(0);
+            final List<GeneratedAdvertisement> generatedAds = selectedAds.stream()
+                .filter(ad -> !(ad instanceof EmptyGeneratedAdvertisement))
+                .collect(Collectors.toList());
             response = GenerateAdvertisementResponse.builder()
                     .withAdvertisement(AdvertisementTranslator.toCoral(generatedAd))
+                    .withAdvertisements(generatedAds.stream()
+                        .map(AdvertisementTranslator::toCoral)
+                        .collect(Collectors.toList()))
                     .build();
         } catch (Exception e) {
             LOG.error(String.format(
@@ -59,9 +83,88 @@ public class GenerateAdActivity {
                 request.getMarketplaceId()), e);
             response = GenerateAdvertisementResponse.builder()
                     .withAdvertisement(AdvertisementTranslator.toCoral(new EmptyGeneratedAdvertisement()))
+                    .withAdvertisements(Collections.emptyList())
                     .build();
         }
 
         return response;
     }
+
+    /**
+     * Selects the ads, or waits on the same selection if another request already started it. Each request that
+     * waits gets its own impression of every selected ad.
+     */
+    private List<GeneratedAdvertisement> selectCoalesced(String customerId, String marketplaceId, int numberOfAds) {
+        final SelectionKey key = new SelectionKey(customerId, marketplaceId, numberOfAds);
+        final CompletableFuture<List<GeneratedAdvertisement>> selection = new CompletableFuture<>();
+        final CompletableFuture<List<GeneratedAdvertisement>> inFlightSelection =
+            inFlightSelections.putIfAbsent(key, selection);
+        if (inFlightSelection != null) {
+            coalescedRequests.incrementAndGet();
+            return Futures.getUnchecked(inFlightSelection).stream()
+                .map(ad -> ad instanceof EmptyGeneratedAdvertisement ?
+                    new EmptyGeneratedAdvertisement() : new GeneratedAdvertisement(ad.getContent()))
+                .collect(Collectors.toList());
+        }
+
+        try {
+            final List<GeneratedAdvertisement> selectedAds = numberOfAds == 1 ?
+                Collections.singletonList(adSelector.selectAdvertisement(customerId, marketplaceId)) :
+                adSelector.selectAdvertisements(customerId, marketplaceId, numberOfAds);
+            selection.complete(selectedAds);
+            return selectedAds;
+        } catch (RuntimeException e) {
+            selection.completeExceptionally(e);
+            throw e;
+        } finally {
+            // Requests arriving from now on start a new selection, so they see any change made since this one
+            inFlightSelections.remove(key, selection);
+        }
+    }
+
+    /**
+     * Counter for the requests that waited on another request's selection instead of starting their own.
+     * @return the number of coalesced requests
+     */
+    public long getCoalescedCount() {
+        return coalescedRequests.get();
+    }
+
+    /**
+     * Publishes the activity's counters.
+     * @param metrics the reporter to publish them to
+     */
+    public void publishTo(MetricsReporter metrics) {
+        metrics.register("generateAd.coalescedRequests", this::getCoalescedCount);
+    }
+
+    private static final class SelectionKey {
+        private final String customerId;
+        private final String marketplaceId;
+        private final int numberOfAds;
+
+        SelectionKey(String customerId, String marketplaceId, int numberOfAds) {
+            this.customerId = customerId;
+            this.marketplaceId = marketplaceId;
+            this.numberOfAds = numberOfAds;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final SelectionKey that = (SelectionKey) o;
+            return numberOfAds == that.numberOfAds && Objects.equals(customerId, that.customerId) &&
+                Objects.equals(marketplaceId, that.marketplaceId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(customerId, marketplaceId, numberOfAds);
+        }
+    }
 }
@@ -0,0 +1,85 @@
+package com.amazon.ata.advertising.service.activity;
+
+import com.amazon.ata.advertising.service.model.requests.GenerateAdvertisementsRequest;
+import com.amazon.ata.advertising.service.model.responses.GenerateAdvertisementsResponse;
+import com.amazon.ata.advertising.service.businesslogic.AdvertisementSelectionLogic;
+import com.amazon.ata.advertising.service.model.AdvertisementPlacement;
+import com.amazon.ata.advertising.service.model.EmptyGeneratedAdvertisement;
+import com.amazon.ata.advertising.service.model.GeneratedAdvertisement;
+import com.amazon.ata.advertising.service.model.PlacedAdvertisement;
+import com.amazon.ata.advertising.service.model.translator.AdvertisementTranslator;
+import com.amazon.ata.advertising.service.util.Futures;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+
+/**
+ *
+ * Activity class for the batch generate ads operation.
+ *
+ */
+public class GenerateAdvertisementsActivity {
+    private static final Logger LOG = LogManager.getLogger(GenerateAdvertisementsActivity.class);
+
+    private final AdvertisementSelectionLogic adSelector;
+
+    /**
+     * A Coral activity for the GenerateAdvertisements API.
+     * @param advertisementSelector The business logic to select ads.
+     */
+    @Inject
+    public GenerateAdvertisementsActivity(AdvertisementSelectionLogic advertisementSelector) {
+        this.adSelector = advertisementSelector;
+    }
+
+    /**
+     * Decides on the ad most likely to be clicked on for every placement in the request, sharing marketplace content,
+     * targeting groups and downstream lookups across the whole batch.
+     * @param request Contains the customer, marketplace and slot of every ad to generate
+     * @return the response will contain one advertisement per placement, in the same order as the request. An
+     *      advertisement's content will be an empty String if no advertisement could be generated for its placement.
+     */
+    public GenerateAdvertisementsResponse generateAds(GenerateAdvertisementsRequest request) {
+        final List<AdvertisementPlacement> placements = request.getPlacements() == null ?
+            Collections.emptyList() : request.getPlacements();
+        LOG.info(String.format("Generating %d ads in one batch", placements.size()));
+
+        List<CompletableFuture<GeneratedAdvertisement>> selections;
+        try {
+            selections = adSelector.selectAdvertisements(placements);
+        } catch (Exception e) {
+            LOG.error("Something unexpected happened when calling GenerateAdvertisements.", e);
+            selections = Collections.nCopies(placements.size(), Futures.failed(e));
+        }
+
+        final List<PlacedAdvertisement> advertisements = new ArrayList<>(placements.size());
+        for (int i = 0; i < placements.size(); i++) {
+            final AdvertisementPlacement placement = placements.get(i);
+            GeneratedAdvertisement generatedAd;
+            try {
+                generatedAd = Futures.getUnchecked(selections.get(i));
+            } catch (Exception e) {
+                LOG.error(String.format(
+                    "Something unexpected happened when generating an ad for customer, %s, in marketplace %s, slot %s.",
+                    placement.getCustomerId(),
+                    placement.getMarketplaceId(),
+                    placement.getSlot()), e);
+                generatedAd = new EmptyGeneratedAdvertisement();
+            }
+            advertisements.add(PlacedAdvertisement.builder()
+                .withSlot(placement.getSlot())
+                .withAdvertisement(AdvertisementTranslator.toCoral(generatedAd))
+                .build());
+        }
+
+        return GenerateAdvertisementsResponse.builder()
+            .withAdvertisements(advertisements)
+            .build();
+    }
+}
@@ -1,7 +1,9 @@
 package com.amazon.ata.advertising.service.activity;
 
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 import com.amazon.ata.advertising.service.model.requests.UpdateClickThroughRateRequest;
 import com.amazon.ata.advertising.service.model.responses.UpdateClickThroughRateResponse;
+import com.amazon.ata.advertising.service.dao.ClickThroughRateAggregator;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
 import com.amazon.ata.advertising.service.model.translator.TargetingGroupTranslator;
 import com.amazon.ata.advertising.service.targeting.TargetingGroup;
@@ -15,18 +17,29 @@ public class UpdateClickThroughRateActivity {
     private static final Logger LOG = LogManager.getLogger(UpdateClickThroughRateActivity.class);
 
     private final TargetingGroupDao targetingGroupDao;
+    private final MarketplaceTargetingIndex targetingIndex;
+    private final ClickThroughRateAggregator clickThroughRateAggregator;
 
     /**
      * Instantiates an UpdateClickThroughRateActivity.
      * @param targetingGroupDao The source of data for targeting groups
+     * @param targetingIndex The ranked targeting groups to update
+     * @param clickThroughRateAggregator Writes the click through rates of indexed targeting groups behind the request
      */
     @Inject
-    public UpdateClickThroughRateActivity(TargetingGroupDao targetingGroupDao) {
+    public UpdateClickThroughRateActivity(TargetingGroupDao targetingGroupDao,
+                                          MarketplaceTargetingIndex targetingIndex,
+                                          ClickThroughRateAggregator clickThroughRateAggregator) {
         this.targetingGroupDao = targetingGroupDao;
+        this.targetingIndex = targetingIndex;
+        this.clickThroughRateAggregator = clickThroughRateAggregator;
     }
 
     /**
      * Updates the click through rate that has been calculated for a targeting group based on the targetingGroupId.
+     * If the targeting group is being served, the new rate is buffered and written to the table with the next flush of
+     * the aggregator, which also re-ranks it, or written and re-ranked before returning where the aggregator writes
+     * through. Otherwise it is written, and re-ranked if it has been indexed since, before returning.
      * @param request The service request to update the CTR
      * @return The updated targeting group
      */
@@ -35,7 +48,16 @@ public class UpdateClickThroughRateActivity {
         String targetingGroupId = request.getTargetingGroupId();
         LOG.info(String.format("Updating CTR for targeting group with id: %s to %.3f", targetingGroupId, ctr));
 
-        TargetingGroup group = targetingGroupDao.update(targetingGroupId, ctr);
+        TargetingGroup group;
+        TargetingGroup indexedGroup = targetingIndex.getTargetingGroup(targetingGroupId);
+        if (indexedGroup != null) {
+            clickThroughRateAggregator.update(targetingGroupId, ctr);
+            group = new TargetingGroup(targetingGroupId, indexedGroup.getContentId(), ctr,
+                indexedGroup.getTargetingPredicates());
+        } else {
+            group = targetingGroupDao.updateAndGet(targetingGroupId, ctr);
+            targetingIndex.updateClickThroughRate(targetingGroupId, ctr);
+        }
 
         return UpdateClickThroughRateResponse.builder()
                 .withTargetingGroup(TargetingGroupTranslator.toCoral(group))
@@ -3,7 +3,9 @@ package com.amazon.ata.advertising.service.activity;
 import com.amazon.ata.advertising.service.model.AdvertisingContent;
 import com.amazon.ata.advertising.service.model.requests.UpdateContentRequest;
 import com.amazon.ata.advertising.service.model.responses.UpdateContentResponse;
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 import com.amazon.ata.advertising.service.dao.ContentDao;
+import com.amazon.ata.advertising.service.dao.MarketplaceContentCache;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
 import com.amazon.ata.advertising.service.model.translator.AdvertisementContentTranslator;
@@ -22,16 +24,23 @@ public class UpdateContentActivity {
 
     private final ContentDao contentDao;
     private final TargetingGroupDao targetingGroupDao;
+    private final MarketplaceContentCache contentCache;
+    private final MarketplaceTargetingIndex targetingIndex;
 
     /**
      * Instantiates an UpdateContentActivity.
      * @param contentDao The source of data for content
      * @param targetingGroupDao The source of data for targeting groups
+     * @param contentCache Snapshots of content to invalidate
+     * @param targetingIndex Ranked targeting groups to move the content in
      */
     @Inject
-    public UpdateContentActivity(ContentDao contentDao, TargetingGroupDao targetingGroupDao) {
+    public UpdateContentActivity(ContentDao contentDao, TargetingGroupDao targetingGroupDao,
+                                 MarketplaceContentCache contentCache, MarketplaceTargetingIndex targetingIndex) {
         this.contentDao = contentDao;
         this.targetingGroupDao = targetingGroupDao;
+        this.contentCache = contentCache;
+        this.targetingIndex = targetingIndex;
     }
 
     /**
@@ -48,8 +57,12 @@ public class UpdateContentActivity {
 
         AdvertisementContent updatedContent = contentDao.update(marketplaceId,
             AdvertisementContentTranslator.fromCoral(requestedContent));
+        // The content may have moved, so drop both the marketplace it was in and the one it is in now
+        contentCache.invalidateContent(updatedContent.getContentId());
+        contentCache.invalidate(marketplaceId);
 
         List<TargetingGroup> targetingGroups = targetingGroupDao.get(updatedContent.getContentId());
+        targetingIndex.putContent(updatedContent, targetingGroups);
         List<com.amazon.ata.advertising.service.model.TargetingGroup> coralTargetingGroup = targetingGroups.stream()
                 .map(TargetingGroupTranslator::toCoral)
                 .collect(Collectors.toList());
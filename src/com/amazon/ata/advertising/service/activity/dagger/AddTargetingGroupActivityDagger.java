@@ -2,13 +2,24 @@ package com.amazon.ata.advertising.service.activity.dagger;
 
 import com.amazon.ata.advertising.service.model.requests.AddTargetingGroupRequest;
 import com.amazon.ata.advertising.service.model.responses.AddTargetingGroupResponse;
-import com.amazon.ata.advertising.service.dependency.DaggerLambdaComponent;
 import com.amazon.ata.advertising.service.dependency.LambdaComponent;
+import com.amazon.ata.advertising.service.dependency.SharedLambdaComponent;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 
 public class AddTargetingGroupActivityDagger implements RequestHandler<AddTargetingGroupRequest, AddTargetingGroupResponse> {
-    private static final LambdaComponent dagger = DaggerLambdaComponent.create();
+    private final LambdaComponent dagger;
+
+    /**
+     * Handles requests with the component shared by every handler in the process.
+     */
+    public AddTargetingGroupActivityDagger() {
+        this(SharedLambdaComponent.get());
+    }
+
+    AddTargetingGroupActivityDagger(LambdaComponent dagger) {
+        this.dagger = dagger;
+    }
 
     @Override
     public AddTargetingGroupResponse handleRequest(AddTargetingGroupRequest addTargetingGroupRequest, Context context) {
@@ -2,13 +2,24 @@ package com.amazon.ata.advertising.service.activity.dagger;
 
 import com.amazon.ata.advertising.service.model.requests.DeleteContentRequest;
 import com.amazon.ata.advertising.service.model.responses.DeleteContentResponse;
-import com.amazon.ata.advertising.service.dependency.DaggerLambdaComponent;
 import com.amazon.ata.advertising.service.dependency.LambdaComponent;
+import com.amazon.ata.advertising.service.dependency.SharedLambdaComponent;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 
 public class DeleteContentActivityDagger implements RequestHandler<DeleteContentRequest, DeleteContentResponse> {
-    private static final LambdaComponent dagger = DaggerLambdaComponent.create();
+    private final LambdaComponent dagger;
+
+    /**
+     * Handles requests with the component shared by every handler in the process.
+     */
+    public DeleteContentActivityDagger() {
+        this(SharedLambdaComponent.get());
+    }
+
+    DeleteContentActivityDagger(LambdaComponent dagger) {
+        this.dagger = dagger;
+    }
 
     @Override
     public DeleteContentResponse handleRequest(DeleteContentRequest deleteContentRequest, Context context) {
@@ -2,13 +2,24 @@ package com.amazon.ata.advertising.service.activity.dagger;
 
 import com.amazon.ata.advertising.service.model.requests.GenerateAdvertisementRequest;
 import com.amazon.ata.advertising.service.model.responses.GenerateAdvertisementResponse;
-import com.amazon.ata.advertising.service.dependency.DaggerLambdaComponent;
 import com.amazon.ata.advertising.service.dependency.LambdaComponent;
+import com.amazon.ata.advertising.service.dependency.SharedLambdaComponent;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 
 public class GenerateAdActivityDagger implements RequestHandler<GenerateAdvertisementRequest, GenerateAdvertisementResponse> {
-    private static final LambdaComponent dagger = DaggerLambdaComponent.create();
+    private final LambdaComponent dagger;
+
+    /**
+     * Handles requests with the component shared by every handler in the process.
+     */
+    public GenerateAdActivityDagger() {
+        this(SharedLambdaComponent.get());
+    }
+
+    GenerateAdActivityDagger(LambdaComponent dagger) {
+        this.dagger = dagger;
+    }
 
     @Override
     public GenerateAdvertisementResponse handleRequest(GenerateAdvertisementRequest generateAdvertisementRequest, Context context) {
@@ -0,0 +1,30 @@
+package com.amazon.ata.advertising.service.activity.dagger;
+
+import com.amazon.ata.advertising.service.model.requests.GenerateAdvertisementsRequest;
+import com.amazon.ata.advertising.service.model.responses.GenerateAdvertisementsResponse;
+import com.amazon.ata.advertising.service.dependency.LambdaComponent;
+import com.amazon.ata.advertising.service.dependency.SharedLambdaComponent;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+
+public class GenerateAdvertisementsActivityDagger
+    implements RequestHandler<GenerateAdvertisementsRequest, GenerateAdvertisementsResponse> {
+    private final LambdaComponent dagger;
+
+    /**
+     * Handles requests with the component shared by every handler in the process.
+     */
+    public GenerateAdvertisementsActivityDagger() {
+        this(SharedLambdaComponent.get());
+    }
+
+    GenerateAdvertisementsActivityDagger(LambdaComponent dagger) {
+        this.dagger = dagger;
+    }
+
+    @Override
+    public GenerateAdvertisementsResponse handleRequest(GenerateAdvertisementsRequest generateAdvertisementsRequest,
+                                                        Context context) {
+        return dagger.provideGenerateAdvertisementsActivity().generateAds(generateAdvertisementsRequest);
+    }
+}
@@ -2,13 +2,24 @@ package com.amazon.ata.advertising.service.activity.dagger;
 
 import com.amazon.ata.advertising.service.model.requests.UpdateClickThroughRateRequest;
 import com.amazon.ata.advertising.service.model.responses.UpdateClickThroughRateResponse;
-import com.amazon.ata.advertising.service.dependency.DaggerLambdaComponent;
 import com.amazon.ata.advertising.service.dependency.LambdaComponent;
+import com.amazon.ata.advertising.service.dependency.SharedLambdaComponent;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 
 public class UpdateClickThroughRateActivityDagger implements RequestHandler<UpdateClickThroughRateRequest, UpdateClickThroughRateResponse> {
-    private static final LambdaComponent dagger = DaggerLambdaComponent.create();
+    private final LambdaComponent dagger;
+
+    /**
+     * Handles requests with the component shared by every handler in the process.
+     */
+    public UpdateClickThroughRateActivityDagger() {
+        this(SharedLambdaComponent.get());
+    }
+
+    UpdateClickThroughRateActivityDagger(LambdaComponent dagger) {
+        this.dagger = dagger;
+    }
 
     @Override
     public UpdateClickThroughRateResponse handleRequest(UpdateClickThroughRateRequest updateClickThroughRateRequest, Context context) {
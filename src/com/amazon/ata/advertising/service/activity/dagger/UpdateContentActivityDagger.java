@@ -1,14 +1,25 @@
 package com.amazon.ata.advertising.service.activity.dagger;
 
-import com.amazon.ata.advertising.service.dependency.DaggerLambdaComponent;
 import com.amazon.ata.advertising.service.dependency.LambdaComponent;
+import com.amazon.ata.advertising.service.dependency.SharedLambdaComponent;
 import com.amazon.ata.advertising.service.model.requests.UpdateContentRequest;
 import com.amazon.ata.advertising.service.model.responses.UpdateContentResponse;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestHandler;
 
 public class UpdateContentActivityDagger implements RequestHandler<UpdateContentRequest, UpdateContentResponse> {
-    private static final LambdaComponent dagger = DaggerLambdaComponent.create();
+    private final LambdaComponent dagger;
+
+    /**
+     * Handles requests with the component shared by every handler in the process.
+     */
+    public UpdateContentActivityDagger() {
+        this(SharedLambdaComponent.get());
+    }
+
+    UpdateContentActivityDagger(LambdaComponent dagger) {
+        this.dagger = dagger;
+    }
 
     @Override
     public UpdateContentResponse handleRequest(UpdateContentRequest updateContentRequest, Context context) {
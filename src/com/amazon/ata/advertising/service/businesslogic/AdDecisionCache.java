@@ -0,0 +1,158 @@
+package com.amazon.ata.advertising.service.businesslogic;
+
+import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers the content recently selected for each customer in each marketplace, so a customer reloading or paging
+ * through the site isn't evaluated again every time. Each decision is stamped with the version of the marketplace
+ * snapshot it was selected from, and is only served while that snapshot is current, so any change to content,
+ * targeting groups or click through rates invalidates it. Customer data isn't versioned, so decisions also expire a
+ * short while after they are made, which bounds how stale a customer's profile, spend or benefits can be. A decision
+ * never outlives its snapshot, so it is no staler than the MarketplaceTargetingIndex it was selected from.
+ */
+public class AdDecisionCache {
+    private final Cache<RequestContext, Decision> decisions;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong staleDecisions = new AtomicLong();
+
+    /**
+     * Creates a decision cache.
+     * @param maximumSize the most customers and marketplaces to hold a decision for
+     * @param expireAfterSeconds how old a decision gets before it can no longer be served
+     */
+    public AdDecisionCache(long maximumSize, long expireAfterSeconds) {
+        this.decisions = CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(expireAfterSeconds, TimeUnit.SECONDS)
+            .recordStats()
+            .build();
+    }
+
+    /**
+     * Creates a decision cache that holds nothing, so every selection is evaluated.
+     * @return the empty cache
+     */
+    public static AdDecisionCache disabled() {
+        return new AdDecisionCache(0, 0);
+    }
+
+    /**
+     * Gets the content recently selected for a customer.
+     * @param requestContext the customer and marketplace
+     * @param version the version of the marketplace's current snapshot
+     * @param numberOfAds how many ads the request asks for
+     * @return the ids of the content selected, highest click through rate first, or null if no decision for this
+     *     snapshot covers that many ads
+     */
+    public List<String> get(RequestContext requestContext, long version, int numberOfAds) {
+        final Decision decision = decisions.getIfPresent(cacheKey(requestContext));
+        if (decision == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        if (decision.version != version) {
+            staleDecisions.incrementAndGet();
+            misses.incrementAndGet();
+            return null;
+        }
+        // A decision for fewer ads can't say what the next ones are, unless it found fewer than it looked for
+        if (numberOfAds > decision.numberOfAds && decision.contentIds.size() == decision.numberOfAds) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return decision.contentIds.subList(0, Math.min(numberOfAds, decision.contentIds.size()));
+    }
+
+    /**
+     * Remembers the content selected for a customer. Only complete selections should be remembered, not ones cut
+     * short by the deadline.
+     * @param requestContext the customer and marketplace
+     * @param version the version of the marketplace snapshot the content was selected from
+     * @param numberOfAds how many ads the request asked for
+     * @param contentIds the ids of the content selected, highest click through rate first
+     */
+    public void put(RequestContext requestContext, long version, int numberOfAds, List<String> contentIds) {
+        decisions.put(cacheKey(requestContext), new Decision(version, numberOfAds, contentIds));
+    }
+
+    private static RequestContext cacheKey(RequestContext requestContext) {
+        // Key on a fresh context so the cache doesn't hold on to the request's own memoized data
+        return new RequestContext(requestContext.getCustomerId(), requestContext.getMarketplaceId());
+    }
+
+    /**
+     * Gauge for the fraction of lookups served from the cache.
+     * @return the hit ratio, between 0 and 1, or 1 if there have been no lookups
+     */
+    public double getHitRatio() {
+        final long lookups = hits.get() + misses.get();
+        return lookups == 0 ? 1 : (double) hits.get() / lookups;
+    }
+
+    /**
+     * Counter for the lookups served from the cache.
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Counter for the lookups that had to select the content again.
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Counter for the decisions found but not served because the marketplace changed since they were made.
+     * @return the number of stale decisions
+     */
+    public long getStaleCount() {
+        return staleDecisions.get();
+    }
+
+    /**
+     * Counter for the decisions removed because the cache was full or they expired.
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return decisions.stats().evictionCount();
+    }
+
+    /**
+     * Publishes the cache's gauges and counters.
+     * @param metrics the reporter to publish them to
+     */
+    public void publishTo(MetricsReporter metrics) {
+        metrics.register("decisionCache.hitRatio", this::getHitRatio);
+        metrics.register("decisionCache.hits", this::getHitCount);
+        metrics.register("decisionCache.misses", this::getMissCount);
+        metrics.register("decisionCache.staleDecisions", this::getStaleCount);
+        metrics.register("decisionCache.evictions", this::getEvictionCount);
+    }
+
+    private static final class Decision {
+        private final long version;
+        private final int numberOfAds;
+        private final List<String> contentIds;
+
+        Decision(long version, int numberOfAds, List<String> contentIds) {
+            this.version = version;
+            this.numberOfAds = numberOfAds;
+            this.contentIds = Collections.unmodifiableList(contentIds);
+        }
+    }
+}
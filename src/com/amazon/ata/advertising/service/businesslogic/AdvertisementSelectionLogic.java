@@ -1,23 +1,41 @@
 package com.amazon.ata.advertising.service.businesslogic;
 
-import com.amazon.ata.advertising.service.dao.ReadableDao;
+import com.amazon.ata.advertising.service.dependency.EvaluationModule;
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.model.AdvertisementPlacement;
 import com.amazon.ata.advertising.service.model.EmptyGeneratedAdvertisement;
 import com.amazon.ata.advertising.service.model.GeneratedAdvertisement;
 import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.targeting.CompiledTargetingGroup;
+import com.amazon.ata.advertising.service.targeting.DeadlineStatistics;
+import com.amazon.ata.advertising.service.targeting.PredicateStatistics;
+import com.amazon.ata.advertising.service.targeting.SelectionEngine;
 import com.amazon.ata.advertising.service.targeting.TargetingEvaluator;
-import com.amazon.ata.advertising.service.targeting.TargetingGroup;
+import com.amazon.ata.advertising.service.targeting.TargetingGroupIndex;
+import com.amazon.ata.advertising.service.targeting.predicate.CustomerFeaturesLoader;
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicateResult;
+import com.amazon.ata.advertising.service.util.Deadline;
+import com.amazon.ata.advertising.service.util.Futures;
+import com.amazon.ata.advertising.service.util.RequestCacheStatistics;
 
-import org.apache.commons.collections4.MapUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import javax.inject.Inject;
+import javax.inject.Named;
 
 /**
  * This class is responsible for picking the advertisement to be rendered.
@@ -26,25 +44,62 @@ public class AdvertisementSelectionLogic {
 
     private static final Logger LOG = LogManager.getLogger(AdvertisementSelectionLogic.class);
 
-    private final ReadableDao<String, List<AdvertisementContent>> contentDao;
-    private final ReadableDao<String, List<TargetingGroup>> targetingGroupDao;
+    private final MarketplaceTargetingIndex targetingIndex;
+    private final PredicateStatistics predicateStatistics;
+    private final int speculativeGroups;
+    private final int remotePredicatesInFlight;
+    private final DeadlineStatistics deadlineStatistics;
+    private final long selectionDeadlineMillis;
+    private final SelectionEngine selectionEngine;
+    private final CustomerFeaturesLoader customerFeaturesLoader;
+    private final AdDecisionCache decisionCache;
+    private final RequestCacheStatistics requestCacheStatistics;
 
     /**
      * Constructor for AdvertisementSelectionLogic.
-     * @param contentDao Source of advertising content.
-     * @param targetingGroupDao Source of targeting groups for each advertising content.
+     * @param targetingIndex Advertising content and its targeting groups, ranked by click through rate.
+     * @param predicateStatistics Observed cost and selectivity used to order predicate evaluation.
+     * @param speculativeGroups How many targeting groups to evaluate at once.
+     * @param remotePredicatesInFlight How many of a targeting group's remote predicates to evaluate at once.
+     * @param deadlineStatistics Counts the selections that ran out of time.
+     * @param selectionDeadlineMillis How long a selection may wait on downstream calls, or zero to wait as long as
+     *                                they take.
+     * @param selectionEngine How to find the targeting groups to evaluate.
+     * @param customerFeaturesLoader Loads the customer features the PREDICATE_INDEX engine retrieves groups with.
+     * @param decisionCache The content recently selected for each customer.
+     * @param requestCacheStatistics Adds up the request cache lookups of every selection.
      */
     @Inject
-    public AdvertisementSelectionLogic(ReadableDao<String, List<AdvertisementContent>> contentDao,
-                                       ReadableDao<String, List<TargetingGroup>> targetingGroupDao) {
-        this.contentDao = contentDao;
-        this.targetingGroupDao = targetingGroupDao;
+    public AdvertisementSelectionLogic(MarketplaceTargetingIndex targetingIndex,
+                                       PredicateStatistics predicateStatistics,
+                                       @Named(EvaluationModule.SPECULATIVE_GROUPS) int speculativeGroups,
+                                       @Named(EvaluationModule.REMOTE_PREDICATES_IN_FLIGHT)
+                                       int remotePredicatesInFlight,
+                                       DeadlineStatistics deadlineStatistics,
+                                       @Named(EvaluationModule.SELECTION_DEADLINE_MILLIS)
+                                       long selectionDeadlineMillis,
+                                       @Named(EvaluationModule.SELECTION_ENGINE) SelectionEngine selectionEngine,
+                                       CustomerFeaturesLoader customerFeaturesLoader,
+                                       AdDecisionCache decisionCache,
+                                       RequestCacheStatistics requestCacheStatistics) {
+        this.targetingIndex = targetingIndex;
+        this.predicateStatistics = predicateStatistics;
+        this.speculativeGroups = speculativeGroups;
+        this.remotePredicatesInFlight = remotePredicatesInFlight;
+        this.deadlineStatistics = deadlineStatistics;
+        this.selectionDeadlineMillis = selectionDeadlineMillis;
+        this.selectionEngine = selectionEngine;
+        this.customerFeaturesLoader = customerFeaturesLoader;
+        this.decisionCache = decisionCache;
+        this.requestCacheStatistics = requestCacheStatistics;
     }
 
     /**
      * Gets all of the content and metadata for the marketplace and determines which content can be shown.  Returns the
      * eligible content with the highest click through rate.  If no advertisement is available or eligible, returns an
-     * EmptyGeneratedAdvertisement.
+     * EmptyGeneratedAdvertisement.  Targeting groups that can't be proven eligible by the deadline are skipped, so the
+     * best advertisement proven eligible in time is returned. Targeting groups whose evaluation fails are skipped the
+     * same way.
      *
      * @param customerId - the customer to generate a custom advertisement for
      * @param marketplaceId - the id of the marketplace the advertisement will be rendered on
@@ -52,33 +107,266 @@ public class AdvertisementSelectionLogic {
      *     not be generated.
      */
     public GeneratedAdvertisement selectAdvertisement(String customerId, String marketplaceId) {
-        GeneratedAdvertisement generatedAdvertisement = new EmptyGeneratedAdvertisement();
         if (StringUtils.isEmpty(marketplaceId)) {
             LOG.warn("MarketplaceId cannot be null or empty. Returning empty ad.");
-        } else {
-            final RequestContext requestContext = new RequestContext(customerId, marketplaceId);
-            final TargetingEvaluator evaluator = new TargetingEvaluator(requestContext);
-            final Comparator<TargetingGroup> sortByCTR = Comparator.comparingDouble(TargetingGroup::getClickThroughRate)
-                .reversed();
-            final SortedMap<TargetingGroup, AdvertisementContent> eligibleAdvertisements = new TreeMap<>(sortByCTR);
-            final List<AdvertisementContent> contents = contentDao.get(marketplaceId);
-
-            for (AdvertisementContent content : contents) {
-                List<TargetingGroup> targetingGroups = targetingGroupDao.get(content.getContentId());
-                targetingGroups.stream()
-                    .sorted(sortByCTR)
-                    .filter(targetingGroup -> evaluator.evaluate(targetingGroup).isTrue())
-                    .findFirst()
-                    .ifPresent(targetingGroup -> eligibleAdvertisements.put(targetingGroup, content));
+            return new EmptyGeneratedAdvertisement();
+        }
+        return toGeneratedAdvertisement(Futures.getUnchecked(selectContents(new RequestContext(customerId,
+            marketplaceId, newDeadline()), 1)));
+    }
+
+    /**
+     * Selects the advertisements for a page with several ad slots in one evaluation pass. Returns the eligible
+     * content with the highest click through rates, each content at most once, highest click through rate first.
+     * Evaluation stops as soon as the winners are known, or at the deadline with the winners proven by then.
+     *
+     * @param customerId - the customer to generate custom advertisements for
+     * @param marketplaceId - the id of the marketplace the advertisements will be rendered on
+     * @param numberOfAds - the most advertisements to return
+     * @return up to numberOfAds advertisements with distinct content. Empty if the marketplace id is missing or no
+     *     content is eligible.
+     */
+    public List<GeneratedAdvertisement> selectAdvertisements(String customerId, String marketplaceId,
+                                                             int numberOfAds) {
+        if (StringUtils.isEmpty(marketplaceId)) {
+            LOG.warn("MarketplaceId cannot be null or empty. Returning no ads.");
+            return Collections.emptyList();
+        }
+        if (numberOfAds < 1) {
+            return Collections.emptyList();
+        }
+        return Futures.getUnchecked(selectContents(new RequestContext(customerId, marketplaceId, newDeadline()),
+            numberOfAds))
+            .stream()
+            .map(GeneratedAdvertisement::new)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Selects an advertisement for every placement in a batch. Placements for the same customer and marketplace share
+     * one selection, and so one set of downstream lookups, which picks as many distinct contents as there are
+     * placements. The contents are handed out in the order the placements appear in the request, highest click through
+     * rate first, so a page never shows the same ad twice. Selections for different customers are evaluated
+     * concurrently, all against one deadline.
+     *
+     * @param placements - the customers and marketplaces to generate advertisements for
+     * @return one future per placement, in the same order as the placements. A future completes with an empty
+     *     advertisement if the placement has no marketplace or no eligible content is left for it, and completes
+     *     exceptionally if its selection failed.
+     */
+    public List<CompletableFuture<GeneratedAdvertisement>> selectAdvertisements(
+        List<AdvertisementPlacement> placements) {
+        final Deadline deadline = newDeadline();
+        final Map<RequestContext, Integer> placementCounts = new HashMap<>();
+        for (AdvertisementPlacement placement : placements) {
+            if (!StringUtils.isEmpty(placement.getMarketplaceId())) {
+                placementCounts.merge(new RequestContext(placement.getCustomerId(), placement.getMarketplaceId(),
+                    deadline), 1, Integer::sum);
             }
+        }
 
-            if (MapUtils.isNotEmpty(eligibleAdvertisements)) {
-                final TargetingGroup highestCTRGroup = eligibleAdvertisements.firstKey();
-                final AdvertisementContent contentToRender = eligibleAdvertisements.get(highestCTRGroup);
-                generatedAdvertisement = new GeneratedAdvertisement(contentToRender);
+        final Map<RequestContext, CompletableFuture<List<AdvertisementContent>>> selections = new HashMap<>();
+        final Map<RequestContext, Integer> placementsHandedOut = new HashMap<>();
+        final List<CompletableFuture<GeneratedAdvertisement>> advertisements = new ArrayList<>(placements.size());
+        for (AdvertisementPlacement placement : placements) {
+            if (StringUtils.isEmpty(placement.getMarketplaceId())) {
+                LOG.warn(String.format("MarketplaceId cannot be null or empty for slot %s. Returning empty ad.",
+                    placement.getSlot()));
+                advertisements.add(CompletableFuture.completedFuture(new EmptyGeneratedAdvertisement()));
+                continue;
             }
+            final RequestContext key = new RequestContext(placement.getCustomerId(), placement.getMarketplaceId(),
+                deadline);
+            final CompletableFuture<List<AdvertisementContent>> selection = selections.computeIfAbsent(key,
+                requestContext -> selectContents(requestContext, placementCounts.get(requestContext)));
+            final int position = placementsHandedOut.merge(key, 1, Integer::sum) - 1;
+            advertisements.add(selection.thenApply(contents -> position < contents.size() ?
+                new GeneratedAdvertisement(contents.get(position)) : new EmptyGeneratedAdvertisement()));
         }
+        return advertisements;
+    }
+
+    private Deadline newDeadline() {
+        return selectionDeadlineMillis > 0 ?
+            Deadline.after(selectionDeadlineMillis, TimeUnit.MILLISECONDS) : Deadline.none();
+    }
+
+    private GeneratedAdvertisement toGeneratedAdvertisement(List<AdvertisementContent> contents) {
+        return contents.isEmpty() ? new EmptyGeneratedAdvertisement() : new GeneratedAdvertisement(contents.get(0));
+    }
+
+    private CompletableFuture<List<AdvertisementContent>> selectContents(RequestContext requestContext,
+                                                                         int numberOfAds) {
+        final TargetingEvaluator evaluator = new TargetingEvaluator(requestContext, predicateStatistics,
+            remotePredicatesInFlight);
+        final MarketplaceTargetingSnapshot snapshot = targetingIndex.get(requestContext.getMarketplaceId());
+        final boolean expiredLoadingIndex = requestContext.getDeadline().isExpired();
+
+        if (!requestContext.isRecognizedCustomer()) {
+            return selectAnonymousContents(snapshot, evaluator, expiredLoadingIndex, numberOfAds);
+        }
+        final List<String> decidedContentIds = decisionCache.get(requestContext, snapshot.getVersion(), numberOfAds);
+        if (decidedContentIds != null) {
+            deadlineStatistics.record(expiredLoadingIndex ? DeadlineStatistics.Stage.TARGETING_INDEX : null);
+            return CompletableFuture.completedFuture(decidedContentIds.stream()
+                .map(snapshot::getContent)
+                .collect(Collectors.toList()));
+        }
+
+        final CompletableFuture<List<CompiledTargetingGroup>> candidates = selectionEngine ==
+            SelectionEngine.PREDICATE_INDEX ? retrieveCandidates(requestContext, snapshot) :
+            CompletableFuture.completedFuture(snapshot.getRankedGroups());
+
+        return candidates.thenCompose(groups -> new EligibilitySearch(groups, evaluator, numberOfAds).start())
+            .whenComplete((groups, error) -> {
+                if (expiredLoadingIndex) {
+                    deadlineStatistics.record(DeadlineStatistics.Stage.TARGETING_INDEX);
+                } else if (evaluator.hasHitDeadline()) {
+                    deadlineStatistics.record(DeadlineStatistics.Stage.PREDICATE_EVALUATION);
+                } else {
+                    deadlineStatistics.record(null);
+                }
+                if (error == null && !expiredLoadingIndex && !evaluator.hasHitDeadline()) {
+                    // Only a complete selection is remembered, so a deadline hit doesn't stick for the whole TTL
+                    decisionCache.put(requestContext, snapshot.getVersion(), numberOfAds, groups.stream()
+                        .map(group -> group.getTargetingGroup().getContentId())
+                        .collect(Collectors.toList()));
+                }
+                requestCacheStatistics.record(requestContext.getRequestCache());
+                LOG.debug(String.format(
+                    "Request cache for customer %s: %d hits, %d misses, %d coalesced. Deadline hit: %s.",
+                    requestContext.getCustomerId(), requestContext.getRequestCache().getHitCount(),
+                    requestContext.getRequestCache().getMissCount(),
+                    requestContext.getRequestCache().getCoalescedCount(), evaluator.hasHitDeadline()));
+            })
+            .thenApply(groups -> groups.stream()
+                .map(group -> snapshot.getContent(group.getTargetingGroup().getContentId()))
+                .collect(Collectors.toList()));
+    }
 
-        return generatedAdvertisement;
+    /**
+     * Every anonymous request in a marketplace gets the same answer, so the snapshot works it out once and each
+     * request after that only looks it up.
+     */
+    private CompletableFuture<List<AdvertisementContent>> selectAnonymousContents(
+        MarketplaceTargetingSnapshot snapshot, TargetingEvaluator evaluator, boolean expiredLoadingIndex,
+        int numberOfAds) {
+        final CompletableFuture<List<AdvertisementContent>> contents = new CompletableFuture<>();
+        try {
+            final List<AdvertisementContent> winners = snapshot.getAnonymousWinners(evaluator);
+            contents.complete(winners.subList(0, Math.min(numberOfAds, winners.size())));
+        } catch (RuntimeException e) {
+            contents.completeExceptionally(e);
+        }
+        deadlineStatistics.record(expiredLoadingIndex ? DeadlineStatistics.Stage.TARGETING_INDEX : null);
+        return contents;
+    }
+
+    /**
+     * Retrieves the targeting groups the recognized customer may be eligible for from the marketplace's index. The
+     * candidates are still evaluated, which costs little once the customer's features are loaded, so both engines
+     * select the same ads. If the features can't be loaded by the deadline, every group is a candidate.
+     */
+    private CompletableFuture<List<CompiledTargetingGroup>> retrieveCandidates(RequestContext requestContext,
+                                                                               MarketplaceTargetingSnapshot snapshot) {
+        final TargetingGroupIndex index = snapshot.getTargetingGroupIndex();
+        final CompletableFuture<List<CompiledTargetingGroup>> candidates = new CompletableFuture<>();
+        customerFeaturesLoader.loadAsync(requestContext).whenComplete((features, error) -> {
+            if (error != null) {
+                LOG.warn(String.format("Unable to load the features of customer %s. Evaluating every targeting group.",
+                    requestContext.getCustomerId()), error);
+                candidates.complete(snapshot.getRankedGroups());
+            } else {
+                candidates.complete(index.candidatesForRecognizedCustomer(features));
+            }
+        });
+        requestContext.getDeadline().completeAtExpiry(candidates, snapshot.getRankedGroups(), () -> { });
+        return candidates;
+    }
+
+    /**
+     * Walks the targeting groups in order and collects the first ones that evaluate to TRUE, one per content. A few
+     * groups further down the list are evaluated speculatively while waiting on the current one, and every evaluation
+     * still outstanding is cancelled once the answer is known, so groups ranked below the last winner rarely cause a
+     * downstream call. No thread waits on a pending evaluation; the walk resumes on whichever thread completes it.
+     */
+    private class EligibilitySearch {
+        private final List<CompiledTargetingGroup> rankedGroups;
+        private final TargetingEvaluator evaluator;
+        private final int numberOfWinners;
+        private final List<CompletableFuture<TargetingPredicateResult>> evaluations;
+        private final List<CompiledTargetingGroup> winners = new ArrayList<>();
+        private final Set<String> winningContentIds = new HashSet<>();
+        private final CompletableFuture<List<CompiledTargetingGroup>> result = new CompletableFuture<>();
+
+        EligibilitySearch(List<CompiledTargetingGroup> rankedGroups, TargetingEvaluator evaluator,
+                          int numberOfWinners) {
+            this.rankedGroups = rankedGroups;
+            this.evaluator = evaluator;
+            this.numberOfWinners = numberOfWinners;
+            this.evaluations = new ArrayList<>(rankedGroups.size());
+        }
+
+        /**
+         * Starts the walk.
+         * @return the eligible targeting groups with distinct content, highest click through rate first
+         */
+        CompletableFuture<List<CompiledTargetingGroup>> start() {
+            result.whenComplete((groups, error) -> evaluations.forEach(evaluation -> evaluation.cancel(false)));
+            resume(0);
+            return result;
+        }
+
+        private void resume(int startRank) {
+            if (result.isDone()) {
+                // Evaluations cancelled once the winners are known still call back here
+                return;
+            }
+            try {
+                for (int rank = startRank; rank < rankedGroups.size(); rank++) {
+                    while (evaluations.size() < rankedGroups.size() && evaluations.size() < rank + speculativeGroups) {
+                        evaluations.add(evaluateUnlessWon(rankedGroups.get(evaluations.size())));
+                    }
+                    final CompletableFuture<TargetingPredicateResult> evaluation = evaluations.get(rank);
+                    if (!evaluation.isDone()) {
+                        final int pendingRank = rank;
+                        evaluation.whenComplete((evaluationResult, error) -> resume(pendingRank));
+                        return;
+                    }
+                    final CompiledTargetingGroup group = rankedGroups.get(rank);
+                    final String contentId = group.getTargetingGroup().getContentId();
+                    if (isEligible(group, evaluation) && winningContentIds.add(contentId)) {
+                        winners.add(group);
+                        if (winners.size() == numberOfWinners) {
+                            break;
+                        }
+                    }
+                }
+                result.complete(winners);
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        }
+
+        private boolean isEligible(CompiledTargetingGroup group,
+                                   CompletableFuture<TargetingPredicateResult> evaluation) {
+            try {
+                return evaluation.join().isTrue();
+            } catch (CompletionException | CancellationException e) {
+                // A group that can't be evaluated isn't proven eligible, so keep looking further down the ranking
+                deadlineStatistics.recordFailedEvaluation();
+                LOG.warn(String.format("Unable to evaluate targeting group %s. Treating it as not eligible.",
+                    group.getTargetingGroup().getTargetingGroupId()), e);
+                return false;
+            }
+        }
+
+        private CompletableFuture<TargetingPredicateResult> evaluateUnlessWon(CompiledTargetingGroup group) {
+            if (winningContentIds.contains(group.getTargetingGroup().getContentId())) {
+                // A higher ranked group already won this content, so this group cannot add another ad
+                return CompletableFuture.completedFuture(TargetingPredicateResult.FALSE);
+            }
+            return evaluator.evaluateAsync(group);
+        }
     }
 }
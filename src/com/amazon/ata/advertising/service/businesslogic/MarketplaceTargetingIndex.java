@@ -0,0 +1,295 @@
+package com.amazon.ata.advertising.service.businesslogic;
+
+import com.amazon.ata.advertising.service.dao.BatchReadableDao;
+import com.amazon.ata.advertising.service.dao.ReadableDao;
+import com.amazon.ata.advertising.service.dependency.TargetingPredicateInjector;
+import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.targeting.CompiledTargetingGroup;
+import com.amazon.ata.advertising.service.targeting.TargetingGroup;
+import com.amazon.ata.advertising.service.util.EncryptionUtil;
+import com.amazon.ata.advertising.service.util.Futures;
+
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a MarketplaceTargetingSnapshot for every marketplace ads are served in, so selecting an ad only has to walk a
+ * list that is already ranked by click through rate. The write activities update the snapshots as content and targeting
+ * groups change, the ClickThroughRateAggregator re-ranks the click through rates each flush writes, and every snapshot
+ * is rebuilt in the background on a fixed interval to pick up changes made elsewhere.
+ *
+ * Every handler in a process shares one index through SharedLambdaComponent, so a change to content or targeting groups
+ * made through this process is served by its next request, and a click through rate once it has been flushed. A change
+ * made by another process, such as another Lambda container, only arrives with the next rebuild. Targeting groups and
+ * click through rates are read from DynamoDB, so they can be stale for up to the rebuild interval. Content is read
+ * through the MarketplaceContentCache, so it can be stale for up to the rebuild interval plus the content reload
+ * interval, six minutes with the default settings.
+ *
+ * A marketplace is built the first time it is requested. Concurrent requests for it share that build, which runs
+ * outside the map's locks so it never holds up other marketplaces. A change that arrives while a marketplace is still
+ * being built drops the build, since it may have read data from before the change, and the next request builds the
+ * marketplace again.
+ *
+ * Equal predicates are canonicalized as targeting groups are compiled, so every group that uses a predicate shares one
+ * instance of it and a request evaluates it once.
+ */
+public class MarketplaceTargetingIndex {
+    private static final Logger LOG = LogManager.getLogger(MarketplaceTargetingIndex.class);
+
+    private final ReadableDao<String, List<AdvertisementContent>> contentDao;
+    private final BatchReadableDao<String, List<TargetingGroup>> targetingGroupDao;
+    private final TargetingPredicateInjector targetingPredicateInjector;
+    private final ConcurrentMap<String, CompletableFuture<MarketplaceTargetingSnapshot>> snapshots =
+        new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> marketplaceByTargetingGroup = new ConcurrentHashMap<>();
+    private final AtomicLong versions = new AtomicLong();
+    private final Interner<TargetingPredicate> canonicalPredicates = Interners.newWeakInterner();
+
+    /**
+     * Creates an index that rebuilds every snapshot it holds on a fixed interval.
+     * @param contentDao source of advertising content
+     * @param targetingGroupDao source of targeting groups for each advertising content
+     * @param targetingPredicateInjector injects the dependencies into the predicates of new targeting groups
+     * @param rebuildIntervalSeconds how often to rebuild the snapshots
+     */
+    public MarketplaceTargetingIndex(ReadableDao<String, List<AdvertisementContent>> contentDao,
+                                     BatchReadableDao<String, List<TargetingGroup>> targetingGroupDao,
+                                     TargetingPredicateInjector targetingPredicateInjector,
+                                     long rebuildIntervalSeconds) {
+        this.contentDao = contentDao;
+        this.targetingGroupDao = targetingGroupDao;
+        this.targetingPredicateInjector = targetingPredicateInjector;
+        ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("marketplace-targeting-rebuild-%d")
+            .setDaemon(true)
+            .build());
+        rebuilder.scheduleWithFixedDelay(this::rebuildAll, rebuildIntervalSeconds, rebuildIntervalSeconds,
+            TimeUnit.SECONDS);
+    }
+
+    /**
+     * Gets the current snapshot for a marketplace, building it if the marketplace isn't indexed yet.
+     * @param marketplaceId the marketplace to get the snapshot for
+     * @return the marketplace's content and ranked targeting groups
+     */
+    public MarketplaceTargetingSnapshot get(String marketplaceId) {
+        final String encryptedMarketplaceId = EncryptionUtil.encryptMarketplaceId(marketplaceId);
+        final CompletableFuture<MarketplaceTargetingSnapshot> snapshot = snapshots.get(encryptedMarketplaceId);
+        if (snapshot != null) {
+            return Futures.getUnchecked(snapshot);
+        }
+
+        final CompletableFuture<MarketplaceTargetingSnapshot> build = new CompletableFuture<>();
+        final CompletableFuture<MarketplaceTargetingSnapshot> inFlightBuild =
+            snapshots.putIfAbsent(encryptedMarketplaceId, build);
+        if (inFlightBuild != null) {
+            return Futures.getUnchecked(inFlightBuild);
+        }
+        try {
+            final MarketplaceTargetingSnapshot builtSnapshot = build(encryptedMarketplaceId);
+            registerTargetingGroups(encryptedMarketplaceId, builtSnapshot);
+            build.complete(builtSnapshot);
+            return builtSnapshot;
+        } catch (RuntimeException e) {
+            // Don't keep the failure, so the next request tries again
+            snapshots.remove(encryptedMarketplaceId, build);
+            build.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets a targeting group from the marketplace it is indexed in.
+     * @param targetingGroupId the id of the targeting group
+     * @return the targeting group as it is currently ranked, or null if it isn't in any indexed marketplace
+     */
+    public TargetingGroup getTargetingGroup(String targetingGroupId) {
+        final String marketplaceId = marketplaceByTargetingGroup.get(targetingGroupId);
+        if (marketplaceId == null) {
+            return null;
+        }
+        final CompletableFuture<MarketplaceTargetingSnapshot> snapshot = snapshots.get(marketplaceId);
+        final TargetingGroup group = snapshot != null && isBuilt(snapshot) ?
+            snapshot.join().getTargetingGroup(targetingGroupId) : null;
+        if (group == null) {
+            // The group was removed by a rebuild, or its marketplace was dropped
+            marketplaceByTargetingGroup.remove(targetingGroupId, marketplaceId);
+        }
+        return group;
+    }
+
+    /**
+     * Re-ranks a targeting group after its click through rate changed.
+     * @param targetingGroupId the targeting group that changed
+     * @param clickThroughRate its new click through rate
+     * @return the updated targeting group, or null if it isn't in any indexed marketplace
+     */
+    public TargetingGroup updateClickThroughRate(String targetingGroupId, double clickThroughRate) {
+        updateClickThroughRates(Collections.singletonMap(targetingGroupId, clickThroughRate));
+        return getTargetingGroup(targetingGroupId);
+    }
+
+    /**
+     * Re-ranks targeting groups after their click through rates changed. Each marketplace the groups are in gets one
+     * new snapshot for the whole batch, and no other marketplace is touched.
+     * @param clickThroughRates the new click through rate of each changed targeting group, by id
+     */
+    public void updateClickThroughRates(Map<String, Double> clickThroughRates) {
+        final Map<String, Map<String, Double>> ratesByMarketplace = new HashMap<>();
+        boolean unindexedGroups = false;
+        for (Map.Entry<String, Double> rate : clickThroughRates.entrySet()) {
+            final String marketplaceId = marketplaceByTargetingGroup.get(rate.getKey());
+            if (marketplaceId == null) {
+                unindexedGroups = true;
+            } else {
+                ratesByMarketplace.computeIfAbsent(marketplaceId, id -> new HashMap<>())
+                    .put(rate.getKey(), rate.getValue());
+            }
+        }
+        if (unindexedGroups) {
+            // A group may be in a marketplace that is still being built, which may have read the old rate
+            dropInFlightBuilds();
+        }
+        for (Map.Entry<String, Map<String, Double>> rates : ratesByMarketplace.entrySet()) {
+            snapshots.computeIfPresent(rates.getKey(), (id, snapshot) -> isBuilt(snapshot) ?
+                CompletableFuture.completedFuture(snapshot.join()
+                    .withClickThroughRates(versions.incrementAndGet(), rates.getValue())) : null);
+        }
+    }
+
+    /**
+     * Adds a new targeting group to the marketplace its content is in.
+     * @param targetingGroup the new targeting group
+     */
+    public void addTargetingGroup(TargetingGroup targetingGroup) {
+        final CompiledTargetingGroup compiledGroup = compile(targetingGroup);
+        updateEach(snapshot -> snapshot.containsContent(targetingGroup.getContentId()),
+            snapshot -> snapshot.withTargetingGroup(versions.incrementAndGet(), compiledGroup));
+    }
+
+    /**
+     * Adds a new or updated piece of content with all of its targeting groups to the marketplace it is in, removing
+     * it from any marketplace it moved out of.
+     * @param content the content that changed, including the marketplace it is now in
+     * @param targetingGroups every targeting group of the content
+     */
+    public void putContent(AdvertisementContent content, Collection<TargetingGroup> targetingGroups) {
+        removeContent(content.getContentId());
+        final List<CompiledTargetingGroup> compiledGroups = targetingGroups.stream()
+            .map(this::compile)
+            .collect(Collectors.toList());
+        final String encryptedMarketplaceId = EncryptionUtil.encryptMarketplaceId(content.getMarketplaceId());
+        snapshots.computeIfPresent(encryptedMarketplaceId, (id, snapshot) -> {
+            if (!isBuilt(snapshot)) {
+                return null;
+            }
+            final MarketplaceTargetingSnapshot updated =
+                snapshot.join().withContent(versions.incrementAndGet(), content, compiledGroups);
+            registerTargetingGroups(id, updated);
+            return CompletableFuture.completedFuture(updated);
+        });
+    }
+
+    /**
+     * Removes a deleted piece of content and all of its targeting groups.
+     * @param contentId the content that was deleted
+     */
+    public void removeContent(String contentId) {
+        updateEach(snapshot -> snapshot.containsContent(contentId),
+            snapshot -> snapshot.withoutContent(versions.incrementAndGet(), contentId));
+        // Mappings left behind for the removed groups are dropped the next time they are looked up
+    }
+
+    /**
+     * Applies a change to every built snapshot it affects, and drops every build still in flight.
+     * @param affected whether a snapshot is affected by the change
+     * @param change creates the changed snapshot
+     */
+    private void updateEach(Predicate<MarketplaceTargetingSnapshot> affected,
+                            UnaryOperator<MarketplaceTargetingSnapshot> change) {
+        for (String marketplaceId : snapshots.keySet()) {
+            snapshots.computeIfPresent(marketplaceId, (id, snapshot) -> {
+                if (!isBuilt(snapshot)) {
+                    return null;
+                }
+                if (!affected.test(snapshot.join())) {
+                    return snapshot;
+                }
+                final MarketplaceTargetingSnapshot updated = change.apply(snapshot.join());
+                registerTargetingGroups(id, updated);
+                return CompletableFuture.completedFuture(updated);
+            });
+        }
+    }
+
+    private void dropInFlightBuilds() {
+        for (String marketplaceId : snapshots.keySet()) {
+            snapshots.computeIfPresent(marketplaceId, (id, snapshot) -> isBuilt(snapshot) ? snapshot : null);
+        }
+    }
+
+    private void registerTargetingGroups(String encryptedMarketplaceId, MarketplaceTargetingSnapshot snapshot) {
+        snapshot.getTargetingGroupIds().forEach(id -> marketplaceByTargetingGroup.put(id, encryptedMarketplaceId));
+    }
+
+    private static boolean isBuilt(CompletableFuture<MarketplaceTargetingSnapshot> snapshot) {
+        return snapshot.isDone() && !snapshot.isCompletedExceptionally();
+    }
+
+    private CompiledTargetingGroup compile(TargetingGroup targetingGroup) {
+        targetingGroup.getTargetingPredicates().forEach(targetingPredicateInjector::inject);
+        return CompiledTargetingGroup.compile(targetingGroup, canonicalPredicates);
+    }
+
+    private MarketplaceTargetingSnapshot build(String encryptedMarketplaceId) {
+        final List<AdvertisementContent> contents = contentDao.get(encryptedMarketplaceId);
+        final Map<String, List<TargetingGroup>> targetingGroupsByContent = targetingGroupDao.getAll(contents.stream()
+            .map(AdvertisementContent::getContentId)
+            .collect(Collectors.toList()));
+        final List<CompiledTargetingGroup> compiledGroups = targetingGroupsByContent.values()
+            .stream()
+            .flatMap(List::stream)
+            .map(targetingGroup -> CompiledTargetingGroup.compile(targetingGroup, canonicalPredicates))
+            .collect(Collectors.toList());
+        return MarketplaceTargetingSnapshot.of(versions.incrementAndGet(), contents, compiledGroups);
+    }
+
+    private void rebuildAll() {
+        for (Map.Entry<String, CompletableFuture<MarketplaceTargetingSnapshot>> snapshot : snapshots.entrySet()) {
+            if (!isBuilt(snapshot.getValue())) {
+                continue;
+            }
+            try {
+                // Only replace the snapshot we read, so a rebuild can't undo a change made while it was running
+                final MarketplaceTargetingSnapshot rebuilt = build(snapshot.getKey());
+                if (snapshots.replace(snapshot.getKey(), snapshot.getValue(),
+                        CompletableFuture.completedFuture(rebuilt))) {
+                    registerTargetingGroups(snapshot.getKey(), rebuilt);
+                }
+            } catch (RuntimeException e) {
+                LOG.warn(String.format("Unable to rebuild targeting for marketplace %s. Keeping the current snapshot.",
+                    snapshot.getKey()), e);
+            }
+        }
+    }
+}
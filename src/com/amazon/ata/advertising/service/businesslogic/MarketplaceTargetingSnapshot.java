@@ -0,0 +1,218 @@
+package com.amazon.ata.advertising.service.businesslogic;
+
+import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.targeting.CompiledTargetingGroup;
+import com.amazon.ata.advertising.service.targeting.TargetingEvaluator;
+import com.amazon.ata.advertising.service.targeting.TargetingGroup;
+import com.amazon.ata.advertising.service.targeting.TargetingGroupIndex;
+import com.amazon.ata.advertising.service.util.Futures;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An immutable view of everything needed to select an ad in one marketplace: its content, and every targeting group of
+ * that content compiled and ranked by click through rate, highest first. Changes produce a new snapshot with a higher
+ * version.
+ */
+public final class MarketplaceTargetingSnapshot {
+    private static final Comparator<CompiledTargetingGroup> BY_CTR_DESCENDING = Comparator.comparingDouble(
+        (CompiledTargetingGroup group) -> group.getTargetingGroup().getClickThroughRate()).reversed();
+
+    private final long version;
+    private final Map<String, AdvertisementContent> contentById;
+    private final List<CompiledTargetingGroup> rankedGroups;
+    private final Map<String, CompiledTargetingGroup> groupById;
+    private volatile TargetingGroupIndex targetingGroupIndex;
+    private volatile List<AdvertisementContent> anonymousWinners;
+
+    private MarketplaceTargetingSnapshot(long version,
+                                         Map<String, AdvertisementContent> contentById,
+                                         List<CompiledTargetingGroup> rankedGroups) {
+        this.version = version;
+        this.contentById = Collections.unmodifiableMap(contentById);
+        this.rankedGroups = Collections.unmodifiableList(rankedGroups);
+        final Map<String, CompiledTargetingGroup> groups = new HashMap<>();
+        rankedGroups.forEach(group -> groups.putIfAbsent(group.getTargetingGroup().getTargetingGroupId(), group));
+        this.groupById = Collections.unmodifiableMap(groups);
+    }
+
+    /**
+     * Builds a snapshot from a marketplace's content and targeting groups.
+     * @param version the version of the new snapshot
+     * @param contents the content in the marketplace
+     * @param groups the compiled targeting groups of that content
+     * @return the new snapshot
+     */
+    static MarketplaceTargetingSnapshot of(long version,
+                                           Collection<AdvertisementContent> contents,
+                                           Collection<CompiledTargetingGroup> groups) {
+        final Map<String, AdvertisementContent> contentById = new HashMap<>();
+        contents.forEach(content -> contentById.putIfAbsent(content.getContentId(), content));
+        final List<CompiledTargetingGroup> rankedGroups = new ArrayList<>(groups);
+        rankedGroups.sort(BY_CTR_DESCENDING);
+        return new MarketplaceTargetingSnapshot(version, contentById, rankedGroups);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Every targeting group in the marketplace, highest click through rate first.
+     * @return the ranked targeting groups
+     */
+    public List<CompiledTargetingGroup> getRankedGroups() {
+        return rankedGroups;
+    }
+
+    /**
+     * An index over the predicates of every targeting group in the marketplace, built the first time it is needed.
+     * @return the index, which retrieves candidates highest click through rate first
+     */
+    public TargetingGroupIndex getTargetingGroupIndex() {
+        TargetingGroupIndex index = targetingGroupIndex;
+        if (index == null) {
+            // Concurrent first callers may each build it, but the snapshot is immutable so they build the same index
+            index = TargetingGroupIndex.build(rankedGroups);
+            targetingGroupIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * The content an unrecognized customer is eligible for, selected the first time it is needed. Every predicate
+     * resolves for an unrecognized customer without a downstream call, so the answer depends only on this snapshot and
+     * is shared by every anonymous request until content, targeting groups or click through rates change.
+     * @param unrecognizedCustomerEvaluator evaluates targeting groups for an unrecognized customer, if the winners
+     *                                      haven't been selected yet
+     * @return the eligible content, each at most once, highest click through rate first
+     */
+    public List<AdvertisementContent> getAnonymousWinners(TargetingEvaluator unrecognizedCustomerEvaluator) {
+        List<AdvertisementContent> winners = anonymousWinners;
+        if (winners == null) {
+            // As with the index, concurrent first callers may each select them, but they select the same winners
+            winners = selectAnonymousWinners(unrecognizedCustomerEvaluator);
+            anonymousWinners = winners;
+        }
+        return winners;
+    }
+
+    private List<AdvertisementContent> selectAnonymousWinners(TargetingEvaluator unrecognizedCustomerEvaluator) {
+        final Set<String> winningContentIds = new HashSet<>();
+        final List<AdvertisementContent> winners = new ArrayList<>();
+        for (CompiledTargetingGroup group : rankedGroups) {
+            final String contentId = group.getTargetingGroup().getContentId();
+            if (!winningContentIds.contains(contentId) &&
+                Futures.getUnchecked(unrecognizedCustomerEvaluator.evaluateAsync(group)).isTrue()) {
+                winningContentIds.add(contentId);
+                winners.add(contentById.get(contentId));
+            }
+        }
+        return Collections.unmodifiableList(winners);
+    }
+
+    /**
+     * Gets a piece of content in the marketplace.
+     * @param contentId the id of the content
+     * @return the content, or null if it isn't in this marketplace
+     */
+    public AdvertisementContent getContent(String contentId) {
+        return contentById.get(contentId);
+    }
+
+    boolean containsContent(String contentId) {
+        return contentById.containsKey(contentId);
+    }
+
+    boolean containsTargetingGroup(String targetingGroupId) {
+        return groupById.containsKey(targetingGroupId);
+    }
+
+    Set<String> getTargetingGroupIds() {
+        return groupById.keySet();
+    }
+
+    /**
+     * Gets a targeting group in the marketplace.
+     * @param targetingGroupId the id of the targeting group
+     * @return the targeting group, or null if it isn't in this marketplace
+     */
+    TargetingGroup getTargetingGroup(String targetingGroupId) {
+        final CompiledTargetingGroup group = groupById.get(targetingGroupId);
+        return group == null ? null : group.getTargetingGroup();
+    }
+
+    /**
+     * Moves targeting groups to the ranks their new click through rates earn them. Groups that aren't in this
+     * marketplace are ignored.
+     * @param newVersion the version of the new snapshot
+     * @param clickThroughRates the new click through rate of each changed targeting group, by id
+     * @return the new snapshot
+     */
+    MarketplaceTargetingSnapshot withClickThroughRates(long newVersion, Map<String, Double> clickThroughRates) {
+        final List<CompiledTargetingGroup> updatedGroups = new ArrayList<>(rankedGroups.size());
+        for (CompiledTargetingGroup group : rankedGroups) {
+            final Double clickThroughRate = clickThroughRates.get(group.getTargetingGroup().getTargetingGroupId());
+            updatedGroups.add(clickThroughRate == null ? group : group.withClickThroughRate(clickThroughRate));
+        }
+        // The list is still almost in order, which the sort handles in close to linear time
+        updatedGroups.sort(BY_CTR_DESCENDING);
+        return new MarketplaceTargetingSnapshot(newVersion, new HashMap<>(contentById), updatedGroups);
+    }
+
+    /**
+     * Adds a targeting group to content in this marketplace.
+     * @param newVersion the version of the new snapshot
+     * @param group the new targeting group
+     * @return the new snapshot
+     */
+    MarketplaceTargetingSnapshot withTargetingGroup(long newVersion, CompiledTargetingGroup group) {
+        final List<CompiledTargetingGroup> updatedGroups = new ArrayList<>(rankedGroups);
+        insertRanked(updatedGroups, group);
+        return new MarketplaceTargetingSnapshot(newVersion, new HashMap<>(contentById), updatedGroups);
+    }
+
+    /**
+     * Adds or replaces a piece of content and all of its targeting groups.
+     * @param newVersion the version of the new snapshot
+     * @param content the new content
+     * @param groups every targeting group of the content
+     * @return the new snapshot
+     */
+    MarketplaceTargetingSnapshot withContent(long newVersion, AdvertisementContent content,
+                                             Collection<CompiledTargetingGroup> groups) {
+        final MarketplaceTargetingSnapshot withoutContent = withoutContent(newVersion, content.getContentId());
+        final Map<String, AdvertisementContent> updatedContent = new HashMap<>(withoutContent.contentById);
+        updatedContent.put(content.getContentId(), content);
+        final List<CompiledTargetingGroup> updatedGroups = new ArrayList<>(withoutContent.rankedGroups);
+        groups.forEach(group -> insertRanked(updatedGroups, group));
+        return new MarketplaceTargetingSnapshot(newVersion, updatedContent, updatedGroups);
+    }
+
+    /**
+     * Removes a piece of content and all of its targeting groups.
+     * @param newVersion the version of the new snapshot
+     * @param contentId the content to remove
+     * @return the new snapshot
+     */
+    MarketplaceTargetingSnapshot withoutContent(long newVersion, String contentId) {
+        final Map<String, AdvertisementContent> updatedContent = new HashMap<>(contentById);
+        updatedContent.remove(contentId);
+        final List<CompiledTargetingGroup> updatedGroups = new ArrayList<>(rankedGroups);
+        updatedGroups.removeIf(group -> contentId.equals(group.getTargetingGroup().getContentId()));
+        return new MarketplaceTargetingSnapshot(newVersion, updatedContent, updatedGroups);
+    }
+
+    private static void insertRanked(List<CompiledTargetingGroup> rankedGroups, CompiledTargetingGroup group) {
+        final int searchResult = Collections.binarySearch(rankedGroups, group, BY_CTR_DESCENDING);
+        rankedGroups.add(searchResult >= 0 ? searchResult : -(searchResult + 1), group);
+    }
+}
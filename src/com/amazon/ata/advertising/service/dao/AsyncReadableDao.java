@@ -0,0 +1,19 @@
+package com.amazon.ata.advertising.service.dao;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Get data from a datasource without blocking the caller. The sibling of ReadableDao, for callers that compose
+ * lookups instead of waiting on each one.
+ * @param <I> The input type needed to retrieve an object.  This may often by a query object.
+ * @param <O> The type to be retrieved from the datasource.
+ */
+public interface AsyncReadableDao<I, O> {
+
+    /**
+     * Start getting an object from the datasource.
+     * @param inputQuery The information necessary to retrieve an object.
+     * @return A future that completes with the object queried for, or exceptionally if it couldn't be retrieved.
+     */
+    CompletableFuture<O> getAsync(I inputQuery);
+}
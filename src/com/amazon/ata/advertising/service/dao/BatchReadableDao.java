@@ -0,0 +1,19 @@
+package com.amazon.ata.advertising.service.dao;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Get data from a datasource, either one object at a time or many at once.
+ * @param <I> The input type needed to retrieve an object.  This may often by a query object.
+ * @param <O> The type to be retrieved from the datasource.
+ */
+public interface BatchReadableDao<I, O> extends ReadableDao<I, O> {
+
+    /**
+     * Get the objects for many queries from the datasource at once.
+     * @param inputQueries The information necessary to retrieve each object.
+     * @return The object queried for, keyed by the query it was retrieved with.
+     */
+    Map<I, O> getAll(Collection<I> inputQueries);
+}
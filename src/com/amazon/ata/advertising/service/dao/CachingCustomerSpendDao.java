@@ -0,0 +1,210 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+import com.amazon.ata.customerservice.Spend;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.CacheStats;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches customer spend across requests. The CustomerService only refreshes spend data daily, so a customer's spend can
+ * be reused for a while. Entries are refreshed in the background once they are older than the refresh interval, so a
+ * customer who keeps coming back is served from the cache while the new value loads, and are evicted when they are
+ * older than the expiry or the cache is full. Concurrent misses for the same customer share one load.
+ */
+public class CachingCustomerSpendDao implements ReadableDao<RequestContext, Map<String, Spend>>,
+                                                AsyncReadableDao<RequestContext, Map<String, Spend>> {
+    private final AsyncReadableDao<RequestContext, Map<String, Spend>> asyncSpendDao;
+    private final LoadingCache<RequestContext, Map<String, Spend>> cache;
+    private final ConcurrentMap<RequestContext, CompletableFuture<Map<String, Spend>>> inFlightLoads =
+        new ConcurrentHashMap<>();
+    private final AtomicLong asyncLoads = new AtomicLong();
+    private final AtomicLong asyncLoadFailures = new AtomicLong();
+    private final AtomicLong asyncLoadNanos = new AtomicLong();
+    private final AtomicLong coalescedLoads = new AtomicLong();
+
+    /**
+     * Wraps a spend Dao in a cache.
+     * @param spendDao the Dao to load spend from on a cache miss or refresh
+     * @param maximumSize the most customers to hold spend for
+     * @param refreshAfterMinutes how old an entry gets before it is reloaded in the background
+     * @param expireAfterMinutes how old an entry gets before it can no longer be served
+     * @param refreshExecutor runs the background refreshes
+     */
+    public CachingCustomerSpendDao(CustomerSpendDao spendDao,
+                                   long maximumSize,
+                                   long refreshAfterMinutes,
+                                   long expireAfterMinutes,
+                                   Executor refreshExecutor) {
+        this(spendDao, spendDao, maximumSize, refreshAfterMinutes, expireAfterMinutes, refreshExecutor);
+    }
+
+    /**
+     * Wraps a spend Dao in a cache, loading misses for getAsync through a separate async Dao.
+     * @param spendDao the Dao to load spend from on a cache miss in get, or a refresh
+     * @param asyncSpendDao the Dao to load spend from on a cache miss in getAsync
+     * @param maximumSize the most customers to hold spend for
+     * @param refreshAfterMinutes how old an entry gets before it is reloaded in the background
+     * @param expireAfterMinutes how old an entry gets before it can no longer be served
+     * @param refreshExecutor runs the background refreshes
+     */
+    public CachingCustomerSpendDao(ReadableDao<RequestContext, Map<String, Spend>> spendDao,
+                                   AsyncReadableDao<RequestContext, Map<String, Spend>> asyncSpendDao,
+                                   long maximumSize,
+                                   long refreshAfterMinutes,
+                                   long expireAfterMinutes,
+                                   Executor refreshExecutor) {
+        this.asyncSpendDao = asyncSpendDao;
+        this.cache = CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .refreshAfterWrite(refreshAfterMinutes, TimeUnit.MINUTES)
+            .expireAfterWrite(expireAfterMinutes, TimeUnit.MINUTES)
+            .recordStats()
+            .build(CacheLoader.asyncReloading(CacheLoader.from(spendDao::get), refreshExecutor));
+    }
+
+    /**
+     * Get the amount a customer has spent in different categories, from the cache when possible.
+     * @param requestContext The marketplaceId the customerId has spent in.
+     * @return SpendCategories
+     */
+    @Override
+    public Map<String, Spend> get(RequestContext requestContext) {
+        final RequestContext key = cacheKey(requestContext);
+        try {
+            return cache.getUnchecked(key);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Get the amount a customer has spent in different categories without blocking, from the cache when possible. On
+     * a miss the spend is loaded asynchronously and added to the cache once it arrives. Misses for a customer whose
+     * spend is already loading wait on that load instead of starting another.
+     * @param requestContext The marketplaceId the customerId has spent in.
+     * @return A future for the SpendCategories
+     */
+    @Override
+    public CompletableFuture<Map<String, Spend>> getAsync(RequestContext requestContext) {
+        final RequestContext key = cacheKey(requestContext);
+        final Map<String, Spend> cachedSpend = cache.getIfPresent(key);
+        if (cachedSpend != null) {
+            return CompletableFuture.completedFuture(cachedSpend);
+        }
+
+        final CompletableFuture<Map<String, Spend>> load = new CompletableFuture<>();
+        final CompletableFuture<Map<String, Spend>> inFlightLoad = inFlightLoads.putIfAbsent(key, load);
+        if (inFlightLoad != null) {
+            coalescedLoads.incrementAndGet();
+            return inFlightLoad;
+        }
+
+        final long startNanos = System.nanoTime();
+        asyncSpendDao.getAsync(key).whenComplete((spend, error) -> {
+            asyncLoadNanos.addAndGet(System.nanoTime() - startNanos);
+            if (error == null) {
+                asyncLoads.incrementAndGet();
+                cache.put(key, spend);
+            } else {
+                asyncLoadFailures.incrementAndGet();
+            }
+            // The spend is cached before the load is removed, so a caller arriving in between still finds it
+            inFlightLoads.remove(key, load);
+            if (error == null) {
+                load.complete(spend);
+            } else {
+                load.completeExceptionally(error);
+            }
+        });
+        return load;
+    }
+
+    private static RequestContext cacheKey(RequestContext requestContext) {
+        // Key on a fresh context so the cache doesn't hold on to the request's own memoized data
+        return new RequestContext(requestContext.getCustomerId(), requestContext.getMarketplaceId());
+    }
+
+    /**
+     * Gauge for the fraction of lookups served from the cache.
+     * @return the hit ratio, between 0 and 1
+     */
+    public double getHitRatio() {
+        return cache.stats().hitRate();
+    }
+
+    /**
+     * Counter for the entries removed because the cache was full or they expired.
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * Gauge for how long loads and refreshes from the CustomerService take, whether they were made by get, getAsync or
+     * in the background.
+     * @return the average load latency in milliseconds, or 0 if nothing has been loaded
+     */
+    public double getAverageLoadLatencyMillis() {
+        final CacheStats stats = cache.stats();
+        final long loads = stats.loadCount() + asyncLoads.get() + asyncLoadFailures.get();
+        if (loads == 0) {
+            return 0;
+        }
+        final double totalLoadNanos = stats.totalLoadTime() + asyncLoadNanos.get();
+        return totalLoadNanos / loads / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Counter for the loads and refreshes from the CustomerService.
+     * @return the number of loads, whether they succeeded or not
+     */
+    public long getLoadCount() {
+        return cache.stats().loadCount() + asyncLoads.get() + asyncLoadFailures.get();
+    }
+
+    /**
+     * Counter for the loads and refreshes from the CustomerService that failed.
+     * @return the number of failed loads
+     */
+    public long getLoadFailureCount() {
+        return cache.stats().loadExceptionCount() + asyncLoadFailures.get();
+    }
+
+    /**
+     * Counter for the misses that waited on a load already in flight for the same customer.
+     * @return the number of coalesced loads
+     */
+    public long getCoalescedLoadCount() {
+        return coalescedLoads.get();
+    }
+
+    /**
+     * Publishes the cache's gauges and counters.
+     * @param metrics the reporter to publish them to
+     */
+    public void publishTo(MetricsReporter metrics) {
+        metrics.register("spendCache.hitRatio", this::getHitRatio);
+        metrics.register("spendCache.evictions", this::getEvictionCount);
+        metrics.register("spendCache.averageLoadLatencyMillis", this::getAverageLoadLatencyMillis);
+        metrics.register("spendCache.loads", this::getLoadCount);
+        metrics.register("spendCache.loadFailures", this::getLoadFailureCount);
+        metrics.register("spendCache.coalescedLoads", this::getCoalescedLoadCount);
+    }
+}
@@ -0,0 +1,273 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.advertising.service.exceptions.AdvertisementClientException;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Buffers click through rate updates and writes them to the targeting group table behind the caller, so a feed that
+ * updates the same targeting groups many times a minute costs one write per group per flush rather than one per update.
+ * Updates to a targeting group that is already waiting to be written replace the waiting value; the last one buffered
+ * wins. The buffer is flushed on a fixed interval, and as soon as it holds the configured number of targeting groups.
+ * Once a flush has written its rates, they are handed to a listener in one batch, which re-ranks them in the targeting
+ * index. Writing first means a background rebuild of the index can't roll a rate back to the value it replaced.
+ *
+ * Durability: an update is acknowledged once it is buffered, before it is written, and is served after the flush that
+ * writes it, within one flush interval. Updates still buffered when the process stops are lost. The buffer is flushed
+ * when the JVM shuts down normally, which is only safe where the process is guaranteed to drain. A write that fails is
+ * retried on the next flush unless a newer update for the group arrived in the meantime. An update for a targeting
+ * group that was deleted after it was buffered can't be written; it is logged, counted as dropped and discarded.
+ *
+ * Where nothing guarantees the buffer is drained, such as a Lambda container that is frozen between invocations and
+ * may be reclaimed without a shutdown hook running, the aggregator writes through instead: every update is written
+ * before update returns, and a write that fails is thrown to the caller so the feed can retry it. Nothing is buffered,
+ * so nothing can be lost when the process is frozen.
+ */
+public class ClickThroughRateAggregator {
+    private static final Logger LOG = LogManager.getLogger(ClickThroughRateAggregator.class);
+
+    private final TargetingGroupDao targetingGroupDao;
+    private final Consumer<Map<String, Double>> onWritten;
+    private final int maxPendingUpdates;
+    private final boolean writeThrough;
+    private final ScheduledExecutorService flusher;
+    private final ConcurrentMap<String, PendingUpdate> pendingUpdates = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+
+    private final AtomicLong bufferedUpdates = new AtomicLong();
+    private final AtomicLong coalescedUpdates = new AtomicLong();
+    private final AtomicLong writtenUpdates = new AtomicLong();
+    private final AtomicLong failedWrites = new AtomicLong();
+    private final AtomicLong droppedUpdates = new AtomicLong();
+    private volatile long lastFlushLagNanos;
+
+    /**
+     * Creates an aggregator that flushes on a fixed interval.
+     * @param targetingGroupDao writes the click through rates
+     * @param onWritten receives the click through rates each flush wrote, by targeting group id
+     * @param maxPendingUpdates how many targeting groups may wait to be written before the buffer is flushed early
+     * @param flushIntervalMillis how often to flush the buffer
+     */
+    public ClickThroughRateAggregator(TargetingGroupDao targetingGroupDao,
+                                      Consumer<Map<String, Double>> onWritten,
+                                      int maxPendingUpdates,
+                                      long flushIntervalMillis) {
+        this(targetingGroupDao, onWritten, maxPendingUpdates, flushIntervalMillis, false);
+    }
+
+    /**
+     * Creates an aggregator that either flushes on a fixed interval or writes every update through.
+     * @param targetingGroupDao writes the click through rates
+     * @param onWritten receives the click through rates each flush wrote, by targeting group id
+     * @param maxPendingUpdates how many targeting groups may wait to be written before the buffer is flushed early
+     * @param flushIntervalMillis how often to flush the buffer
+     * @param writeThrough whether to write each update before returning instead of buffering it, for processes that
+     *                     aren't guaranteed to drain the buffer
+     */
+    public ClickThroughRateAggregator(TargetingGroupDao targetingGroupDao,
+                                      Consumer<Map<String, Double>> onWritten,
+                                      int maxPendingUpdates,
+                                      long flushIntervalMillis,
+                                      boolean writeThrough) {
+        this.targetingGroupDao = targetingGroupDao;
+        this.onWritten = onWritten;
+        this.maxPendingUpdates = maxPendingUpdates;
+        this.writeThrough = writeThrough;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("click-through-rate-flush-%d")
+            .setDaemon(true)
+            .build());
+        if (!writeThrough) {
+            flusher.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Buffers a new click through rate for a targeting group, replacing any rate still waiting to be written for it.
+     * When writing through, writes and re-ranks it before returning instead.
+     * @param targetingGroupId the targeting group to update
+     * @param clickThroughRate its new click through rate
+     * @throws AdvertisementClientException when writing through, if the targeting group no longer exists
+     */
+    public void update(String targetingGroupId, double clickThroughRate) {
+        if (writeThrough) {
+            // A failed write reaches the caller, who can retry it, rather than waiting in a buffer that may be lost
+            targetingGroupDao.update(targetingGroupId, clickThroughRate);
+            writtenUpdates.incrementAndGet();
+            reRank(Collections.singletonMap(targetingGroupId, clickThroughRate));
+            return;
+        }
+        bufferedUpdates.incrementAndGet();
+        pendingUpdates.merge(targetingGroupId, new PendingUpdate(clickThroughRate, System.nanoTime()),
+            (waiting, newer) -> {
+                coalescedUpdates.incrementAndGet();
+                // Keep when the oldest unwritten change was buffered, so the flush lag covers it
+                return new PendingUpdate(newer.clickThroughRate, waiting.bufferedAtNanos);
+            });
+        if (pendingUpdates.size() >= maxPendingUpdates && flushRequested.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes every buffered click through rate. Called on the flush interval, when the buffer fills up, and by anyone
+     * who needs the buffered updates written now, such as on shutdown. Each targeting group is written with its own
+     * UpdateItem, because the write is conditional on the group still existing and BatchWriteItem can't carry a
+     * condition expression.
+     */
+    public synchronized void flush() {
+        flushRequested.set(false);
+        final List<String> targetingGroupIds = new ArrayList<>(pendingUpdates.keySet());
+        final Map<String, Double> written = new LinkedHashMap<>();
+        long maxLagNanos = 0;
+        for (String targetingGroupId : targetingGroupIds) {
+            final PendingUpdate update = pendingUpdates.remove(targetingGroupId);
+            if (update == null) {
+                continue;
+            }
+            try {
+                targetingGroupDao.update(targetingGroupId, update.clickThroughRate);
+                written.put(targetingGroupId, update.clickThroughRate);
+                writtenUpdates.incrementAndGet();
+                maxLagNanos = Math.max(maxLagNanos, System.nanoTime() - update.bufferedAtNanos);
+            } catch (AdvertisementClientException e) {
+                LOG.warn(String.format("Dropping the click through rate of targeting group %s, which no longer exists.",
+                    targetingGroupId), e);
+                droppedUpdates.incrementAndGet();
+            } catch (RuntimeException e) {
+                LOG.warn(String.format(
+                    "Unable to write the click through rate of targeting group %s. Retrying on the next flush.",
+                    targetingGroupId), e);
+                failedWrites.incrementAndGet();
+                // A newer update buffered since keeps its rate, but the lag still counts from the failed one
+                pendingUpdates.merge(targetingGroupId, update, (newer, failed) ->
+                    new PendingUpdate(newer.clickThroughRate, failed.bufferedAtNanos));
+            }
+        }
+        lastFlushLagNanos = maxLagNanos;
+        if (!written.isEmpty()) {
+            reRank(written);
+        }
+    }
+
+    private void reRank(Map<String, Double> written) {
+        try {
+            onWritten.accept(written);
+        } catch (RuntimeException e) {
+            LOG.warn(String.format("Unable to re-rank %d written click through rates. The next rebuild of the "
+                + "targeting index picks them up.", written.size()), e);
+        }
+    }
+
+    /**
+     * Gauge for the targeting groups waiting to be written.
+     * @return the number of pending updates
+     */
+    public int getPendingCount() {
+        return pendingUpdates.size();
+    }
+
+    /**
+     * Gauge for how long the oldest unwritten update has been waiting.
+     * @return the age of the oldest pending update in milliseconds, or 0 if nothing is pending
+     */
+    public double getOldestPendingAgeMillis() {
+        final long now = System.nanoTime();
+        final long oldestAgeNanos = pendingUpdates.values().stream()
+            .mapToLong(update -> now - update.bufferedAtNanos)
+            .max()
+            .orElse(0);
+        return (double) oldestAgeNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Gauge for how long the updates written by the last flush waited to be written.
+     * @return the longest wait in the last flush in milliseconds, or 0 if it wrote nothing
+     */
+    public double getLastFlushLagMillis() {
+        return (double) lastFlushLagNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Counter for the updates buffered.
+     * @return the number of updates
+     */
+    public long getBufferedCount() {
+        return bufferedUpdates.get();
+    }
+
+    /**
+     * Counter for the updates replaced by a newer update before they were written.
+     * @return the number of coalesced updates
+     */
+    public long getCoalescedCount() {
+        return coalescedUpdates.get();
+    }
+
+    /**
+     * Counter for the click through rates written to the targeting group table.
+     * @return the number of writes
+     */
+    public long getWrittenCount() {
+        return writtenUpdates.get();
+    }
+
+    /**
+     * Counter for the writes that failed and will be retried.
+     * @return the number of failed writes
+     */
+    public long getFailedWriteCount() {
+        return failedWrites.get();
+    }
+
+    /**
+     * Counter for the updates discarded because their targeting group was deleted before they were written.
+     * @return the number of dropped updates
+     */
+    public long getDroppedCount() {
+        return droppedUpdates.get();
+    }
+
+    /**
+     * Publishes the aggregator's gauges and counters.
+     * @param metrics the reporter to publish them to
+     */
+    public void publishTo(MetricsReporter metrics) {
+        metrics.register("ctrWriteBehind.pending", this::getPendingCount);
+        metrics.register("ctrWriteBehind.oldestPendingAgeMillis", this::getOldestPendingAgeMillis);
+        metrics.register("ctrWriteBehind.lastFlushLagMillis", this::getLastFlushLagMillis);
+        metrics.register("ctrWriteBehind.buffered", this::getBufferedCount);
+        metrics.register("ctrWriteBehind.coalesced", this::getCoalescedCount);
+        metrics.register("ctrWriteBehind.written", this::getWrittenCount);
+        metrics.register("ctrWriteBehind.failedWrites", this::getFailedWriteCount);
+        metrics.register("ctrWriteBehind.dropped", this::getDroppedCount);
+    }
+
+    private static final class PendingUpdate {
+        private final double clickThroughRate;
+        private final long bufferedAtNanos;
+
+        PendingUpdate(double clickThroughRate, long bufferedAtNanos) {
+            this.clickThroughRate = clickThroughRate;
+            this.bufferedAtNanos = bufferedAtNanos;
+        }
+    }
+}
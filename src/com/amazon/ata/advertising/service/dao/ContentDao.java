@@ -1,29 +1,52 @@
 package com.amazon.ata.advertising.service.dao;
 
+import com.amazon.ata.advertising.service.dependency.DaoModule;
 import com.amazon.ata.advertising.service.exceptions.AdvertisementClientException;
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
 import com.amazon.ata.advertising.service.util.EncryptionUtil;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import javax.inject.Inject;
+import javax.inject.Named;
 
 /**
  * Gets ATA Content based on Marketplace.
  */
-public class ContentDao implements ReadableDao<String, List<AdvertisementContent>> {
+public class ContentDao implements ReadableDao<String, List<AdvertisementContent>>,
+                                   AsyncReadableDao<String, List<AdvertisementContent>> {
     private final DynamoDBMapper mapper;
+    private final AmazonDynamoDB dynamoDbClient;
+    private final ExecutorService queryExecutor;
 
     /**
      * Constructs a ContentDao.
      * @param mapper Connection to dynamo
+     * @param dynamoDbClient Makes the conditional updates the mapper can't
+     * @param queryExecutor Runs the queries made by getAsync
      */
     @Inject
-    public ContentDao(DynamoDBMapper mapper) {
+    public ContentDao(DynamoDBMapper mapper,
+                      AmazonDynamoDB dynamoDbClient,
+                      @Named(DaoModule.QUERY_EXECUTOR) ExecutorService queryExecutor) {
         this.mapper = mapper;
+        this.dynamoDbClient = dynamoDbClient;
+        this.queryExecutor = queryExecutor;
     }
 
     /**
@@ -44,6 +67,18 @@ public class ContentDao implements ReadableDao<String, List<AdvertisementContent
         return mapper.query(AdvertisementContent.class, expression);
     }
 
+    /**
+     * Gets content for ATA based on the Marketplace of the request without blocking. The query runs on the query
+     * executor.
+     * @param marketplaceId The marketplace to get content for.
+     * @return A future for all advertisement content that could be shown for ATA in this marketplace.
+     */
+    @Override
+    public CompletableFuture<List<AdvertisementContent>> getAsync(String marketplaceId) {
+        // Copy the lazily paginated result so every page is fetched on the query thread
+        return CompletableFuture.supplyAsync(() -> new ArrayList<>(get(marketplaceId)), queryExecutor);
+    }
+
     /**
      * Create a new advertisement content and persist it.
      * @param marketplaceId The marketplace to save the new advertisement content in
@@ -63,25 +98,45 @@ public class ContentDao implements ReadableDao<String, List<AdvertisementContent
     }
 
     /**
-     * Update an AdvertisementContent's renderable content and it's marketplace.
+     * Update an AdvertisementContent's renderable content and it's marketplace, in one conditional update that fails
+     * if the content doesn't exist. A null renderable content is removed, as saving it through the mapper would.
      * @param marketplaceId the marketplace to move the content to.
      * @param advertisementContent The renderable content to be updated.
      * @return The updated AdvertisementContent.
      */
     public AdvertisementContent update(String marketplaceId, AdvertisementContent advertisementContent) {
-        AdvertisementContent hashKey = AdvertisementContent.builder()
-                .withContentId(advertisementContent.getContentId())
-                .build();
-        AdvertisementContent existingAdvertisementContent = mapper.load(hashKey);
-        if (existingAdvertisementContent == null) {
-            throw new AdvertisementClientException("No content exists with the ID " +
-                    advertisementContent.getContentId());
+        String encryptedMarketplace = EncryptionUtil.encryptMarketplaceId(marketplaceId);
+        Map<String, String> names = new HashMap<>();
+        names.put("#id", AdvertisementContent.CONTENT_ID);
+        names.put("#marketplace", AdvertisementContent.MARKETPLACE_ID);
+        names.put("#content", AdvertisementContent.RENDERABLE_CONTENT);
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":marketplace", new AttributeValue(encryptedMarketplace));
+        String updateExpression = "SET #marketplace = :marketplace";
+        if (advertisementContent.getRenderableContent() == null) {
+            updateExpression += " REMOVE #content";
+        } else {
+            values.put(":content", new AttributeValue(advertisementContent.getRenderableContent()));
+            updateExpression += ", #content = :content";
         }
+        UpdateItemRequest request = new UpdateItemRequest()
+                .withTableName(AdvertisementContent.TABLE_NAME)
+                .withKey(Collections.singletonMap(AdvertisementContent.CONTENT_ID,
+                    new AttributeValue(advertisementContent.getContentId())))
+                .withConditionExpression("attribute_exists(#id)")
+                .withUpdateExpression(updateExpression)
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(values)
+                .withReturnValues(ReturnValue.ALL_NEW);
 
-        String encryptedMarketplace = EncryptionUtil.encryptMarketplaceId(marketplaceId);
-        advertisementContent.setMarketplaceId(encryptedMarketplace);
-        mapper.save(advertisementContent);
-        return advertisementContent;
+        UpdateItemResult result;
+        try {
+            result = dynamoDbClient.updateItem(request);
+        } catch (ConditionalCheckFailedException e) {
+            throw new AdvertisementClientException("No content exists with the ID " +
+                    advertisementContent.getContentId(), e);
+        }
+        return mapper.marshallIntoObject(AdvertisementContent.class, result.getAttributes());
     }
 
     /**
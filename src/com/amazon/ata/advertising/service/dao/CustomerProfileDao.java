@@ -5,19 +5,26 @@ import com.amazon.ata.customerservice.GetCustomerProfileRequest;
 
 import com.amazon.atacustomerservicelambda.service.ATACustomerService;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
 /**
  * Gets the profile of a customer filled with the customers estimated demographic information.
  */
-public class CustomerProfileDao implements ReadableDao<String, CustomerProfile> {
+public class CustomerProfileDao implements ReadableDao<String, CustomerProfile>,
+                                           AsyncReadableDao<String, CustomerProfile> {
 
     private final ATACustomerService customerClient;
+    private final Executor callExecutor;
 
     /**
      * Access Customer Profile data.
      * @param customerClient Client to connect to the CustomerService
+     * @param callExecutor Runs the blocking client calls made by getAsync
      */
-    public CustomerProfileDao(ATACustomerService customerClient) {
+    public CustomerProfileDao(ATACustomerService customerClient, Executor callExecutor) {
         this.customerClient = customerClient;
+        this.callExecutor = callExecutor;
     }
 
     /**
@@ -34,4 +41,16 @@ public class CustomerProfileDao implements ReadableDao<String, CustomerProfile>
         return customerClient.getCustomerProfile(request)
                 .getCustomerProfile();
     }
+
+    /**
+     * Get a CustomerProfile for a customer without blocking. The CustomerService client is synchronous, so the call
+     * is made on the call executor.
+     *
+     * @param customerId The customerId to get demographic information for.
+     * @return A future for the CustomerProfile
+     */
+    @Override
+    public CompletableFuture<CustomerProfile> getAsync(String customerId) {
+        return CompletableFuture.supplyAsync(() -> get(customerId), callExecutor);
+    }
 }
@@ -8,21 +8,27 @@ import com.amazon.ata.customerservice.Spend;
 import com.amazon.atacustomerservicelambda.service.ATACustomerService;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
  * Get information on a customer's spending habits in different categories.
  */
-public class CustomerSpendDao implements ReadableDao<RequestContext, Map<String, Spend>> {
+public class CustomerSpendDao implements ReadableDao<RequestContext, Map<String, Spend>>,
+                                         AsyncReadableDao<RequestContext, Map<String, Spend>> {
 
     private final ATACustomerService customerClient;
+    private final Executor callExecutor;
 
     /**
      * Access customer spend data.
      * @param customerClient Client for the CustomerService.
+     * @param callExecutor Runs the blocking client calls made by getAsync.
      */
-    public CustomerSpendDao(ATACustomerService customerClient) {
+    public CustomerSpendDao(ATACustomerService customerClient, Executor callExecutor) {
         this.customerClient = customerClient;
+        this.callExecutor = callExecutor;
     }
 
     /**
@@ -44,4 +50,16 @@ public class CustomerSpendDao implements ReadableDao<RequestContext, Map<String,
                 .stream()
                 .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
     }
+
+    /**
+     * Get the amount a customer has spent in different categories without blocking. The CustomerService client is
+     * synchronous, so the call is made on the call executor.
+     *
+     * @param requestContext The marketplaceId the customerId has spent in.
+     * @return A future for the SpendCategories
+     */
+    @Override
+    public CompletableFuture<Map<String, Spend>> getAsync(RequestContext requestContext) {
+        return CompletableFuture.supplyAsync(() -> get(requestContext), callExecutor);
+    }
 }
@@ -0,0 +1,93 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.advertising.service.exceptions.DependencyUnavailableException;
+import com.amazon.ata.advertising.service.util.DependencyGuard;
+import com.amazon.ata.advertising.service.util.Futures;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Makes the calls through another Dao only when the downstream service's DependencyGuard allows them. A call that
+ * isn't allowed fails at once with a DependencyUnavailableException instead of waiting for a thread or a timeout.
+ * Both get and getAsync are guarded, so every call to the service counts against the same breaker and bulkhead.
+ *
+ * @param <I> The input type of the Dao
+ * @param <O> The output type of the Dao
+ */
+public class GuardedDao<I, O> implements ReadableDao<I, O>, AsyncReadableDao<I, O> {
+    private final ReadableDao<I, O> delegate;
+    private final AsyncReadableDao<I, O> asyncDelegate;
+    private final DependencyGuard guard;
+
+    /**
+     * Guards the calls made through a Dao.
+     * @param delegate The Dao to make the calls through.
+     * @param guard The circuit breaker and bulkhead of the service the Dao calls.
+     * @param <D> The type of the Dao, which must support both blocking and async calls.
+     */
+    public <D extends ReadableDao<I, O> & AsyncReadableDao<I, O>> GuardedDao(D delegate, DependencyGuard guard) {
+        this.delegate = delegate;
+        this.asyncDelegate = delegate;
+        this.guard = guard;
+    }
+
+    /**
+     * Makes the call through the Dao if the service's guard allows it.
+     * @param inputQuery The input to the Dao
+     * @return The response
+     * @throws DependencyUnavailableException if the call wasn't allowed
+     */
+    @Override
+    public O get(I inputQuery) {
+        if (!guard.tryAcquire()) {
+            throw unavailable();
+        }
+        final O response;
+        try {
+            response = delegate.get(inputQuery);
+        } catch (RuntimeException e) {
+            guard.onFailure();
+            throw e;
+        }
+        guard.onSuccess();
+        return response;
+    }
+
+    /**
+     * Makes the call through the Dao without blocking if the service's guard allows it.
+     * @param inputQuery The input to the Dao
+     * @return A future for the response, failed with a DependencyUnavailableException if the call wasn't allowed.
+     *         Cancelling it doesn't end the call, so the call keeps its place in the bulkhead until it completes.
+     */
+    @Override
+    public CompletableFuture<O> getAsync(I inputQuery) {
+        if (!guard.tryAcquire()) {
+            return Futures.failed(unavailable());
+        }
+        final CompletableFuture<O> call;
+        try {
+            call = asyncDelegate.getAsync(inputQuery);
+        } catch (RuntimeException e) {
+            guard.onFailure();
+            throw e;
+        }
+        call.whenComplete((result, error) -> {
+            if (error == null) {
+                guard.onSuccess();
+            } else if (error instanceof CancellationException) {
+                guard.onAbandoned();
+            } else {
+                guard.onFailure();
+            }
+        });
+        // Callers get their own future, so one that stops waiting can't release the permit of a call still running
+        return call.thenApply(Function.identity());
+    }
+
+    private DependencyUnavailableException unavailable() {
+        return new DependencyUnavailableException(
+            String.format("Not calling %s, which is failing or has too many calls in flight.", guard.getName()));
+    }
+}
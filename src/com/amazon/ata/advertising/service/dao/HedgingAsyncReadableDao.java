@@ -0,0 +1,229 @@
+package com.amazon.ata.advertising.service.dao;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hedges the calls made through another async Dao. If a call hasn't completed after the latency most calls complete
+ * within, a duplicate call is sent and the first response is used. This trims the tail latency caused by the
+ * occasional slow call, at the cost of a few extra calls. The other call's future is cancelled, but that doesn't stop
+ * a downstream call already in progress: it runs to completion and its response is dropped.
+ *
+ * The hedged calls are sent from their own executor rather than the scheduler's thread, since sending a call can block
+ * when the pool it runs on is saturated. When the hedge executor is saturated too, the call is not hedged.
+ *
+ * Hedges are capped at a fraction of calls, so when the dependency is slow for everyone hedging can't multiply the load
+ * on it. No call is hedged until enough latencies have been observed to know what slow is.
+ *
+ * @param <I> The input type of the Dao
+ * @param <O> The output type of the Dao
+ */
+public class HedgingAsyncReadableDao<I, O> implements AsyncReadableDao<I, O> {
+    static final int MIN_SAMPLES = 100;
+    private static final int WINDOW_SIZE = 1024;
+    private static final int RECOMPUTE_INTERVAL = 64;
+    private static final double MAX_HEDGE_BURST = 10;
+
+    private final AsyncReadableDao<I, O> delegate;
+    private final ScheduledExecutorService scheduler;
+    private final Executor hedgeExecutor;
+    private final double hedgePercentile;
+    private final double maxHedgeRate;
+
+    private final long[] latencyWindow = new long[WINDOW_SIZE];
+    private int samples;
+    private volatile long hedgeDelayNanos = Long.MAX_VALUE;
+    private double hedgeBudget;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong suppressedHedges = new AtomicLong();
+
+    /**
+     * Hedges the calls made through a Dao.
+     * @param delegate The Dao to make the calls through.
+     * @param scheduler Decides whether to hedge a call once its delay has passed.
+     * @param hedgeExecutor Sends the hedged calls. It should reject calls rather than run them on the scheduler.
+     * @param hedgePercentile The percentile of observed latency, between 0 and 1, after which a call is hedged.
+     * @param maxHedgeRate The most hedged calls per call, between 0 and 1.
+     */
+    public HedgingAsyncReadableDao(AsyncReadableDao<I, O> delegate,
+                                   ScheduledExecutorService scheduler,
+                                   Executor hedgeExecutor,
+                                   double hedgePercentile,
+                                   double maxHedgeRate) {
+        this.delegate = delegate;
+        this.scheduler = scheduler;
+        this.hedgeExecutor = hedgeExecutor;
+        this.hedgePercentile = hedgePercentile;
+        this.maxHedgeRate = maxHedgeRate;
+    }
+
+    /**
+     * Makes the call through the Dao, hedging it if it is slow.
+     * @param inputQuery The input to the Dao
+     * @return A future for whichever response arrives first
+     */
+    @Override
+    public CompletableFuture<O> getAsync(I inputQuery) {
+        calls.incrementAndGet();
+        addHedgeBudget();
+
+        final CompletableFuture<O> response = new CompletableFuture<>();
+        final CompletableFuture<O> primary = timedCall(inputQuery);
+        final long delayNanos = hedgeDelayNanos;
+        if (delayNanos == Long.MAX_VALUE) {
+            return primary;
+        }
+
+        final CompletableFuture<CompletableFuture<O>> hedge = new CompletableFuture<>();
+        final AtomicBoolean answered = new AtomicBoolean();
+        final ScheduledFuture<?> hedgeTimer = scheduler.schedule(() -> {
+            if (response.isDone()) {
+                return;
+            }
+            if (!tryAcquireHedge()) {
+                suppressedHedges.incrementAndGet();
+                hedge.complete(null);
+                return;
+            }
+            try {
+                hedgeExecutor.execute(() -> sendHedge(inputQuery, primary, hedge, answered, response));
+            } catch (RejectedExecutionException e) {
+                suppressedHedges.incrementAndGet();
+                hedge.complete(null);
+            }
+        }, delayNanos, TimeUnit.NANOSECONDS);
+
+        primary.whenComplete((result, error) -> {
+            if (error == null) {
+                if (answered.compareAndSet(false, true)) {
+                    response.complete(result);
+                }
+            } else if (!hedge.isDone()) {
+                // No hedge was sent, so there is nothing else to wait for
+                response.completeExceptionally(error);
+            } else if (hedge.join() == null || hedge.join().isCompletedExceptionally()) {
+                response.completeExceptionally(error);
+            }
+        });
+
+        response.whenComplete((result, error) -> {
+            hedgeTimer.cancel(false);
+            hedge.complete(null);
+            // Only stops waiting on the losing call. A downstream call already in progress still runs to completion.
+            primary.cancel(false);
+            final CompletableFuture<O> hedgedCall = hedge.join();
+            if (hedgedCall != null) {
+                hedgedCall.cancel(false);
+            }
+        });
+        return response;
+    }
+
+    private void sendHedge(I inputQuery, CompletableFuture<O> primary, CompletableFuture<CompletableFuture<O>> hedge,
+                           AtomicBoolean answered, CompletableFuture<O> response) {
+        if (response.isDone()) {
+            hedge.complete(null);
+            return;
+        }
+        hedges.incrementAndGet();
+        final CompletableFuture<O> hedgedCall = timedCall(inputQuery);
+        if (!hedge.complete(hedgedCall)) {
+            // The response arrived while the hedge was being sent
+            hedgedCall.cancel(false);
+            return;
+        }
+        hedgedCall.whenComplete((result, error) -> {
+            if (error == null && answered.compareAndSet(false, true)) {
+                // Counted before completing, so callers of the response see the win
+                hedgeWins.incrementAndGet();
+                response.complete(result);
+            } else if (error != null && primary.isCompletedExceptionally()) {
+                response.completeExceptionally(error);
+            }
+        });
+    }
+
+    private CompletableFuture<O> timedCall(I inputQuery) {
+        final long start = System.nanoTime();
+        final CompletableFuture<O> call = delegate.getAsync(inputQuery);
+        call.whenComplete((result, error) -> {
+            if (error == null) {
+                recordLatency(System.nanoTime() - start);
+            }
+        });
+        return call;
+    }
+
+    private synchronized void recordLatency(long elapsedNanos) {
+        latencyWindow[samples % WINDOW_SIZE] = elapsedNanos;
+        samples++;
+        if (samples >= MIN_SAMPLES && samples % RECOMPUTE_INTERVAL == 0) {
+            final long[] sorted = Arrays.copyOf(latencyWindow, Math.min(samples, WINDOW_SIZE));
+            Arrays.sort(sorted);
+            hedgeDelayNanos = sorted[(int) Math.min(sorted.length - 1, Math.floor(hedgePercentile * sorted.length))];
+        }
+    }
+
+    private synchronized void addHedgeBudget() {
+        hedgeBudget = Math.min(MAX_HEDGE_BURST, hedgeBudget + maxHedgeRate);
+    }
+
+    private synchronized boolean tryAcquireHedge() {
+        if (hedgeBudget < 1) {
+            return false;
+        }
+        hedgeBudget--;
+        return true;
+    }
+
+    /**
+     * Gauge for how long a call may take before it is hedged.
+     * @return the current hedge delay in milliseconds, or -1 while too few latencies have been observed to hedge
+     */
+    public double getHedgeDelayMillis() {
+        final long delayNanos = hedgeDelayNanos;
+        return delayNanos == Long.MAX_VALUE ? -1 : (double) delayNanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Counter for the calls made through this Dao, not counting hedges.
+     * @return the number of calls
+     */
+    public long getCallCount() {
+        return calls.get();
+    }
+
+    /**
+     * Counter for the hedged calls sent.
+     * @return the number of hedges
+     */
+    public long getHedgeCount() {
+        return hedges.get();
+    }
+
+    /**
+     * Counter for the hedged calls that responded before the call they duplicated.
+     * @return the number of hedges that won
+     */
+    public long getHedgeWinCount() {
+        return hedgeWins.get();
+    }
+
+    /**
+     * Counter for the slow calls that were not hedged because the hedge rate cap was reached.
+     * @return the number of suppressed hedges
+     */
+    public long getSuppressedHedgeCount() {
+        return suppressedHedges.get();
+    }
+}
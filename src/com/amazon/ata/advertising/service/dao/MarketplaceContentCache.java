@@ -0,0 +1,159 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.util.EncryptionUtil;
+import com.amazon.ata.advertising.service.util.Futures;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Holds an immutable snapshot of the advertisement content for each marketplace, so serving an ad doesn't need to
+ * query DynamoDB. Snapshots are loaded the first time a marketplace is requested, reloaded in the background on a fixed
+ * interval, and dropped whenever content in the marketplace is created, updated or deleted. Concurrent requests for a
+ * marketplace that isn't loaded yet share one load, which runs outside the map's locks so it never holds up requests
+ * for other marketplaces.
+ *
+ * The invalidations only reach the cache in the process that made the change. Content written by another process,
+ * such as another Lambda container, is picked up by the next reload, so it can be served stale for up to the reload
+ * interval.
+ */
+public class MarketplaceContentCache implements ReadableDao<String, List<AdvertisementContent>>,
+                                                AsyncReadableDao<String, List<AdvertisementContent>> {
+    private static final Logger LOG = LogManager.getLogger(MarketplaceContentCache.class);
+
+    private final ContentDao contentDao;
+    private final ConcurrentMap<String, CompletableFuture<List<AdvertisementContent>>> snapshots =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Creates a cache that reloads every snapshot it holds on a fixed interval.
+     * @param contentDao source of content data
+     * @param reloadIntervalSeconds how often to reload the snapshots
+     */
+    public MarketplaceContentCache(ContentDao contentDao, long reloadIntervalSeconds) {
+        this.contentDao = contentDao;
+        ScheduledExecutorService reloader = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("marketplace-content-reload-%d")
+            .setDaemon(true)
+            .build());
+        reloader.scheduleWithFixedDelay(this::reloadAll, reloadIntervalSeconds, reloadIntervalSeconds,
+            TimeUnit.SECONDS);
+    }
+
+    /**
+     * Gets the snapshot of content for a marketplace, loading it if the marketplace isn't cached.
+     * @param marketplaceId The marketplace to get content for.
+     * @return An immutable list of all advertisement content that could be shown in this marketplace.
+     */
+    @Override
+    public List<AdvertisementContent> get(String marketplaceId) {
+        final String encryptedMarketplaceId = EncryptionUtil.encryptMarketplaceId(marketplaceId);
+        final CompletableFuture<List<AdvertisementContent>> snapshot = snapshots.get(encryptedMarketplaceId);
+        if (snapshot != null) {
+            return Futures.getUnchecked(snapshot);
+        }
+
+        final CompletableFuture<List<AdvertisementContent>> load = new CompletableFuture<>();
+        final CompletableFuture<List<AdvertisementContent>> inFlightLoad =
+            snapshots.putIfAbsent(encryptedMarketplaceId, load);
+        if (inFlightLoad != null) {
+            return Futures.getUnchecked(inFlightLoad);
+        }
+        try {
+            final List<AdvertisementContent> contents = load(encryptedMarketplaceId);
+            load.complete(contents);
+            return contents;
+        } catch (RuntimeException e) {
+            // Don't cache the failure, so the next request tries again
+            snapshots.remove(encryptedMarketplaceId, load);
+            load.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the snapshot of content for a marketplace without blocking, loading it if the marketplace isn't cached.
+     * @param marketplaceId The marketplace to get content for.
+     * @return A future for an immutable list of all advertisement content that could be shown in this marketplace.
+     *         Each caller gets its own future, so completing or cancelling it doesn't change the cached snapshot.
+     */
+    @Override
+    public CompletableFuture<List<AdvertisementContent>> getAsync(String marketplaceId) {
+        final String encryptedMarketplaceId = EncryptionUtil.encryptMarketplaceId(marketplaceId);
+        final CompletableFuture<List<AdvertisementContent>> snapshot = snapshots.get(encryptedMarketplaceId);
+        if (snapshot != null) {
+            return snapshot.thenApply(Function.identity());
+        }
+
+        final CompletableFuture<List<AdvertisementContent>> load = new CompletableFuture<>();
+        final CompletableFuture<List<AdvertisementContent>> inFlightLoad =
+            snapshots.putIfAbsent(encryptedMarketplaceId, load);
+        if (inFlightLoad != null) {
+            return inFlightLoad.thenApply(Function.identity());
+        }
+        contentDao.getAsync(encryptedMarketplaceId).whenComplete((contents, error) -> {
+            if (error == null) {
+                load.complete(ImmutableList.copyOf(contents));
+            } else {
+                snapshots.remove(encryptedMarketplaceId, load);
+                load.completeExceptionally(error);
+            }
+        });
+        return load.thenApply(Function.identity());
+    }
+
+    /**
+     * Drops the snapshot for a marketplace after its content changed. The next request reloads it.
+     * @param marketplaceId the marketplace whose content changed
+     */
+    public void invalidate(String marketplaceId) {
+        snapshots.remove(EncryptionUtil.encryptMarketplaceId(marketplaceId));
+    }
+
+    /**
+     * Drops every snapshot containing a piece of content after it was changed or deleted. Loads still in flight are
+     * dropped too, since they may have read the content before it changed.
+     * @param contentId the id of the content that changed
+     */
+    public void invalidateContent(String contentId) {
+        snapshots.values().removeIf(snapshot -> !isLoaded(snapshot) || snapshot.join().stream()
+            .anyMatch(content -> contentId.equals(content.getContentId())));
+    }
+
+    private static boolean isLoaded(CompletableFuture<List<AdvertisementContent>> snapshot) {
+        return snapshot.isDone() && !snapshot.isCompletedExceptionally();
+    }
+
+    private List<AdvertisementContent> load(String encryptedMarketplaceId) {
+        return ImmutableList.copyOf(contentDao.get(encryptedMarketplaceId));
+    }
+
+    private void reloadAll() {
+        for (Map.Entry<String, CompletableFuture<List<AdvertisementContent>>> snapshot : snapshots.entrySet()) {
+            if (!isLoaded(snapshot.getValue())) {
+                continue;
+            }
+            try {
+                // Only replace the snapshot we read, so a reload racing an invalidation can't restore stale content
+                snapshots.replace(snapshot.getKey(), snapshot.getValue(),
+                    CompletableFuture.completedFuture(load(snapshot.getKey())));
+            } catch (RuntimeException e) {
+                LOG.warn(String.format("Unable to reload content for marketplace %s. Keeping the current snapshot.",
+                    snapshot.getKey()), e);
+            }
+        }
+    }
+}
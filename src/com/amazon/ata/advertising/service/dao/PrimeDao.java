@@ -7,21 +7,27 @@ import com.amazon.ata.primeclubservice.PrimeBenefit;
 import com.amazon.ataprimeclubservicelambda.service.ATAPrimeClubService;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 /**
  * Obtain prime benefits for a customer.
  */
-public class PrimeDao implements ReadableDao<RequestContext, List<String>> {
+public class PrimeDao implements ReadableDao<RequestContext, List<String>>,
+                                 AsyncReadableDao<RequestContext, List<String>> {
 
     private final ATAPrimeClubService primeClubService;
+    private final Executor callExecutor;
 
     /**
      * Access Prime data.
      * @param primeClubService Client for the PrimeClubService
+     * @param callExecutor Runs the blocking client calls made by getAsync
      */
-    public PrimeDao(ATAPrimeClubService primeClubService) {
+    public PrimeDao(ATAPrimeClubService primeClubService, Executor callExecutor) {
         this.primeClubService = primeClubService;
+        this.callExecutor = callExecutor;
     }
 
     /**
@@ -42,4 +48,15 @@ public class PrimeDao implements ReadableDao<RequestContext, List<String>> {
                 .map(PrimeBenefit::getBenefitType)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Get a list of PrimeBenefit types for a customer without blocking. The PrimeClubService client is synchronous, so
+     * the call is made on the call executor.
+     * @param requestContext The marketplaceId and customerId to get benefits for.
+     * @return A future for the list of benefit types for a customer.
+     */
+    @Override
+    public CompletableFuture<List<String>> getAsync(RequestContext requestContext) {
+        return CompletableFuture.supplyAsync(() -> get(requestContext), callExecutor);
+    }
 }
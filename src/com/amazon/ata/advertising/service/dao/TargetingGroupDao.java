@@ -1,33 +1,60 @@
 package com.amazon.ata.advertising.service.dao;
 
 import com.amazon.ata.advertising.service.exceptions.AdvertisementClientException;
+import com.amazon.ata.advertising.service.dependency.DaoModule;
 import com.amazon.ata.advertising.service.dependency.TargetingPredicateInjector;
 import com.amazon.ata.advertising.service.targeting.TargetingGroup;
 import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+import com.amazon.ata.advertising.service.util.Futures;
 
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 import javax.inject.Inject;
+import javax.inject.Named;
 
 /**
  * Gets the TargetingGroups for a piece of ATA ad content.
  */
-public class TargetingGroupDao implements ReadableDao<String, List<TargetingGroup>> {
+public class TargetingGroupDao implements BatchReadableDao<String, List<TargetingGroup>>,
+                                          AsyncReadableDao<String, List<TargetingGroup>> {
     private final TargetingPredicateInjector targetingPredicateInjector;
     private final DynamoDBMapper mapper;
+    private final AmazonDynamoDB dynamoDbClient;
+    private final ExecutorService queryExecutor;
 
     /**
      * Constructs a new TargetingGroupDao.
      * @param targetingPredicateInjector injects the dependencies into the predicates
      * @param mapper connection to DynamoDB
+     * @param dynamoDbClient makes the conditional updates the mapper can't
+     * @param queryExecutor runs the queries of a batch and of getAsync
      */
     @Inject
-    public TargetingGroupDao(TargetingPredicateInjector targetingPredicateInjector, DynamoDBMapper mapper) {
+    public TargetingGroupDao(TargetingPredicateInjector targetingPredicateInjector,
+                             DynamoDBMapper mapper,
+                             AmazonDynamoDB dynamoDbClient,
+                             @Named(DaoModule.QUERY_EXECUTOR) ExecutorService queryExecutor) {
         this.targetingPredicateInjector = targetingPredicateInjector;
         this.mapper = mapper;
+        this.dynamoDbClient = dynamoDbClient;
+        this.queryExecutor = queryExecutor;
     }
 
     /**
@@ -43,7 +70,41 @@ public class TargetingGroupDao implements ReadableDao<String, List<TargetingGrou
                 .withIndexName(TargetingGroup.CONTENT_ID_INDEX)
                 .withConsistentRead(false)
                 .withHashKeyValues(indexHashKey);
-        return mapper.query(TargetingGroup.class, queryExpression);
+        List<TargetingGroup> targetingGroups = mapper.query(TargetingGroup.class, queryExpression);
+        targetingGroups.forEach(targetingGroup ->
+            targetingGroup.getTargetingPredicates().forEach(targetingPredicateInjector::inject));
+        return targetingGroups;
+    }
+
+    /**
+     * Retrieves the targeting groups for a piece of content without blocking. The query runs on the query executor.
+     * @param contentId The id of the content to get targeting groups for
+     * @return a future for the targeting groups of the piece of content
+     */
+    @Override
+    public CompletableFuture<List<TargetingGroup>> getAsync(String contentId) {
+        // Copy the lazily paginated result so every page is fetched on the query thread
+        return CompletableFuture.supplyAsync(() -> new ArrayList<>(get(contentId)), queryExecutor);
+    }
+
+    /**
+     * Retrieves the targeting groups for many pieces of content at once. The ContentIdIndex is queried for every
+     * piece of content in parallel, so the batch takes about as long as its slowest query.
+     * @param contentIds The ids of the content to get targeting groups for
+     * @return the targeting groups of each piece of content, keyed by content id, in the order the ids were given
+     */
+    @Override
+    public Map<String, List<TargetingGroup>> getAll(Collection<String> contentIds) {
+        final Map<String, CompletableFuture<List<TargetingGroup>>> queries = new LinkedHashMap<>();
+        for (String contentId : contentIds) {
+            queries.computeIfAbsent(contentId, this::getAsync);
+        }
+
+        final Map<String, List<TargetingGroup>> targetingGroups = new LinkedHashMap<>();
+        for (Map.Entry<String, CompletableFuture<List<TargetingGroup>>> query : queries.entrySet()) {
+            targetingGroups.put(query.getKey(), Futures.getUnchecked(query.getValue()));
+        }
+        return targetingGroups;
     }
 
     /**
@@ -59,22 +120,53 @@ public class TargetingGroupDao implements ReadableDao<String, List<TargetingGrou
     }
 
     /**
-     * Update the click through rate for a targeting group.
+     * Update the click through rate for a targeting group. Only the click through rate is written, in one conditional
+     * update, so the targeting predicates aren't read or rewritten and concurrent updates can't overwrite each other's
+     * other attributes. Nothing is read back.
      * @param targetingGroupId The ID of the targeting group to update
      * @param clickThroughRate The new clickThroughRate for the targeting group
-     * @return The updated TargetingGroup
      */
-    public TargetingGroup update(String targetingGroupId, double clickThroughRate) {
-        TargetingGroup hashKey = new TargetingGroup(targetingGroupId, null, 0, null);
-        TargetingGroup targetingGroup = mapper.load(hashKey);
-        if (targetingGroup == null) {
-            throw new AdvertisementClientException("No targeting group exists with the ID " + targetingGroupId);
-        }
-        targetingGroup.setClickThroughRate(clickThroughRate);
-        mapper.save(targetingGroup);
+    public void update(String targetingGroupId, double clickThroughRate) {
+        updateClickThroughRate(targetingGroupId, clickThroughRate, ReturnValue.NONE);
+    }
+
+    /**
+     * Update the click through rate for a targeting group with the same conditional update as update, and read the
+     * whole targeting group back from the write's response.
+     * @param targetingGroupId The ID of the targeting group to update
+     * @param clickThroughRate The new clickThroughRate for the targeting group
+     * @return The updated TargetingGroup, with the dependencies of its predicates injected
+     */
+    public TargetingGroup updateAndGet(String targetingGroupId, double clickThroughRate) {
+        UpdateItemResult result = updateClickThroughRate(targetingGroupId, clickThroughRate, ReturnValue.ALL_NEW);
+        TargetingGroup targetingGroup = mapper.marshallIntoObject(TargetingGroup.class, result.getAttributes());
+        targetingGroup.getTargetingPredicates().forEach(targetingPredicateInjector::inject);
         return targetingGroup;
     }
 
+    private UpdateItemResult updateClickThroughRate(String targetingGroupId, double clickThroughRate,
+                                                    ReturnValue returnValue) {
+        Map<String, String> names = new HashMap<>();
+        names.put("#id", TargetingGroup.TARGETING_GROUP_ID);
+        names.put("#ctr", TargetingGroup.CLICK_THROUGH_RATE);
+        UpdateItemRequest request = new UpdateItemRequest()
+                .withTableName(TargetingGroup.TABLE_NAME)
+                .withKey(Collections.singletonMap(TargetingGroup.TARGETING_GROUP_ID,
+                    new AttributeValue(targetingGroupId)))
+                .withConditionExpression("attribute_exists(#id)")
+                .withUpdateExpression("SET #ctr = :ctr")
+                .withExpressionAttributeNames(names)
+                .withExpressionAttributeValues(Collections.singletonMap(":ctr",
+                    new AttributeValue().withN(Double.toString(clickThroughRate))))
+                .withReturnValues(returnValue);
+
+        try {
+            return dynamoDbClient.updateItem(request);
+        } catch (ConditionalCheckFailedException e) {
+            throw new AdvertisementClientException("No targeting group exists with the ID " + targetingGroupId, e);
+        }
+    }
+
     /**
      * Deletes the List of TargetingGroups associated with the provided contentId.
      * @param contentId - the id of the content to delete TargetingGroups for
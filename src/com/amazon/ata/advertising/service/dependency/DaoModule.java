@@ -1,68 +1,428 @@
 package com.amazon.ata.advertising.service.dependency;
 
+import com.amazon.ata.advertising.service.businesslogic.AdDecisionCache;
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
+import com.amazon.ata.advertising.service.dao.BatchReadableDao;
+import com.amazon.ata.advertising.service.dao.CachingCustomerSpendDao;
+import com.amazon.ata.advertising.service.dao.ClickThroughRateAggregator;
 import com.amazon.ata.advertising.service.dao.ContentDao;
 import com.amazon.ata.advertising.service.dao.CustomerProfileDao;
 import com.amazon.ata.advertising.service.dao.CustomerSpendDao;
+import com.amazon.ata.advertising.service.dao.GuardedDao;
+import com.amazon.ata.advertising.service.dao.HedgingAsyncReadableDao;
+import com.amazon.ata.advertising.service.dao.MarketplaceContentCache;
 import com.amazon.ata.advertising.service.dao.PrimeDao;
 import com.amazon.ata.advertising.service.dao.ReadableDao;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
 import com.amazon.ata.advertising.service.model.RequestContext;
 import com.amazon.ata.advertising.service.targeting.TargetingGroup;
+import com.amazon.ata.advertising.service.util.DependencyGuard;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+import com.amazon.ata.advertising.service.util.MonitoredThreadPoolExecutor;
 import com.amazon.ata.customerservice.CustomerProfile;
 import com.amazon.ata.customerservice.Spend;
 
 import com.amazon.atacustomerservicelambda.service.ATACustomerService;
 import com.amazon.ataprimeclubservicelambda.service.ATAPrimeClubService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import dagger.Module;
 import dagger.Provides;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.inject.Named;
+import javax.inject.Provider;
+import javax.inject.Singleton;
 
 @Module
 public class DaoModule {
+    public static final String QUERY_EXECUTOR = "queryExecutor";
+    public static final String HEDGE_SCHEDULER = "hedgeScheduler";
+    public static final String HEDGE_EXECUTOR = "hedgeExecutor";
+    public static final String CUSTOMER_SERVICE = "customerService";
+    public static final String PRIME_CLUB_SERVICE = "primeClubService";
+
+    private static final String SPEND_CACHE_KEYS = "ata.advertising.spendCache.";
+    private static final long DEFAULT_SPEND_CACHE_SIZE = 100_000;
+    private static final long DEFAULT_SPEND_REFRESH_MINUTES = 45;
+    private static final long DEFAULT_SPEND_EXPIRY_MINUTES = 60;
+    private static final int SPEND_REFRESH_THREADS = 4;
+    private static final int SPEND_REFRESH_QUEUE_CAPACITY = 1024;
+    private static final long DEFAULT_CONTENT_RELOAD_SECONDS = 60;
+    private static final long DEFAULT_TARGETING_REBUILD_SECONDS = 300;
+    private static final String CTR_WRITE_BEHIND_KEYS = "ata.advertising.ctrWriteBehind.";
+    private static final int DEFAULT_MAX_PENDING_CTR_UPDATES = 1_000;
+    private static final long DEFAULT_CTR_FLUSH_INTERVAL_MILLIS = 5_000;
+    private static final String LAMBDA_FUNCTION_NAME_VARIABLE = "AWS_LAMBDA_FUNCTION_NAME";
+    private static final String DECISION_CACHE_KEYS = "ata.advertising.decisionCache.";
+    private static final long DEFAULT_DECISION_CACHE_SIZE = 100_000;
+    private static final long DEFAULT_DECISION_EXPIRY_SECONDS = 120;
+    private static final int DEFAULT_QUERY_THREADS = 32;
+    private static final int QUERY_QUEUE_CAPACITY = 1024;
+    private static final String HEDGING_KEYS = "ata.advertising.hedging.";
+    private static final String DEFAULT_HEDGE_PERCENTILE = "0.95";
+    private static final String DEFAULT_MAX_HEDGE_RATE = "0.05";
+    private static final int DEFAULT_HEDGE_THREADS = 4;
+    private static final int HEDGE_QUEUE_CAPACITY = 16;
+    private static final String DEPENDENCY_KEYS = "ata.advertising.dependency.";
+    private static final int DEFAULT_FAILURE_THRESHOLD = 20;
+    private static final long DEFAULT_BREAKER_OPEN_MILLIS = 5_000;
+    private static final int DEFAULT_MAX_CONCURRENT_CALLS = 32;
 
     /**
-     * Dao for content.
-     * @param contentDao source of content data
+     * Dao for content, served from the per-marketplace content snapshots.
+     * @param contentCache snapshots of content data
+     * @return Dao
+     */
+    @Provides
+    public ReadableDao<String, List<AdvertisementContent>> provideContentDao(MarketplaceContentCache contentCache) {
+        return contentCache;
+    }
+
+    /**
+     * Async Dao for content, served from the per-marketplace content snapshots.
+     * @param contentCache snapshots of content data
      * @return Dao
      */
     @Provides
-    public ReadableDao<String, List<AdvertisementContent>> provideContentDao(ContentDao contentDao) {
-        return contentDao;
+    public AsyncReadableDao<String, List<AdvertisementContent>> provideAsyncContentDao(
+            MarketplaceContentCache contentCache) {
+        return contentCache;
+    }
+
+    /**
+     * Per-marketplace snapshots of content. How often they are reloaded can be tuned with the
+     * ata.advertising.contentCache.reloadIntervalSeconds property.
+     * @param contentDao source of content data
+     * @return the content snapshots
+     */
+    @Provides
+    @Singleton
+    public MarketplaceContentCache provideMarketplaceContentCache(ContentDao contentDao) {
+        return new MarketplaceContentCache(contentDao,
+            Long.getLong("ata.advertising.contentCache.reloadIntervalSeconds", DEFAULT_CONTENT_RELOAD_SECONDS));
     }
 
     /**
-     * Dao for customer profiles.
+     * Per-marketplace index of content and targeting groups ranked by click through rate. How often it is rebuilt
+     * from the Daos can be tuned with the ata.advertising.targetingIndex.rebuildIntervalSeconds property.
+     * @param contentCache source of content data
+     * @param targetingGroupDao source of targeting group data
+     * @param targetingPredicateInjector injects the dependencies into targeting predicates
+     * @return the targeting index
+     */
+    @Provides
+    @Singleton
+    public MarketplaceTargetingIndex provideMarketplaceTargetingIndex(MarketplaceContentCache contentCache,
+                                                                      TargetingGroupDao targetingGroupDao,
+                                                                      TargetingPredicateInjector
+                                                                          targetingPredicateInjector) {
+        return new MarketplaceTargetingIndex(contentCache, targetingGroupDao, targetingPredicateInjector,
+            Long.getLong("ata.advertising.targetingIndex.rebuildIntervalSeconds", DEFAULT_TARGETING_REBUILD_SECONDS));
+    }
+
+    /**
+     * The content recently selected for each customer, shared by every request. The cache can be tuned with the
+     * ata.advertising.decisionCache.maximumSize and expireAfterSeconds properties.
+     * @param metrics publishes how often decisions are served
+     * @return the decision cache
+     */
+    @Provides
+    @Singleton
+    public AdDecisionCache provideAdDecisionCache(MetricsReporter metrics) {
+        AdDecisionCache decisionCache = new AdDecisionCache(
+            Long.getLong(DECISION_CACHE_KEYS + "maximumSize", DEFAULT_DECISION_CACHE_SIZE),
+            Long.getLong(DECISION_CACHE_KEYS + "expireAfterSeconds", DEFAULT_DECISION_EXPIRY_SECONDS));
+        decisionCache.publishTo(metrics);
+        return decisionCache;
+    }
+
+    /**
+     * Buffers click through rate updates and writes them behind the requests, re-ranking each flush's rates in the
+     * targeting index once they are written. The buffer is flushed when the JVM shuts down. How many targeting groups
+     * may wait and how often they are written can be tuned with the ata.advertising.ctrWriteBehind.maxPendingUpdates
+     * and flushIntervalMillis properties. Under Lambda, a frozen container may be reclaimed without the shutdown flush
+     * running, so updates are written through instead of buffered. Setting ata.advertising.ctrWriteBehind.writeThrough
+     * does the same anywhere else.
+     * @param targetingGroupDao writes the click through rates
+     * @param targetingIndex re-ranks the written click through rates
+     * @param metrics publishes how far behind the writes are
+     * @return the click through rate aggregator
+     */
+    @Provides
+    @Singleton
+    public ClickThroughRateAggregator provideClickThroughRateAggregator(TargetingGroupDao targetingGroupDao,
+                                                                        MarketplaceTargetingIndex targetingIndex,
+                                                                        MetricsReporter metrics) {
+        boolean writeThrough = Boolean.getBoolean(CTR_WRITE_BEHIND_KEYS + "writeThrough") ||
+            System.getenv(LAMBDA_FUNCTION_NAME_VARIABLE) != null;
+        ClickThroughRateAggregator aggregator = new ClickThroughRateAggregator(targetingGroupDao,
+            targetingIndex::updateClickThroughRates,
+            Integer.getInteger(CTR_WRITE_BEHIND_KEYS + "maxPendingUpdates", DEFAULT_MAX_PENDING_CTR_UPDATES),
+            Long.getLong(CTR_WRITE_BEHIND_KEYS + "flushIntervalMillis", DEFAULT_CTR_FLUSH_INTERVAL_MILLIS),
+            writeThrough);
+        aggregator.publishTo(metrics);
+        Runtime.getRuntime().addShutdownHook(new Thread(aggregator::flush, "click-through-rate-shutdown-flush"));
+        return aggregator;
+    }
+
+    /**
+     * Customer profiles. Calls made through getAsync run on the evaluation executor.
      * @param customerClient source of customer profile data
+     * @param callExecutor runs the blocking client calls
+     * @return the customer profile Dao
+     */
+    @Provides
+    public CustomerProfileDao provideCustomerProfileDao(ATACustomerService customerClient,
+                                                        @Named(EvaluationModule.EVALUATION_EXECUTOR)
+                                                            ExecutorService callExecutor) {
+        return new CustomerProfileDao(customerClient, callExecutor);
+    }
+
+    /**
+     * Dao for customer profiles, guarded by the CustomerService's circuit breaker and bulkhead.
+     * @param customerProfileDao source of customer profile data
+     * @param customerServiceGuard circuit breaker and bulkhead for the CustomerService
+     * @return Dao
+     */
+    @Provides
+    public ReadableDao<String, CustomerProfile> provideReadableCustomerProfileDao(
+            CustomerProfileDao customerProfileDao,
+            @Named(CUSTOMER_SERVICE) DependencyGuard customerServiceGuard) {
+        return new GuardedDao<>(customerProfileDao, customerServiceGuard);
+    }
+
+    /**
+     * Async Dao for customer profiles, guarded by the CustomerService's circuit breaker and bulkhead, and hedged if
+     * hedging is enabled.
+     * @param customerProfileDao source of customer profile data
+     * @param customerServiceGuard circuit breaker and bulkhead for the CustomerService
+     * @param hedgeScheduler decides when to hedge a call
+     * @param hedgeExecutor sends the hedged calls
      * @return Dao
      */
     @Provides
-    public ReadableDao<String, CustomerProfile> provideCustomerProfileDao(ATACustomerService customerClient) {
-        return new CustomerProfileDao(customerClient);
+    @Singleton
+    public AsyncReadableDao<String, CustomerProfile> provideAsyncCustomerProfileDao(
+            CustomerProfileDao customerProfileDao,
+            @Named(CUSTOMER_SERVICE) DependencyGuard customerServiceGuard,
+            @Named(HEDGE_SCHEDULER) Provider<ScheduledExecutorService> hedgeScheduler,
+            @Named(HEDGE_EXECUTOR) Provider<ExecutorService> hedgeExecutor) {
+        return hedgedIfEnabled(new GuardedDao<>(customerProfileDao, customerServiceGuard), hedgeScheduler,
+            hedgeExecutor);
     }
 
     /**
-     * Dao for customer spend per category.
+     * Customer spend per category, cached across requests. The cache can be tuned with the
+     * ata.advertising.spendCache.maximumSize, refreshAfterMinutes and expireAfterMinutes properties. Every call to the
+     * CustomerService, whether made by get, getAsync or a background refresh, is guarded by its circuit breaker and
+     * bulkhead. Calls made through getAsync run on the evaluation executor, and are hedged if hedging is enabled.
      * @param customerClient source of customer spend data
+     * @param callExecutor runs the blocking client calls
+     * @param customerServiceGuard circuit breaker and bulkhead for the CustomerService
+     * @param hedgeScheduler decides when to hedge a call
+     * @param hedgeExecutor sends the hedged calls
+     * @param metrics publishes the cache's hit ratio and load statistics
+     * @return the cached customer spend Dao
+     */
+    @Provides
+    @Singleton
+    public CachingCustomerSpendDao provideCachingCustomerSpendDao(ATACustomerService customerClient,
+                                                                  @Named(EvaluationModule.EVALUATION_EXECUTOR)
+                                                                      ExecutorService callExecutor,
+                                                                  @Named(CUSTOMER_SERVICE)
+                                                                      DependencyGuard customerServiceGuard,
+                                                                  @Named(HEDGE_SCHEDULER)
+                                                                      Provider<ScheduledExecutorService>
+                                                                      hedgeScheduler,
+                                                                  @Named(HEDGE_EXECUTOR)
+                                                                      Provider<ExecutorService> hedgeExecutor,
+                                                                  MetricsReporter metrics) {
+        final GuardedDao<RequestContext, Map<String, Spend>> spendDao = new GuardedDao<>(
+            new CustomerSpendDao(customerClient, callExecutor), customerServiceGuard);
+        final MonitoredThreadPoolExecutor refreshExecutor = new MonitoredThreadPoolExecutor("spend-cache-refresh",
+            SPEND_REFRESH_THREADS, SPEND_REFRESH_QUEUE_CAPACITY);
+        refreshExecutor.publishTo(metrics);
+        final CachingCustomerSpendDao cachingSpendDao = new CachingCustomerSpendDao(spendDao,
+            hedgedIfEnabled(spendDao, hedgeScheduler, hedgeExecutor),
+            Long.getLong(SPEND_CACHE_KEYS + "maximumSize", DEFAULT_SPEND_CACHE_SIZE),
+            Long.getLong(SPEND_CACHE_KEYS + "refreshAfterMinutes", DEFAULT_SPEND_REFRESH_MINUTES),
+            Long.getLong(SPEND_CACHE_KEYS + "expireAfterMinutes", DEFAULT_SPEND_EXPIRY_MINUTES),
+            refreshExecutor);
+        cachingSpendDao.publishTo(metrics);
+        return cachingSpendDao;
+    }
+
+    /**
+     * Dao for customer spend per category, cached across requests.
+     * @param spendDao the cached source of customer spend data
      * @return Dao
      */
     @Provides
-    public ReadableDao<RequestContext, Map<String, Spend>> provideCustomerSpendDao(ATACustomerService customerClient) {
-        return new CustomerSpendDao(customerClient);
+    public ReadableDao<RequestContext, Map<String, Spend>> provideCustomerSpendDao(CachingCustomerSpendDao spendDao) {
+        return spendDao;
     }
 
     /**
-     * Dao for prime benefits.
+     * Async Dao for customer spend per category, cached across requests.
+     * @param spendDao the cached source of customer spend data
+     * @return Dao
+     */
+    @Provides
+    public AsyncReadableDao<RequestContext, Map<String, Spend>> provideAsyncCustomerSpendDao(
+            CachingCustomerSpendDao spendDao) {
+        return spendDao;
+    }
+
+    /**
+     * Prime benefits. Calls made through getAsync run on the evaluation executor.
      * @param primeClubServiceClient source of prime benefit data
+     * @param callExecutor runs the blocking client calls
+     * @return the prime benefit Dao
+     */
+    @Provides
+    public PrimeDao providePrimeDao(ATAPrimeClubService primeClubServiceClient,
+                                    @Named(EvaluationModule.EVALUATION_EXECUTOR) ExecutorService callExecutor) {
+        return new PrimeDao(primeClubServiceClient, callExecutor);
+    }
+
+    /**
+     * Dao for prime benefits, guarded by the PrimeClubService's circuit breaker and bulkhead.
+     * @param primeDao source of prime benefit data
+     * @param primeClubServiceGuard circuit breaker and bulkhead for the PrimeClubService
+     * @return Dao
+     */
+    @Provides
+    public ReadableDao<RequestContext, List<String>> provideReadablePrimeDao(
+            PrimeDao primeDao,
+            @Named(PRIME_CLUB_SERVICE) DependencyGuard primeClubServiceGuard) {
+        return new GuardedDao<>(primeDao, primeClubServiceGuard);
+    }
+
+    /**
+     * Async Dao for prime benefits, guarded by the PrimeClubService's circuit breaker and bulkhead, and hedged if
+     * hedging is enabled.
+     * @param primeDao source of prime benefit data
+     * @param primeClubServiceGuard circuit breaker and bulkhead for the PrimeClubService
+     * @param hedgeScheduler decides when to hedge a call
+     * @param hedgeExecutor sends the hedged calls
      * @return Dao
      */
     @Provides
-    public ReadableDao<RequestContext, List<String>> providePrimeDao(ATAPrimeClubService primeClubServiceClient) {
-        return new PrimeDao(primeClubServiceClient);
+    @Singleton
+    public AsyncReadableDao<RequestContext, List<String>> provideAsyncPrimeDao(
+            PrimeDao primeDao,
+            @Named(PRIME_CLUB_SERVICE) DependencyGuard primeClubServiceGuard,
+            @Named(HEDGE_SCHEDULER) Provider<ScheduledExecutorService> hedgeScheduler,
+            @Named(HEDGE_EXECUTOR) Provider<ExecutorService> hedgeExecutor) {
+        return hedgedIfEnabled(new GuardedDao<>(primeDao, primeClubServiceGuard), hedgeScheduler, hedgeExecutor);
+    }
+
+    /**
+     * Circuit breaker and bulkhead shared by every call to the CustomerService.
+     * @param metrics publishes the state of the guard
+     * @return the CustomerService's guard
+     */
+    @Provides
+    @Singleton
+    @Named(CUSTOMER_SERVICE)
+    public DependencyGuard provideCustomerServiceGuard(MetricsReporter metrics) {
+        return dependencyGuard(CUSTOMER_SERVICE, metrics);
+    }
+
+    /**
+     * Circuit breaker and bulkhead shared by every call to the PrimeClubService.
+     * @param metrics publishes the state of the guard
+     * @return the PrimeClubService's guard
+     */
+    @Provides
+    @Singleton
+    @Named(PRIME_CLUB_SERVICE)
+    public DependencyGuard providePrimeClubServiceGuard(MetricsReporter metrics) {
+        return dependencyGuard(PRIME_CLUB_SERVICE, metrics);
+    }
+
+    /**
+     * Creates the guard for a downstream service. It can be tuned with the
+     * ata.advertising.dependency.[service].failureThreshold, openMillis and maxConcurrentCalls properties.
+     * @param service the name of the service
+     * @param metrics publishes the state of the guard
+     * @return the service's guard
+     */
+    private static DependencyGuard dependencyGuard(String service, MetricsReporter metrics) {
+        final String keys = DEPENDENCY_KEYS + service + ".";
+        final DependencyGuard guard = new DependencyGuard(service,
+            Integer.getInteger(keys + "failureThreshold", DEFAULT_FAILURE_THRESHOLD),
+            Long.getLong(keys + "openMillis", DEFAULT_BREAKER_OPEN_MILLIS),
+            Integer.getInteger(keys + "maxConcurrentCalls", DEFAULT_MAX_CONCURRENT_CALLS));
+        guard.publishTo(metrics);
+        return guard;
     }
 
+    /**
+     * Hedges the calls to a downstream service if the ata.advertising.hedging.enabled property is true. A call is
+     * hedged once it has taken longer than the ata.advertising.hedging.percentile of observed latencies, and at most
+     * the ata.advertising.hedging.maxRate fraction of calls are hedged.
+     * @param dao the Dao that calls the downstream service
+     * @param hedgeScheduler decides when to hedge a call, only created when hedging is enabled
+     * @param hedgeExecutor sends the hedged calls, only created when hedging is enabled
+     * @return the hedged Dao, or the Dao itself if hedging is disabled
+     */
+    private static <I, O> AsyncReadableDao<I, O> hedgedIfEnabled(AsyncReadableDao<I, O> dao,
+                                                                 Provider<ScheduledExecutorService> hedgeScheduler,
+                                                                 Provider<ExecutorService> hedgeExecutor) {
+        if (!Boolean.getBoolean(HEDGING_KEYS + "enabled")) {
+            return dao;
+        }
+        return new HedgingAsyncReadableDao<>(dao, hedgeScheduler.get(), hedgeExecutor.get(),
+            Double.parseDouble(System.getProperty(HEDGING_KEYS + "percentile", DEFAULT_HEDGE_PERCENTILE)),
+            Double.parseDouble(System.getProperty(HEDGING_KEYS + "maxRate", DEFAULT_MAX_HEDGE_RATE)));
+    }
+
+    /**
+     * Provides the scheduler that decides whether to hedge a downstream call once its delay has passed.
+     * @return the shared hedge scheduler
+     */
+    @Provides
+    @Singleton
+    @Named(HEDGE_SCHEDULER)
+    public ScheduledExecutorService provideHedgeScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+            .setNameFormat("dao-hedge-%d")
+            .setDaemon(true)
+            .build());
+    }
+
+    /**
+     * Provides the executor that sends hedged downstream calls. Sending a call can block when the evaluation executor
+     * is saturated, so hedges get their own threads instead of the scheduler's. When those are busy too, the hedge is
+     * rejected and the call is not hedged. The pool size can be tuned with the ata.advertising.hedging.threads
+     * property.
+     * @return the shared hedge executor
+     */
+    @Provides
+    @Singleton
+    @Named(HEDGE_EXECUTOR)
+    public ExecutorService provideHedgeExecutor() {
+        final int threads = Integer.getInteger(HEDGING_KEYS + "threads", DEFAULT_HEDGE_THREADS);
+        final ThreadPoolExecutor hedgeExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(HEDGE_QUEUE_CAPACITY),
+            new ThreadFactoryBuilder()
+                .setNameFormat("dao-hedge-call-%d")
+                .setDaemon(true)
+                .build(),
+            new ThreadPoolExecutor.AbortPolicy());
+        hedgeExecutor.allowCoreThreadTimeOut(true);
+        return hedgeExecutor;
+    }
 
     /**
      * Dao to get all of the targeting groups for a piece of content.
@@ -73,4 +433,42 @@ public class DaoModule {
     public ReadableDao<String, List<TargetingGroup>> provideTargetingGroupDao(TargetingGroupDao targetingGroupDao) {
         return targetingGroupDao;
     }
+
+    /**
+     * Async Dao to get all of the targeting groups for a piece of content.
+     * @param targetingGroupDao source of targeting Dao data
+     * @return Dao
+     */
+    @Provides
+    public AsyncReadableDao<String, List<TargetingGroup>> provideAsyncTargetingGroupDao(
+            TargetingGroupDao targetingGroupDao) {
+        return targetingGroupDao;
+    }
+
+    /**
+     * Dao to get all of the targeting groups for many pieces of content at once.
+     * @param targetingGroupDao source of targeting Dao data
+     * @return Dao
+     */
+    @Provides
+    public BatchReadableDao<String, List<TargetingGroup>> provideBatchTargetingGroupDao(
+            TargetingGroupDao targetingGroupDao) {
+        return targetingGroupDao;
+    }
+
+    /**
+     * Provides the executor batched DynamoDB queries run on. Its size can be tuned with the
+     * ata.advertising.dao.queryThreads property.
+     * @param metrics publishes how busy the executor is
+     * @return the shared query executor
+     */
+    @Provides
+    @Singleton
+    @Named(QUERY_EXECUTOR)
+    public ExecutorService provideQueryExecutor(MetricsReporter metrics) {
+        final MonitoredThreadPoolExecutor queryExecutor = new MonitoredThreadPoolExecutor("dynamodb-query",
+            Integer.getInteger("ata.advertising.dao.queryThreads", DEFAULT_QUERY_THREADS), QUERY_QUEUE_CAPACITY);
+        queryExecutor.publishTo(metrics);
+        return queryExecutor;
+    }
 }
@@ -14,18 +14,29 @@ import javax.inject.Singleton;
 public class DynamoDBModule {
 
     /**
-     * Provides a singleton instance of DynamoDBMapper.
+     * Provides a singleton instance of the DynamoDB client, for the calls the DynamoDBMapper can't make, such as
+     * conditional updates of single attributes.
      *
-     * @return DynamoDBMapper
+     * @return AmazonDynamoDB
      */
     @Singleton
     @Provides
-    public DynamoDBMapper provideDynamoDBMapper() {
-        AmazonDynamoDB amazonDynamoDBClient = AmazonDynamoDBClientBuilder.standard()
+    public AmazonDynamoDB provideAmazonDynamoDB() {
+        return AmazonDynamoDBClientBuilder.standard()
                 .withCredentials(DefaultAWSCredentialsProviderChain.getInstance())
                 .withRegion(Regions.US_WEST_2)
                 .build();
+    }
 
+    /**
+     * Provides a singleton instance of DynamoDBMapper.
+     *
+     * @param amazonDynamoDBClient the client the mapper calls DynamoDB with
+     * @return DynamoDBMapper
+     */
+    @Singleton
+    @Provides
+    public DynamoDBMapper provideDynamoDBMapper(AmazonDynamoDB amazonDynamoDBClient) {
         return new DynamoDBMapper(amazonDynamoDBClient);
     }
 }
@@ -0,0 +1,167 @@
+package com.amazon.ata.advertising.service.dependency;
+
+import com.amazon.ata.advertising.service.activity.GenerateAdActivity;
+import com.amazon.ata.advertising.service.businesslogic.AdvertisementSelectionLogic;
+import com.amazon.ata.advertising.service.targeting.DeadlineStatistics;
+import com.amazon.ata.advertising.service.targeting.SelectionEngine;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+import com.amazon.ata.advertising.service.util.MonitoredThreadPoolExecutor;
+import com.amazon.ata.advertising.service.util.RequestCacheStatistics;
+
+import dagger.Module;
+import dagger.Provides;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ExecutorService;
+import javax.inject.Named;
+import javax.inject.Singleton;
+
+/**
+ * Wire up the threads used to evaluate targeting predicates and to make the blocking downstream calls they depend on.
+ */
+@Module
+public class EvaluationModule {
+    private static final Logger LOG = LogManager.getLogger(EvaluationModule.class);
+
+    public static final String EVALUATION_EXECUTOR = "evaluationExecutor";
+    public static final String SPECULATIVE_GROUPS = "speculativeGroups";
+    public static final String REMOTE_PREDICATES_IN_FLIGHT = "remotePredicatesInFlight";
+    public static final String SELECTION_DEADLINE_MILLIS = "selectionDeadlineMillis";
+    public static final String SELECTION_ENGINE = "selectionEngine";
+
+    private static final String EVALUATION_KEYS = "ata.advertising.evaluation.";
+    private static final int DEFAULT_POOL_SIZE = 64;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int DEFAULT_SPECULATIVE_GROUPS = 4;
+    private static final int DEFAULT_REMOTE_PREDICATES_IN_FLIGHT = 1;
+    private static final long DEFAULT_SELECTION_DEADLINE_MILLIS = 0;
+
+    /**
+     * Provides the pool of platform threads downstream calls are made on. The pool size and queue capacity can be
+     * tuned with the ata.advertising.evaluation.poolSize and ata.advertising.evaluation.queueCapacity properties.
+     * @param metrics publishes how busy the pool is
+     * @return the shared evaluation pool
+     */
+    @Provides
+    @Singleton
+    public MonitoredThreadPoolExecutor provideMonitoredEvaluationExecutor(MetricsReporter metrics) {
+        int poolSize = Integer.getInteger(EVALUATION_KEYS + "poolSize", DEFAULT_POOL_SIZE);
+        int queueCapacity = Integer.getInteger(EVALUATION_KEYS + "queueCapacity", DEFAULT_QUEUE_CAPACITY);
+        MonitoredThreadPoolExecutor pool = new MonitoredThreadPoolExecutor("targeting-evaluation", poolSize,
+            queueCapacity);
+        pool.publishTo(metrics);
+        return pool;
+    }
+
+    /**
+     * Provides the executor the blocking downstream calls made by the async Daos run on.
+     * @param platformThreadPool the shared evaluation pool
+     * @return the shared evaluation executor
+     */
+    @Provides
+    @Singleton
+    @Named(EVALUATION_EXECUTOR)
+    public ExecutorService provideEvaluationExecutor(MonitoredThreadPoolExecutor platformThreadPool) {
+        return platformThreadPool;
+    }
+
+    /**
+     * Provides how many targeting groups ad selection evaluates ahead of the highest click through rate group it is
+     * still waiting on. Can be tuned with the ata.advertising.evaluation.speculativeGroups property.
+     * @return the number of targeting groups evaluated at once
+     */
+    @Provides
+    @Named(SPECULATIVE_GROUPS)
+    public int provideSpeculativeGroups() {
+        return Math.max(1, Integer.getInteger(EVALUATION_KEYS + SPECULATIVE_GROUPS, DEFAULT_SPECULATIVE_GROUPS));
+    }
+
+    /**
+     * Provides how many of a targeting group's remote predicates may wait on downstream calls at once. The next one is
+     * started only when one of those is TRUE. Can be tuned with the ata.advertising.evaluation.remotePredicatesInFlight
+     * property. By default they are evaluated one at a time.
+     * @return the number of a group's remote predicates evaluated at once
+     */
+    @Provides
+    @Named(REMOTE_PREDICATES_IN_FLIGHT)
+    public int provideRemotePredicatesInFlight() {
+        return Math.max(1, Integer.getInteger(EVALUATION_KEYS + REMOTE_PREDICATES_IN_FLIGHT,
+            DEFAULT_REMOTE_PREDICATES_IN_FLIGHT));
+    }
+
+    /**
+     * Provides how long ad selection waits on downstream calls before settling for the best ad proven eligible so far.
+     * Can be set with the ata.advertising.evaluation.selectionDeadlineMillis property. By default, and whenever it is
+     * zero or less, there is no deadline and selection waits for every call to complete, as it always has.
+     * @return the time budget for selecting an ad, in milliseconds
+     */
+    @Provides
+    @Named(SELECTION_DEADLINE_MILLIS)
+    public long provideSelectionDeadlineMillis() {
+        return Long.getLong(EVALUATION_KEYS + SELECTION_DEADLINE_MILLIS, DEFAULT_SELECTION_DEADLINE_MILLIS);
+    }
+
+    /**
+     * Provides the counters of how often ad selection runs out of its time budget.
+     * @param metrics publishes the counters
+     * @return the shared deadline statistics
+     */
+    @Provides
+    @Singleton
+    public DeadlineStatistics provideDeadlineStatistics(MetricsReporter metrics) {
+        DeadlineStatistics deadlineStatistics = new DeadlineStatistics();
+        deadlineStatistics.publishTo(metrics);
+        return deadlineStatistics;
+    }
+
+    /**
+     * Provides the counters of every request's cache lookups.
+     * @param metrics publishes the counters
+     * @return the shared request cache statistics
+     */
+    @Provides
+    @Singleton
+    public RequestCacheStatistics provideRequestCacheStatistics(MetricsReporter metrics) {
+        RequestCacheStatistics requestCacheStatistics = new RequestCacheStatistics();
+        requestCacheStatistics.publishTo(metrics);
+        return requestCacheStatistics;
+    }
+
+    /**
+     * Provides the GenerateAdvertisement activity. Every request shares the one activity, so concurrent requests for
+     * the same ads can share one selection.
+     * @param adSelector selects the ads
+     * @param metrics publishes how many requests shared another request's selection
+     * @return the shared activity
+     */
+    @Provides
+    @Singleton
+    public GenerateAdActivity provideGenerateAdActivity(AdvertisementSelectionLogic adSelector,
+                                                       MetricsReporter metrics) {
+        GenerateAdActivity activity = new GenerateAdActivity(adSelector);
+        activity.publishTo(metrics);
+        return activity;
+    }
+
+    /**
+     * Provides how ad selection finds the targeting groups to evaluate, named by the
+     * ata.advertising.evaluation.selectionEngine property. Walks every targeting group if it is not set or doesn't
+     * name an engine.
+     * @return the selection engine
+     */
+    @Provides
+    @Named(SELECTION_ENGINE)
+    public SelectionEngine provideSelectionEngine() {
+        final String engine = System.getProperty(EVALUATION_KEYS + SELECTION_ENGINE);
+        if (engine == null) {
+            return SelectionEngine.LINEAR_SCAN;
+        }
+        try {
+            return SelectionEngine.valueOf(engine.trim());
+        } catch (IllegalArgumentException e) {
+            LOG.warn(String.format("Unknown selection engine %s. Using %s.", engine, SelectionEngine.LINEAR_SCAN));
+            return SelectionEngine.LINEAR_SCAN;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.amazon.ata.advertising.service.dependency;
+
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+
+import dagger.Module;
+import dagger.Provides;
+
+import javax.inject.Singleton;
+
+/**
+ * Wire up the reporter the service's gauges and counters are published through.
+ */
+@Module
+public class MetricsModule {
+    private static final long DEFAULT_REPORT_INTERVAL_SECONDS = 60;
+
+    /**
+     * Provides the reporter every component registers its metrics with. How often the metrics are written to the log
+     * can be tuned with the ata.advertising.metrics.reportIntervalSeconds property, where zero or less turns reporting
+     * off.
+     * @return the shared metrics reporter
+     */
+    @Provides
+    @Singleton
+    public MetricsReporter provideMetricsReporter() {
+        return new MetricsReporter(
+            Long.getLong("ata.advertising.metrics.reportIntervalSeconds", DEFAULT_REPORT_INTERVAL_SECONDS));
+    }
+}
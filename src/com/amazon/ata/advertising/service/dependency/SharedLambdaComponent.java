@@ -0,0 +1,22 @@
+package com.amazon.ata.advertising.service.dependency;
+
+/**
+ * Holds the one LambdaComponent every handler in the process uses. The write activities keep the serving snapshots
+ * current by updating the singletons in the component, so a handler with a component of its own would update
+ * snapshots nothing serves from. The component is created the first time a handler asks for it.
+ */
+public final class SharedLambdaComponent {
+    private SharedLambdaComponent() {}
+
+    /**
+     * Gets the process-wide component, creating it on first use.
+     * @return the shared LambdaComponent
+     */
+    public static LambdaComponent get() {
+        return Holder.COMPONENT;
+    }
+
+    private static final class Holder {
+        private static final LambdaComponent COMPONENT = DaggerLambdaComponent.create();
+    }
+}
@@ -0,0 +1,11 @@
+package com.amazon.ata.advertising.service.exceptions;
+
+/**
+ * Thrown instead of calling a downstream service that is failing or already has as many calls in flight as it is
+ * allowed, so the caller can fall back right away.
+ */
+public class DependencyUnavailableException extends RuntimeException {
+    public DependencyUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -10,9 +10,13 @@ import java.util.Objects;
 /**
  * An Advertisement's content contains an id that is unique to the template used to generate its renderable content.
  */
-@DynamoDBTable(tableName = "Content")
+@DynamoDBTable(tableName = AdvertisementContent.TABLE_NAME)
 public class AdvertisementContent {
+    public static final String TABLE_NAME = "Content";
     public static final String MARKETPLACE_ID_INDEX = "MarketplaceIdIndex";
+    public static final String CONTENT_ID = "ContentId";
+    public static final String RENDERABLE_CONTENT = "RenderableContent";
+    public static final String MARKETPLACE_ID = "MarketplaceId";
 
     private String contentId;
     private String renderableContent;
@@ -35,7 +39,7 @@ public class AdvertisementContent {
      */
     public AdvertisementContent() {}
 
-    @DynamoDBAttribute(attributeName = "RenderableContent")
+    @DynamoDBAttribute(attributeName = RENDERABLE_CONTENT)
     public String getRenderableContent() {
         return this.renderableContent;
     }
@@ -44,7 +48,7 @@ public class AdvertisementContent {
         this.renderableContent = renderableContent;
     }
 
-    @DynamoDBHashKey(attributeName = "ContentId")
+    @DynamoDBHashKey(attributeName = CONTENT_ID)
     public String getContentId() {
         return contentId;
     }
@@ -53,7 +57,7 @@ public class AdvertisementContent {
         this.contentId = contentId;
     }
 
-    @DynamoDBIndexHashKey(globalSecondaryIndexName = MARKETPLACE_ID_INDEX, attributeName = "MarketplaceId")
+    @DynamoDBIndexHashKey(globalSecondaryIndexName = MARKETPLACE_ID_INDEX, attributeName = MARKETPLACE_ID)
     public String getMarketplaceId() {
         return marketplaceId;
     }
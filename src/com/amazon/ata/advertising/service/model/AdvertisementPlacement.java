@@ -0,0 +1,75 @@
+package com.amazon.ata.advertising.service.model;
+
+public class AdvertisementPlacement {
+    private String customerId;
+    private String marketplaceId;
+    private String slot;
+
+    public AdvertisementPlacement(String customerId, String marketplaceId, String slot) {
+        this.customerId = customerId;
+        this.marketplaceId = marketplaceId;
+        this.slot = slot;
+    }
+
+    public AdvertisementPlacement() {
+    }
+
+    public String getCustomerId() {
+        return customerId;
+    }
+
+    public void setCustomerId(String customerId) {
+        this.customerId = customerId;
+    }
+
+    public String getMarketplaceId() {
+        return marketplaceId;
+    }
+
+    public void setMarketplaceId(String marketplaceId) {
+        this.marketplaceId = marketplaceId;
+    }
+
+    public String getSlot() {
+        return slot;
+    }
+
+    public void setSlot(String slot) {
+        this.slot = slot;
+    }
+
+    public AdvertisementPlacement(Builder builder) {
+        this.customerId = builder.customerId;
+        this.marketplaceId = builder.marketplaceId;
+        this.slot = builder.slot;
+    }
+
+    public static Builder builder() {return new Builder();}
+
+    public static final class Builder {
+        private String customerId;
+        private String marketplaceId;
+        private String slot;
+
+        private Builder() {
+
+        }
+
+        public Builder withCustomerId(String customerIdToUse) {
+            this.customerId = customerIdToUse;
+            return this;
+        }
+
+        public Builder withMarketplaceId(String marketplaceIdToUse) {
+            this.marketplaceId = marketplaceIdToUse;
+            return this;
+        }
+
+        public Builder withSlot(String slotToUse) {
+            this.slot = slotToUse;
+            return this;
+        }
+
+        public AdvertisementPlacement build() { return new AdvertisementPlacement(this); }
+    }
+}
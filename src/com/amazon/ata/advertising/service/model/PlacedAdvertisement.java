@@ -0,0 +1,58 @@
+package com.amazon.ata.advertising.service.model;
+
+public class PlacedAdvertisement {
+    private String slot;
+    private Advertisement advertisement;
+
+    public PlacedAdvertisement(String slot, Advertisement advertisement) {
+        this.slot = slot;
+        this.advertisement = advertisement;
+    }
+
+    public PlacedAdvertisement() {
+    }
+
+    public String getSlot() {
+        return slot;
+    }
+
+    public void setSlot(String slot) {
+        this.slot = slot;
+    }
+
+    public Advertisement getAdvertisement() {
+        return advertisement;
+    }
+
+    public void setAdvertisement(Advertisement advertisement) {
+        this.advertisement = advertisement;
+    }
+
+    public PlacedAdvertisement(Builder builder) {
+        this.slot = builder.slot;
+        this.advertisement = builder.advertisement;
+    }
+
+    public static Builder builder() {return new Builder();}
+
+    public static final class Builder {
+        private String slot;
+        private Advertisement advertisement;
+
+        private Builder() {
+
+        }
+
+        public Builder withSlot(String slotToUse) {
+            this.slot = slotToUse;
+            return this;
+        }
+
+        public Builder withAdvertisement(Advertisement advertisementToUse) {
+            this.advertisement = advertisementToUse;
+            return this;
+        }
+
+        public PlacedAdvertisement build() { return new PlacedAdvertisement(this); }
+    }
+}
@@ -1,16 +1,23 @@
 package com.amazon.ata.advertising.service.model;
 
+import com.amazon.ata.advertising.service.util.Deadline;
+import com.amazon.ata.advertising.service.util.RequestScopedCache;
+
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.Objects;
 
 /**
- * Information derived from a service request object.
+ * Information derived from a service request object. Each RequestContext also carries a cache for data that is looked
+ * up on behalf of this request, so every targeting predicate evaluated for it can share one lookup, and the deadline
+ * by which the request should be answered.
  */
 public class RequestContext {
     private final boolean recognizedCustomer;
     private final String customerId;
     private final String marketplaceId;
+    private final Deadline deadline;
+    private final RequestScopedCache requestCache = new RequestScopedCache();
 
     /**
      * Constructor of RequestContext objects. A flag denoting whether the customer is recognized is set based on the
@@ -20,6 +27,17 @@ public class RequestContext {
      * @param marketplaceId The marketplace to view the advertisement in.
      */
     public RequestContext(String customerId, String marketplaceId) {
+        this(customerId, marketplaceId, Deadline.none());
+    }
+
+    /**
+     * Constructor of RequestContext objects for requests that must be answered by a deadline.
+     * @param customerId The unique identifier for the customer who will be viewing the advertisement, if the customer
+     *                   is recognized.
+     * @param marketplaceId The marketplace to view the advertisement in.
+     * @param deadline When evaluation should give up on anything still pending.
+     */
+    public RequestContext(String customerId, String marketplaceId, Deadline deadline) {
         if (StringUtils.isBlank(customerId)) {
             this.recognizedCustomer = false;
             this.customerId = null;
@@ -28,6 +46,7 @@ public class RequestContext {
             this.customerId = customerId;
         }
         this.marketplaceId = marketplaceId;
+        this.deadline = deadline;
     }
 
     public boolean isRecognizedCustomer() {
@@ -42,6 +61,14 @@ public class RequestContext {
         return marketplaceId;
     }
 
+    public Deadline getDeadline() {
+        return deadline;
+    }
+
+    public RequestScopedCache getRequestCache() {
+        return requestCache;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -3,6 +3,7 @@ package com.amazon.ata.advertising.service.model.requests;
 public class GenerateAdvertisementRequest {
     private String customerId;
     private String marketplaceId;
+    private int numberOfAds;
 
     public GenerateAdvertisementRequest(String customerId, String marketplaceId) {
         this.customerId = customerId;
@@ -28,9 +29,18 @@ public class GenerateAdvertisementRequest {
         this.marketplaceId = marketPlaceId;
     }
 
+    public int getNumberOfAds() {
+        return numberOfAds;
+    }
+
+    public void setNumberOfAds(int numberOfAds) {
+        this.numberOfAds = numberOfAds;
+    }
+
     public GenerateAdvertisementRequest(Builder builder) {
         this.customerId = builder.customerId;
         this.marketplaceId = builder.marketplaceId;
+        this.numberOfAds = builder.numberOfAds;
     }
 
     public static Builder builder() {return new Builder();}
@@ -38,6 +48,7 @@ public class GenerateAdvertisementRequest {
     public static final class Builder {
         private String customerId;
         private String marketplaceId;
+        private int numberOfAds;
 
         private Builder() {
 
@@ -53,6 +64,11 @@ public class GenerateAdvertisementRequest {
             return this;
         }
 
+        public Builder withNumberOfAds(int numberOfAdsToUse) {
+            this.numberOfAds = numberOfAdsToUse;
+            return this;
+        }
+
         public GenerateAdvertisementRequest build() { return new GenerateAdvertisementRequest(this); }
     }
 }
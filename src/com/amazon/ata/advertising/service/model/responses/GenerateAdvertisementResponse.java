@@ -2,8 +2,11 @@ package com.amazon.ata.advertising.service.model.responses;
 
 import com.amazon.ata.advertising.service.model.Advertisement;
 
+import java.util.List;
+
 public class GenerateAdvertisementResponse {
     private Advertisement advertisement;
+    private List<Advertisement> advertisements;
 
     public GenerateAdvertisementResponse(Advertisement advertisement) {
         this.advertisement = advertisement;
@@ -20,14 +23,24 @@ public class GenerateAdvertisementResponse {
         this.advertisement = advertisement;
     }
 
+    public List<Advertisement> getAdvertisements() {
+        return advertisements;
+    }
+
+    public void setAdvertisements(List<Advertisement> advertisements) {
+        this.advertisements = advertisements;
+    }
+
     public GenerateAdvertisementResponse(Builder builder) {
         this.advertisement = builder.advertisement;
+        this.advertisements = builder.advertisements;
     }
 
     public static Builder builder() {return new Builder();}
 
     public static final class Builder {
         private Advertisement advertisement;
+        private List<Advertisement> advertisements;
 
         private Builder() {
 
@@ -38,6 +51,11 @@ public class GenerateAdvertisementResponse {
             return this;
         }
 
+        public Builder withAdvertisements(List<Advertisement> advertisementsToUse) {
+            this.advertisements = advertisementsToUse;
+            return this;
+        }
+
         public GenerateAdvertisementResponse build() { return new GenerateAdvertisementResponse(this); }
     }
 }
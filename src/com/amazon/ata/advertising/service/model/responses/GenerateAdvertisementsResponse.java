@@ -0,0 +1,45 @@
+package com.amazon.ata.advertising.service.model.responses;
+
+import com.amazon.ata.advertising.service.model.PlacedAdvertisement;
+
+import java.util.List;
+
+public class GenerateAdvertisementsResponse {
+    private List<PlacedAdvertisement> advertisements;
+
+    public GenerateAdvertisementsResponse(List<PlacedAdvertisement> advertisements) {
+        this.advertisements = advertisements;
+    }
+
+    public GenerateAdvertisementsResponse() {
+    }
+
+    public List<PlacedAdvertisement> getAdvertisements() {
+        return advertisements;
+    }
+
+    public void setAdvertisements(List<PlacedAdvertisement> advertisements) {
+        this.advertisements = advertisements;
+    }
+
+    public GenerateAdvertisementsResponse(Builder builder) {
+        this.advertisements = builder.advertisements;
+    }
+
+    public static Builder builder() {return new Builder();}
+
+    public static final class Builder {
+        private List<PlacedAdvertisement> advertisements;
+
+        private Builder() {
+
+        }
+
+        public Builder withAdvertisements(List<PlacedAdvertisement> advertisementsToUse) {
+            this.advertisements = advertisementsToUse;
+            return this;
+        }
+
+        public GenerateAdvertisementsResponse build() { return new GenerateAdvertisementsResponse(this); }
+    }
+}
@@ -30,4 +30,15 @@ public enum Comparison {
         final int comparision = left.compareTo(right);
         return comparision >= min && comparision <= max;
     }
+
+    /**
+     * Compare two ints without boxing them.  i.e. for LT determines if left < right
+     * @param left value on the left side of the operator
+     * @param right value on the right side of the operator
+     * @return true if the evaluation holds
+     */
+    public boolean compare(int left, int right) {
+        final int comparision = Integer.compare(left, right);
+        return comparision >= min && comparision <= max;
+    }
 }
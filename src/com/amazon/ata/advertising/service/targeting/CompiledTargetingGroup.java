@@ -0,0 +1,94 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+
+import com.google.common.collect.Interner;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A TargetingGroup prepared for evaluation. Its predicates are split into the ones that can be evaluated without
+ * calling a downstream service and the ones that can't, so the cheap predicates can be checked first.
+ */
+public class CompiledTargetingGroup {
+    private final TargetingGroup targetingGroup;
+    private final List<TargetingPredicate> predicates;
+    private final List<TargetingPredicate> localPredicates;
+    private final List<TargetingPredicate> remotePredicates;
+
+    private CompiledTargetingGroup(TargetingGroup targetingGroup,
+                                   List<TargetingPredicate> predicates,
+                                   List<TargetingPredicate> localPredicates,
+                                   List<TargetingPredicate> remotePredicates) {
+        this.targetingGroup = targetingGroup;
+        this.predicates = Collections.unmodifiableList(predicates);
+        this.localPredicates = Collections.unmodifiableList(localPredicates);
+        this.remotePredicates = Collections.unmodifiableList(remotePredicates);
+    }
+
+    /**
+     * Prepares a TargetingGroup for evaluation.
+     * @param targetingGroup the group to compile
+     * @return the compiled group
+     */
+    public static CompiledTargetingGroup compile(TargetingGroup targetingGroup) {
+        return compile(targetingGroup, predicate -> predicate);
+    }
+
+    /**
+     * Prepares a TargetingGroup for evaluation, replacing each of its predicates with the canonical instance of
+     * every equal predicate. Groups compiled with the same interner share the predicates they have in common.
+     * @param targetingGroup the group to compile
+     * @param canonicalPredicates returns the canonical instance of a predicate
+     * @return the compiled group
+     */
+    public static CompiledTargetingGroup compile(TargetingGroup targetingGroup,
+                                                 Interner<TargetingPredicate> canonicalPredicates) {
+        final List<TargetingPredicate> predicates = new ArrayList<>();
+        final List<TargetingPredicate> localPredicates = new ArrayList<>();
+        final List<TargetingPredicate> remotePredicates = new ArrayList<>();
+        for (TargetingPredicate targetingPredicate : targetingGroup.getTargetingPredicates()) {
+            final TargetingPredicate predicate = canonicalPredicates.intern(targetingPredicate);
+            predicates.add(predicate);
+            if (predicate.requiresRemoteData()) {
+                remotePredicates.add(predicate);
+            } else {
+                localPredicates.add(predicate);
+            }
+        }
+        return new CompiledTargetingGroup(targetingGroup, predicates, localPredicates, remotePredicates);
+    }
+
+    /**
+     * Creates a copy of this compiled group with a new click through rate, without compiling it again.
+     * @param clickThroughRate the new click through rate
+     * @return the compiled group with the new click through rate
+     */
+    public CompiledTargetingGroup withClickThroughRate(double clickThroughRate) {
+        final TargetingGroup updatedGroup = new TargetingGroup(targetingGroup.getTargetingGroupId(),
+            targetingGroup.getContentId(), clickThroughRate, targetingGroup.getTargetingPredicates());
+        return new CompiledTargetingGroup(updatedGroup, predicates, localPredicates, remotePredicates);
+    }
+
+    public TargetingGroup getTargetingGroup() {
+        return targetingGroup;
+    }
+
+    /**
+     * Every predicate of the targeting group, in the order the group lists them.
+     * @return the predicates, canonical if the group was compiled with an interner
+     */
+    public List<TargetingPredicate> getPredicates() {
+        return predicates;
+    }
+
+    public List<TargetingPredicate> getLocalPredicates() {
+        return localPredicates;
+    }
+
+    public List<TargetingPredicate> getRemotePredicates() {
+        return remotePredicates;
+    }
+}
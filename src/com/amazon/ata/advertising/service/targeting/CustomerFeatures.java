@@ -0,0 +1,229 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.customerservice.AgeRange;
+import com.amazon.ata.customerservice.Category;
+import com.amazon.ata.customerservice.CustomerProfile;
+import com.amazon.ata.customerservice.Spend;
+import com.amazon.ata.primeclubservice.Benefit;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The customer attributes targeting predicates evaluate against, converted once per request into primitives so each
+ * predicate is a field read and an int comparison. Age ranges, categories and benefits are identified by their ordinal,
+ * their position in AgeRange.values(), Category.values() and Benefit.values().
+ *
+ * Each downstream service fills in its own attributes, so a predicate only waits on the call it needs. Attributes that
+ * were not filled in read as unknown: no age range, no parent flag, no spend and no benefits.
+ */
+public final class CustomerFeatures {
+    public static final int UNKNOWN = -1;
+
+    private static final Map<String, Integer> AGE_RANGE_ORDINALS = ordinals(AgeRange.values());
+    private static final Map<String, Integer> CATEGORY_ORDINALS = ordinals(Category.values());
+    private static final Map<String, Integer> BENEFIT_ORDINALS = ordinals(Benefit.values());
+    private static final int[] NO_SPEND = new int[Category.values().length];
+
+    static {
+        Validate.isTrue(BENEFIT_ORDINALS.size() <= Long.SIZE, "Benefits must fit in the benefit mask.");
+    }
+
+    private final int ageRangeOrdinal;
+    private final Boolean parent;
+    private final int[] usdSpent;
+    private final int[] purchases;
+    private final long benefitMask;
+
+    private CustomerFeatures(Builder builder) {
+        this.ageRangeOrdinal = builder.ageRangeOrdinal;
+        this.parent = builder.parent;
+        this.usdSpent = builder.usdSpent;
+        this.purchases = builder.purchases;
+        this.benefitMask = builder.benefitMask;
+    }
+
+    /**
+     * The ordinal of an age range.
+     * @param ageRange the age range, ignoring case
+     * @return its position in AgeRange.values(), or UNKNOWN if it is null or not an age range
+     */
+    public static int ageRangeOrdinal(String ageRange) {
+        return ordinal(AGE_RANGE_ORDINALS, ageRange == null ? null : ageRange.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * The ordinal of a spend category.
+     * @param category the category
+     * @return its position in Category.values(), or UNKNOWN if it is null or not a category
+     */
+    public static int categoryOrdinal(String category) {
+        return ordinal(CATEGORY_ORDINALS, category);
+    }
+
+    /**
+     * The ordinal of a prime benefit.
+     * @param benefit the benefit
+     * @return its position in Benefit.values(), or UNKNOWN if it is null or not a benefit
+     */
+    public static int benefitOrdinal(String benefit) {
+        return ordinal(BENEFIT_ORDINALS, benefit);
+    }
+
+    /**
+     * Combines the features filled in by each downstream service into the features of the whole customer.
+     * @param profileFeatures the features filled in from the customer's profile
+     * @param spendFeatures the features filled in from the customer's spend
+     * @param benefitFeatures the features filled in from the customer's prime benefits
+     * @return features with every attribute filled in
+     */
+    public static CustomerFeatures combine(CustomerFeatures profileFeatures,
+                                           CustomerFeatures spendFeatures,
+                                           CustomerFeatures benefitFeatures) {
+        final Builder builder = builder();
+        builder.ageRangeOrdinal = profileFeatures.ageRangeOrdinal;
+        builder.parent = profileFeatures.parent;
+        builder.usdSpent = spendFeatures.usdSpent;
+        builder.purchases = spendFeatures.purchases;
+        builder.benefitMask = benefitFeatures.benefitMask;
+        return builder.build();
+    }
+
+    public int getAgeRangeOrdinal() {
+        return ageRangeOrdinal;
+    }
+
+    /**
+     * Whether the customer is a parent.
+     * @return the parent flag, or null if it is unknown
+     */
+    public Boolean isParent() {
+        return parent;
+    }
+
+    /**
+     * The customer's spend in a category.
+     * @param categoryOrdinal the position of the category in Category.values()
+     * @return the amount spent in rounded USD, or 0 if the category is UNKNOWN or the customer has no spend in it
+     */
+    public int getUsdSpent(int categoryOrdinal) {
+        return categoryOrdinal == UNKNOWN ? 0 : usdSpent[categoryOrdinal];
+    }
+
+    /**
+     * The customer's purchases in a category.
+     * @param categoryOrdinal the position of the category in Category.values()
+     * @return the number of purchases, or 0 if the category is UNKNOWN or the customer has no purchases in it
+     */
+    public int getNumberOfPurchases(int categoryOrdinal) {
+        return categoryOrdinal == UNKNOWN ? 0 : purchases[categoryOrdinal];
+    }
+
+    /**
+     * Whether the customer has a prime benefit.
+     * @param benefitOrdinal the position of the benefit in Benefit.values()
+     * @return true if the customer has the benefit, false if not or if the benefit is UNKNOWN
+     */
+    public boolean hasBenefit(int benefitOrdinal) {
+        return benefitOrdinal != UNKNOWN && (benefitMask & (1L << benefitOrdinal)) != 0;
+    }
+
+    private static int ordinal(Map<String, Integer> ordinals, String value) {
+        if (value == null) {
+            return UNKNOWN;
+        }
+        return ordinals.getOrDefault(value, UNKNOWN);
+    }
+
+    private static Map<String, Integer> ordinals(String[] values) {
+        final Map<String, Integer> ordinals = new HashMap<>();
+        for (int i = 0; i < values.length; i++) {
+            ordinals.put(values[i], i);
+        }
+        return Collections.unmodifiableMap(ordinals);
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerFeatures{" +
+                "ageRangeOrdinal=" + ageRangeOrdinal +
+                ", parent=" + parent +
+                ", usdSpent=" + Arrays.toString(usdSpent) +
+                ", purchases=" + Arrays.toString(purchases) +
+                ", benefitMask=" + Long.toBinaryString(benefitMask) +
+                '}';
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+        private int ageRangeOrdinal = UNKNOWN;
+        private Boolean parent;
+        private int[] usdSpent = NO_SPEND;
+        private int[] purchases = NO_SPEND;
+        private long benefitMask;
+
+        private Builder() {
+
+        }
+
+        /**
+         * Fills in the age range and parent flag.
+         * @param profile the customer's profile
+         * @return this builder
+         */
+        public Builder withProfile(CustomerProfile profile) {
+            this.ageRangeOrdinal = ageRangeOrdinal(profile.getAgeRange());
+            this.parent = profile.isParent();
+            return this;
+        }
+
+        /**
+         * Fills in the spend and purchases per category. Spend in categories that aren't in Category.values() is
+         * ignored, since no predicate can target it.
+         * @param spend the customer's spend, keyed by category
+         * @return this builder
+         */
+        public Builder withSpend(Map<String, Spend> spend) {
+            this.usdSpent = new int[NO_SPEND.length];
+            this.purchases = new int[NO_SPEND.length];
+            for (Map.Entry<String, Spend> categorySpend : spend.entrySet()) {
+                final int categoryOrdinal = categoryOrdinal(categorySpend.getKey());
+                if (categoryOrdinal != UNKNOWN) {
+                    usdSpent[categoryOrdinal] = categorySpend.getValue().getUsdSpent();
+                    purchases[categoryOrdinal] = categorySpend.getValue().getNumberOfPurchases();
+                }
+            }
+            return this;
+        }
+
+        /**
+         * Fills in the prime benefits. Benefits that aren't in Benefit.values() are ignored, since no predicate can
+         * target them.
+         * @param benefits the customer's prime benefits
+         * @return this builder
+         */
+        public Builder withBenefits(List<String> benefits) {
+            this.benefitMask = 0;
+            for (String benefit : benefits) {
+                final int benefitOrdinal = benefitOrdinal(benefit);
+                if (benefitOrdinal != UNKNOWN) {
+                    benefitMask |= 1L << benefitOrdinal;
+                }
+            }
+            return this;
+        }
+
+        public CustomerFeatures build() {
+            return new CustomerFeatures(this);
+        }
+    }
+}
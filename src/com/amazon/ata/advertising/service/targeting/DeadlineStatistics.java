@@ -0,0 +1,93 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how often ad selection runs out of its time budget, and at which stage, so the deadline can be tuned against
+ * how many requests it turns into a lower click through rate or an empty ad. Also counts the targeting groups that
+ * couldn't be evaluated at all, which are skipped the same way.
+ */
+public class DeadlineStatistics {
+
+    /**
+     * The stage of ad selection that was still running when the deadline passed.
+     */
+    public enum Stage {
+        /** Loading the marketplace's content and targeting groups used up the whole time budget. */
+        TARGETING_INDEX,
+        /** At least one targeting predicate was still waiting on a downstream call. */
+        PREDICATE_EVALUATION
+    }
+
+    private final AtomicLong selections = new AtomicLong();
+    private final Map<Stage, AtomicLong> deadlineHits = new EnumMap<>(Stage.class);
+    private final AtomicLong failedEvaluations = new AtomicLong();
+
+    /**
+     * Creates empty statistics.
+     */
+    public DeadlineStatistics() {
+        for (Stage stage : Stage.values()) {
+            deadlineHits.put(stage, new AtomicLong());
+        }
+    }
+
+    /**
+     * Records one ad selection.
+     * @param deadlineStage the stage the selection was in when its deadline passed, or null if it finished in time
+     */
+    public void record(Stage deadlineStage) {
+        selections.incrementAndGet();
+        if (deadlineStage != null) {
+            deadlineHits.get(deadlineStage).incrementAndGet();
+        }
+    }
+
+    /**
+     * Records one targeting group whose evaluation failed, and so was treated as not eligible.
+     */
+    public void recordFailedEvaluation() {
+        failedEvaluations.incrementAndGet();
+    }
+
+    /**
+     * Counter for ad selections.
+     * @return the number of ad selections since startup
+     */
+    public long getSelectionCount() {
+        return selections.get();
+    }
+
+    /**
+     * Counter for the ad selections whose deadline passed in the given stage.
+     * @param stage the stage the deadline passed in
+     * @return the number of ad selections that hit their deadline in that stage since startup
+     */
+    public long getDeadlineHitCount(Stage stage) {
+        return deadlineHits.get(stage).get();
+    }
+
+    /**
+     * Counter for the targeting groups whose evaluation failed.
+     * @return the number of targeting groups treated as not eligible because their evaluation failed since startup
+     */
+    public long getFailedEvaluationCount() {
+        return failedEvaluations.get();
+    }
+
+    /**
+     * Publishes the counters.
+     * @param metrics the reporter to publish them to
+     */
+    public void publishTo(MetricsReporter metrics) {
+        metrics.register("adSelection.selections", this::getSelectionCount);
+        metrics.register("adSelection.deadlineHits.targetingIndex", () -> getDeadlineHitCount(Stage.TARGETING_INDEX));
+        metrics.register("adSelection.deadlineHits.predicateEvaluation",
+            () -> getDeadlineHitCount(Stage.PREDICATE_EVALUATION));
+        metrics.register("adSelection.failedEvaluations", this::getFailedEvaluationCount);
+    }
+}
@@ -0,0 +1,85 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * Observes how long each type of targeting predicate takes to evaluate and how often it evaluates to TRUE, so the
+ * predicates most likely to rule out a targeting group cheaply can be evaluated first. The statistics are only used to
+ * order predicates, so concurrent updates are allowed to race.
+ */
+@Singleton
+public class PredicateStatistics {
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    private final ConcurrentMap<Class<? extends TargetingPredicate>, Observations> observations =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Creates empty statistics.
+     */
+    @Inject
+    public PredicateStatistics() {}
+
+    /**
+     * Records one evaluation of a predicate.
+     * @param predicate the predicate that was evaluated
+     * @param elapsedNanos how long the evaluation took
+     * @param isTrue whether the predicate evaluated to TRUE
+     */
+    public void record(TargetingPredicate predicate, long elapsedNanos, boolean isTrue) {
+        observations.computeIfAbsent(predicate.getClass(), type -> new Observations())
+            .record(elapsedNanos, isTrue);
+    }
+
+    /**
+     * Orders predicates by the expected cost of finding one that isn't TRUE, cheapest first. A predicate that is slow
+     * but usually FALSE can be worth more than a fast one that is almost always TRUE.
+     * @param predicates the predicates to order
+     * @return a new list with the predicates in evaluation order
+     */
+    public List<TargetingPredicate> orderByExpectedCost(List<TargetingPredicate> predicates) {
+        final List<TargetingPredicate> ordered = new ArrayList<>(predicates);
+        if (ordered.size() > 1) {
+            ordered.sort(Comparator.comparingDouble(this::expectedCostToReject));
+        }
+        return ordered;
+    }
+
+    private double expectedCostToReject(TargetingPredicate predicate) {
+        final Observations observed = observations.get(predicate.getClass());
+        return observed == null ? 0 : observed.expectedCostToReject();
+    }
+
+    /**
+     * Latency and selectivity observed for one type of predicate.
+     */
+    private static class Observations {
+        private final AtomicLong evaluations = new AtomicLong();
+        private final AtomicLong trueResults = new AtomicLong();
+        private volatile double averageNanos;
+
+        void record(long elapsedNanos, boolean isTrue) {
+            final long count = evaluations.incrementAndGet();
+            if (isTrue) {
+                trueResults.incrementAndGet();
+            }
+            averageNanos = count == 1 ? elapsedNanos :
+                averageNanos + LATENCY_SMOOTHING * (elapsedNanos - averageNanos);
+        }
+
+        double expectedCostToReject() {
+            // Smooth the pass rate so a predicate that has never been FALSE isn't treated as infinitely expensive
+            final double passRate = (trueResults.get() + 1.0) / (evaluations.get() + 2.0);
+            return averageNanos / (1 - passRate);
+        }
+    }
+}
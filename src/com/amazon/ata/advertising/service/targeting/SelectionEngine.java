@@ -0,0 +1,18 @@
+package com.amazon.ata.advertising.service.targeting;
+
+/**
+ * How ad selection finds the targeting groups to evaluate.
+ */
+public enum SelectionEngine {
+    /**
+     * Walk every targeting group in the marketplace, highest click through rate first, evaluating each one until the
+     * winners are known. Only makes the downstream calls the groups it reaches need.
+     */
+    LINEAR_SCAN,
+    /**
+     * Load every feature of the customer up front, then walk only the groups the marketplace's TargetingGroupIndex
+     * retrieves for those features. Costs all of the downstream calls on every request, but scales with the number of
+     * candidate groups instead of the number of groups in the marketplace.
+     */
+    PREDICATE_INDEX
+}
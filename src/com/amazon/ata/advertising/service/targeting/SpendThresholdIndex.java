@@ -0,0 +1,180 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Resolves every category spend and purchase threshold in a marketplace against a customer with a binary search per
+ * category, rather than comparing against each threshold in turn.
+ *
+ * Thresholds are grouped by category, by whether they are on spend or purchases, and by comparison and inverse flag,
+ * then sorted. Within a group, the thresholds a customer's value meets are a contiguous range: for GT, every threshold
+ * below the value; for LT, every threshold above it; for EQ, the threshold equal to it. Each threshold has a posting
+ * list of the targeting groups that require it.
+ */
+final class SpendThresholdIndex {
+    private final List<ThresholdList> thresholdLists;
+
+    private SpendThresholdIndex(List<ThresholdList> thresholdLists) {
+        this.thresholdLists = thresholdLists;
+    }
+
+    /**
+     * Passes the posting list of every threshold the customer meets to the consumer.
+     * @param features the customer's features
+     * @param postingLists receives the ranks of the groups requiring each threshold met, once per threshold
+     */
+    void forEachMet(CustomerFeatures features, Consumer<int[]> postingLists) {
+        for (ThresholdList thresholdList : thresholdLists) {
+            thresholdList.forEachMet(features, postingLists);
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A threshold on the customer's spend or number of purchases in a category, as a targeting predicate states it.
+     */
+    static final class Condition {
+        private final Key key;
+        private final int threshold;
+
+        /**
+         * Creates a condition.
+         * @param categoryOrdinal the category's position in Category.values(), or UNKNOWN for a category no customer
+         *                        has spend in
+         * @param onPurchases true to compare the number of purchases, false to compare the amount spent
+         * @param comparison how to compare the customer's value against the threshold
+         * @param threshold the threshold
+         * @param inverse true if the condition is met when the comparison is false
+         */
+        Condition(int categoryOrdinal, boolean onPurchases, Comparison comparison, int threshold, boolean inverse) {
+            this.key = new Key(categoryOrdinal, onPurchases, comparison, inverse);
+            this.threshold = threshold;
+        }
+    }
+
+    static final class Builder {
+        private final Map<Key, TreeMap<Integer, List<Integer>>> ranksByThreshold = new HashMap<>();
+
+        private Builder() {
+
+        }
+
+        /**
+         * Adds a condition a targeting group requires.
+         * @param condition the condition
+         * @param rank the rank of the targeting group
+         * @return this builder
+         */
+        Builder add(Condition condition, int rank) {
+            ranksByThreshold.computeIfAbsent(condition.key, key -> new TreeMap<>())
+                .computeIfAbsent(condition.threshold, threshold -> new ArrayList<>())
+                .add(rank);
+            return this;
+        }
+
+        SpendThresholdIndex build() {
+            final List<ThresholdList> thresholdLists = new ArrayList<>(ranksByThreshold.size());
+            ranksByThreshold.forEach((key, ranks) -> thresholdLists.add(new ThresholdList(key, ranks)));
+            return new SpendThresholdIndex(thresholdLists);
+        }
+    }
+
+    /**
+     * The sorted thresholds sharing a category, value, comparison and inverse flag.
+     */
+    private static final class ThresholdList {
+        private final Key key;
+        private final int[] thresholds;
+        private final int[][] postingLists;
+
+        ThresholdList(Key key, TreeMap<Integer, List<Integer>> ranksByThreshold) {
+            this.key = key;
+            this.thresholds = new int[ranksByThreshold.size()];
+            this.postingLists = new int[ranksByThreshold.size()][];
+            int index = 0;
+            for (Map.Entry<Integer, List<Integer>> threshold : ranksByThreshold.entrySet()) {
+                thresholds[index] = threshold.getKey();
+                postingLists[index] = threshold.getValue().stream().mapToInt(Integer::intValue).toArray();
+                index++;
+            }
+        }
+
+        void forEachMet(CustomerFeatures features, Consumer<int[]> consumer) {
+            final int value = key.onPurchases ?
+                features.getNumberOfPurchases(key.categoryOrdinal) : features.getUsdSpent(key.categoryOrdinal);
+            // The thresholds are distinct, so [below, above) holds the threshold equal to the value, if there is one
+            final int searchResult = Arrays.binarySearch(thresholds, value);
+            final int below = searchResult >= 0 ? searchResult : -(searchResult + 1);
+            final int above = searchResult >= 0 ? searchResult + 1 : below;
+
+            switch (key.comparison) {
+                case GT:
+                    // value > threshold for the thresholds below the value, value <= threshold for the rest
+                    accept(key.inverse ? below : 0, key.inverse ? thresholds.length : below, consumer);
+                    break;
+                case LT:
+                    // value < threshold for the thresholds above the value, value >= threshold for the rest
+                    accept(key.inverse ? 0 : above, key.inverse ? above : thresholds.length, consumer);
+                    break;
+                case EQ:
+                    if (key.inverse) {
+                        accept(0, below, consumer);
+                        accept(above, thresholds.length, consumer);
+                    } else {
+                        accept(below, above, consumer);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unsupported comparison " + key.comparison);
+            }
+        }
+
+        private void accept(int from, int to, Consumer<int[]> consumer) {
+            for (int index = from; index < to; index++) {
+                consumer.accept(postingLists[index]);
+            }
+        }
+    }
+
+    private static final class Key {
+        private final int categoryOrdinal;
+        private final boolean onPurchases;
+        private final Comparison comparison;
+        private final boolean inverse;
+
+        Key(int categoryOrdinal, boolean onPurchases, Comparison comparison, boolean inverse) {
+            this.categoryOrdinal = categoryOrdinal;
+            this.onPurchases = onPurchases;
+            this.comparison = comparison;
+            this.inverse = inverse;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key that = (Key) o;
+            return categoryOrdinal == that.categoryOrdinal && onPurchases == that.onPurchases &&
+                comparison == that.comparison && inverse == that.inverse;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(categoryOrdinal, onPurchases, comparison, inverse);
+        }
+    }
+}
@@ -3,28 +3,48 @@ package com.amazon.ata.advertising.service.targeting;
 import com.amazon.ata.advertising.service.model.RequestContext;
 import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
 import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicateResult;
+import com.amazon.ata.advertising.service.util.Deadline;
 import com.amazon.ata.advertising.service.util.Futures;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Evaluates TargetingPredicates for a given RequestContext.
+ * Evaluates TargetingPredicates for a given RequestContext. Predicates that call a downstream service are evaluated at
+ * most once per request: equal predicates in different targeting groups share the result of the first evaluation.
  */
 public class TargetingEvaluator {
     public static final boolean IMPLEMENTED_STREAMS = true;
     public static final boolean IMPLEMENTED_CONCURRENCY = true;
     private final RequestContext requestContext;
+    private final PredicateStatistics predicateStatistics;
+    private final int remotePredicatesInFlight;
+    private final AtomicBoolean deadlineHit = new AtomicBoolean();
+
+    /**
+     * Creates an evaluator for targeting predicates that evaluates the remote predicates of a group one at a time.
+     * @param requestContext Context that can be used to evaluate the predicates.
+     * @param predicateStatistics Observed cost and selectivity of each type of predicate.
+     */
+    public TargetingEvaluator(RequestContext requestContext, PredicateStatistics predicateStatistics) {
+        this(requestContext, predicateStatistics, 1);
+    }
 
     /**
      * Creates an evaluator for targeting predicates.
      * @param requestContext Context that can be used to evaluate the predicates.
+     * @param predicateStatistics Observed cost and selectivity of each type of predicate.
+     * @param remotePredicatesInFlight How many of a group's remote predicates may wait on downstream calls at once.
      */
-    public TargetingEvaluator(RequestContext requestContext) {
+    public TargetingEvaluator(RequestContext requestContext, PredicateStatistics predicateStatistics,
+                              int remotePredicatesInFlight) {
         this.requestContext = requestContext;
+        this.predicateStatistics = predicateStatistics;
+        this.remotePredicatesInFlight = Math.max(1, remotePredicatesInFlight);
     }
 
     /**
@@ -34,23 +54,119 @@ public class TargetingEvaluator {
      * @return TRUE if all of the TargetingPredicates evaluate to TRUE against the RequestContext, FALSE otherwise.
      */
     public TargetingPredicateResult evaluate(TargetingGroup targetingGroup) {
-        // Evaluate all the predicates concurrently in a new ExecutorService
-        ExecutorService evaluation = Executors.newCachedThreadPool();
-
-        List<TargetingPredicate> targetingPredicates = targetingGroup.getTargetingPredicates();
-        List<Future<TargetingPredicateResult>> results = targetingPredicates
-            .stream()
-            .map(predicate -> evaluation.submit(() -> predicate.evaluate(requestContext)))
-            .collect(Collectors.toList());
-
-        // If all the predicates evaluate to TRUE, the TargetingGroup is TRUE!
-        TargetingPredicateResult result = results
-            .stream()
-            .map(Futures::getUnchecked)
-            .allMatch(TargetingPredicateResult::isTrue) ?
-            TargetingPredicateResult.TRUE : TargetingPredicateResult.FALSE;
-        evaluation.shutdown();
-
-        return result;
+        return Futures.getUnchecked(evaluateAsync(CompiledTargetingGroup.compile(targetingGroup)));
+    }
+
+    /**
+     * Evaluate a compiled TargetingGroup without blocking. Predicates that need no downstream call are evaluated
+     * first, on the calling thread. The rest are evaluated most likely to cheaply rule the group out first, and
+     * composed from the futures of their downstream calls, so no thread waits on them. Only a few of them wait on
+     * downstream calls at once, and the next one is started only when one of those comes back TRUE, so a group ruled
+     * out by its first predicates makes no further downstream calls. As soon as one predicate isn't TRUE the group is
+     * FALSE. Predicates still pending at the request's deadline are INDETERMINATE, so the group is FALSE rather than
+     * waited on.
+     * @param compiledGroup Targeting group for an advertisement, compiled for evaluation.
+     * @return a future that completes with TRUE if all of the TargetingPredicates evaluate to TRUE against the
+     *     RequestContext, FALSE otherwise.
+     */
+    public CompletableFuture<TargetingPredicateResult> evaluateAsync(CompiledTargetingGroup compiledGroup) {
+        // Unrecognized customers are evaluated without any downstream calls, so every predicate is cheap
+        final List<TargetingPredicate> remotePredicates = requestContext.isRecognizedCustomer() ?
+            predicateStatistics.orderByExpectedCost(compiledGroup.getRemotePredicates()) : Collections.emptyList();
+        final List<TargetingPredicate> localPredicates = requestContext.isRecognizedCustomer() ?
+            compiledGroup.getLocalPredicates() : compiledGroup.getPredicates();
+
+        try {
+            for (TargetingPredicate predicate : localPredicates) {
+                if (!predicate.evaluate(requestContext).isTrue()) {
+                    return CompletableFuture.completedFuture(TargetingPredicateResult.FALSE);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Report the failure through the future, so a group evaluated speculatively can't fail the whole request
+            return Futures.failed(e);
+        }
+        if (remotePredicates.isEmpty()) {
+            return CompletableFuture.completedFuture(TargetingPredicateResult.TRUE);
+        }
+        return new RemoteEvaluation(remotePredicates).start();
+    }
+
+    /**
+     * Whether any predicate evaluated by this evaluator was cut short by the request's deadline.
+     * @return true if the deadline made at least one predicate INDETERMINATE
+     */
+    public boolean hasHitDeadline() {
+        return deadlineHit.get();
+    }
+
+    private CompletableFuture<TargetingPredicateResult> evaluateAndRecord(TargetingPredicate predicate) {
+        final Deadline deadline = requestContext.getDeadline();
+        if (deadline.isExpired()) {
+            deadlineHit.set(true);
+            return CompletableFuture.completedFuture(TargetingPredicateResult.INDETERMINATE);
+        }
+        // Each caller gets its own copy of the shared evaluation, so a group that cancels it doesn't cancel it for
+        // the other groups waiting on it
+        final CompletableFuture<TargetingPredicateResult> evaluation = requestContext.getRequestCache()
+            .getAsync(predicate, () -> evaluateTimed(predicate));
+        deadline.completeAtExpiry(evaluation, TargetingPredicateResult.INDETERMINATE, () -> deadlineHit.set(true));
+        return evaluation;
+    }
+
+    private CompletableFuture<TargetingPredicateResult> evaluateTimed(TargetingPredicate predicate) {
+        final long start = System.nanoTime();
+        return predicate.evaluateAsync(requestContext)
+            .whenComplete((result, error) -> {
+                // Recorded when the predicate really completes, so a predicate cut short still counts as slow
+                if (error == null) {
+                    predicateStatistics.record(predicate, System.nanoTime() - start, result.isTrue());
+                }
+            });
+    }
+
+    /**
+     * Evaluates the remote predicates of one group, starting the next predicate only when one in flight is TRUE.
+     */
+    private final class RemoteEvaluation {
+        private final List<TargetingPredicate> predicates;
+        private final CompletableFuture<TargetingPredicateResult> groupResult = new CompletableFuture<>();
+        private final List<CompletableFuture<TargetingPredicateResult>> evaluations = new CopyOnWriteArrayList<>();
+        private final AtomicInteger started = new AtomicInteger();
+        private final AtomicInteger outstanding;
+
+        RemoteEvaluation(List<TargetingPredicate> predicates) {
+            this.predicates = predicates;
+            this.outstanding = new AtomicInteger(predicates.size());
+        }
+
+        CompletableFuture<TargetingPredicateResult> start() {
+            // Downstream calls already made still complete and are memoized for the rest of the request
+            groupResult.whenComplete((result, error) -> evaluations.forEach(evaluation -> evaluation.cancel(false)));
+            for (int i = 0; i < remotePredicatesInFlight; i++) {
+                startNext();
+            }
+            return groupResult;
+        }
+
+        private void startNext() {
+            final int index = started.getAndIncrement();
+            if (index >= predicates.size() || groupResult.isDone()) {
+                return;
+            }
+            final CompletableFuture<TargetingPredicateResult> evaluation = evaluateAndRecord(predicates.get(index));
+            evaluations.add(evaluation);
+            evaluation.whenComplete((result, error) -> {
+                if (error != null) {
+                    groupResult.completeExceptionally(error);
+                } else if (!result.isTrue()) {
+                    groupResult.complete(TargetingPredicateResult.FALSE);
+                } else if (outstanding.decrementAndGet() == 0) {
+                    groupResult.complete(TargetingPredicateResult.TRUE);
+                } else {
+                    startNext();
+                }
+            });
+        }
     }
 }
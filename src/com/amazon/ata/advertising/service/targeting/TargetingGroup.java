@@ -15,17 +15,20 @@ import java.util.List;
 /**
  * A targeting group for an advertisement, required to show if this advertisement should be rendered.
  */
-@DynamoDBTable(tableName = "TargetingGroups")
+@DynamoDBTable(tableName = TargetingGroup.TABLE_NAME)
 public class TargetingGroup {
+    public static final String TABLE_NAME = "TargetingGroups";
     public static final String CONTENT_ID_INDEX = "ContentIdIndex";
+    public static final String TARGETING_GROUP_ID = "TargetingGroupId";
+    public static final String CLICK_THROUGH_RATE = "ClickThroughRate";
 
-    @DynamoDBHashKey(attributeName = "TargetingGroupId")
+    @DynamoDBHashKey(attributeName = TARGETING_GROUP_ID)
     private String targetingGroupId;
 
     @DynamoDBIndexHashKey(globalSecondaryIndexName = CONTENT_ID_INDEX, attributeName = "ContentId")
     private String contentId;
 
-    @DynamoDBAttribute(attributeName = "ClickThroughRate")
+    @DynamoDBAttribute(attributeName = CLICK_THROUGH_RATE)
     private double clickThroughRate;
 
     @DynamoDBAttribute(attributeName = "TargetingPredicates")
@@ -0,0 +1,290 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.advertising.service.targeting.predicate.AgeTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendFrequencyTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendValueTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.ParentPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.PrimeBenefitTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.RecognizedTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+import com.amazon.ata.primeclubservice.Benefit;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An inverted index over the predicates of a marketplace's ranked targeting groups, retrieving the groups a customer
+ * can satisfy without evaluating every group.
+ *
+ * Every predicate the index understands is a condition on one customer feature. Each condition a customer must meet
+ * has a posting list of the groups that require it. Matching walks the posting lists of the conditions the customer
+ * meets, counting the matches of each group, and a group is a candidate once all of its conditions have matched.
+ * Conditions a customer must not meet, from inverted age range and prime benefit predicates, have posting lists of the
+ * groups they rule out. Category spend and purchase thresholds are resolved with a binary search per category by a
+ * SpendThresholdIndex. Groups with a predicate the index doesn't understand are always candidates, left for the
+ * TargetingEvaluator to decide.
+ */
+public final class TargetingGroupIndex {
+    private static final int BENEFITS = Benefit.values().length;
+
+    private final List<CompiledTargetingGroup> rankedGroups;
+    private final int[] requiredMatches;
+    private final BitSet matchedWithoutConditions;
+    private final BitSet requiresRecognizedCustomer;
+    private final Map<Feature, int[]> includedBy;
+    private final Map<Feature, int[]> excludedBy;
+    private final SpendThresholdIndex spendThresholds;
+
+    private TargetingGroupIndex(List<CompiledTargetingGroup> rankedGroups,
+                                int[] requiredMatches,
+                                BitSet matchedWithoutConditions,
+                                BitSet requiresRecognizedCustomer,
+                                Map<Feature, int[]> includedBy,
+                                Map<Feature, int[]> excludedBy,
+                                SpendThresholdIndex spendThresholds) {
+        this.rankedGroups = rankedGroups;
+        this.requiredMatches = requiredMatches;
+        this.matchedWithoutConditions = matchedWithoutConditions;
+        this.requiresRecognizedCustomer = requiresRecognizedCustomer;
+        this.includedBy = includedBy;
+        this.excludedBy = excludedBy;
+        this.spendThresholds = spendThresholds;
+    }
+
+    /**
+     * Indexes the predicates of a list of targeting groups.
+     * @param rankedGroups the targeting groups, in the order candidates should be returned in
+     * @return the index
+     */
+    public static TargetingGroupIndex build(List<CompiledTargetingGroup> rankedGroups) {
+        final int[] requiredMatches = new int[rankedGroups.size()];
+        final BitSet matchedWithoutConditions = new BitSet(rankedGroups.size());
+        final BitSet requiresRecognizedCustomer = new BitSet(rankedGroups.size());
+        final Map<Feature, List<Integer>> includedBy = new HashMap<>();
+        final Map<Feature, List<Integer>> excludedBy = new HashMap<>();
+        final SpendThresholdIndex.Builder spendThresholds = SpendThresholdIndex.builder();
+
+        for (int rank = 0; rank < rankedGroups.size(); rank++) {
+            final Conditions conditions = new Conditions();
+            if (!conditions.addAll(rankedGroups.get(rank).getPredicates())) {
+                matchedWithoutConditions.set(rank);
+                continue;
+            }
+            if (!conditions.satisfiable) {
+                continue;
+            }
+            for (Feature feature : conditions.included) {
+                includedBy.computeIfAbsent(feature, key -> new ArrayList<>()).add(rank);
+            }
+            for (Feature feature : conditions.excluded) {
+                excludedBy.computeIfAbsent(feature, key -> new ArrayList<>()).add(rank);
+            }
+            for (SpendThresholdIndex.Condition spendCondition : conditions.includedSpend) {
+                spendThresholds.add(spendCondition, rank);
+            }
+            requiredMatches[rank] = conditions.included.size() + conditions.includedSpend.size();
+            matchedWithoutConditions.set(rank, requiredMatches[rank] == 0);
+            requiresRecognizedCustomer.set(rank, conditions.requiresRecognizedCustomer);
+        }
+        return new TargetingGroupIndex(rankedGroups, requiredMatches, matchedWithoutConditions,
+            requiresRecognizedCustomer, toPostingLists(includedBy), toPostingLists(excludedBy),
+            spendThresholds.build());
+    }
+
+    /**
+     * Retrieves the targeting groups a recognized customer may be eligible for.
+     * @param features every feature of the customer
+     * @return the candidate groups, in the order they were indexed in. Every group the customer is eligible for is a
+     *     candidate; groups with predicates the index doesn't understand are candidates whether or not they are.
+     */
+    public List<CompiledTargetingGroup> candidatesForRecognizedCustomer(CustomerFeatures features) {
+        final int[] matches = new int[rankedGroups.size()];
+        final BitSet candidates = (BitSet) matchedWithoutConditions.clone();
+        final BitSet excluded = new BitSet(rankedGroups.size());
+
+        match(new Feature(FeatureType.RECOGNIZED, 1), matches, candidates, excluded);
+        if (features.getAgeRangeOrdinal() != CustomerFeatures.UNKNOWN) {
+            match(new Feature(FeatureType.AGE_RANGE, features.getAgeRangeOrdinal()), matches, candidates, excluded);
+        }
+        if (features.isParent() != null) {
+            match(new Feature(FeatureType.PARENT, features.isParent() ? 1 : 0), matches, candidates, excluded);
+        }
+        for (int benefitOrdinal = 0; benefitOrdinal < BENEFITS; benefitOrdinal++) {
+            if (features.hasBenefit(benefitOrdinal)) {
+                match(new Feature(FeatureType.BENEFIT, benefitOrdinal), matches, candidates, excluded);
+            }
+        }
+        spendThresholds.forEachMet(features, postingList -> count(postingList, matches, candidates));
+
+        candidates.andNot(excluded);
+        return toGroups(candidates);
+    }
+
+    /**
+     * Retrieves the targeting groups an unrecognized customer may be eligible for. Every predicate other than
+     * RecognizedTargetingPredicate is INDETERMINATE for them, so only groups made up of inverted
+     * RecognizedTargetingPredicates, and groups the index doesn't understand, are candidates.
+     * @return the candidate groups, in the order they were indexed in
+     */
+    public List<CompiledTargetingGroup> candidatesForUnrecognizedCustomer() {
+        final int[] matches = new int[rankedGroups.size()];
+        final BitSet candidates = (BitSet) matchedWithoutConditions.clone();
+
+        count(includedBy.getOrDefault(new Feature(FeatureType.RECOGNIZED, 0), new int[0]), matches, candidates);
+
+        candidates.andNot(requiresRecognizedCustomer);
+        return toGroups(candidates);
+    }
+
+    private void match(Feature feature, int[] matches, BitSet candidates, BitSet excluded) {
+        final int[] including = includedBy.get(feature);
+        if (including != null) {
+            count(including, matches, candidates);
+        }
+        final int[] excluding = excludedBy.get(feature);
+        if (excluding != null) {
+            for (int rank : excluding) {
+                excluded.set(rank);
+            }
+        }
+    }
+
+    private void count(int[] postingList, int[] matches, BitSet candidates) {
+        for (int rank : postingList) {
+            if (++matches[rank] == requiredMatches[rank]) {
+                candidates.set(rank);
+            }
+        }
+    }
+
+    private List<CompiledTargetingGroup> toGroups(BitSet candidates) {
+        final List<CompiledTargetingGroup> groups = new ArrayList<>(candidates.cardinality());
+        for (int rank = candidates.nextSetBit(0); rank >= 0; rank = candidates.nextSetBit(rank + 1)) {
+            groups.add(rankedGroups.get(rank));
+        }
+        return Collections.unmodifiableList(groups);
+    }
+
+    private static <K> Map<K, int[]> toPostingLists(Map<K, List<Integer>> ranksByKey) {
+        final Map<K, int[]> postingLists = new HashMap<>();
+        ranksByKey.forEach((key, ranks) -> postingLists.put(key, ranks.stream().mapToInt(Integer::intValue).toArray()));
+        return postingLists;
+    }
+
+    private enum FeatureType {
+        RECOGNIZED, AGE_RANGE, PARENT, BENEFIT
+    }
+
+    /**
+     * A customer feature with a discrete value, such as having a specific age range.
+     */
+    private static final class Feature {
+        private final FeatureType type;
+        private final int value;
+
+        Feature(FeatureType type, int value) {
+            this.type = type;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Feature that = (Feature) o;
+            return type == that.type && value == that.value;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * type.hashCode() + value;
+        }
+    }
+
+    /**
+     * The conditions of one targeting group.
+     */
+    private static final class Conditions {
+        private final List<Feature> included = new ArrayList<>();
+        private final List<Feature> excluded = new ArrayList<>();
+        private final List<SpendThresholdIndex.Condition> includedSpend = new ArrayList<>();
+        private boolean satisfiable = true;
+        private boolean requiresRecognizedCustomer;
+
+        /**
+         * Adds the conditions of every predicate.
+         * @param predicates the predicates of the group
+         * @return false if any predicate can't be indexed
+         */
+        boolean addAll(List<TargetingPredicate> predicates) {
+            for (TargetingPredicate predicate : predicates) {
+                if (!add(predicate)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean add(TargetingPredicate predicate) {
+            if (predicate instanceof RecognizedTargetingPredicate) {
+                included.add(new Feature(FeatureType.RECOGNIZED, predicate.isInverse() ? 0 : 1));
+                return true;
+            }
+            requiresRecognizedCustomer = true;
+            if (predicate instanceof ParentPredicate) {
+                // An unknown parent flag is INDETERMINATE either way, so the inverse requires a known non-parent
+                included.add(new Feature(FeatureType.PARENT, predicate.isInverse() ? 0 : 1));
+                return true;
+            } else if (predicate instanceof AgeTargetingPredicate) {
+                final String ageRange = ((AgeTargetingPredicate) predicate).getTargetedAgeRange();
+                return ageRange != null && addDiscrete(FeatureType.AGE_RANGE,
+                    CustomerFeatures.ageRangeOrdinal(ageRange), predicate.isInverse());
+            } else if (predicate instanceof PrimeBenefitTargetingPredicate) {
+                final String benefit = ((PrimeBenefitTargetingPredicate) predicate).getBenefitToHave();
+                return benefit != null && addDiscrete(FeatureType.BENEFIT, CustomerFeatures.benefitOrdinal(benefit),
+                    predicate.isInverse());
+            } else if (predicate instanceof CategorySpendValueTargetingPredicate) {
+                final CategorySpendValueTargetingPredicate spendPredicate =
+                    (CategorySpendValueTargetingPredicate) predicate;
+                return addSpend(spendPredicate.getTargetedCategory(), false, spendPredicate.getComparison(),
+                    spendPredicate.getTargetedValue(), predicate.isInverse());
+            } else if (predicate instanceof CategorySpendFrequencyTargetingPredicate) {
+                final CategorySpendFrequencyTargetingPredicate frequencyPredicate =
+                    (CategorySpendFrequencyTargetingPredicate) predicate;
+                return addSpend(frequencyPredicate.getTargetedCategory(), true, frequencyPredicate.getComparison(),
+                    frequencyPredicate.getTargetedNumberOfPurchases(), predicate.isInverse());
+            }
+            return false;
+        }
+
+        private boolean addDiscrete(FeatureType type, int value, boolean inverse) {
+            if (value == CustomerFeatures.UNKNOWN) {
+                // No customer has an unknown value, so the predicate is always FALSE, or TRUE if inverted
+                satisfiable &= inverse;
+            } else if (inverse) {
+                excluded.add(new Feature(type, value));
+            } else {
+                included.add(new Feature(type, value));
+            }
+            return true;
+        }
+
+        private boolean addSpend(String category, boolean onPurchases, Comparison comparison, int threshold,
+                                 boolean inverse) {
+            if (category == null || comparison == null) {
+                return false;
+            }
+            includedSpend.add(new SpendThresholdIndex.Condition(CustomerFeatures.categoryOrdinal(category), onPurchases,
+                comparison, threshold, inverse));
+            return true;
+        }
+    }
+}
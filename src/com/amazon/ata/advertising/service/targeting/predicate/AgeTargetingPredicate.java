@@ -1,12 +1,16 @@
 package com.amazon.ata.advertising.service.targeting.predicate;
 
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
 import com.amazon.ata.advertising.service.dao.ReadableDao;
 import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.targeting.CustomerFeatures;
 import com.amazon.ata.customerservice.CustomerProfile;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.Validate;
 
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
 
 /**
@@ -17,7 +21,11 @@ public class AgeTargetingPredicate extends TargetingPredicate {
     @Inject
     ReadableDao<String, CustomerProfile> customerProfileDao;
 
+    @Inject
+    AsyncReadableDao<String, CustomerProfile> asyncCustomerProfileDao;
+
     private String targetedAgeRange;
+    private int targetedAgeRangeOrdinal = CustomerFeatures.UNKNOWN;
 
     /**
      * Create a targeting predicate for a set AgeRange that can be inverted.
@@ -27,7 +35,7 @@ public class AgeTargetingPredicate extends TargetingPredicate {
     public AgeTargetingPredicate(String targetedAgeRange, boolean inverse) {
         super(inverse);
         Validate.notNull(targetedAgeRange, "Targeted AgeRange cannot be null.");
-        this.targetedAgeRange = targetedAgeRange;
+        setTargetedAgeRange(targetedAgeRange);
     }
 
     /**
@@ -45,10 +53,19 @@ public class AgeTargetingPredicate extends TargetingPredicate {
 
     @Override
     TargetingPredicateResult evaluateRecognizedCustomer(RequestContext context) {
+        return evaluateFeatures(profileFeatures(context, customerProfileDao));
+    }
+
+    @Override
+    CompletableFuture<TargetingPredicateResult> evaluateRecognizedCustomerAsync(RequestContext context) {
+        return profileFeaturesAsync(context, asyncCustomerProfileDao).thenApply(this::evaluateFeatures);
+    }
+
+    private TargetingPredicateResult evaluateFeatures(CustomerFeatures features) {
         Validate.notNull(targetedAgeRange, "Targeted AgeRange cannot be null.");
 
-        final CustomerProfile profile = customerProfileDao.get(context.getCustomerId());
-        return targetedAgeRange.toString().equalsIgnoreCase(profile.getAgeRange()) ?
+        return targetedAgeRangeOrdinal != CustomerFeatures.UNKNOWN &&
+                targetedAgeRangeOrdinal == features.getAgeRangeOrdinal() ?
                 TargetingPredicateResult.TRUE : TargetingPredicateResult.FALSE;
     }
 
@@ -57,11 +74,31 @@ public class AgeTargetingPredicate extends TargetingPredicate {
         this.customerProfileDao = customerProfileDao;
     }
 
+    @VisibleForTesting
+    void setAsyncCustomerProfileDao(AsyncReadableDao<String, CustomerProfile> asyncCustomerProfileDao) {
+        this.asyncCustomerProfileDao = asyncCustomerProfileDao;
+    }
+
     public String getTargetedAgeRange() {
         return targetedAgeRange;
     }
 
     public void setTargetedAgeRange(String targetedAgeRange) {
         this.targetedAgeRange = targetedAgeRange;
+        this.targetedAgeRangeOrdinal = CustomerFeatures.ageRangeOrdinal(targetedAgeRange);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        final AgeTargetingPredicate that = (AgeTargetingPredicate) o;
+        return Objects.equals(targetedAgeRange, that.targetedAgeRange);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), targetedAgeRange);
     }
 }
@@ -1,26 +1,32 @@
 package com.amazon.ata.advertising.service.targeting.predicate;
 
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
 import com.amazon.ata.advertising.service.dao.ReadableDao;
 import com.amazon.ata.advertising.service.model.RequestContext;
 import com.amazon.ata.advertising.service.targeting.Comparison;
+import com.amazon.ata.advertising.service.targeting.CustomerFeatures;
 import com.amazon.ata.customerservice.Spend;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.Validate;
 
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
 
 /**
  * Compare against the number of purchases a customer has made in a single category on Amazon.
  */
 public class CategorySpendFrequencyTargetingPredicate extends TargetingPredicate {
-    private static final Spend ZERO_SPEND = new Spend.Builder().withNumberOfPurchases(0).withUsdSpent(0).build();
-
     @Inject
     ReadableDao<RequestContext, Map<String, Spend>> spendDao;
 
+    @Inject
+    AsyncReadableDao<RequestContext, Map<String, Spend>> asyncSpendDao;
+
     private String targetedCategory;
+    private int targetedCategoryOrdinal = CustomerFeatures.UNKNOWN;
     private Comparison comparison;
     private int targetedNumberOfPurchases;
 
@@ -43,7 +49,7 @@ public class CategorySpendFrequencyTargetingPredicate extends TargetingPredicate
         Validate.notNull(targetedCategory, "The targeted category cannot be null.");
         Validate.notNull(comparison, "How to compare against the targeted value cannot be null.");
 
-        this.targetedCategory = targetedCategory;
+        setTargetedCategory(targetedCategory);
         this.comparison = comparison;
         this.targetedNumberOfPurchases = targetedNumberOfPurchases;
     }
@@ -67,12 +73,19 @@ public class CategorySpendFrequencyTargetingPredicate extends TargetingPredicate
 
     @Override
     TargetingPredicateResult evaluateRecognizedCustomer(RequestContext context) {
+        return evaluateFeatures(spendFeatures(context, spendDao));
+    }
+
+    @Override
+    CompletableFuture<TargetingPredicateResult> evaluateRecognizedCustomerAsync(RequestContext context) {
+        return spendFeaturesAsync(context, asyncSpendDao).thenApply(this::evaluateFeatures);
+    }
+
+    private TargetingPredicateResult evaluateFeatures(CustomerFeatures features) {
         Validate.notNull(targetedCategory, "The targeted category cannot be null.");
         Validate.notNull(comparison, "How to compare against the targeted value cannot be null.");
 
-        final Map<String, Spend> customerSpend = spendDao.get(context);
-        final Spend categorySpend = customerSpend.getOrDefault(targetedCategory, ZERO_SPEND);
-        return comparison.compare(categorySpend.getNumberOfPurchases(), targetedNumberOfPurchases) ?
+        return comparison.compare(features.getNumberOfPurchases(targetedCategoryOrdinal), targetedNumberOfPurchases) ?
                 TargetingPredicateResult.TRUE : TargetingPredicateResult.FALSE;
     }
 
@@ -82,6 +95,7 @@ public class CategorySpendFrequencyTargetingPredicate extends TargetingPredicate
 
     public void setTargetedCategory(String targetedCategory) {
         this.targetedCategory = targetedCategory;
+        this.targetedCategoryOrdinal = CustomerFeatures.categoryOrdinal(targetedCategory);
     }
 
     public Comparison getComparison() {
@@ -104,4 +118,25 @@ public class CategorySpendFrequencyTargetingPredicate extends TargetingPredicate
     public void setSpendDao(ReadableDao<RequestContext, Map<String, Spend>> spendDao) {
         this.spendDao = spendDao;
     }
+
+    @VisibleForTesting
+    void setAsyncSpendDao(AsyncReadableDao<RequestContext, Map<String, Spend>> asyncSpendDao) {
+        this.asyncSpendDao = asyncSpendDao;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        final CategorySpendFrequencyTargetingPredicate that = (CategorySpendFrequencyTargetingPredicate) o;
+        return Objects.equals(targetedCategory, that.targetedCategory) &&
+                comparison == that.comparison &&
+                targetedNumberOfPurchases == that.targetedNumberOfPurchases;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), targetedCategory, comparison, targetedNumberOfPurchases);
+    }
 }
@@ -0,0 +1,54 @@
+package com.amazon.ata.advertising.service.targeting.predicate;
+
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
+import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.targeting.CustomerFeatures;
+import com.amazon.ata.customerservice.CustomerProfile;
+import com.amazon.ata.customerservice.Spend;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import javax.inject.Inject;
+
+/**
+ * Loads every feature of a customer at once, for code that needs the whole customer rather than a single predicate.
+ * Shares the request cache with the targeting predicates, so neither makes a downstream call the other already made.
+ */
+public class CustomerFeaturesLoader {
+    private final AsyncReadableDao<String, CustomerProfile> asyncCustomerProfileDao;
+    private final AsyncReadableDao<RequestContext, Map<String, Spend>> asyncSpendDao;
+    private final AsyncReadableDao<RequestContext, List<String>> asyncPrimeDao;
+
+    /**
+     * Creates a loader for customer features.
+     * @param asyncCustomerProfileDao Gets the customer's profile
+     * @param asyncSpendDao Gets the customer's spend
+     * @param asyncPrimeDao Gets the customer's prime benefits
+     */
+    @Inject
+    public CustomerFeaturesLoader(AsyncReadableDao<String, CustomerProfile> asyncCustomerProfileDao,
+                                  AsyncReadableDao<RequestContext, Map<String, Spend>> asyncSpendDao,
+                                  AsyncReadableDao<RequestContext, List<String>> asyncPrimeDao) {
+        this.asyncCustomerProfileDao = asyncCustomerProfileDao;
+        this.asyncSpendDao = asyncSpendDao;
+        this.asyncPrimeDao = asyncPrimeDao;
+    }
+
+    /**
+     * Loads the features of a recognized customer, calling each downstream service at most once per request.
+     * @param context The context of this request
+     * @return a future for the customer's features, which fails if any downstream call fails
+     */
+    public CompletableFuture<CustomerFeatures> loadAsync(RequestContext context) {
+        final CompletableFuture<CustomerFeatures> profileFeatures =
+            TargetingPredicate.profileFeaturesAsync(context, asyncCustomerProfileDao);
+        final CompletableFuture<CustomerFeatures> spendFeatures =
+            TargetingPredicate.spendFeaturesAsync(context, asyncSpendDao);
+        final CompletableFuture<CustomerFeatures> benefitFeatures =
+            TargetingPredicate.benefitFeaturesAsync(context, asyncPrimeDao);
+        return CompletableFuture.allOf(profileFeatures, spendFeatures, benefitFeatures)
+            .thenApply(loaded -> CustomerFeatures.combine(profileFeatures.join(), spendFeatures.join(),
+                benefitFeatures.join()));
+    }
+}
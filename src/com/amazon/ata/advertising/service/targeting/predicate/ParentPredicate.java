@@ -1,11 +1,14 @@
 package com.amazon.ata.advertising.service.targeting.predicate;
 
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
 import com.amazon.ata.advertising.service.dao.ReadableDao;
 import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.targeting.CustomerFeatures;
 import com.amazon.ata.customerservice.CustomerProfile;
 
 import com.google.common.annotations.VisibleForTesting;
 
+import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
 
 /**
@@ -16,6 +19,9 @@ public class ParentPredicate extends TargetingPredicate {
     @Inject
     ReadableDao<String, CustomerProfile> customerProfileDao;
 
+    @Inject
+    AsyncReadableDao<String, CustomerProfile> asyncCustomerProfileDao;
+
     /**
      * Evaluates to true if a customer is a parent.
      * @param inverse Can force the predicate to evaluate to true only if a customer isn't a parent.
@@ -31,9 +37,16 @@ public class ParentPredicate extends TargetingPredicate {
 
     @Override
     TargetingPredicateResult evaluateRecognizedCustomer(RequestContext context) {
-        final CustomerProfile profile = customerProfileDao.get(context.getCustomerId());
+        return evaluateFeatures(profileFeatures(context, customerProfileDao));
+    }
 
-        return profile.isParent() == null ? TargetingPredicateResult.INDETERMINATE : profile.isParent() ?
+    @Override
+    CompletableFuture<TargetingPredicateResult> evaluateRecognizedCustomerAsync(RequestContext context) {
+        return profileFeaturesAsync(context, asyncCustomerProfileDao).thenApply(this::evaluateFeatures);
+    }
+
+    private TargetingPredicateResult evaluateFeatures(CustomerFeatures features) {
+        return features.isParent() == null ? TargetingPredicateResult.INDETERMINATE : features.isParent() ?
                 TargetingPredicateResult.TRUE : TargetingPredicateResult.FALSE;
     }
 
@@ -41,4 +54,9 @@ public class ParentPredicate extends TargetingPredicate {
     void setCustomerProfileDao(ReadableDao<String, CustomerProfile> customerProfileDao) {
         this.customerProfileDao = customerProfileDao;
     }
+
+    @VisibleForTesting
+    void setAsyncCustomerProfileDao(AsyncReadableDao<String, CustomerProfile> asyncCustomerProfileDao) {
+        this.asyncCustomerProfileDao = asyncCustomerProfileDao;
+    }
 }
@@ -1,12 +1,16 @@
 package com.amazon.ata.advertising.service.targeting.predicate;
 
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
 import com.amazon.ata.advertising.service.dao.ReadableDao;
 import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.targeting.CustomerFeatures;
 
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.Validate;
 
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import javax.inject.Inject;
 
 /**
@@ -18,7 +22,11 @@ public class PrimeBenefitTargetingPredicate extends TargetingPredicate {
     @Inject
     ReadableDao<RequestContext, List<String>> primeDao;
 
+    @Inject
+    AsyncReadableDao<RequestContext, List<String>> asyncPrimeDao;
+
     private String benefitToHave;
+    private int benefitToHaveOrdinal = CustomerFeatures.UNKNOWN;
 
     /**
      * Constructor to create PrimeBenefitTargetingPredicate objects. A null prime benefit cannot be passed.
@@ -29,7 +37,7 @@ public class PrimeBenefitTargetingPredicate extends TargetingPredicate {
         super(inverse);
 
         Validate.notNull(benefitToHave, "Prime Benefit must be provided to the predicate.");
-        this.benefitToHave = benefitToHave;
+        setBenefitToHave(benefitToHave);
     }
 
     /**
@@ -47,11 +55,18 @@ public class PrimeBenefitTargetingPredicate extends TargetingPredicate {
 
     @Override
     TargetingPredicateResult evaluateRecognizedCustomer(RequestContext context) {
+        return evaluateFeatures(benefitFeatures(context, primeDao));
+    }
+
+    @Override
+    CompletableFuture<TargetingPredicateResult> evaluateRecognizedCustomerAsync(RequestContext context) {
+        return benefitFeaturesAsync(context, asyncPrimeDao).thenApply(this::evaluateFeatures);
+    }
+
+    private TargetingPredicateResult evaluateFeatures(CustomerFeatures features) {
         Validate.notNull(benefitToHave, "Prime Benefit must be populated to evaluate the predicate.");
 
-        return primeDao.get(context)
-                .stream()
-                .anyMatch(benefit -> benefitToHave.equals(benefit)) ?
+        return features.hasBenefit(benefitToHaveOrdinal) ?
                 TargetingPredicateResult.TRUE : TargetingPredicateResult.FALSE;
     }
 
@@ -61,10 +76,30 @@ public class PrimeBenefitTargetingPredicate extends TargetingPredicate {
 
     public void setBenefitToHave(String benefit) {
         this.benefitToHave = benefit;
+        this.benefitToHaveOrdinal = CustomerFeatures.benefitOrdinal(benefit);
     }
 
     @VisibleForTesting
     void setDao(ReadableDao<RequestContext, List<String>> dao) {
         this.primeDao = dao;
     }
+
+    @VisibleForTesting
+    void setAsyncDao(AsyncReadableDao<RequestContext, List<String>> asyncDao) {
+        this.asyncPrimeDao = asyncDao;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!super.equals(o)) {
+            return false;
+        }
+        final PrimeBenefitTargetingPredicate that = (PrimeBenefitTargetingPredicate) o;
+        return Objects.equals(benefitToHave, that.benefitToHave);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(super.hashCode(), benefitToHave);
+    }
 }
@@ -20,6 +20,11 @@ public class RecognizedTargetingPredicate extends TargetingPredicate {
      */
     public RecognizedTargetingPredicate() {}
 
+    @Override
+    public boolean requiresRemoteData() {
+        return false;
+    }
+
     @Override
     TargetingPredicateResult evaluateRecognizedCustomer(RequestContext context) {
         return TargetingPredicateResult.TRUE;
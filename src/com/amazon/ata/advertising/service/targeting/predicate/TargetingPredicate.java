@@ -1,20 +1,39 @@
 package com.amazon.ata.advertising.service.targeting.predicate;
 
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
+import com.amazon.ata.advertising.service.dao.ReadableDao;
+import com.amazon.ata.advertising.service.exceptions.DependencyUnavailableException;
 import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.targeting.CustomerFeatures;
+import com.amazon.ata.advertising.service.util.Futures;
+import com.amazon.ata.customerservice.CustomerProfile;
+import com.amazon.ata.customerservice.Spend;
 
-import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicateResult;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
 /**
  * Base class for all TargetingPredicates. The evaluate method will call either a recognized or unrecognized evaluate
  * method based on whether not the customerId is available in the context. All classes extending TargetingPredicate must
  * implement the recognized evaluation method. Default implementation of the unrecognized evaluate is to return an
  * INDETERMINATE result.
+ *
+ * Two predicates are equal when they are the same type with the same attributes and inverse flag, so they always
+ * evaluate to the same result for a request. Classes extending TargetingPredicate must include their attributes in
+ * equals and hashCode.
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
 @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS, include = JsonTypeInfo.As.PROPERTY, property = "@class")
 public abstract class TargetingPredicate {
+    static final String CUSTOMER_PROFILE = "CustomerProfile";
+    static final String CUSTOMER_SPEND = "CustomerSpend";
+    static final String PRIME_BENEFITS = "PrimeBenefits";
 
     protected boolean inverse;
 
@@ -41,6 +60,41 @@ public abstract class TargetingPredicate {
         return inverse ? nonInvertedResult.invert() : nonInvertedResult;
     }
 
+    /**
+     * Evaluate whether the information available in the request context passes the targeting predicate, without
+     * blocking on downstream calls.
+     * @param context - information about the incoming request, such as requestor and location
+     * @return a future that completes with TRUE/FALSE if the predicate passes, or INDETERMINATE if the evaluation
+     *     cannot be made, including when the downstream service it needs is unavailable
+     */
+    public CompletableFuture<TargetingPredicateResult> evaluateAsync(RequestContext context) {
+        final CompletableFuture<TargetingPredicateResult> nonInvertedResult;
+        if (context.isRecognizedCustomer()) {
+            nonInvertedResult = indeterminateIfUnavailable(evaluateRecognizedCustomerAsync(context));
+        } else {
+            nonInvertedResult = CompletableFuture.completedFuture(evaluateUnrecognizedCustomer(context));
+        }
+        return inverse ? nonInvertedResult.thenApply(TargetingPredicateResult::invert) : nonInvertedResult;
+    }
+
+    private static CompletableFuture<TargetingPredicateResult> indeterminateIfUnavailable(
+        CompletableFuture<TargetingPredicateResult> evaluation) {
+        final CompletableFuture<TargetingPredicateResult> result = new CompletableFuture<>();
+        evaluation.whenComplete((evaluationResult, error) -> {
+            final Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+            if (cause == null) {
+                result.complete(evaluationResult);
+            } else if (cause instanceof DependencyUnavailableException) {
+                result.complete(TargetingPredicateResult.INDETERMINATE);
+            } else {
+                result.completeExceptionally(cause);
+            }
+        });
+        // Cancelling the result, as the evaluator does for predicates it no longer needs, cancels the evaluation
+        result.whenComplete((evaluationResult, error) -> evaluation.cancel(false));
+        return result;
+    }
+
     /**
      * Evaluate this targeting predicate ignoring whether or not it is set to inverse.
      * @param context The context of this request.
@@ -51,6 +105,15 @@ public abstract class TargetingPredicate {
                 evaluateRecognizedCustomer(context) : evaluateUnrecognizedCustomer(context);
     }
 
+    /**
+     * Whether evaluating this predicate for a recognized customer calls a downstream service. Predicates that don't
+     * are evaluated first, since they are cheap and can rule a targeting group out before any remote call is made.
+     * @return true if the predicate needs remote data to evaluate a recognized customer
+     */
+    public boolean requiresRemoteData() {
+        return true;
+    }
+
     /**
      * Evaluates this targeting predicate for an unrecognized customer.
      * @param context The context of this request
@@ -67,6 +130,99 @@ public abstract class TargetingPredicate {
      */
     abstract TargetingPredicateResult evaluateRecognizedCustomer(RequestContext context);
 
+    /**
+     * Evaluates this targeting predicate for a recognized customer without blocking. Predicates that call a
+     * downstream service should override this to compose the future of that call. By default the predicate is
+     * evaluated on the calling thread.
+     * @param context The context of this request
+     * @return A future for the result of evaluating the predicate for a recognized customer.
+     */
+    CompletableFuture<TargetingPredicateResult> evaluateRecognizedCustomerAsync(RequestContext context) {
+        try {
+            return CompletableFuture.completedFuture(evaluateRecognizedCustomer(context));
+        } catch (RuntimeException e) {
+            return Futures.failed(e);
+        }
+    }
+
+    /**
+     * Gets the customer's age range and parent flag, calling CustomerService only once per request.
+     * @param context The context of this request
+     * @param customerProfileDao Gets the customer's profile
+     * @return the features filled in from the customer's profile
+     */
+    static CustomerFeatures profileFeatures(RequestContext context,
+                                            ReadableDao<String, CustomerProfile> customerProfileDao) {
+        return context.getRequestCache().get(CUSTOMER_PROFILE, () -> CustomerFeatures.builder()
+                .withProfile(customerProfileDao.get(context.getCustomerId()))
+                .build());
+    }
+
+    /**
+     * Gets the customer's age range and parent flag without blocking, calling CustomerService only once per request.
+     * @param context The context of this request
+     * @param asyncCustomerProfileDao Gets the customer's profile
+     * @return a future for the features filled in from the customer's profile
+     */
+    static CompletableFuture<CustomerFeatures> profileFeaturesAsync(
+        RequestContext context, AsyncReadableDao<String, CustomerProfile> asyncCustomerProfileDao) {
+        return context.getRequestCache().getAsync(CUSTOMER_PROFILE, () -> asyncCustomerProfileDao
+                .getAsync(context.getCustomerId())
+                .thenApply(profile -> CustomerFeatures.builder().withProfile(profile).build()));
+    }
+
+    /**
+     * Gets the customer's spend per category, calling CustomerService only once per request.
+     * @param context The context of this request
+     * @param spendDao Gets the customer's spend
+     * @return the features filled in from the customer's spend
+     */
+    static CustomerFeatures spendFeatures(RequestContext context,
+                                          ReadableDao<RequestContext, Map<String, Spend>> spendDao) {
+        return context.getRequestCache().get(CUSTOMER_SPEND, () -> CustomerFeatures.builder()
+                .withSpend(spendDao.get(context))
+                .build());
+    }
+
+    /**
+     * Gets the customer's spend per category without blocking, calling CustomerService only once per request.
+     * @param context The context of this request
+     * @param asyncSpendDao Gets the customer's spend
+     * @return a future for the features filled in from the customer's spend
+     */
+    static CompletableFuture<CustomerFeatures> spendFeaturesAsync(
+        RequestContext context, AsyncReadableDao<RequestContext, Map<String, Spend>> asyncSpendDao) {
+        return context.getRequestCache().getAsync(CUSTOMER_SPEND, () -> asyncSpendDao
+                .getAsync(context)
+                .thenApply(spend -> CustomerFeatures.builder().withSpend(spend).build()));
+    }
+
+    /**
+     * Gets the customer's prime benefits, calling PrimeClubService only once per request.
+     * @param context The context of this request
+     * @param primeDao Gets the customer's prime benefits
+     * @return the features filled in from the customer's prime benefits
+     */
+    static CustomerFeatures benefitFeatures(RequestContext context,
+                                            ReadableDao<RequestContext, List<String>> primeDao) {
+        return context.getRequestCache().get(PRIME_BENEFITS, () -> CustomerFeatures.builder()
+                .withBenefits(primeDao.get(context))
+                .build());
+    }
+
+    /**
+     * Gets the customer's prime benefits without blocking, calling PrimeClubService only once per request.
+     * @param context The context of this request
+     * @param asyncPrimeDao Gets the customer's prime benefits
+     * @return a future for the features filled in from the customer's prime benefits
+     */
+    static CompletableFuture<CustomerFeatures> benefitFeaturesAsync(
+        RequestContext context, AsyncReadableDao<RequestContext, List<String>> asyncPrimeDao) {
+        return context.getRequestCache().getAsync(PRIME_BENEFITS, () -> asyncPrimeDao
+                .getAsync(context)
+                .thenApply(benefits -> CustomerFeatures.builder().withBenefits(benefits).build()));
+    }
+
     public void setInverse(boolean inverse) {
         this.inverse = inverse;
     }
@@ -74,4 +230,20 @@ public abstract class TargetingPredicate {
     public boolean isInverse() {
         return inverse;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return inverse == ((TargetingPredicate) o).inverse;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getClass(), inverse);
+    }
 }
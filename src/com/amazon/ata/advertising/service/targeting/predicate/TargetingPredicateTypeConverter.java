@@ -1,24 +1,24 @@
 package com.amazon.ata.advertising.service.targeting.predicate;
 
 import com.amazon.ata.advertising.service.exceptions.AdvertisementServiceException;
-//import com.amazon.ata.advertising.service.dependency.DaggerGeneratedCoralComponent;
-import com.amazon.ata.advertising.service.dependency.DaggerLambdaComponent;
-import com.amazon.ata.advertising.service.dependency.LambdaComponent;
-import com.amazon.ata.advertising.service.dependency.TargetingPredicateInjector;
 
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBTypeConverter;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 
 import java.io.IOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
 /**
- * Class to convert a list of the complex type TargetingPredicate to a string and vice-versa.
+ * Class to convert a list of the complex type TargetingPredicate to a string and vice-versa. Predicates are returned
+ * without their Daos; TargetingGroupDao injects them once a targeting group has been loaded.
  */
 public class TargetingPredicateTypeConverter implements DynamoDBTypeConverter<String, List<TargetingPredicate>> {
     private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ObjectReader PREDICATE_LIST_READER =
+            MAPPER.readerFor(new TypeReference<List<TargetingPredicate>>() { });
 
     /**
      * Serializes the passed predicate list into a String. Each member is serialized separately so that the Jackson
@@ -48,15 +48,8 @@ public class TargetingPredicateTypeConverter implements DynamoDBTypeConverter<St
 
     @Override
     public List<TargetingPredicate> unconvert(String value) {
-        LambdaComponent component = DaggerLambdaComponent.create();
-        TargetingPredicateInjector injector = component.getTargetingPredicateInjector();
         try {
-            final List<TargetingPredicate> predicates = MAPPER.readValue(value,
-                    new TypeReference<List<TargetingPredicate>>() { });
-            for (TargetingPredicate predicate : predicates) {
-                injector.inject(predicate);
-            }
-            return predicates;
+            return PREDICATE_LIST_READER.readValue(value);
         } catch (IOException e) {
             throw new AdvertisementServiceException("Unable to convert the String value to a list of targeting " +
                     "predicates. String: " + value, e);
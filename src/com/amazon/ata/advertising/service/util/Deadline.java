@@ -0,0 +1,94 @@
+package com.amazon.ata.advertising.service.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A point in time by which a request should have been answered. Work still pending at the deadline can be completed
+ * with a fallback value instead of being waited on.
+ */
+public final class Deadline {
+    private static final Deadline NONE = new Deadline(false, 0);
+    private static final ScheduledThreadPoolExecutor TIMER = createTimer();
+
+    private final boolean bounded;
+    private final long expiryNanos;
+
+    private Deadline(boolean bounded, long expiryNanos) {
+        this.bounded = bounded;
+        this.expiryNanos = expiryNanos;
+    }
+
+    private static ScheduledThreadPoolExecutor createTimer() {
+        final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder()
+            .setNameFormat("request-deadline-%d")
+            .setDaemon(true)
+            .build());
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    /**
+     * Creates a deadline the given time from now.
+     * @param timeBudget How long the request may take. Zero or less means the deadline has already passed.
+     * @param unit The unit of the time budget.
+     * @return a deadline that expires once the time budget is spent
+     */
+    public static Deadline after(long timeBudget, TimeUnit unit) {
+        return new Deadline(true, System.nanoTime() + unit.toNanos(timeBudget));
+    }
+
+    /**
+     * A deadline that never expires, for requests that are allowed to wait as long as they need.
+     * @return the deadline that never expires
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - expiryNanos >= 0;
+    }
+
+    /**
+     * How much of the time budget is left.
+     * @return the nanoseconds until the deadline, zero if it has passed, or Long.MAX_VALUE if there is no deadline
+     */
+    public long remainingNanos() {
+        return bounded ? Math.max(0, expiryNanos - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    /**
+     * Completes the future with a fallback value at the deadline, unless it has already completed by then. Like
+     * CompletableFuture.completeOnTimeout in later versions of Java, the dependents of the future then run on the
+     * deadline's timer thread.
+     * @param future The future to bound.
+     * @param fallback The value to complete the future with at the deadline.
+     * @param onExpired Called when the future is still pending at the deadline, before the future is completed so
+     *                  the future's dependents can see its effects. A future that completes at the same moment may
+     *                  keep its own value even though onExpired was called.
+     * @param <T> The generic type of the Future.
+     */
+    public <T> void completeAtExpiry(CompletableFuture<T> future, T fallback, Runnable onExpired) {
+        if (!bounded || future.isDone()) {
+            return;
+        }
+        final Runnable expire = () -> {
+            if (!future.isDone()) {
+                onExpired.run();
+                future.complete(fallback);
+            }
+        };
+        final long remainingNanos = remainingNanos();
+        if (remainingNanos == 0) {
+            expire.run();
+            return;
+        }
+        final ScheduledFuture<?> expiry = TIMER.schedule(expire, remainingNanos, TimeUnit.NANOSECONDS);
+        future.whenComplete((result, error) -> expiry.cancel(false));
+    }
+}
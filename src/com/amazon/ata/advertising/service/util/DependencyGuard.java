@@ -0,0 +1,196 @@
+package com.amazon.ata.advertising.service.util;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A circuit breaker and a bulkhead for one downstream service.
+ *
+ * The circuit breaker opens after a run of consecutive failed calls, and while it is open calls are rejected without
+ * being made. Once the open interval has passed a single trial call is let through: if it succeeds the breaker closes,
+ * and if it fails the breaker stays open for another interval.
+ *
+ * The bulkhead limits how many calls to the service can be in flight at once, so a service that has slowed down
+ * can't tie up every thread shared with the other services. Calls over the limit are rejected instead of queued.
+ */
+public class DependencyGuard {
+
+    /**
+     * The states of the circuit breaker.
+     */
+    public enum State {
+        /** Calls are made. */
+        CLOSED,
+        /** Calls are rejected. */
+        OPEN,
+        /** One trial call is being made to find out whether the service has recovered. */
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int maxConcurrentCalls;
+    private final Semaphore callPermits;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+
+    private final AtomicLong breakerRejections = new AtomicLong();
+    private final AtomicLong bulkheadRejections = new AtomicLong();
+    private final AtomicLong timesOpened = new AtomicLong();
+
+    /**
+     * Guards calls to a downstream service.
+     * @param name The name of the service, for logs and metrics.
+     * @param failureThreshold How many calls in a row must fail to open the breaker.
+     * @param openMillis How long the breaker stays open before a trial call is let through.
+     * @param maxConcurrentCalls How many calls may be in flight at once.
+     */
+    public DependencyGuard(String name, int failureThreshold, long openMillis, int maxConcurrentCalls) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMillis);
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.callPermits = new Semaphore(maxConcurrentCalls);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Asks to make a call. A call that is allowed must be followed by exactly one call to onSuccess, onFailure or
+     * onAbandoned.
+     * @return true if the call may be made, false if the breaker is open or the bulkhead is full
+     */
+    public boolean tryAcquire() {
+        if (!tryPassBreaker()) {
+            breakerRejections.incrementAndGet();
+            return false;
+        }
+        if (!callPermits.tryAcquire()) {
+            bulkheadRejections.incrementAndGet();
+            abandonTrial();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records that an allowed call succeeded. A call that was already in flight when the breaker opened doesn't close
+     * it; only the trial call, or a call made while closed, does.
+     */
+    public void onSuccess() {
+        callPermits.release();
+        synchronized (this) {
+            if (state != State.OPEN) {
+                consecutiveFailures = 0;
+                state = State.CLOSED;
+            }
+        }
+    }
+
+    /**
+     * Records that an allowed call failed.
+     */
+    public void onFailure() {
+        callPermits.release();
+        synchronized (this) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+                state = State.OPEN;
+                openedAtNanos = System.nanoTime();
+                timesOpened.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Records that an allowed call was cancelled before its outcome was known, which says nothing about the health
+     * of the service.
+     */
+    public void onAbandoned() {
+        callPermits.release();
+        abandonTrial();
+    }
+
+    private synchronized boolean tryPassBreaker() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAtNanos < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                return true;
+            default:
+                // A trial call is already in flight
+                return false;
+        }
+    }
+
+    private synchronized void abandonTrial() {
+        if (state == State.HALF_OPEN) {
+            // Let the next call be the trial instead
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime() - openNanos;
+        }
+    }
+
+    /**
+     * Gauge for the state of the circuit breaker.
+     * @return the current state
+     */
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Counter for the calls rejected because the breaker was open.
+     * @return the number of calls rejected by the breaker
+     */
+    public long getBreakerRejectionCount() {
+        return breakerRejections.get();
+    }
+
+    /**
+     * Counter for the calls rejected because too many calls were already in flight.
+     * @return the number of calls rejected by the bulkhead
+     */
+    public long getBulkheadRejectionCount() {
+        return bulkheadRejections.get();
+    }
+
+    /**
+     * Counter for how many times the breaker has opened.
+     * @return the number of times the breaker opened
+     */
+    public long getOpenCount() {
+        return timesOpened.get();
+    }
+
+    /**
+     * Gauge for the calls in flight.
+     * @return the number of calls made and not yet completed
+     */
+    public int getActiveCalls() {
+        return maxConcurrentCalls - callPermits.availablePermits();
+    }
+
+    /**
+     * Publishes the guard's gauges and counters, named after the service. The state is published as its ordinal: 0 for
+     * CLOSED, 1 for OPEN and 2 for HALF_OPEN.
+     * @param metrics the reporter to publish them to
+     */
+    public void publishTo(MetricsReporter metrics) {
+        metrics.register(name + ".breakerState", () -> getState().ordinal());
+        metrics.register(name + ".breakerRejections", this::getBreakerRejectionCount);
+        metrics.register(name + ".bulkheadRejections", this::getBulkheadRejectionCount);
+        metrics.register(name + ".timesOpened", this::getOpenCount);
+        metrics.register(name + ".activeCalls", this::getActiveCalls);
+    }
+}
@@ -1,6 +1,7 @@
 package com.amazon.ata.advertising.service.util;
 
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -31,4 +32,17 @@ public class Futures {
         }
         return result;
     }
+
+    /**
+     * Creates a future that has already failed, like CompletableFuture.failedFuture in later versions of Java.
+     *
+     * @param cause The exception the future failed with.
+     * @param <T> The generic type of the Future.
+     * @return A future completed exceptionally with the cause.
+     */
+    public static <T> CompletableFuture<T> failed(Throwable cause) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        future.completeExceptionally(cause);
+        return future;
+    }
 }
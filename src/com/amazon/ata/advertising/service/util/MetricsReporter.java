@@ -0,0 +1,73 @@
+package com.amazon.ata.advertising.service.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Writes the gauges and counters the service's components expose to the log on a fixed interval, one line per metric
+ * in the form "metric name=value", so they can be graphed and alarmed on from the log stream. Components register
+ * their metrics when they are created. A Lambda container is frozen between invocations, so there a report is only
+ * written while the container is handling requests.
+ */
+public class MetricsReporter {
+    private static final Logger LOG = LogManager.getLogger(MetricsReporter.class);
+
+    private final ConcurrentMap<String, Supplier<? extends Number>> metrics = new ConcurrentSkipListMap<>();
+
+    /**
+     * Creates a reporter that writes every registered metric on a fixed interval.
+     * @param reportIntervalSeconds how often to write the metrics, where zero or less never writes them
+     */
+    public MetricsReporter(long reportIntervalSeconds) {
+        if (reportIntervalSeconds > 0) {
+            ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat("metrics-report-%d")
+                .setDaemon(true)
+                .build());
+            reporter.scheduleWithFixedDelay(this::report, reportIntervalSeconds, reportIntervalSeconds,
+                TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Adds a metric to every report. Registering a name again replaces the metric.
+     * @param name the name of the metric, such as "dynamodb-query.queueDepth"
+     * @param metric reads the current value of the metric
+     */
+    public void register(String name, Supplier<? extends Number> metric) {
+        metrics.put(name, metric);
+    }
+
+    /**
+     * Reads every registered metric. A metric that can't be read is left out.
+     * @return the current value of each metric, by name in alphabetical order
+     */
+    public Map<String, Number> read() {
+        final Map<String, Number> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Supplier<? extends Number>> metric : metrics.entrySet()) {
+            try {
+                values.put(metric.getKey(), metric.getValue().get());
+            } catch (RuntimeException e) {
+                LOG.warn(String.format("Unable to read metric %s.", metric.getKey()), e);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Writes every registered metric to the log.
+     */
+    public void report() {
+        read().forEach((name, value) -> LOG.info(String.format("metric %s=%s", name, value)));
+    }
+}
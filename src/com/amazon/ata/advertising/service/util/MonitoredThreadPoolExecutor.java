@@ -0,0 +1,86 @@
+package com.amazon.ata.advertising.service.util;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A fixed size thread pool with a bounded work queue and named daemon threads that exposes gauges for how busy it is.
+ * When both the pool and the queue are full, the task is run on the submitting thread, which slows down callers
+ * instead of dropping work or growing without bound.
+ */
+public class MonitoredThreadPoolExecutor extends ThreadPoolExecutor {
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final String name;
+    private final AtomicLong rejectedTaskCount;
+
+    /**
+     * Creates a pool of at most poolSize threads, named after the pool.
+     * @param name Prefix for the name of every thread in the pool.
+     * @param poolSize The maximum number of threads in the pool.
+     * @param queueCapacity The number of tasks that can wait for a thread before tasks run on the caller.
+     */
+    public MonitoredThreadPoolExecutor(String name, int poolSize, int queueCapacity) {
+        this(name, poolSize, queueCapacity, new AtomicLong());
+    }
+
+    private MonitoredThreadPoolExecutor(String name, int poolSize, int queueCapacity, AtomicLong rejectedTaskCount) {
+        super(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            new ThreadFactoryBuilder()
+                .setNameFormat(name + "-%d")
+                .setDaemon(true)
+                .build(),
+            countingCallerRunsPolicy(rejectedTaskCount));
+        this.name = name;
+        this.rejectedTaskCount = rejectedTaskCount;
+        allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Publishes the pool's gauges and counters, named after the pool.
+     * @param metrics the reporter to publish them to
+     */
+    public void publishTo(MetricsReporter metrics) {
+        metrics.register(name + ".queueDepth", this::getQueueDepth);
+        metrics.register(name + ".activeThreads", this::getActiveThreads);
+        metrics.register(name + ".rejectedTasks", this::getRejectedTaskCount);
+    }
+
+    private static RejectedExecutionHandler countingCallerRunsPolicy(AtomicLong rejectedTaskCount) {
+        RejectedExecutionHandler callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+        return (task, executor) -> {
+            rejectedTaskCount.incrementAndGet();
+            callerRuns.rejectedExecution(task, executor);
+        };
+    }
+
+    /**
+     * Gauge for the number of tasks waiting for a thread.
+     * @return the current depth of the work queue
+     */
+    public int getQueueDepth() {
+        return getQueue().size();
+    }
+
+    /**
+     * Gauge for the number of threads currently running a task.
+     * @return the approximate number of busy threads
+     */
+    public int getActiveThreads() {
+        return getActiveCount();
+    }
+
+    /**
+     * Counter for the tasks that found the pool saturated and ran on the submitting thread instead.
+     * @return the number of rejected tasks since the pool was created
+     */
+    public long getRejectedTaskCount() {
+        return rejectedTaskCount.get();
+    }
+}
@@ -0,0 +1,57 @@
+package com.amazon.ata.advertising.service.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Adds up the lookups of every request's RequestScopedCache, so how often predicates share a downstream call can be
+ * graphed across the process rather than only read from one request's debug log.
+ */
+public class RequestCacheStatistics {
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Adds the lookups of one request's cache. Call it once per request, after the request is done with the cache.
+     * @param requestCache the cache of the request
+     */
+    public void record(RequestScopedCache requestCache) {
+        hits.addAndGet(requestCache.getHitCount());
+        misses.addAndGet(requestCache.getMissCount());
+        coalesced.addAndGet(requestCache.getCoalescedCount());
+    }
+
+    /**
+     * Counter for lookups that found a value that was already loaded.
+     * @return the number of hits since startup
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Counter for lookups that had to load the value.
+     * @return the number of misses since startup
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Counter for lookups that waited on a load another caller of the same request had already started.
+     * @return the number of coalesced lookups since startup
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * Publishes the counters.
+     * @param metrics the reporter to publish them to
+     */
+    public void publishTo(MetricsReporter metrics) {
+        metrics.register("requestCache.hits", this::getHitCount);
+        metrics.register("requestCache.misses", this::getMissCount);
+        metrics.register("requestCache.coalesced", this::getCoalescedCount);
+    }
+}
@@ -0,0 +1,113 @@
+package com.amazon.ata.advertising.service.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Memoizes values for the lifetime of a single request. The first caller for a key loads the value; callers that
+ * arrive while it is loading wait for that same load instead of starting their own. A failed load is not cached, so a
+ * later caller will try again.
+ */
+public class RequestScopedCache {
+    private final ConcurrentMap<Object, CompletableFuture<Object>> values = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Gets the value for a key, loading it if this is the first request for it.
+     * @param key identifies the value, must implement equals and hashCode
+     * @param loader loads the value when it isn't cached yet
+     * @param <T> the type of the value
+     * @return the cached or newly loaded value
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Supplier<T> loader) {
+        final CompletableFuture<Object> loading = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = values.putIfAbsent(key, loading);
+        if (existing != null) {
+            if (existing.isDone()) {
+                hits.incrementAndGet();
+            } else {
+                coalesced.incrementAndGet();
+            }
+            return (T) Futures.getUnchecked(existing);
+        }
+
+        misses.incrementAndGet();
+        try {
+            final T value = loader.get();
+            loading.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            values.remove(key, loading);
+            loading.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the value for a key without blocking, starting the load if this is the first request for it. Shares the
+     * cached values with get, so a value loaded by either method is reused by both.
+     * @param key identifies the value, must implement equals and hashCode
+     * @param loader starts loading the value when it isn't cached yet
+     * @param <T> the type of the value
+     * @return a future for the cached or newly loaded value. Cancelling it doesn't cancel the shared load.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> getAsync(Object key, Supplier<CompletableFuture<T>> loader) {
+        final CompletableFuture<Object> loading = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = values.putIfAbsent(key, loading);
+        if (existing != null) {
+            if (existing.isDone()) {
+                hits.incrementAndGet();
+            } else {
+                coalesced.incrementAndGet();
+            }
+            return existing.thenApply(value -> (T) value);
+        }
+
+        misses.incrementAndGet();
+        try {
+            loader.get().whenComplete((value, error) -> {
+                if (error != null) {
+                    values.remove(key, loading);
+                    loading.completeExceptionally(error);
+                } else {
+                    loading.complete(value);
+                }
+            });
+        } catch (RuntimeException e) {
+            values.remove(key, loading);
+            loading.completeExceptionally(e);
+        }
+        return loading.thenApply(value -> (T) value);
+    }
+
+    /**
+     * Counter for lookups that found a value that was already loaded.
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    /**
+     * Counter for lookups that had to load the value.
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * Counter for lookups that waited on a load another caller had already started.
+     * @return the number of coalesced lookups
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+}
@@ -6,6 +6,7 @@ import com.amazon.ata.advertising.service.model.TargetingGroup;
 import com.amazon.ata.advertising.service.model.TargetingPredicate;
 import com.amazon.ata.advertising.service.model.TargetingPredicateType;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 import com.amazon.ata.advertising.service.targeting.predicate.AgeTargetingPredicate;
 import com.amazon.ata.customerservice.AgeRange;
 import org.junit.jupiter.api.BeforeEach;
@@ -35,6 +36,9 @@ public class AddTargetingGroupActivityTest {
     @Mock
     private TargetingGroupDao targetingGroupDao;
 
+    @Mock
+    private MarketplaceTargetingIndex targetingIndex;
+
     @InjectMocks
     private AddTargetingGroupActivity addTargetingGroupActivity;
 
@@ -6,6 +6,8 @@ import com.amazon.ata.advertising.service.model.TargetingPredicate;
 import com.amazon.ata.advertising.service.model.TargetingPredicateType;
 import com.amazon.ata.advertising.service.dao.ContentDao;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
+import com.amazon.ata.advertising.service.dao.MarketplaceContentCache;
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
 import com.amazon.ata.advertising.service.targeting.TargetingGroup;
 import com.amazon.ata.advertising.service.targeting.predicate.RecognizedTargetingPredicate;
@@ -38,6 +40,12 @@ public class CreateContentActivityTest {
     @Mock
     private TargetingGroupDao targetingGroupDao;
 
+    @Mock
+    private MarketplaceContentCache contentCache;
+
+    @Mock
+    private MarketplaceTargetingIndex targetingIndex;
+
     @InjectMocks
     private CreateContentActivity activity;
 
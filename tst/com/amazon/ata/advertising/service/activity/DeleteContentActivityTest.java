@@ -5,6 +5,8 @@ import com.amazon.ata.advertising.service.model.requests.DeleteContentRequest;
 import com.amazon.ata.advertising.service.model.responses.DeleteContentResponse;
 import com.amazon.ata.advertising.service.dao.ContentDao;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
+import com.amazon.ata.advertising.service.dao.MarketplaceContentCache;
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -28,6 +30,12 @@ public class DeleteContentActivityTest {
     @Mock
     private TargetingGroupDao targetingGroupDao;
 
+    @Mock
+    private MarketplaceContentCache contentCache;
+
+    @Mock
+    private MarketplaceTargetingIndex targetingIndex;
+
     @InjectMocks
     private DeleteContentActivity deleteContentActivity;
 
@@ -64,5 +72,7 @@ public class DeleteContentActivityTest {
         assertNotNull(response, "Expected a non-null response from the api.");
         verify(targetingGroupDao).delete(CONTENT_ID);
         verify(contentDao).delete(CONTENT_ID);
+        verify(contentCache).invalidateContent(CONTENT_ID);
+        verify(targetingIndex).removeContent(CONTENT_ID);
     }
 }
@@ -6,15 +6,27 @@ import com.amazon.ata.advertising.service.businesslogic.AdvertisementSelectionLo
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
 import com.amazon.ata.advertising.service.model.EmptyGeneratedAdvertisement;
 import com.amazon.ata.advertising.service.model.GeneratedAdvertisement;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -77,4 +89,83 @@ public class GenerateAdActivityTest {
         assertNotNull(response.getAdvertisement());
         assertEquals("", response.getAdvertisement().getContent());
     }
+
+    @Test
+    public void testGenerateAd_multipleAdsRequested_advertisementsReturned() {
+        // GIVEN
+        final GeneratedAdvertisement secondAdvertisement = new GeneratedAdvertisement(CONTENT);
+        final GenerateAdvertisementRequest request = GenerateAdvertisementRequest.builder()
+                .withCustomerId(CUSTOMER_ID)
+                .withMarketplaceId(MARKETPLACE_ID)
+                .withNumberOfAds(3)
+                .build();
+        when(adSelectionService.selectAdvertisements(CUSTOMER_ID, MARKETPLACE_ID, 3))
+                .thenReturn(Arrays.asList(GENERATED_ADVERTISEMENT, secondAdvertisement));
+
+        // WHEN
+        final GenerateAdvertisementResponse response = activity.generateAd(request);
+
+        // THEN
+        assertEquals(GENERATED_ADVERTISEMENT.getId(), response.getAdvertisement().getId());
+        assertEquals(2, response.getAdvertisements().size());
+        assertEquals(GENERATED_ADVERTISEMENT.getId(), response.getAdvertisements().get(0).getId());
+        assertEquals(secondAdvertisement.getId(), response.getAdvertisements().get(1).getId());
+    }
+
+    @Test
+    public void testGenerateAd_multipleAdsRequestedNoneEligible_emptyAdvertisementReturned() {
+        // GIVEN
+        final GenerateAdvertisementRequest request = GenerateAdvertisementRequest.builder()
+                .withCustomerId(CUSTOMER_ID)
+                .withMarketplaceId(MARKETPLACE_ID)
+                .withNumberOfAds(3)
+                .build();
+        when(adSelectionService.selectAdvertisements(CUSTOMER_ID, MARKETPLACE_ID, 3))
+                .thenReturn(Collections.emptyList());
+
+        // WHEN
+        final GenerateAdvertisementResponse response = activity.generateAd(request);
+
+        // THEN
+        assertEquals("", response.getAdvertisement().getContent());
+        assertTrue(response.getAdvertisements().isEmpty());
+    }
+
+    @Test
+    public void testGenerateAd_concurrentRequestsForSameCustomer_shareOneSelection() throws Exception {
+        // GIVEN
+        final CountDownLatch secondRequestWaiting = new CountDownLatch(1);
+        when(adSelectionService.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID)).thenAnswer(invocation -> {
+            secondRequestWaiting.await(5, TimeUnit.SECONDS);
+            return GENERATED_ADVERTISEMENT;
+        });
+        final ExecutorService requestThreads = Executors.newFixedThreadPool(2);
+        final MetricsReporter metrics = new MetricsReporter(0);
+        activity.publishTo(metrics);
+
+        try {
+            // WHEN
+            final Future<GenerateAdvertisementResponse> firstResponse =
+                requestThreads.submit(() -> activity.generateAd(REQUEST));
+            final Future<GenerateAdvertisementResponse> secondResponse =
+                requestThreads.submit(() -> activity.generateAd(REQUEST));
+            final long giveUpAt = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (activity.getCoalescedCount() == 0 && System.nanoTime() < giveUpAt) {
+                Thread.sleep(1);
+            }
+            secondRequestWaiting.countDown();
+
+            // THEN
+            final GenerateAdvertisementResponse first = firstResponse.get(5, TimeUnit.SECONDS);
+            final GenerateAdvertisementResponse second = secondResponse.get(5, TimeUnit.SECONDS);
+            verify(adSelectionService, times(1)).selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+            assertEquals(1, activity.getCoalescedCount());
+            assertEquals(1L, metrics.read().get("generateAd.coalescedRequests"));
+            assertEquals(RENDERABLE_CONTENT, first.getAdvertisement().getContent());
+            assertEquals(RENDERABLE_CONTENT, second.getAdvertisement().getContent());
+            assertNotEquals(first.getAdvertisement().getId(), second.getAdvertisement().getId());
+        } finally {
+            requestThreads.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,106 @@
+package com.amazon.ata.advertising.service.activity;
+
+import com.amazon.ata.advertising.service.model.requests.GenerateAdvertisementsRequest;
+import com.amazon.ata.advertising.service.model.responses.GenerateAdvertisementsResponse;
+import com.amazon.ata.advertising.service.businesslogic.AdvertisementSelectionLogic;
+import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.model.AdvertisementPlacement;
+import com.amazon.ata.advertising.service.model.EmptyGeneratedAdvertisement;
+import com.amazon.ata.advertising.service.model.GeneratedAdvertisement;
+import com.amazon.ata.advertising.service.util.Futures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class GenerateAdvertisementsActivityTest {
+
+    private static final String CUSTOMER_ID = "A123B456";
+    private static final String MARKETPLACE_ID = "1";
+    private static final String CONTENT_ID = UUID.randomUUID().toString();
+    private static final String RENDERABLE_CONTENT = "<div class=\"ata-ad\"> Click here! </div>";
+
+    private static final List<AdvertisementPlacement> PLACEMENTS = Arrays.asList(
+        new AdvertisementPlacement(CUSTOMER_ID, MARKETPLACE_ID, "top"),
+        new AdvertisementPlacement(CUSTOMER_ID, MARKETPLACE_ID, "bottom"));
+
+    private static final GenerateAdvertisementsRequest REQUEST = GenerateAdvertisementsRequest.builder()
+            .withPlacements(PLACEMENTS)
+            .build();
+
+    private static final AdvertisementContent CONTENT = AdvertisementContent.builder()
+            .withRenderableContent(RENDERABLE_CONTENT)
+            .withContentId(CONTENT_ID)
+            .build();
+
+    private static final GeneratedAdvertisement EMPTY_GENERATED_ADVERTISEMENT = new EmptyGeneratedAdvertisement();
+    private static final GeneratedAdvertisement GENERATED_ADVERTISEMENT = new GeneratedAdvertisement(CONTENT);
+
+    @Mock
+    private AdvertisementSelectionLogic adSelectionService;
+
+    @InjectMocks
+    private GenerateAdvertisementsActivity activity;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+    }
+
+    @Test
+    public void generateAds_advertisementsReturnedInOrder() {
+        // GIVEN
+        when(adSelectionService.selectAdvertisements(PLACEMENTS)).thenReturn(Arrays.asList(
+            CompletableFuture.completedFuture(GENERATED_ADVERTISEMENT),
+            CompletableFuture.completedFuture(EMPTY_GENERATED_ADVERTISEMENT)));
+
+        // WHEN
+        final GenerateAdvertisementsResponse response = activity.generateAds(REQUEST);
+
+        // THEN
+        assertEquals(2, response.getAdvertisements().size());
+        assertEquals("top", response.getAdvertisements().get(0).getSlot());
+        assertEquals(GENERATED_ADVERTISEMENT.getId(), response.getAdvertisements().get(0).getAdvertisement().getId());
+        assertEquals(RENDERABLE_CONTENT, response.getAdvertisements().get(0).getAdvertisement().getContent());
+        assertEquals("bottom", response.getAdvertisements().get(1).getSlot());
+        assertEquals("", response.getAdvertisements().get(1).getAdvertisement().getContent());
+    }
+
+    @Test
+    public void generateAds_oneSelectionFails_onlyThatPlacementIsEmpty() {
+        // GIVEN
+        when(adSelectionService.selectAdvertisements(PLACEMENTS)).thenReturn(Arrays.asList(
+            Futures.failed(new RuntimeException()),
+            CompletableFuture.completedFuture(GENERATED_ADVERTISEMENT)));
+
+        // WHEN
+        final GenerateAdvertisementsResponse response = activity.generateAds(REQUEST);
+
+        // THEN
+        assertEquals("", response.getAdvertisements().get(0).getAdvertisement().getContent());
+        assertEquals(RENDERABLE_CONTENT, response.getAdvertisements().get(1).getAdvertisement().getContent());
+    }
+
+    @Test
+    public void whenExceptionThrown_emptyAdvertisementsReturned() {
+        // GIVEN
+        when(adSelectionService.selectAdvertisements(PLACEMENTS)).thenThrow(new RuntimeException());
+
+        // WHEN
+        final GenerateAdvertisementsResponse response = activity.generateAds(REQUEST);
+
+        // THEN
+        assertEquals(2, response.getAdvertisements().size());
+        assertEquals("", response.getAdvertisements().get(0).getAdvertisement().getContent());
+        assertEquals("", response.getAdvertisements().get(1).getAdvertisement().getContent());
+    }
+}
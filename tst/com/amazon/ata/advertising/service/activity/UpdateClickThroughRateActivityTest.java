@@ -2,7 +2,9 @@ package com.amazon.ata.advertising.service.activity;
 
 import com.amazon.ata.advertising.service.model.requests.UpdateClickThroughRateRequest;
 import com.amazon.ata.advertising.service.model.responses.UpdateClickThroughRateResponse;
+import com.amazon.ata.advertising.service.dao.ClickThroughRateAggregator;
 import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
 import com.amazon.ata.advertising.service.targeting.TargetingGroup;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +15,10 @@ import java.util.ArrayList;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -23,6 +29,12 @@ public class UpdateClickThroughRateActivityTest {
     @Mock
     private TargetingGroupDao targetingGroupDao;
 
+    @Mock
+    private MarketplaceTargetingIndex targetingIndex;
+
+    @Mock
+    private ClickThroughRateAggregator clickThroughRateAggregator;
+
     @InjectMocks
     private UpdateClickThroughRateActivity updateClickThroughRateActivity;
 
@@ -36,7 +48,7 @@ public class UpdateClickThroughRateActivityTest {
         // GIVEN
         TargetingGroup group = new TargetingGroup(TARGETING_GROUP_ID,
                 UUID.randomUUID().toString(), CLICK_THROUGH_RATE, new ArrayList<>());
-        when(targetingGroupDao.update(TARGETING_GROUP_ID, CLICK_THROUGH_RATE)).thenReturn(group);
+        when(targetingGroupDao.updateAndGet(TARGETING_GROUP_ID, CLICK_THROUGH_RATE)).thenReturn(group);
         UpdateClickThroughRateRequest request = UpdateClickThroughRateRequest.builder()
                 .withTargetingGroupId(TARGETING_GROUP_ID)
                 .withClickThroughRate(CLICK_THROUGH_RATE)
@@ -48,6 +60,30 @@ public class UpdateClickThroughRateActivityTest {
         // THEN
         assertEquals(response.getTargetingGroup().getTargetingGroupId(), TARGETING_GROUP_ID);
         assertEquals(response.getTargetingGroup().getClickThroughRate(), CLICK_THROUGH_RATE);
+        verify(targetingIndex).updateClickThroughRate(TARGETING_GROUP_ID, CLICK_THROUGH_RATE);
+        verify(clickThroughRateAggregator, never()).update(anyString(), anyDouble());
+    }
+
+    @Test
+    public void updateClickThroughRate_groupIndexed_writtenBehindRequest() {
+        // GIVEN
+        TargetingGroup group = new TargetingGroup(TARGETING_GROUP_ID,
+                UUID.randomUUID().toString(), 0.5, new ArrayList<>());
+        when(targetingIndex.getTargetingGroup(TARGETING_GROUP_ID)).thenReturn(group);
+        UpdateClickThroughRateRequest request = UpdateClickThroughRateRequest.builder()
+                .withTargetingGroupId(TARGETING_GROUP_ID)
+                .withClickThroughRate(CLICK_THROUGH_RATE)
+                .build();
+
+        // WHEN
+        UpdateClickThroughRateResponse response = updateClickThroughRateActivity.updateClickThroughRate(request);
+
+        // THEN
+        assertEquals(TARGETING_GROUP_ID, response.getTargetingGroup().getTargetingGroupId());
+        assertEquals(CLICK_THROUGH_RATE, response.getTargetingGroup().getClickThroughRate());
+        verify(clickThroughRateAggregator).update(TARGETING_GROUP_ID, CLICK_THROUGH_RATE);
+        verify(targetingGroupDao, never()).updateAndGet(anyString(), anyDouble());
+        verify(targetingIndex, never()).updateClickThroughRate(anyString(), anyDouble());
     }
 
 }
@@ -0,0 +1,211 @@
+package com.amazon.ata.advertising.service.activity.dagger;
+
+import com.amazon.ata.advertising.service.businesslogic.MarketplaceTargetingIndex;
+import com.amazon.ata.advertising.service.dao.ClickThroughRateAggregator;
+import com.amazon.ata.advertising.service.dao.TargetingGroupDao;
+import com.amazon.ata.advertising.service.dependency.DaggerLambdaComponent;
+import com.amazon.ata.advertising.service.dependency.DaoModule;
+import com.amazon.ata.advertising.service.dependency.DynamoDBModule;
+import com.amazon.ata.advertising.service.dependency.ExternalServiceModule;
+import com.amazon.ata.advertising.service.dependency.LambdaComponent;
+import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.model.requests.CreateContentRequest;
+import com.amazon.ata.advertising.service.model.requests.GenerateAdvertisementRequest;
+import com.amazon.ata.advertising.service.model.requests.UpdateClickThroughRateRequest;
+import com.amazon.ata.advertising.service.model.responses.CreateContentResponse;
+import com.amazon.ata.advertising.service.model.responses.GenerateAdvertisementResponse;
+import com.amazon.ata.advertising.service.targeting.TargetingGroup;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+import com.amazon.atacustomerservicelambda.service.ATACustomerService;
+import com.amazon.ataprimeclubservicelambda.service.ATAPrimeClubService;
+import com.amazonaws.auth.AWSCredentialsProvider;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
+import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
+import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.AdditionalAnswers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Drives the Lambda handlers against one component backed by in-memory tables, to check that what one handler writes
+ * is served by the others without waiting for a background rebuild.
+ */
+public class ActivityDaggerTest {
+    private static final String MARKETPLACE_ID = "1";
+    private static final String CUSTOMER_ID = "A123B456";
+
+    @Mock
+    private DynamoDBMapper mapper;
+
+    @Mock
+    private AmazonDynamoDB dynamoDbClient;
+
+    @Mock
+    private ATACustomerService customerService;
+
+    @Mock
+    private ATAPrimeClubService primeClubService;
+
+    private List<AdvertisementContent> contentTable;
+    private List<TargetingGroup> targetingGroupTable;
+    private ClickThroughRateAggregator aggregator;
+    private LambdaComponent dagger;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        initMocks(this);
+        contentTable = new ArrayList<>();
+        targetingGroupTable = new ArrayList<>();
+        when(mapper.query(eq(AdvertisementContent.class), any(DynamoDBQueryExpression.class)))
+            .thenAnswer(invocation -> {
+                AdvertisementContent hashKey =
+                    invocation.<DynamoDBQueryExpression<AdvertisementContent>>getArgument(1).getHashKeyValues();
+                return queryResult(contentTable.stream()
+                    .filter(content -> hashKey.getMarketplaceId().equals(content.getMarketplaceId()))
+                    .collect(Collectors.toList()));
+            });
+        when(mapper.query(eq(TargetingGroup.class), any(DynamoDBQueryExpression.class))).thenAnswer(invocation -> {
+            TargetingGroup hashKey = invocation.<DynamoDBQueryExpression<TargetingGroup>>getArgument(1)
+                .getHashKeyValues();
+            return queryResult(targetingGroupTable.stream()
+                .filter(group -> hashKey.getContentId().equals(group.getContentId()))
+                .collect(Collectors.toList()));
+        });
+        doAnswer(invocation -> {
+            Object item = invocation.getArgument(0);
+            if (item instanceof AdvertisementContent) {
+                contentTable.add((AdvertisementContent) item);
+            } else {
+                targetingGroupTable.add((TargetingGroup) item);
+            }
+            return null;
+        }).when(mapper).save(any());
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class))).thenAnswer(invocation -> {
+            UpdateItemRequest request = invocation.getArgument(0);
+            String targetingGroupId = request.getKey().get(TargetingGroup.TARGETING_GROUP_ID).getS();
+            double clickThroughRate = Double.parseDouble(request.getExpressionAttributeValues().get(":ctr").getN());
+            // Replace the row rather than change it, so the index only sees the new rate if it is told about it
+            targetingGroupTable.replaceAll(group -> targetingGroupId.equals(group.getTargetingGroupId()) ?
+                new TargetingGroup(targetingGroupId, group.getContentId(), clickThroughRate,
+                    group.getTargetingPredicates()) : group);
+            return new UpdateItemResult();
+        });
+
+        dagger = DaggerLambdaComponent.builder()
+            .dynamoDBModule(new DynamoDBModule() {
+                @Override
+                public AmazonDynamoDB provideAmazonDynamoDB() {
+                    return dynamoDbClient;
+                }
+
+                @Override
+                public DynamoDBMapper provideDynamoDBMapper(AmazonDynamoDB amazonDynamoDBClient) {
+                    return mapper;
+                }
+            })
+            .daoModule(new DaoModule() {
+                @Override
+                public ClickThroughRateAggregator provideClickThroughRateAggregator(
+                    TargetingGroupDao targetingGroupDao, MarketplaceTargetingIndex targetingIndex,
+                    MetricsReporter metrics) {
+                    aggregator = super.provideClickThroughRateAggregator(targetingGroupDao, targetingIndex, metrics);
+                    return aggregator;
+                }
+            })
+            .externalServiceModule(new ExternalServiceModule() {
+                @Override
+                public ATAPrimeClubService providePrimeClubService(AWSCredentialsProvider credentialsProvider) {
+                    return primeClubService;
+                }
+
+                @Override
+                public ATACustomerService provideCustomerService(AWSCredentialsProvider credentialsProvider) {
+                    return customerService;
+                }
+            })
+            .build();
+    }
+
+    @Test
+    public void handleRequest_contentCreatedWhileMarketplaceServed_servedByGenerateAdHandler() {
+        // GIVEN
+        GenerateAdActivityDagger generateAdHandler = new GenerateAdActivityDagger(dagger);
+        CreateContentActivityDagger createContentHandler = new CreateContentActivityDagger(dagger);
+        assertEquals("", generateAd(generateAdHandler).getAdvertisement().getContent());
+
+        // WHEN
+        CreateContentResponse created = createContentHandler.handleRequest(CreateContentRequest.builder()
+            .withMarketplaceId(MARKETPLACE_ID)
+            .withContent("new ad")
+            .withTargetingPredicates(Collections.emptyList())
+            .build(), null);
+
+        // THEN
+        GenerateAdvertisementResponse response = generateAd(generateAdHandler);
+        assertEquals(created.getAdvertisingContent().getContent(), response.getAdvertisement().getContent());
+    }
+
+    @Test
+    public void handleRequest_clickThroughRateUpdated_reRankedForGenerateAdHandlerAfterFlush() {
+        // GIVEN
+        GenerateAdActivityDagger generateAdHandler = new GenerateAdActivityDagger(dagger);
+        CreateContentActivityDagger createContentHandler = new CreateContentActivityDagger(dagger);
+        UpdateClickThroughRateActivityDagger updateClickThroughRateHandler =
+            new UpdateClickThroughRateActivityDagger(dagger);
+        CreateContentResponse first = createContent(createContentHandler, "first ad");
+        CreateContentResponse second = createContent(createContentHandler, "second ad");
+        String servedContent = generateAd(generateAdHandler).getAdvertisement().getContent();
+        CreateContentResponse served = servedContent.equals(first.getAdvertisingContent().getContent()) ?
+            first : second;
+
+        // WHEN
+        updateClickThroughRateHandler.handleRequest(UpdateClickThroughRateRequest.builder()
+            .withTargetingGroupId(served.getTargetingGroup().getTargetingGroupId())
+            .withClickThroughRate(0.1)
+            .build(), null);
+        aggregator.flush();
+
+        // THEN
+        assertNotEquals(servedContent, generateAd(generateAdHandler).getAdvertisement().getContent());
+        assertEquals(1, aggregator.getWrittenCount());
+    }
+
+    private CreateContentResponse createContent(CreateContentActivityDagger createContentHandler, String content) {
+        return createContentHandler.handleRequest(CreateContentRequest.builder()
+            .withMarketplaceId(MARKETPLACE_ID)
+            .withContent(content)
+            .withTargetingPredicates(Collections.emptyList())
+            .build(), null);
+    }
+
+    private GenerateAdvertisementResponse generateAd(GenerateAdActivityDagger generateAdHandler) {
+        return generateAdHandler.handleRequest(GenerateAdvertisementRequest.builder()
+            .withCustomerId(CUSTOMER_ID)
+            .withMarketplaceId(MARKETPLACE_ID)
+            .build(), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> PaginatedQueryList<T> queryResult(List<T> rows) {
+        return Mockito.mock(PaginatedQueryList.class, AdditionalAnswers.delegatesTo(new ArrayList<>(rows)));
+    }
+}
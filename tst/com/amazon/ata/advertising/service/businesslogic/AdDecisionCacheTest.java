@@ -0,0 +1,117 @@
+package com.amazon.ata.advertising.service.businesslogic;
+
+import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class AdDecisionCacheTest {
+    private static final String CUSTOMER_ID = "A123B456";
+    private static final String MARKETPLACE_ID = "1";
+    private static final long VERSION = 7;
+
+    private AdDecisionCache decisionCache;
+
+    @BeforeEach
+    public void setup() {
+        decisionCache = new AdDecisionCache(10, 60);
+    }
+
+    @Test
+    public void get_sameCustomerInNewRequest_decisionServed() {
+        // GIVEN
+        decisionCache.put(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID), VERSION, 1,
+            Collections.singletonList("contentId1"));
+
+        // WHEN
+        List<String> contentIds = decisionCache.get(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID), VERSION, 1);
+
+        // THEN
+        assertEquals(Collections.singletonList("contentId1"), contentIds);
+        assertEquals(1, decisionCache.getHitCount());
+        assertEquals(1.0, decisionCache.getHitRatio());
+    }
+
+    @Test
+    public void get_marketplaceChangedSinceDecision_decisionNotServed() {
+        // GIVEN
+        decisionCache.put(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID), VERSION, 1,
+            Collections.singletonList("contentId1"));
+
+        // WHEN
+        List<String> contentIds = decisionCache.get(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID), VERSION + 1, 1);
+
+        // THEN
+        assertNull(contentIds);
+        assertEquals(1, decisionCache.getStaleCount());
+        assertEquals(0.0, decisionCache.getHitRatio());
+    }
+
+    @Test
+    public void get_moreAdsThanDecided_decisionNotServed() {
+        // GIVEN
+        RequestContext requestContext = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
+        decisionCache.put(requestContext, VERSION, 2, Arrays.asList("contentId1", "contentId2"));
+
+        // WHEN
+        List<String> fewerAds = decisionCache.get(requestContext, VERSION, 1);
+        List<String> moreAds = decisionCache.get(requestContext, VERSION, 3);
+
+        // THEN
+        assertEquals(Collections.singletonList("contentId1"), fewerAds);
+        assertNull(moreAds);
+    }
+
+    @Test
+    public void get_moreAdsThanEligible_decisionServed() {
+        // GIVEN
+        RequestContext requestContext = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
+        decisionCache.put(requestContext, VERSION, 3, Collections.singletonList("contentId1"));
+
+        // WHEN
+        List<String> contentIds = decisionCache.get(requestContext, VERSION, 5);
+
+        // THEN
+        assertEquals(Collections.singletonList("contentId1"), contentIds);
+    }
+
+    @Test
+    public void publishTo_decisionServedAndMissed_countersPublished() {
+        // GIVEN
+        MetricsReporter metrics = new MetricsReporter(0);
+        decisionCache.publishTo(metrics);
+        decisionCache.put(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID), VERSION, 1,
+            Collections.singletonList("contentId1"));
+
+        // WHEN
+        decisionCache.get(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID), VERSION, 1);
+        decisionCache.get(new RequestContext("otherCustomer", MARKETPLACE_ID), VERSION, 1);
+
+        // THEN
+        assertEquals(1L, metrics.read().get("decisionCache.hits"));
+        assertEquals(1L, metrics.read().get("decisionCache.misses"));
+        assertEquals(0.5, metrics.read().get("decisionCache.hitRatio"));
+    }
+
+    @Test
+    public void get_disabled_nothingServed() {
+        // GIVEN
+        AdDecisionCache disabledCache = AdDecisionCache.disabled();
+        RequestContext requestContext = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
+        disabledCache.put(requestContext, VERSION, 1, Collections.singletonList("contentId1"));
+
+        // WHEN
+        List<String> contentIds = disabledCache.get(requestContext, VERSION, 1);
+
+        // THEN
+        assertNull(contentIds);
+        assertEquals(1, disabledCache.getMissCount());
+    }
+}
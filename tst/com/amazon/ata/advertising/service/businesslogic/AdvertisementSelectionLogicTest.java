@@ -1,25 +1,47 @@
 package com.amazon.ata.advertising.service.businesslogic;
 
+import com.amazon.ata.advertising.service.dao.BatchReadableDao;
 import com.amazon.ata.advertising.service.dao.ReadableDao;
+import com.amazon.ata.advertising.service.dependency.TargetingPredicateInjector;
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.model.AdvertisementPlacement;
 import com.amazon.ata.advertising.service.model.EmptyGeneratedAdvertisement;
 import com.amazon.ata.advertising.service.model.GeneratedAdvertisement;
+import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.targeting.CustomerFeatures;
+import com.amazon.ata.advertising.service.targeting.DeadlineStatistics;
+import com.amazon.ata.advertising.service.targeting.PredicateStatistics;
+import com.amazon.ata.advertising.service.targeting.SelectionEngine;
 import com.amazon.ata.advertising.service.targeting.TargetingGroup;
+import com.amazon.ata.advertising.service.targeting.predicate.CustomerFeaturesLoader;
+import com.amazon.ata.advertising.service.targeting.predicate.ParentPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.RecognizedTargetingPredicate;
 import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
 import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicateResult;
+import com.amazon.ata.advertising.service.util.RequestCacheStatistics;
+import com.amazon.ata.customerservice.CustomerProfile;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -53,7 +75,19 @@ public class AdvertisementSelectionLogicTest {
     private ReadableDao<String, List<AdvertisementContent>> contentDao;
 
     @Mock
-    private ReadableDao<String, List<TargetingGroup>> targetingGroupDao;
+    private BatchReadableDao<String, List<TargetingGroup>> targetingGroupDao;
+
+    @Mock
+    private TargetingPredicateInjector targetingPredicateInjector;
+
+    @Mock
+    private CustomerFeaturesLoader customerFeaturesLoader;
+
+    private MarketplaceTargetingIndex targetingIndex;
+
+    private DeadlineStatistics deadlineStatistics;
+
+    private RequestCacheStatistics requestCacheStatistics;
 
     private AdvertisementSelectionLogic adSelectionService;
 
@@ -66,7 +100,13 @@ public class AdvertisementSelectionLogicTest {
     @BeforeEach
     public void setup() {
         initMocks(this);
-        adSelectionService = new AdvertisementSelectionLogic(contentDao, targetingGroupDao);
+        targetingIndex = new MarketplaceTargetingIndex(contentDao, targetingGroupDao,
+            targetingPredicateInjector, TimeUnit.HOURS.toSeconds(1));
+        deadlineStatistics = new DeadlineStatistics();
+        requestCacheStatistics = new RequestCacheStatistics();
+        adSelectionService = new AdvertisementSelectionLogic(targetingIndex, new PredicateStatistics(), 4, 1,
+            deadlineStatistics, 0, SelectionEngine.LINEAR_SCAN, customerFeaturesLoader, AdDecisionCache.disabled(),
+            requestCacheStatistics);
         targetingGroup1 = new TargetingGroup(UUID.randomUUID().toString(), CONTENT_ID1, 0.25, Collections.singletonList(PREDICATE1));
         targetingGroup2 = new TargetingGroup(UUID.randomUUID().toString(), CONTENT_ID2, 1, Collections.singletonList(PREDICATE2));
         targetingGroup3 = new TargetingGroup(UUID.randomUUID().toString(), CONTENT_ID2, 0.5, Collections.singletonList(PREDICATE3));
@@ -75,6 +115,13 @@ public class AdvertisementSelectionLogicTest {
         when(targetingGroupDao.get(CONTENT_ID2)).thenReturn(Arrays.asList(targetingGroup2, targetingGroup3));
         when(targetingGroupDao.get(CONTENT_ID3)).thenReturn(Arrays.asList(targetingGroup4));
         when(targetingGroupDao.get(CONTENT_ID4)).thenReturn(Collections.emptyList());
+        when(targetingGroupDao.getAll(any())).thenAnswer(invocation -> {
+            Map<String, List<TargetingGroup>> targetingGroupsByContent = new LinkedHashMap<>();
+            for (String contentId : invocation.<Collection<String>>getArgument(0)) {
+                targetingGroupsByContent.put(contentId, targetingGroupDao.get(contentId));
+            }
+            return targetingGroupsByContent;
+        });
     }
 
     @Test
@@ -107,6 +154,25 @@ public class AdvertisementSelectionLogicTest {
         assertTrue(ad instanceof EmptyGeneratedAdvertisement);
     }
 
+    @Test
+    public void selectAdvertisement_predicatesShareLookup_lookupsAddedToRequestCacheStatistics() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2));
+        for (TargetingPredicate predicate : Arrays.asList(PREDICATE1, PREDICATE2, PREDICATE3)) {
+            when(predicate.evaluate(any())).thenAnswer(invocation -> {
+                invocation.<RequestContext>getArgument(0).getRequestCache().get("profile", () -> "loaded");
+                return TargetingPredicateResult.FALSE;
+            });
+        }
+
+        // WHEN
+        adSelectionService.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(1, requestCacheStatistics.getMissCount());
+        assertEquals(2, requestCacheStatistics.getHitCount() + requestCacheStatistics.getCoalescedCount());
+    }
+
     @Test
     public void selectAdvertisement_allAdsIneligible_emptyAdReturned() {
         // GIVEN
@@ -167,4 +233,274 @@ public class AdvertisementSelectionLogicTest {
         // THEN
         assertEquals(CONTENT_ID2, ad.getContent().getContentId());
     }
+
+    @Test
+    public void selectAdvertisement_highestCTRGroupEligible_lowerGroupsOutsideWindowNotEvaluated() {
+        // GIVEN
+        AdvertisementSelectionLogic oneGroupAtATime = new AdvertisementSelectionLogic(targetingIndex,
+            new PredicateStatistics(), 1, 1, deadlineStatistics, 0, SelectionEngine.LINEAR_SCAN, customerFeaturesLoader,
+            AdDecisionCache.disabled(), new RequestCacheStatistics());
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+
+        // WHEN
+        GeneratedAdvertisement ad = oneGroupAtATime.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(CONTENT_ID2, ad.getContent().getContentId());
+        verify(PREDICATE1, never()).evaluate(any());
+        verify(PREDICATE3, never()).evaluate(any());
+        verify(PREDICATE4, never()).evaluate(any());
+    }
+
+    @Test
+    public void selectAdvertisement_speculativeGroupFails_higherCTRGroupStillSelected() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE4.evaluate(any())).thenThrow(new IllegalStateException("Downstream unavailable"));
+
+        // WHEN
+        GeneratedAdvertisement ad = adSelectionService.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(CONTENT_ID2, ad.getContent().getContentId());
+    }
+
+    @Test
+    public void selectAdvertisement_lowerRankedGroupFails_nextEligibleGroupSelected() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE1.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        when(PREDICATE3.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        when(PREDICATE4.evaluate(any())).thenThrow(new IllegalStateException("Downstream unavailable"));
+
+        // WHEN
+        GeneratedAdvertisement ad = adSelectionService.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(CONTENT_ID1, ad.getContent().getContentId());
+        assertEquals(1, deadlineStatistics.getFailedEvaluationCount());
+    }
+
+    @Test
+    public void selectAdvertisements_multiplePlacements_distinctAdsReturnedInPlacementOrder() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE1.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE3.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        when(PREDICATE4.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        List<AdvertisementPlacement> placements = Arrays.asList(
+            new AdvertisementPlacement(CUSTOMER_ID, MARKETPLACE_ID, "top"),
+            new AdvertisementPlacement(CUSTOMER_ID, null, "side"),
+            new AdvertisementPlacement(CUSTOMER_ID, MARKETPLACE_ID, "bottom"));
+
+        // WHEN
+        List<GeneratedAdvertisement> ads = adSelectionService.selectAdvertisements(placements).stream()
+            .map(CompletableFuture::join)
+            .collect(Collectors.toList());
+
+        // THEN
+        assertEquals(3, ads.size());
+        assertEquals(CONTENT_ID2, ads.get(0).getContent().getContentId());
+        assertTrue(ads.get(1) instanceof EmptyGeneratedAdvertisement);
+        assertEquals(CONTENT_ID3, ads.get(2).getContent().getContentId());
+        verify(contentDao, times(1)).get(MARKETPLACE_ID);
+    }
+
+    @Test
+    public void selectAdvertisements_morePlacementsThanEligibleContent_extraPlacementsEmpty() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE1.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE3.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        when(PREDICATE4.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        List<AdvertisementPlacement> placements = Arrays.asList(
+            new AdvertisementPlacement(CUSTOMER_ID, MARKETPLACE_ID, "top"),
+            new AdvertisementPlacement(CUSTOMER_ID, MARKETPLACE_ID, "bottom"));
+
+        // WHEN
+        List<GeneratedAdvertisement> ads = adSelectionService.selectAdvertisements(placements).stream()
+            .map(CompletableFuture::join)
+            .collect(Collectors.toList());
+
+        // THEN
+        assertEquals(CONTENT_ID2, ads.get(0).getContent().getContentId());
+        assertTrue(ads.get(1) instanceof EmptyGeneratedAdvertisement);
+    }
+
+    @Test
+    public void selectAdvertisements_allAdsEligible_returnsHighestCTRDistinctContents() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE1.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE3.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE4.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+
+        // WHEN
+        List<GeneratedAdvertisement> ads = adSelectionService.selectAdvertisements(CUSTOMER_ID, MARKETPLACE_ID, 3);
+
+        // THEN
+        assertEquals(3, ads.size());
+        assertEquals(CONTENT_ID2, ads.get(0).getContent().getContentId());
+        assertEquals(CONTENT_ID3, ads.get(1).getContent().getContentId());
+        assertEquals(CONTENT_ID1, ads.get(2).getContent().getContentId());
+    }
+
+    @Test
+    public void selectAdvertisements_winnersKnown_stopsEvaluating() {
+        // GIVEN
+        AdvertisementSelectionLogic sequentialSelectionService = new AdvertisementSelectionLogic(
+            new MarketplaceTargetingIndex(contentDao, targetingGroupDao, targetingPredicateInjector,
+                TimeUnit.HOURS.toSeconds(1)), new PredicateStatistics(), 1, 1, new DeadlineStatistics(), 0,
+            SelectionEngine.LINEAR_SCAN, customerFeaturesLoader, AdDecisionCache.disabled(),
+            new RequestCacheStatistics());
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE4.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+
+        // WHEN
+        List<GeneratedAdvertisement> ads = sequentialSelectionService.selectAdvertisements(CUSTOMER_ID,
+            MARKETPLACE_ID, 2);
+
+        // THEN
+        assertEquals(2, ads.size());
+        assertEquals(CONTENT_ID2, ads.get(0).getContent().getContentId());
+        assertEquals(CONTENT_ID3, ads.get(1).getContent().getContentId());
+        verify(PREDICATE3, never()).evaluate(any());
+        verify(PREDICATE1, never()).evaluate(any());
+    }
+
+    @Test
+    public void selectAdvertisements_fewerEligibleThanRequested_returnsEligibleAds() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE1.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        when(PREDICATE3.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        when(PREDICATE4.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+
+        // WHEN
+        List<GeneratedAdvertisement> ads = adSelectionService.selectAdvertisements(CUSTOMER_ID, MARKETPLACE_ID, 3);
+
+        // THEN
+        assertEquals(1, ads.size());
+        assertEquals(CONTENT_ID1, ads.get(0).getContent().getContentId());
+    }
+
+    @Test
+    public void selectAdvertisement_eligibilityPendingAtDeadline_returnsBestAdProvenInTime() {
+        // GIVEN
+        AdvertisementSelectionLogic deadlineSelectionService = new AdvertisementSelectionLogic(
+            new MarketplaceTargetingIndex(contentDao, targetingGroupDao, targetingPredicateInjector,
+                TimeUnit.HOURS.toSeconds(1)), new PredicateStatistics(), 4, 1, deadlineStatistics, 50,
+            SelectionEngine.LINEAR_SCAN, customerFeaturesLoader, AdDecisionCache.disabled(),
+            new RequestCacheStatistics());
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE2.requiresRemoteData()).thenReturn(true);
+        when(PREDICATE2.evaluateAsync(any())).thenReturn(new CompletableFuture<>());
+        when(PREDICATE3.evaluate(any())).thenReturn(TargetingPredicateResult.FALSE);
+        when(PREDICATE4.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+
+        // WHEN
+        GeneratedAdvertisement ad = deadlineSelectionService.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(CONTENT_ID3, ad.getContent().getContentId());
+        assertEquals(1, deadlineStatistics.getSelectionCount());
+        assertEquals(1, deadlineStatistics.getDeadlineHitCount(DeadlineStatistics.Stage.PREDICATE_EVALUATION));
+    }
+
+    @Test
+    public void selectAdvertisement_unrecognizedCustomer_winnerSelectedOncePerSnapshot() {
+        // GIVEN
+        MarketplaceTargetingIndex targetingIndex = new MarketplaceTargetingIndex(contentDao, targetingGroupDao,
+            targetingPredicateInjector, TimeUnit.HOURS.toSeconds(1));
+        AdvertisementSelectionLogic anonymousSelectionService = new AdvertisementSelectionLogic(targetingIndex,
+            new PredicateStatistics(), 4, 1, deadlineStatistics, 0, SelectionEngine.LINEAR_SCAN,
+            customerFeaturesLoader, AdDecisionCache.disabled(), new RequestCacheStatistics());
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE1.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE3.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE4.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+
+        // WHEN
+        GeneratedAdvertisement firstAd = anonymousSelectionService.selectAdvertisement(null, MARKETPLACE_ID);
+        GeneratedAdvertisement secondAd = anonymousSelectionService.selectAdvertisement("", MARKETPLACE_ID);
+        targetingIndex.updateClickThroughRate(targetingGroup1.getTargetingGroupId(), 2);
+        GeneratedAdvertisement adAfterUpdate = anonymousSelectionService.selectAdvertisement(null, MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(CONTENT_ID2, firstAd.getContent().getContentId());
+        assertEquals(CONTENT_ID2, secondAd.getContent().getContentId());
+        assertEquals(CONTENT_ID1, adAfterUpdate.getContent().getContentId());
+        verify(PREDICATE2, times(2)).evaluate(any());
+        verify(PREDICATE1, times(2)).evaluate(any());
+        assertEquals(3, deadlineStatistics.getSelectionCount());
+    }
+
+    @Test
+    public void selectAdvertisement_sameCustomerAgain_servedFromDecisionCacheUntilMarketplaceChanges() {
+        // GIVEN
+        MarketplaceTargetingIndex targetingIndex = new MarketplaceTargetingIndex(contentDao, targetingGroupDao,
+            targetingPredicateInjector, TimeUnit.HOURS.toSeconds(1));
+        AdDecisionCache decisionCache = new AdDecisionCache(10, 60);
+        AdvertisementSelectionLogic cachingSelectionService = new AdvertisementSelectionLogic(targetingIndex,
+            new PredicateStatistics(), 4, 1, deadlineStatistics, 0, SelectionEngine.LINEAR_SCAN,
+            customerFeaturesLoader, decisionCache, new RequestCacheStatistics());
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2, CONTENT3));
+        when(PREDICATE1.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE2.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE3.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+        when(PREDICATE4.evaluate(any())).thenReturn(TargetingPredicateResult.TRUE);
+
+        // WHEN
+        GeneratedAdvertisement firstAd = cachingSelectionService.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+        GeneratedAdvertisement secondAd = cachingSelectionService.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+        targetingIndex.updateClickThroughRate(targetingGroup1.getTargetingGroupId(), 2);
+        GeneratedAdvertisement adAfterUpdate = cachingSelectionService.selectAdvertisement(CUSTOMER_ID,
+            MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(CONTENT_ID2, firstAd.getContent().getContentId());
+        assertEquals(CONTENT_ID2, secondAd.getContent().getContentId());
+        assertEquals(CONTENT_ID1, adAfterUpdate.getContent().getContentId());
+        // Once for the first selection and once after the change, but not for the repeat
+        verify(PREDICATE2, times(2)).evaluate(any());
+        assertEquals(1, decisionCache.getHitCount());
+        assertEquals(1, decisionCache.getStaleCount());
+    }
+
+    @Test
+    public void selectAdvertisement_predicateIndexEngine_groupsCustomerCannotMatchNotEvaluated() {
+        // GIVEN
+        AdvertisementSelectionLogic indexSelectionService = new AdvertisementSelectionLogic(
+            new MarketplaceTargetingIndex(contentDao, targetingGroupDao, targetingPredicateInjector,
+                TimeUnit.HOURS.toSeconds(1)), new PredicateStatistics(), 4, 1, deadlineStatistics, 0,
+            SelectionEngine.PREDICATE_INDEX, customerFeaturesLoader, AdDecisionCache.disabled(),
+            new RequestCacheStatistics());
+        // The parent predicate has no Daos, so evaluating it would fail the selection
+        TargetingGroup parentsGroup = new TargetingGroup(UUID.randomUUID().toString(), CONTENT_ID1, 1,
+            Collections.singletonList(new ParentPredicate()));
+        TargetingGroup recognizedGroup = new TargetingGroup(UUID.randomUUID().toString(), CONTENT_ID2, 0.5,
+            Collections.singletonList(new RecognizedTargetingPredicate()));
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2));
+        when(targetingGroupDao.get(CONTENT_ID1)).thenReturn(Collections.singletonList(parentsGroup));
+        when(targetingGroupDao.get(CONTENT_ID2)).thenReturn(Collections.singletonList(recognizedGroup));
+        CustomerFeatures notAParent = CustomerFeatures.builder()
+            .withProfile(CustomerProfile.builder().withParent(false).build())
+            .build();
+        when(customerFeaturesLoader.loadAsync(any())).thenReturn(CompletableFuture.completedFuture(notAParent));
+
+        // WHEN
+        GeneratedAdvertisement ad = indexSelectionService.selectAdvertisement(CUSTOMER_ID, MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(CONTENT_ID2, ad.getContent().getContentId());
+    }
 }
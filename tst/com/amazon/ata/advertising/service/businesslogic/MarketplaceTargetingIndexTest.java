@@ -0,0 +1,251 @@
+package com.amazon.ata.advertising.service.businesslogic;
+
+import com.amazon.ata.advertising.service.dao.BatchReadableDao;
+import com.amazon.ata.advertising.service.dao.ReadableDao;
+import com.amazon.ata.advertising.service.dependency.TargetingPredicateInjector;
+import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.targeting.CompiledTargetingGroup;
+import com.amazon.ata.advertising.service.targeting.TargetingGroup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class MarketplaceTargetingIndexTest {
+    private static final String MARKETPLACE_ID = "1";
+    private static final String OTHER_MARKETPLACE_ID = "2";
+
+    private static final AdvertisementContent CONTENT1 = content("contentId1", MARKETPLACE_ID);
+    private static final AdvertisementContent CONTENT2 = content("contentId2", MARKETPLACE_ID);
+
+    private static final TargetingGroup GROUP1 = group("group1", CONTENT1, 0.25);
+    private static final TargetingGroup GROUP2 = group("group2", CONTENT2, 1);
+    private static final TargetingGroup GROUP3 = group("group3", CONTENT2, 0.5);
+
+    @Mock
+    private ReadableDao<String, List<AdvertisementContent>> contentDao;
+
+    @Mock
+    private BatchReadableDao<String, List<TargetingGroup>> targetingGroupDao;
+
+    @Mock
+    private TargetingPredicateInjector targetingPredicateInjector;
+
+    private MarketplaceTargetingIndex targetingIndex;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        targetingIndex = new MarketplaceTargetingIndex(contentDao, targetingGroupDao, targetingPredicateInjector,
+            TimeUnit.HOURS.toSeconds(1));
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2));
+        Map<String, List<TargetingGroup>> targetingGroups = new HashMap<>();
+        targetingGroups.put(CONTENT1.getContentId(), Collections.singletonList(GROUP1));
+        targetingGroups.put(CONTENT2.getContentId(), Arrays.asList(GROUP2, GROUP3));
+        when(targetingGroupDao.getAll(any())).thenAnswer(invocation -> {
+            Map<String, List<TargetingGroup>> requestedGroups = new LinkedHashMap<>();
+            for (String contentId : invocation.<Collection<String>>getArgument(0)) {
+                requestedGroups.put(contentId, targetingGroups.getOrDefault(contentId, Collections.emptyList()));
+            }
+            return requestedGroups;
+        });
+    }
+
+    @Test
+    public void get_marketplaceWithContent_groupsRankedByClickThroughRate() {
+        // WHEN
+        MarketplaceTargetingSnapshot snapshot = targetingIndex.get(MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(Arrays.asList("group2", "group3", "group1"), rankedGroupIds(snapshot));
+        assertEquals(CONTENT1, snapshot.getContent(CONTENT1.getContentId()));
+    }
+
+    @Test
+    public void get_concurrentRequestsWhileBuilding_shareOneBuild() throws Exception {
+        // GIVEN
+        CountDownLatch buildStarted = new CountDownLatch(1);
+        CountDownLatch releaseBuild = new CountDownLatch(1);
+        when(contentDao.get(MARKETPLACE_ID)).thenAnswer(invocation -> {
+            buildStarted.countDown();
+            releaseBuild.await();
+            return Arrays.asList(CONTENT1, CONTENT2);
+        });
+        CompletableFuture<MarketplaceTargetingSnapshot> first =
+            CompletableFuture.supplyAsync(() -> targetingIndex.get(MARKETPLACE_ID));
+        buildStarted.await();
+        CompletableFuture<MarketplaceTargetingSnapshot> second =
+            CompletableFuture.supplyAsync(() -> targetingIndex.get(MARKETPLACE_ID));
+
+        // WHEN
+        releaseBuild.countDown();
+
+        // THEN
+        assertSame(first.get(1, TimeUnit.SECONDS), second.get(1, TimeUnit.SECONDS));
+        verify(contentDao, times(1)).get(MARKETPLACE_ID);
+    }
+
+    @Test
+    public void get_buildFailed_nextRequestBuildsAgain() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID))
+            .thenThrow(new IllegalStateException("Throttled"))
+            .thenReturn(Arrays.asList(CONTENT1, CONTENT2));
+        assertThrows(IllegalStateException.class, () -> targetingIndex.get(MARKETPLACE_ID));
+
+        // WHEN
+        MarketplaceTargetingSnapshot snapshot = targetingIndex.get(MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(Arrays.asList("group2", "group3", "group1"), rankedGroupIds(snapshot));
+    }
+
+    @Test
+    public void updateClickThroughRate_groupIndexed_groupReRanked() {
+        // GIVEN
+        MarketplaceTargetingSnapshot before = targetingIndex.get(MARKETPLACE_ID);
+
+        // WHEN
+        targetingIndex.updateClickThroughRate("group1", 0.75);
+
+        // THEN
+        MarketplaceTargetingSnapshot after = targetingIndex.get(MARKETPLACE_ID);
+        assertEquals(Arrays.asList("group2", "group1", "group3"), rankedGroupIds(after));
+        assertEquals(0.75, after.getRankedGroups().get(1).getTargetingGroup().getClickThroughRate());
+        assertTrue(after.getVersion() > before.getVersion());
+        assertEquals(Arrays.asList("group2", "group3", "group1"), rankedGroupIds(before));
+    }
+
+    @Test
+    public void updateClickThroughRate_groupInOtherMarketplace_otherMarketplaceUnchanged() {
+        // GIVEN
+        AdvertisementContent otherContent = content("contentId3", OTHER_MARKETPLACE_ID);
+        when(contentDao.get(OTHER_MARKETPLACE_ID)).thenReturn(Collections.singletonList(otherContent));
+        MarketplaceTargetingSnapshot other = targetingIndex.get(OTHER_MARKETPLACE_ID);
+        targetingIndex.get(MARKETPLACE_ID);
+
+        // WHEN
+        TargetingGroup updated = targetingIndex.updateClickThroughRate("group1", 0.75);
+
+        // THEN
+        assertEquals(0.75, updated.getClickThroughRate());
+        assertSame(other, targetingIndex.get(OTHER_MARKETPLACE_ID));
+    }
+
+    @Test
+    public void updateClickThroughRates_severalGroups_reRankedInOneSnapshot() {
+        // GIVEN
+        MarketplaceTargetingSnapshot before = targetingIndex.get(MARKETPLACE_ID);
+        Map<String, Double> clickThroughRates = new HashMap<>();
+        clickThroughRates.put("group1", 0.9);
+        clickThroughRates.put("group2", 0.1);
+
+        // WHEN
+        targetingIndex.updateClickThroughRates(clickThroughRates);
+
+        // THEN
+        MarketplaceTargetingSnapshot after = targetingIndex.get(MARKETPLACE_ID);
+        assertEquals(Arrays.asList("group1", "group3", "group2"), rankedGroupIds(after));
+        assertEquals(before.getVersion() + 1, after.getVersion());
+        assertEquals(0.9, targetingIndex.getTargetingGroup("group1").getClickThroughRate());
+    }
+
+    @Test
+    public void updateClickThroughRate_groupRemoved_returnsNull() {
+        // GIVEN
+        targetingIndex.get(MARKETPLACE_ID);
+        targetingIndex.removeContent(CONTENT1.getContentId());
+
+        // WHEN
+        TargetingGroup updated = targetingIndex.updateClickThroughRate("group1", 0.75);
+
+        // THEN
+        assertNull(updated);
+        assertEquals(Arrays.asList("group2", "group3"), rankedGroupIds(targetingIndex.get(MARKETPLACE_ID)));
+    }
+
+    @Test
+    public void addTargetingGroup_contentIndexed_groupInserted() {
+        // GIVEN
+        targetingIndex.get(MARKETPLACE_ID);
+
+        // WHEN
+        targetingIndex.addTargetingGroup(group("group4", CONTENT1, 0.6));
+
+        // THEN
+        assertEquals(Arrays.asList("group2", "group4", "group3", "group1"),
+            rankedGroupIds(targetingIndex.get(MARKETPLACE_ID)));
+    }
+
+    @Test
+    public void putContent_contentMovedMarketplace_contentMoved() {
+        // GIVEN
+        when(contentDao.get(OTHER_MARKETPLACE_ID)).thenReturn(Collections.emptyList());
+        targetingIndex.get(MARKETPLACE_ID);
+        targetingIndex.get(OTHER_MARKETPLACE_ID);
+        AdvertisementContent movedContent = content(CONTENT1.getContentId(), OTHER_MARKETPLACE_ID);
+
+        // WHEN
+        targetingIndex.putContent(movedContent, Collections.singletonList(GROUP1));
+
+        // THEN
+        assertEquals(Arrays.asList("group2", "group3"), rankedGroupIds(targetingIndex.get(MARKETPLACE_ID)));
+        assertNull(targetingIndex.get(MARKETPLACE_ID).getContent(CONTENT1.getContentId()));
+        assertEquals(Collections.singletonList("group1"), rankedGroupIds(targetingIndex.get(OTHER_MARKETPLACE_ID)));
+        assertEquals(movedContent, targetingIndex.get(OTHER_MARKETPLACE_ID).getContent(CONTENT1.getContentId()));
+    }
+
+    @Test
+    public void removeContent_contentIndexed_contentAndGroupsRemoved() {
+        // GIVEN
+        targetingIndex.get(MARKETPLACE_ID);
+
+        // WHEN
+        targetingIndex.removeContent(CONTENT2.getContentId());
+
+        // THEN
+        MarketplaceTargetingSnapshot snapshot = targetingIndex.get(MARKETPLACE_ID);
+        assertEquals(Collections.singletonList("group1"), rankedGroupIds(snapshot));
+        assertNull(snapshot.getContent(CONTENT2.getContentId()));
+    }
+
+    private static List<String> rankedGroupIds(MarketplaceTargetingSnapshot snapshot) {
+        return snapshot.getRankedGroups().stream()
+            .map(CompiledTargetingGroup::getTargetingGroup)
+            .map(TargetingGroup::getTargetingGroupId)
+            .collect(Collectors.toList());
+    }
+
+    private static AdvertisementContent content(String contentId, String marketplaceId) {
+        return AdvertisementContent.builder()
+            .withContentId(contentId)
+            .withMarketplaceId(marketplaceId)
+            .build();
+    }
+
+    private static TargetingGroup group(String targetingGroupId, AdvertisementContent content, double ctr) {
+        return new TargetingGroup(targetingGroupId, content.getContentId(), ctr, Collections.emptyList());
+    }
+}
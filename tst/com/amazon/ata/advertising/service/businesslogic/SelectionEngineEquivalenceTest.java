@@ -0,0 +1,312 @@
+package com.amazon.ata.advertising.service.businesslogic;
+
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
+import com.amazon.ata.advertising.service.dao.BatchReadableDao;
+import com.amazon.ata.advertising.service.dao.ReadableDao;
+import com.amazon.ata.advertising.service.dependency.TargetingPredicateInjector;
+import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import com.amazon.ata.advertising.service.model.GeneratedAdvertisement;
+import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.targeting.Comparison;
+import com.amazon.ata.advertising.service.targeting.DeadlineStatistics;
+import com.amazon.ata.advertising.service.targeting.PredicateStatistics;
+import com.amazon.ata.advertising.service.targeting.SelectionEngine;
+import com.amazon.ata.advertising.service.targeting.TargetingGroup;
+import com.amazon.ata.advertising.service.targeting.predicate.AgeTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.AgeTargetingPredicate_MembersInjector;
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendFrequencyTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendFrequencyTargetingPredicate_MembersInjector;
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendValueTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendValueTargetingPredicate_MembersInjector;
+import com.amazon.ata.advertising.service.targeting.predicate.CustomerFeaturesLoader;
+import com.amazon.ata.advertising.service.targeting.predicate.ParentPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.ParentPredicate_MembersInjector;
+import com.amazon.ata.advertising.service.targeting.predicate.PrimeBenefitTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.PrimeBenefitTargetingPredicate_MembersInjector;
+import com.amazon.ata.advertising.service.targeting.predicate.RecognizedTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+import com.amazon.ata.advertising.service.util.RequestCacheStatistics;
+import com.amazon.ata.customerservice.AgeRange;
+import com.amazon.ata.customerservice.Category;
+import com.amazon.ata.customerservice.CustomerProfile;
+import com.amazon.ata.customerservice.Spend;
+import com.amazon.ata.primeclubservice.Benefit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+/**
+ * Checks that the PREDICATE_INDEX engine picks the same advertisements as the LINEAR_SCAN engine. Each seed builds a
+ * random marketplace and random customers, so the index is checked against every kind of predicate, inverted or not.
+ */
+public class SelectionEngineEquivalenceTest {
+    private static final String MARKETPLACE_ID = "1";
+    private static final long[] SEEDS = {1L, 7L, 42L, 1_234L, 98_765L};
+    private static final int CONTENTS = 40;
+    private static final int CUSTOMERS = 25;
+    private static final int NUMBER_OF_ADS = 3;
+    private static final String[] AGE_RANGES = AgeRange.values();
+    private static final String[] CATEGORIES = {Category.KINDLE, Category.ECHO, Category.FRESH, Category.PET};
+    private static final List<String> BENEFITS = Arrays.asList(Benefit.MOM_LITE, Benefit.MOM_DISCOUNT,
+        Benefit.FREE_TRIDENT_VOD, Benefit.FREE_EXPEDITED_SHIPPING, Benefit.DIM_SUM, Benefit.AMZN4KIDS);
+
+    @Mock
+    private ReadableDao<String, List<AdvertisementContent>> contentDao;
+
+    @Mock
+    private BatchReadableDao<String, List<TargetingGroup>> targetingGroupDao;
+
+    private Map<String, CustomerProfile> profiles;
+    private Map<String, Map<String, Spend>> spend;
+    private Map<String, List<String>> benefits;
+    private Map<String, List<TargetingGroup>> targetingGroups;
+
+    private TargetingPredicateInjector injector;
+    private CustomerFeaturesLoader customerFeaturesLoader;
+    private AdvertisementSelectionLogic linearScan;
+    private AdvertisementSelectionLogic predicateIndex;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        profiles = new HashMap<>();
+        spend = new HashMap<>();
+        benefits = new HashMap<>();
+        targetingGroups = new HashMap<>();
+
+        CustomerDao<String, CustomerProfile> profileDao = new CustomerDao<>(profiles::get);
+        CustomerDao<RequestContext, Map<String, Spend>> spendDao =
+            new CustomerDao<>(context -> spend.get(context.getCustomerId()));
+        CustomerDao<RequestContext, List<String>> primeDao =
+            new CustomerDao<>(context -> benefits.get(context.getCustomerId()));
+        injector = new TargetingPredicateInjector(
+            AgeTargetingPredicate_MembersInjector.create(() -> profileDao, () -> profileDao),
+            CategorySpendFrequencyTargetingPredicate_MembersInjector.create(() -> spendDao, () -> spendDao),
+            CategorySpendValueTargetingPredicate_MembersInjector.create(() -> spendDao, () -> spendDao),
+            PrimeBenefitTargetingPredicate_MembersInjector.create(() -> primeDao, () -> primeDao),
+            ParentPredicate_MembersInjector.create(() -> profileDao, () -> profileDao),
+            predicate -> { });
+
+        when(targetingGroupDao.get(any())).thenAnswer(invocation -> targetingGroups.get(invocation.getArgument(0)));
+        when(targetingGroupDao.getAll(any())).thenAnswer(invocation -> {
+            Map<String, List<TargetingGroup>> targetingGroupsByContent = new LinkedHashMap<>();
+            for (String contentId : invocation.<Collection<String>>getArgument(0)) {
+                targetingGroupsByContent.put(contentId, targetingGroups.get(contentId));
+            }
+            return targetingGroupsByContent;
+        });
+
+        customerFeaturesLoader = new CustomerFeaturesLoader(profileDao, spendDao, primeDao);
+    }
+
+    @Test
+    public void selectAdvertisements_randomMarketplace_sameWinnersForRecognizedCustomers() {
+        for (long seed : SEEDS) {
+            // GIVEN
+            Random random = new Random(seed);
+            useMarketplace(randomMarketplace(random));
+            List<String> customerIds = randomCustomers(random);
+
+            int customersWithAds = 0;
+            for (String customerId : customerIds) {
+                // WHEN
+                List<String> linearScanWinners = contentIds(
+                    linearScan.selectAdvertisements(customerId, MARKETPLACE_ID, NUMBER_OF_ADS));
+                List<String> predicateIndexWinners = contentIds(
+                    predicateIndex.selectAdvertisements(customerId, MARKETPLACE_ID, NUMBER_OF_ADS));
+
+                // THEN
+                assertEquals(linearScanWinners, predicateIndexWinners, String.format(
+                    "Expected the same winners for customer %s with seed %d", customerId, seed));
+                if (!linearScanWinners.isEmpty()) {
+                    customersWithAds++;
+                }
+            }
+            // Fixtures nobody is eligible for would pass without comparing anything
+            assertTrue(customersWithAds > 0, String.format("Expected some customer to see an ad with seed %d", seed));
+        }
+    }
+
+    @Test
+    public void selectAdvertisement_randomMarketplace_sameWinnerForEveryCustomer() {
+        for (long seed : SEEDS) {
+            // GIVEN
+            Random random = new Random(seed);
+            useMarketplace(randomMarketplace(random));
+            List<String> customerIds = randomCustomers(random);
+            customerIds.add(null);
+
+            for (String customerId : customerIds) {
+                // WHEN
+                GeneratedAdvertisement linearScanWinner = linearScan.selectAdvertisement(customerId, MARKETPLACE_ID);
+                GeneratedAdvertisement predicateIndexWinner =
+                    predicateIndex.selectAdvertisement(customerId, MARKETPLACE_ID);
+
+                // THEN
+                assertEquals(contentId(linearScanWinner), contentId(predicateIndexWinner), String.format(
+                    "Expected the same winner for customer %s with seed %d", customerId, seed));
+            }
+        }
+    }
+
+    @Test
+    public void selectAdvertisements_randomMarketplace_sameWinnersForUnrecognizedCustomer() {
+        for (long seed : SEEDS) {
+            // GIVEN
+            Random random = new Random(seed);
+            useMarketplace(randomMarketplace(random));
+
+            // WHEN
+            List<String> linearScanWinners = contentIds(
+                linearScan.selectAdvertisements(null, MARKETPLACE_ID, NUMBER_OF_ADS));
+            List<String> predicateIndexWinners = contentIds(
+                predicateIndex.selectAdvertisements(null, MARKETPLACE_ID, NUMBER_OF_ADS));
+
+            // THEN
+            assertEquals(linearScanWinners, predicateIndexWinners,
+                String.format("Expected the same winners with seed %d", seed));
+        }
+    }
+
+    private void useMarketplace(List<AdvertisementContent> contents) {
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(contents);
+        // Both engines share one snapshot, as they would in a deployment switching between them
+        MarketplaceTargetingIndex targetingIndex = new MarketplaceTargetingIndex(contentDao, targetingGroupDao,
+            injector, TimeUnit.HOURS.toSeconds(1));
+        linearScan = new AdvertisementSelectionLogic(targetingIndex, new PredicateStatistics(), 4, 1,
+            new DeadlineStatistics(), 0, SelectionEngine.LINEAR_SCAN, customerFeaturesLoader,
+            AdDecisionCache.disabled(), new RequestCacheStatistics());
+        predicateIndex = new AdvertisementSelectionLogic(targetingIndex, new PredicateStatistics(), 4, 1,
+            new DeadlineStatistics(), 0, SelectionEngine.PREDICATE_INDEX, customerFeaturesLoader,
+            AdDecisionCache.disabled(), new RequestCacheStatistics());
+    }
+
+    private List<AdvertisementContent> randomMarketplace(Random random) {
+        targetingGroups.clear();
+        List<AdvertisementContent> contents = new ArrayList<>();
+        for (int i = 0; i < CONTENTS; i++) {
+            String contentId = "content" + i;
+            contents.add(AdvertisementContent.builder()
+                .withContentId(contentId)
+                .withMarketplaceId(MARKETPLACE_ID)
+                .build());
+            List<TargetingGroup> groups = new ArrayList<>();
+            int numberOfGroups = random.nextInt(3);
+            for (int j = 0; j <= numberOfGroups; j++) {
+                List<TargetingPredicate> predicates = new ArrayList<>();
+                int numberOfPredicates = random.nextInt(3);
+                for (int k = 0; k <= numberOfPredicates; k++) {
+                    TargetingPredicate predicate = randomPredicate(random);
+                    // TargetingGroupDao injects the predicates it loads
+                    injector.inject(predicate);
+                    predicates.add(predicate);
+                }
+                // Distinct click through rates, so the winners don't depend on how ties are broken
+                groups.add(new TargetingGroup(contentId + "-group" + j, contentId, random.nextDouble(), predicates));
+            }
+            targetingGroups.put(contentId, groups);
+        }
+        return contents;
+    }
+
+    private List<String> randomCustomers(Random random) {
+        profiles.clear();
+        spend.clear();
+        benefits.clear();
+        List<String> customerIds = new ArrayList<>();
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String customerId = "customer" + i;
+            customerIds.add(customerId);
+            profiles.put(customerId, CustomerProfile.builder()
+                .withAgeRange(AGE_RANGES[random.nextInt(AGE_RANGES.length)])
+                .withParent(random.nextBoolean())
+                .build());
+            Map<String, Spend> customerSpend = new HashMap<>();
+            for (String category : CATEGORIES) {
+                if (random.nextBoolean()) {
+                    customerSpend.put(category, Spend.builder()
+                        .withNumberOfPurchases(random.nextInt(5))
+                        .withUsdSpent(random.nextInt(200))
+                        .build());
+                }
+            }
+            spend.put(customerId, customerSpend);
+            benefits.put(customerId, BENEFITS.stream()
+                .filter(benefit -> random.nextInt(3) == 0)
+                .collect(Collectors.toList()));
+        }
+        return customerIds;
+    }
+
+    private static TargetingPredicate randomPredicate(Random random) {
+        boolean inverse = random.nextInt(4) == 0;
+        Comparison comparison = Comparison.values()[random.nextInt(Comparison.values().length)];
+        switch (random.nextInt(6)) {
+            case 0:
+                return new AgeTargetingPredicate(AGE_RANGES[random.nextInt(AGE_RANGES.length)], inverse);
+            case 1:
+                return new ParentPredicate(inverse);
+            case 2:
+                return new PrimeBenefitTargetingPredicate(BENEFITS.get(random.nextInt(BENEFITS.size())), inverse);
+            case 3:
+                return new CategorySpendFrequencyTargetingPredicate(CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    comparison, random.nextInt(5), inverse);
+            case 4:
+                return new CategorySpendValueTargetingPredicate(CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    comparison, random.nextInt(200), inverse);
+            default:
+                return new RecognizedTargetingPredicate(inverse);
+        }
+    }
+
+    private static List<String> contentIds(List<GeneratedAdvertisement> advertisements) {
+        return advertisements.stream()
+            .map(SelectionEngineEquivalenceTest::contentId)
+            .collect(Collectors.toList());
+    }
+
+    private static String contentId(GeneratedAdvertisement advertisement) {
+        return advertisement.getContent().getContentId();
+    }
+
+    /**
+     * Answers for the customers of the current fixture, the way the customer and prime services would.
+     */
+    private static class CustomerDao<I, O> implements ReadableDao<I, O>, AsyncReadableDao<I, O> {
+        private final Function<I, O> lookup;
+
+        CustomerDao(Function<I, O> lookup) {
+            this.lookup = lookup;
+        }
+
+        @Override
+        public O get(I inputQuery) {
+            return lookup.apply(inputQuery);
+        }
+
+        @Override
+        public CompletableFuture<O> getAsync(I inputQuery) {
+            return CompletableFuture.completedFuture(lookup.apply(inputQuery));
+        }
+    }
+}
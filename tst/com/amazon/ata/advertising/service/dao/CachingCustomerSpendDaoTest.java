@@ -0,0 +1,135 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.customerservice.Category;
+import com.amazon.ata.customerservice.Spend;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class CachingCustomerSpendDaoTest {
+    private static final String MARKETPLACE_ID = "1";
+    private static final String CUSTOMER_ID = "2";
+    private static final Map<String, Spend> SPEND = Collections.singletonMap(Category.COMPUTERS,
+            Spend.builder().withNumberOfPurchases(1).withUsdSpent(1).build());
+
+    @Mock
+    private CustomerSpendDao spendDao;
+
+    private CachingCustomerSpendDao cachingSpendDao;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        cachingSpendDao = new CachingCustomerSpendDao(spendDao, 10, 45, 60, Runnable::run);
+    }
+
+    @Test
+    public void get_sameCustomerInNewRequest_servedFromCache() {
+        // GIVEN
+        when(spendDao.get(any(RequestContext.class))).thenReturn(SPEND);
+
+        // WHEN
+        Map<String, Spend> first = cachingSpendDao.get(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID));
+        Map<String, Spend> second = cachingSpendDao.get(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID));
+
+        // THEN
+        assertEquals(SPEND, first);
+        assertEquals(SPEND, second);
+        verify(spendDao, times(1)).get(any(RequestContext.class));
+        assertEquals(0.5, cachingSpendDao.getHitRatio());
+    }
+
+    @Test
+    public void get_differentMarketplace_loadsAgain() {
+        // GIVEN
+        when(spendDao.get(any(RequestContext.class))).thenReturn(SPEND);
+
+        // WHEN
+        cachingSpendDao.get(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID));
+        cachingSpendDao.get(new RequestContext(CUSTOMER_ID, "3"));
+
+        // THEN
+        verify(spendDao, times(2)).get(any(RequestContext.class));
+    }
+
+    @Test
+    public void getAsync_loadedAsynchronously_cachedForNextRequest() {
+        // GIVEN
+        when(spendDao.getAsync(any(RequestContext.class))).thenReturn(CompletableFuture.completedFuture(SPEND));
+
+        // WHEN
+        Map<String, Spend> first = cachingSpendDao.getAsync(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID)).join();
+        Map<String, Spend> second = cachingSpendDao.get(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID));
+
+        // THEN
+        assertEquals(SPEND, first);
+        assertEquals(SPEND, second);
+        verify(spendDao, times(1)).getAsync(any(RequestContext.class));
+        verify(spendDao, times(0)).get(any(RequestContext.class));
+    }
+
+    @Test
+    public void get_loadFails_throwsOriginalException() {
+        // GIVEN
+        when(spendDao.get(any(RequestContext.class))).thenThrow(new IllegalStateException("FAIL"));
+
+        // WHEN + THEN
+        assertThrows(IllegalStateException.class,
+            () -> cachingSpendDao.get(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID)));
+    }
+
+    @Test
+    public void getAsync_concurrentMissesForSameCustomer_loadedOnce() {
+        // GIVEN
+        CompletableFuture<Map<String, Spend>> load = new CompletableFuture<>();
+        when(spendDao.getAsync(any(RequestContext.class))).thenReturn(load);
+        CompletableFuture<Map<String, Spend>> first =
+            cachingSpendDao.getAsync(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID));
+
+        // WHEN
+        CompletableFuture<Map<String, Spend>> second =
+            cachingSpendDao.getAsync(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID));
+        load.complete(SPEND);
+
+        // THEN
+        assertEquals(SPEND, first.join());
+        assertEquals(SPEND, second.join());
+        verify(spendDao, times(1)).getAsync(any(RequestContext.class));
+        assertEquals(1, cachingSpendDao.getLoadCount());
+        assertEquals(1, cachingSpendDao.getCoalescedLoadCount());
+    }
+
+    @Test
+    public void getAsync_loadFails_nextMissLoadsAgain() {
+        // GIVEN
+        CompletableFuture<Map<String, Spend>> failedLoad = new CompletableFuture<>();
+        failedLoad.completeExceptionally(new IllegalStateException("FAIL"));
+        when(spendDao.getAsync(any(RequestContext.class)))
+            .thenReturn(failedLoad)
+            .thenReturn(CompletableFuture.completedFuture(SPEND));
+        assertThrows(CompletionException.class,
+            () -> cachingSpendDao.getAsync(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID)).join());
+
+        // WHEN
+        Map<String, Spend> spend = cachingSpendDao.getAsync(new RequestContext(CUSTOMER_ID, MARKETPLACE_ID)).join();
+
+        // THEN
+        assertEquals(SPEND, spend);
+        assertEquals(2, cachingSpendDao.getLoadCount());
+        assertEquals(1, cachingSpendDao.getLoadFailureCount());
+    }
+}
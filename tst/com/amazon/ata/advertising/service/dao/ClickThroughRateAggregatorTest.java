@@ -0,0 +1,190 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.advertising.service.exceptions.AdvertisementClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class ClickThroughRateAggregatorTest {
+    private static final String TARGETING_GROUP_ID = "12345";
+    private static final String OTHER_TARGETING_GROUP_ID = "67890";
+
+    @Mock
+    private TargetingGroupDao targetingGroupDao;
+
+    @Mock
+    private Consumer<Map<String, Double>> onWritten;
+
+    private ClickThroughRateAggregator aggregator;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        aggregator = new ClickThroughRateAggregator(targetingGroupDao, onWritten, 100, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @Test
+    public void update_writeThrough_writtenAndReRankedBeforeReturning() {
+        // GIVEN
+        ClickThroughRateAggregator writeThroughAggregator = new ClickThroughRateAggregator(targetingGroupDao,
+            onWritten, 100, TimeUnit.HOURS.toMillis(1), true);
+
+        // WHEN
+        writeThroughAggregator.update(TARGETING_GROUP_ID, 0.1);
+
+        // THEN
+        verify(targetingGroupDao).update(TARGETING_GROUP_ID, 0.1);
+        verify(onWritten).accept(Collections.singletonMap(TARGETING_GROUP_ID, 0.1));
+        assertEquals(1, writeThroughAggregator.getWrittenCount());
+        assertEquals(0, writeThroughAggregator.getPendingCount());
+    }
+
+    @Test
+    public void update_writeThroughFails_failureThrownToCaller() {
+        // GIVEN
+        ClickThroughRateAggregator writeThroughAggregator = new ClickThroughRateAggregator(targetingGroupDao,
+            onWritten, 100, TimeUnit.HOURS.toMillis(1), true);
+        doThrow(new RuntimeException("Throttled")).when(targetingGroupDao).update(TARGETING_GROUP_ID, 0.1);
+
+        // WHEN + THEN
+        assertThrows(RuntimeException.class, () -> writeThroughAggregator.update(TARGETING_GROUP_ID, 0.1));
+        verify(onWritten, never()).accept(any());
+        assertEquals(0, writeThroughAggregator.getPendingCount());
+    }
+
+    @Test
+    public void flush_groupUpdatedSeveralTimes_lastRateWrittenOnce() {
+        // GIVEN
+        aggregator.update(TARGETING_GROUP_ID, 0.1);
+        aggregator.update(TARGETING_GROUP_ID, 0.2);
+        aggregator.update(TARGETING_GROUP_ID, 0.3);
+
+        // WHEN
+        aggregator.flush();
+
+        // THEN
+        verify(targetingGroupDao, times(1)).update(eq(TARGETING_GROUP_ID), anyDouble());
+        verify(targetingGroupDao).update(TARGETING_GROUP_ID, 0.3);
+        assertEquals(3, aggregator.getBufferedCount());
+        assertEquals(2, aggregator.getCoalescedCount());
+        assertEquals(1, aggregator.getWrittenCount());
+        assertEquals(0, aggregator.getPendingCount());
+    }
+
+    @Test
+    public void update_bufferFull_flushedWithoutWaitingForInterval() {
+        // GIVEN
+        ClickThroughRateAggregator smallAggregator = new ClickThroughRateAggregator(targetingGroupDao, onWritten, 2,
+            TimeUnit.HOURS.toMillis(1));
+        smallAggregator.update(TARGETING_GROUP_ID, 0.1);
+
+        // WHEN
+        smallAggregator.update(OTHER_TARGETING_GROUP_ID, 0.2);
+
+        // THEN
+        verify(targetingGroupDao, timeout(5_000)).update(TARGETING_GROUP_ID, 0.1);
+        verify(targetingGroupDao, timeout(5_000)).update(OTHER_TARGETING_GROUP_ID, 0.2);
+    }
+
+    @Test
+    public void flush_writeFails_retriedOnNextFlush() {
+        // GIVEN
+        doThrow(new RuntimeException("Throttled"))
+            .doNothing()
+            .when(targetingGroupDao).update(TARGETING_GROUP_ID, 0.1);
+        aggregator.update(TARGETING_GROUP_ID, 0.1);
+
+        // WHEN
+        aggregator.flush();
+        aggregator.flush();
+
+        // THEN
+        verify(targetingGroupDao, times(2)).update(TARGETING_GROUP_ID, 0.1);
+        assertEquals(1, aggregator.getFailedWriteCount());
+        assertEquals(1, aggregator.getWrittenCount());
+    }
+
+    @Test
+    public void flush_writeFailsAndNewerRateBuffered_newerRateWritten() {
+        // GIVEN
+        doAnswer(invocation -> {
+            aggregator.update(TARGETING_GROUP_ID, 0.2);
+            throw new RuntimeException("Throttled");
+        }).when(targetingGroupDao).update(TARGETING_GROUP_ID, 0.1);
+        aggregator.update(TARGETING_GROUP_ID, 0.1);
+
+        // WHEN
+        aggregator.flush();
+        aggregator.flush();
+
+        // THEN
+        verify(targetingGroupDao, times(1)).update(TARGETING_GROUP_ID, 0.1);
+        verify(targetingGroupDao).update(TARGETING_GROUP_ID, 0.2);
+    }
+
+    @Test
+    public void flush_groupDeleted_updateDropped() {
+        // GIVEN
+        doThrow(new AdvertisementClientException("No targeting group exists with the ID " + TARGETING_GROUP_ID))
+            .when(targetingGroupDao).update(TARGETING_GROUP_ID, 0.1);
+        aggregator.update(TARGETING_GROUP_ID, 0.1);
+
+        // WHEN
+        aggregator.flush();
+        aggregator.flush();
+
+        // THEN
+        verify(targetingGroupDao, times(1)).update(TARGETING_GROUP_ID, 0.1);
+        assertEquals(0, aggregator.getPendingCount());
+        assertEquals(1, aggregator.getDroppedCount());
+        verify(onWritten, never()).accept(any());
+    }
+
+    @Test
+    public void flush_severalGroupsWritten_writtenRatesHandedOnInOneBatch() {
+        // GIVEN
+        aggregator.update(TARGETING_GROUP_ID, 0.1);
+        aggregator.update(OTHER_TARGETING_GROUP_ID, 0.2);
+        Map<String, Double> expectedRates = new HashMap<>();
+        expectedRates.put(TARGETING_GROUP_ID, 0.1);
+        expectedRates.put(OTHER_TARGETING_GROUP_ID, 0.2);
+
+        // WHEN
+        aggregator.flush();
+
+        // THEN
+        verify(onWritten, times(1)).accept(expectedRates);
+    }
+
+    @Test
+    public void flush_nothingBuffered_nothingWritten() {
+        // WHEN
+        aggregator.flush();
+
+        // THEN
+        verify(targetingGroupDao, never()).update(eq(TARGETING_GROUP_ID), anyDouble());
+        verify(onWritten, never()).accept(any());
+        assertEquals(0.0, aggregator.getLastFlushLagMillis());
+        assertEquals(0.0, aggregator.getOldestPendingAgeMillis());
+    }
+}
@@ -3,16 +3,23 @@ package com.amazon.ata.advertising.service.dao;
 import com.amazon.ata.advertising.service.exceptions.AdvertisementClientException;
 import com.amazon.ata.advertising.service.model.AdvertisementContent;
 import com.amazon.ata.advertising.service.util.EncryptionUtil;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -20,7 +27,9 @@ import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -34,12 +43,17 @@ public class ContentDaoTest {
             .withContentId(CONTENT_ID)
             .withRenderableContent(RENDERABLE_CONTENT)
             .build();
+    private static final Map<String, AttributeValue> UPDATED_ITEM = Collections.singletonMap(
+            AdvertisementContent.CONTENT_ID, new AttributeValue(CONTENT_ID));
 
     private ArgumentCaptor<DynamoDBQueryExpression<AdvertisementContent>> captor;
 
     @Mock
     private DynamoDBMapper mapper;
 
+    @Mock
+    private AmazonDynamoDB dynamoDbClient;
+
     @Mock
     private PaginatedQueryList<AdvertisementContent> paginatedQueryList;
 
@@ -109,32 +123,48 @@ public class ContentDaoTest {
 
     @Test
     public void update_existingContent_updatesValues() {
+        // GIVEN
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        when(dynamoDbClient.updateItem(requestCaptor.capture()))
+                .thenReturn(new UpdateItemResult().withAttributes(UPDATED_ITEM));
+        when(mapper.marshallIntoObject(AdvertisementContent.class, UPDATED_ITEM)).thenReturn(ADVERTISEMENT_CONTENT);
+
         // WHEN
         AdvertisementContent content = contentDao.update(MARKETPLACE_ID, ADVERTISEMENT_CONTENT);
 
         // THEN
+        UpdateItemRequest request = requestCaptor.getValue();
+        assertEquals(AdvertisementContent.TABLE_NAME, request.getTableName());
+        assertEquals(CONTENT_ID, request.getKey().get(AdvertisementContent.CONTENT_ID).getS());
+        assertEquals("attribute_exists(#id)", request.getConditionExpression());
+        assertEquals(RENDERABLE_CONTENT, request.getExpressionAttributeValues().get(":content").getS());
         assertEquals(ADVERTISEMENT_CONTENT, content);
-        verify(mapper).save(ADVERTISEMENT_CONTENT);
+        verify(mapper, never()).load(any(AdvertisementContent.class));
+        verify(mapper, never()).save(any(AdvertisementContent.class));
     }
 
     @Test
     public void update_unEncryptedMarketplaceId_updatesValues() {
         // GIVEN
         String marketplaceId = "1";
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        when(dynamoDbClient.updateItem(requestCaptor.capture()))
+                .thenReturn(new UpdateItemResult().withAttributes(UPDATED_ITEM));
 
         // WHEN
-        AdvertisementContent content = contentDao.update(marketplaceId, ADVERTISEMENT_CONTENT);
+        contentDao.update(marketplaceId, ADVERTISEMENT_CONTENT);
 
         // THEN
-        assertEquals(EncryptionUtil.encryptMarketplaceId(marketplaceId), content.getMarketplaceId());
-        verify(mapper).save(ADVERTISEMENT_CONTENT);
+        assertEquals(EncryptionUtil.encryptMarketplaceId(marketplaceId),
+                requestCaptor.getValue().getExpressionAttributeValues().get(":marketplace").getS());
     }
 
     @Test
     public void update_contentDoesNotExist_throwsException() {
         // GIVEN
         String marketplaceId = "1";
-        when(mapper.load(ADVERTISEMENT_CONTENT)).thenReturn(null);
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+                .thenThrow(new ConditionalCheckFailedException("The conditional request failed"));
 
         // WHEN && THEN
         assertThrows(AdvertisementClientException.class, () -> contentDao.update(marketplaceId, ADVERTISEMENT_CONTENT),
@@ -12,6 +12,8 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
@@ -55,4 +57,17 @@ public class CustomerProfileDaoTest {
         GetCustomerProfileRequest capturedRequest = requestCaptor.getValue();
         assertEquals(capturedRequest.getCustomerId(), CUSTOMER_ID);
     }
+
+    @Test
+    public void getAsync_customerId_completesWithCustomerProfile() {
+        // GIVEN
+        CustomerProfileDao asyncDao = new CustomerProfileDao(customerClient, Runnable::run);
+        when(customerClient.getCustomerProfile(any(GetCustomerProfileRequest.class))).thenReturn(RESULT);
+
+        // WHEN
+        CompletableFuture<CustomerProfile> actual = asyncDao.getAsync(CUSTOMER_ID);
+
+        // THEN
+        assertEquals(PROFILE, actual.join());
+    }
 }
@@ -0,0 +1,135 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.advertising.service.exceptions.DependencyUnavailableException;
+import com.amazon.ata.advertising.service.util.DependencyGuard;
+import com.amazon.ata.advertising.service.util.Futures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class GuardedDaoTest {
+    private static final String CUSTOMER_ID = "1";
+
+    @Mock
+    private StringDao delegate;
+
+    private DependencyGuard guard;
+    private GuardedDao<String, String> guardedDao;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        guard = new DependencyGuard("service", 1, 60_000, 1);
+        guardedDao = new GuardedDao<>(delegate, guard);
+    }
+
+    @Test
+    public void get_callSucceeds_responseReturned() {
+        // GIVEN
+        when(delegate.get(CUSTOMER_ID)).thenReturn("profile");
+
+        // WHEN
+        String actual = guardedDao.get(CUSTOMER_ID);
+
+        // THEN
+        assertEquals("profile", actual);
+        assertEquals(0, guard.getActiveCalls());
+    }
+
+    @Test
+    public void get_breakerOpenedByAsyncCall_failsWithoutCalling() {
+        // GIVEN
+        when(delegate.getAsync(CUSTOMER_ID)).thenReturn(Futures.failed(new RuntimeException()));
+        assertThrows(CompletionException.class, () -> guardedDao.getAsync(CUSTOMER_ID).join());
+
+        // WHEN / THEN
+        assertThrows(DependencyUnavailableException.class, () -> guardedDao.get(CUSTOMER_ID));
+        verify(delegate, never()).get(CUSTOMER_ID);
+    }
+
+    @Test
+    public void get_callFails_opensBreaker() {
+        // GIVEN
+        when(delegate.get(CUSTOMER_ID)).thenThrow(new IllegalStateException("Throttled"));
+
+        // WHEN
+        assertThrows(IllegalStateException.class, () -> guardedDao.get(CUSTOMER_ID));
+
+        // THEN
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertEquals(0, guard.getActiveCalls());
+    }
+
+    @Test
+    public void getAsync_callSucceeds_responseReturned() {
+        // GIVEN
+        when(delegate.getAsync(CUSTOMER_ID)).thenReturn(CompletableFuture.completedFuture("profile"));
+
+        // WHEN
+        String actual = guardedDao.getAsync(CUSTOMER_ID).join();
+
+        // THEN
+        assertEquals("profile", actual);
+        assertEquals(0, guard.getActiveCalls());
+    }
+
+    @Test
+    public void getAsync_breakerOpen_failsWithoutCalling() {
+        // GIVEN
+        when(delegate.getAsync(CUSTOMER_ID)).thenReturn(Futures.failed(new RuntimeException()));
+        assertThrows(CompletionException.class, () -> guardedDao.getAsync(CUSTOMER_ID).join());
+
+        // WHEN
+        CompletableFuture<String> actual = guardedDao.getAsync(CUSTOMER_ID);
+
+        // THEN
+        CompletionException e = assertThrows(CompletionException.class, actual::join);
+        assertTrue(e.getCause() instanceof DependencyUnavailableException);
+        verify(delegate).getAsync(CUSTOMER_ID);
+    }
+
+    @Test
+    public void getAsync_bulkheadFull_failsWithoutCalling() {
+        // GIVEN
+        when(delegate.getAsync(CUSTOMER_ID)).thenReturn(new CompletableFuture<>());
+        guardedDao.getAsync(CUSTOMER_ID);
+
+        // WHEN
+        CompletableFuture<String> actual = guardedDao.getAsync("2");
+
+        // THEN
+        CompletionException e = assertThrows(CompletionException.class, actual::join);
+        assertTrue(e.getCause() instanceof DependencyUnavailableException);
+        verify(delegate, never()).getAsync("2");
+    }
+
+    @Test
+    public void getAsync_callerCancels_permitHeldUntilCallCompletes() {
+        // GIVEN
+        CompletableFuture<String> call = new CompletableFuture<>();
+        when(delegate.getAsync(CUSTOMER_ID)).thenReturn(call);
+        CompletableFuture<String> response = guardedDao.getAsync(CUSTOMER_ID);
+
+        // WHEN
+        response.cancel(false);
+
+        // THEN
+        assertEquals(1, guard.getActiveCalls());
+        call.complete("profile");
+        assertEquals(0, guard.getActiveCalls());
+    }
+
+    private interface StringDao extends ReadableDao<String, String>, AsyncReadableDao<String, String> {
+    }
+}
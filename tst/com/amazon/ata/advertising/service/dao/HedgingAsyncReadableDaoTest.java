@@ -0,0 +1,162 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.customerservice.AgeRange;
+import com.amazon.ata.customerservice.CustomerProfile;
+import com.amazon.ata.customerservice.GetCustomerProfileRequest;
+import com.amazon.ata.customerservice.GetCustomerProfileResponse;
+import com.amazon.ata.customerservice.State;
+import com.amazon.atacustomerservicelambda.service.ATACustomerService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class HedgingAsyncReadableDaoTest {
+    private static final String CUSTOMER_ID = "1";
+    private static final String SLOW_CUSTOMER_ID = "2";
+    private static final long SLOW_CALL_MILLIS = 2_000;
+    private static final CustomerProfile PROFILE = CustomerProfile.builder()
+            .withAgeRange(AgeRange.AGE_26_TO_30)
+            .withHomeState(State.WA)
+            .withParent(false)
+            .build();
+    private static final GetCustomerProfileResponse RESULT = GetCustomerProfileResponse.builder()
+            .withCustomerProfile(PROFILE)
+            .build();
+
+    @Mock
+    private ATACustomerService customerClient;
+
+    private final AtomicBoolean firstSlowCustomerCall = new AtomicBoolean(true);
+    private ExecutorService callExecutor;
+    private ScheduledExecutorService hedgeScheduler;
+    private ExecutorService hedgeExecutor;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        callExecutor = Executors.newCachedThreadPool();
+        hedgeScheduler = Executors.newSingleThreadScheduledExecutor();
+        hedgeExecutor = Executors.newCachedThreadPool();
+        when(customerClient.getCustomerProfile(any(GetCustomerProfileRequest.class))).thenReturn(RESULT);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        callExecutor.shutdownNow();
+        hedgeScheduler.shutdownNow();
+        hedgeExecutor.shutdownNow();
+    }
+
+    @Test
+    public void getAsync_tooFewLatenciesObserved_callNotHedged() {
+        // GIVEN
+        HedgingAsyncReadableDao<String, CustomerProfile> hedgingDao = new HedgingAsyncReadableDao<>(
+            new CustomerProfileDao(customerClient, callExecutor), hedgeScheduler, hedgeExecutor, 0.5, 1);
+
+        // WHEN
+        CustomerProfile actual = hedgingDao.getAsync(CUSTOMER_ID).join();
+
+        // THEN
+        assertEquals(PROFILE, actual);
+        assertEquals(-1, hedgingDao.getHedgeDelayMillis());
+        assertEquals(0, hedgingDao.getHedgeCount());
+    }
+
+    @Test
+    public void getAsync_slowCall_hedgeResponseUsed() {
+        // GIVEN
+        HedgingAsyncReadableDao<String, CustomerProfile> hedgingDao = new HedgingAsyncReadableDao<>(
+            slowFirstCallForSlowCustomer(), hedgeScheduler, hedgeExecutor, 0.5, 1);
+        warmUp(hedgingDao);
+        long hedgesBefore = hedgingDao.getHedgeCount();
+        long hedgeWinsBefore = hedgingDao.getHedgeWinCount();
+
+        // WHEN
+        long start = System.nanoTime();
+        CustomerProfile actual = hedgingDao.getAsync(SLOW_CUSTOMER_ID).join();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // THEN
+        assertEquals(PROFILE, actual);
+        assertTrue(elapsedMillis < SLOW_CALL_MILLIS, "Took " + elapsedMillis + "ms");
+        assertEquals(hedgesBefore + 1, hedgingDao.getHedgeCount());
+        assertEquals(hedgeWinsBefore + 1, hedgingDao.getHedgeWinCount());
+    }
+
+    @Test
+    public void getAsync_hedgeRateCapReached_slowCallNotHedged() {
+        // GIVEN
+        HedgingAsyncReadableDao<String, CustomerProfile> hedgingDao = new HedgingAsyncReadableDao<>(
+            slowFirstCallForSlowCustomer(), hedgeScheduler, hedgeExecutor, 0.5, 0);
+        warmUp(hedgingDao);
+        long suppressedBefore = hedgingDao.getSuppressedHedgeCount();
+
+        // WHEN
+        CustomerProfile actual = hedgingDao.getAsync(SLOW_CUSTOMER_ID).join();
+
+        // THEN
+        assertEquals(PROFILE, actual);
+        assertEquals(0, hedgingDao.getHedgeCount());
+        assertEquals(suppressedBefore + 1, hedgingDao.getSuppressedHedgeCount());
+    }
+
+    @Test
+    public void getAsync_hedgeExecutorSaturated_slowCallNotHedged() {
+        // GIVEN
+        HedgingAsyncReadableDao<String, CustomerProfile> hedgingDao = new HedgingAsyncReadableDao<>(
+            slowFirstCallForSlowCustomer(), hedgeScheduler, hedgeExecutor, 0.5, 1);
+        warmUp(hedgingDao);
+        hedgeExecutor.shutdown();
+        long hedgesBefore = hedgingDao.getHedgeCount();
+        long suppressedBefore = hedgingDao.getSuppressedHedgeCount();
+
+        // WHEN
+        CustomerProfile actual = hedgingDao.getAsync(SLOW_CUSTOMER_ID).join();
+
+        // THEN
+        assertEquals(PROFILE, actual);
+        assertEquals(hedgesBefore, hedgingDao.getHedgeCount());
+        assertEquals(suppressedBefore + 1, hedgingDao.getSuppressedHedgeCount());
+    }
+
+    private AsyncReadableDao<String, CustomerProfile> slowFirstCallForSlowCustomer() {
+        CustomerProfileDao customerProfileDao = new CustomerProfileDao(customerClient, callExecutor);
+        // Decided when the call is made rather than when it runs, so the hedge can't take the slow call's place
+        return customerId -> {
+            CompletableFuture<CustomerProfile> call = customerProfileDao.getAsync(customerId);
+            if (SLOW_CUSTOMER_ID.equals(customerId) && firstSlowCustomerCall.getAndSet(false)) {
+                return call.thenApplyAsync(profile -> {
+                    try {
+                        Thread.sleep(SLOW_CALL_MILLIS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return profile;
+                }, callExecutor);
+            }
+            return call;
+        };
+    }
+
+    private void warmUp(HedgingAsyncReadableDao<String, CustomerProfile> hedgingDao) {
+        // Fast calls can still be hedged while warming up, since the hedge delay is the median of fast calls
+        for (int i = 0; i < 2 * HedgingAsyncReadableDao.MIN_SAMPLES; i++) {
+            hedgingDao.getAsync(CUSTOMER_ID).join();
+        }
+        assertTrue(hedgingDao.getHedgeDelayMillis() >= 0);
+    }
+}
@@ -0,0 +1,158 @@
+package com.amazon.ata.advertising.service.dao;
+
+import com.amazon.ata.advertising.service.model.AdvertisementContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class MarketplaceContentCacheTest {
+    private static final String MARKETPLACE_ID = "1";
+    private static final AdvertisementContent CONTENT1 = AdvertisementContent.builder()
+            .withContentId("contentId1")
+            .withMarketplaceId(MARKETPLACE_ID)
+            .build();
+    private static final AdvertisementContent CONTENT2 = AdvertisementContent.builder()
+            .withContentId("contentId2")
+            .withMarketplaceId(MARKETPLACE_ID)
+            .build();
+
+    @Mock
+    private ContentDao contentDao;
+
+    private MarketplaceContentCache contentCache;
+
+    @BeforeEach
+    public void setup() {
+        initMocks(this);
+        contentCache = new MarketplaceContentCache(contentDao, TimeUnit.HOURS.toSeconds(1));
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Arrays.asList(CONTENT1, CONTENT2));
+    }
+
+    @Test
+    public void get_marketplaceRequestedTwice_loadsOnce() {
+        // WHEN
+        List<AdvertisementContent> first = contentCache.get(MARKETPLACE_ID);
+        List<AdvertisementContent> second = contentCache.get(MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(Arrays.asList(CONTENT1, CONTENT2), first);
+        assertEquals(first, second);
+        verify(contentDao, times(1)).get(MARKETPLACE_ID);
+    }
+
+    @Test
+    public void invalidate_marketplaceCached_reloadsOnNextGet() {
+        // GIVEN
+        contentCache.get(MARKETPLACE_ID);
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Collections.singletonList(CONTENT1));
+
+        // WHEN
+        contentCache.invalidate(MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(Collections.singletonList(CONTENT1), contentCache.get(MARKETPLACE_ID));
+    }
+
+    @Test
+    public void invalidateContent_contentInSnapshot_reloadsOnNextGet() {
+        // GIVEN
+        contentCache.get(MARKETPLACE_ID);
+        when(contentDao.get(MARKETPLACE_ID)).thenReturn(Collections.singletonList(CONTENT1));
+
+        // WHEN
+        contentCache.invalidateContent(CONTENT2.getContentId());
+
+        // THEN
+        assertEquals(Collections.singletonList(CONTENT1), contentCache.get(MARKETPLACE_ID));
+    }
+
+    @Test
+    public void get_whileAnotherCallerIsLoading_waitsForThatLoad() throws Exception {
+        // GIVEN
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(contentDao.get(MARKETPLACE_ID)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await();
+            return Arrays.asList(CONTENT1, CONTENT2);
+        });
+        CompletableFuture<List<AdvertisementContent>> first =
+            CompletableFuture.supplyAsync(() -> contentCache.get(MARKETPLACE_ID));
+        loading.await(1, TimeUnit.SECONDS);
+
+        // WHEN
+        CompletableFuture<List<AdvertisementContent>> second = contentCache.getAsync(MARKETPLACE_ID);
+        release.countDown();
+
+        // THEN
+        assertEquals(Arrays.asList(CONTENT1, CONTENT2), first.get(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(CONTENT1, CONTENT2), second.get(1, TimeUnit.SECONDS));
+        verify(contentDao, times(1)).get(MARKETPLACE_ID);
+        verify(contentDao, never()).getAsync(MARKETPLACE_ID);
+    }
+
+    @Test
+    public void getAsync_callerCancelsItsFuture_snapshotStillServed() throws Exception {
+        // GIVEN
+        when(contentDao.getAsync(MARKETPLACE_ID))
+            .thenReturn(CompletableFuture.completedFuture(Arrays.asList(CONTENT1, CONTENT2)));
+        CompletableFuture<List<AdvertisementContent>> first = contentCache.getAsync(MARKETPLACE_ID);
+
+        // WHEN
+        first.cancel(false);
+
+        // THEN
+        assertEquals(Arrays.asList(CONTENT1, CONTENT2), contentCache.getAsync(MARKETPLACE_ID).get(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(CONTENT1, CONTENT2), contentCache.get(MARKETPLACE_ID));
+        verify(contentDao, times(1)).getAsync(MARKETPLACE_ID);
+        verify(contentDao, never()).get(MARKETPLACE_ID);
+    }
+
+    @Test
+    public void getAsync_callerCompletesFutureWhileLoading_loadStillShared() throws Exception {
+        // GIVEN
+        CompletableFuture<List<AdvertisementContent>> load = new CompletableFuture<>();
+        when(contentDao.getAsync(MARKETPLACE_ID)).thenReturn(load);
+        CompletableFuture<List<AdvertisementContent>> first = contentCache.getAsync(MARKETPLACE_ID);
+        CompletableFuture<List<AdvertisementContent>> second = contentCache.getAsync(MARKETPLACE_ID);
+
+        // WHEN
+        first.complete(Collections.emptyList());
+        load.complete(Arrays.asList(CONTENT1, CONTENT2));
+
+        // THEN
+        assertEquals(Arrays.asList(CONTENT1, CONTENT2), second.get(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(CONTENT1, CONTENT2), contentCache.get(MARKETPLACE_ID));
+        verify(contentDao, times(1)).getAsync(MARKETPLACE_ID);
+    }
+
+    @Test
+    public void get_loadFails_nextGetLoadsAgain() {
+        // GIVEN
+        when(contentDao.get(MARKETPLACE_ID))
+            .thenThrow(new IllegalStateException("Throttled"))
+            .thenReturn(Collections.singletonList(CONTENT1));
+        assertThrows(IllegalStateException.class, () -> contentCache.get(MARKETPLACE_ID));
+
+        // WHEN
+        List<AdvertisementContent> contents = contentCache.get(MARKETPLACE_ID);
+
+        // THEN
+        assertEquals(Collections.singletonList(CONTENT1), contents);
+    }
+}
@@ -5,24 +5,39 @@ import com.amazon.ata.advertising.service.dependency.TargetingPredicateInjector;
 import com.amazon.ata.advertising.service.targeting.TargetingGroup;
 import com.amazon.ata.advertising.service.targeting.predicate.ParentPredicate;
 import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBMapper;
 import com.amazonaws.services.dynamodbv2.datamodeling.DynamoDBQueryExpression;
 import com.amazonaws.services.dynamodbv2.datamodeling.PaginatedQueryList;
+import com.amazonaws.services.dynamodbv2.model.AttributeValue;
+import com.amazonaws.services.dynamodbv2.model.ConditionalCheckFailedException;
+import com.amazonaws.services.dynamodbv2.model.ReturnValue;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemRequest;
+import com.amazonaws.services.dynamodbv2.model.UpdateItemResult;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -36,9 +51,15 @@ class TargetingGroupDaoTest {
     @Mock
     private DynamoDBMapper mapper;
 
+    @Mock
+    private AmazonDynamoDB dynamoDbClient;
+
     @Mock
     private PaginatedQueryList<TargetingGroup> paginatedQueryList;
 
+    @Mock
+    private ExecutorService queryExecutor;
+
     @InjectMocks
     private TargetingGroupDao targetingGroupDao;
 
@@ -65,6 +86,81 @@ class TargetingGroupDaoTest {
         assertEquals(paginatedQueryList, targetingGroups);
     }
 
+    @Test
+    public void get_existingContentId_injectsTargetingPredicates() {
+        // GIVEN
+        String contentId = UUID.randomUUID().toString();
+        TargetingPredicate predicate = new ParentPredicate();
+        TargetingGroup targetingGroup = new TargetingGroup(UUID.randomUUID().toString(), contentId, 0.5,
+            Collections.singletonList(predicate));
+        doAnswer(invocation -> {
+            invocation.<Consumer<TargetingGroup>>getArgument(0).accept(targetingGroup);
+            return null;
+        }).when(paginatedQueryList).forEach(any());
+
+        // WHEN
+        targetingGroupDao.get(contentId);
+
+        // THEN
+        verify(injector).inject(predicate);
+    }
+
+    @Test
+    public void get_manyRows_injectsEveryPredicateWithTheSameInjector() {
+        // GIVEN
+        String contentId = UUID.randomUUID().toString();
+        List<TargetingGroup> targetingGroups = Arrays.asList(
+            new TargetingGroup(UUID.randomUUID().toString(), contentId, 0.5,
+                Arrays.asList(new ParentPredicate(), new ParentPredicate())),
+            new TargetingGroup(UUID.randomUUID().toString(), contentId, 0.3,
+                Collections.singletonList(new ParentPredicate())),
+            new TargetingGroup(UUID.randomUUID().toString(), contentId, 0.1,
+                Collections.singletonList(new ParentPredicate())));
+        doAnswer(invocation -> {
+            targetingGroups.forEach(invocation.<Consumer<TargetingGroup>>getArgument(0));
+            return null;
+        }).when(paginatedQueryList).forEach(any());
+
+        // WHEN
+        targetingGroupDao.get(contentId);
+
+        // THEN
+        ArgumentCaptor<TargetingPredicate> injected = ArgumentCaptor.forClass(TargetingPredicate.class);
+        verify(injector, times(4)).inject(injected.capture());
+        List<TargetingPredicate> predicates = targetingGroups.stream()
+            .flatMap(targetingGroup -> targetingGroup.getTargetingPredicates().stream())
+            .collect(Collectors.toList());
+        for (int i = 0; i < predicates.size(); i++) {
+            assertSame(predicates.get(i), injected.getAllValues().get(i));
+        }
+    }
+
+    @Test
+    public void getAll_manyContentIds_queriesEachContentIdOnce() {
+        // GIVEN
+        String contentId1 = UUID.randomUUID().toString();
+        String contentId2 = UUID.randomUUID().toString();
+        TargetingGroup targetingGroup = new TargetingGroup(UUID.randomUUID().toString(), contentId1, 0.5,
+            Collections.emptyList());
+        when(paginatedQueryList.toArray()).thenReturn(new Object[] {targetingGroup});
+        doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).when(queryExecutor).execute(any());
+
+        // WHEN
+        Map<String, List<TargetingGroup>> targetingGroups = targetingGroupDao.getAll(
+            Arrays.asList(contentId1, contentId2, contentId1));
+
+        // THEN
+        verify(mapper, times(2)).query(eq(TargetingGroup.class), any());
+        assertEquals(Arrays.asList(contentId1, contentId2), argumentCaptor.getAllValues().stream()
+            .map(expression -> expression.getHashKeyValues().getContentId())
+            .collect(Collectors.toList()));
+        assertEquals(Arrays.asList(contentId1, contentId2), Arrays.asList(targetingGroups.keySet().toArray()));
+        assertEquals(Collections.singletonList(targetingGroup), targetingGroups.get(contentId1));
+    }
+
     @Test
     public void create_newTargetingGroup_saves() {
         // GIVEN
@@ -87,26 +183,60 @@ class TargetingGroupDaoTest {
         // GIVEN
         String targetingGroupId = UUID.randomUUID().toString();
         double clickThroughRate = 0.314;
-        when(mapper.load(any(TargetingGroup.class))).thenReturn(null);
+        when(dynamoDbClient.updateItem(any(UpdateItemRequest.class)))
+            .thenThrow(new ConditionalCheckFailedException("The conditional request failed"));
 
         // WHEN + THEN
         assertThrows(AdvertisementClientException.class, () -> targetingGroupDao.update(targetingGroupId, clickThroughRate));
     }
 
     @Test
-    public void update_targetingGroupExists_saveChanges() {
+    public void update_targetingGroupExists_onlyClickThroughRateWrittenAndNothingRead() {
+        // GIVEN
+        String targetingGroupId = UUID.randomUUID().toString();
+        double clickThroughRate = 0.314;
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        when(dynamoDbClient.updateItem(requestCaptor.capture())).thenReturn(new UpdateItemResult());
+
+        // WHEN
+        targetingGroupDao.update(targetingGroupId, clickThroughRate);
+
+        // THEN
+        UpdateItemRequest request = requestCaptor.getValue();
+        assertEquals(TargetingGroup.TABLE_NAME, request.getTableName());
+        assertEquals(targetingGroupId, request.getKey().get(TargetingGroup.TARGETING_GROUP_ID).getS());
+        assertEquals("SET #ctr = :ctr", request.getUpdateExpression());
+        assertEquals("attribute_exists(#id)", request.getConditionExpression());
+        assertEquals(clickThroughRate, Double.parseDouble(request.getExpressionAttributeValues().get(":ctr").getN()));
+        assertEquals(ReturnValue.NONE.toString(), request.getReturnValues());
+        verify(mapper, never()).load(any(TargetingGroup.class));
+        verify(mapper, never()).save(any(TargetingGroup.class));
+        verify(mapper, never()).marshallIntoObject(eq(TargetingGroup.class), any());
+    }
+
+    @Test
+    public void updateAndGet_targetingGroupExists_updatedGroupReturnedWithPredicatesInjected() {
         // GIVEN
         String targetingGroupId = UUID.randomUUID().toString();
         double clickThroughRate = 0.314;
-        TargetingGroup targetingGroup = new TargetingGroup(targetingGroupId, "1", 1.0, Collections.emptyList());
-        when(mapper.load(any(TargetingGroup.class))).thenReturn(targetingGroup);
+        Map<String, AttributeValue> updatedItem = Collections.singletonMap(TargetingGroup.TARGETING_GROUP_ID,
+            new AttributeValue(targetingGroupId));
+        TargetingPredicate predicate = new ParentPredicate();
+        TargetingGroup targetingGroup = new TargetingGroup(targetingGroupId, "1", clickThroughRate,
+            Collections.singletonList(predicate));
+        ArgumentCaptor<UpdateItemRequest> requestCaptor = ArgumentCaptor.forClass(UpdateItemRequest.class);
+        when(dynamoDbClient.updateItem(requestCaptor.capture()))
+            .thenReturn(new UpdateItemResult().withAttributes(updatedItem));
+        when(mapper.marshallIntoObject(TargetingGroup.class, updatedItem)).thenReturn(targetingGroup);
 
         // WHEN
-        TargetingGroup actualTargetingGroup = targetingGroupDao.update(targetingGroupId, clickThroughRate);
+        TargetingGroup actualTargetingGroup = targetingGroupDao.updateAndGet(targetingGroupId, clickThroughRate);
 
         // THEN
-        verify(mapper).save(actualTargetingGroup);
-        assertEquals(clickThroughRate, actualTargetingGroup.getClickThroughRate());
+        assertEquals(ReturnValue.ALL_NEW.toString(), requestCaptor.getValue().getReturnValues());
+        assertEquals("attribute_exists(#id)", requestCaptor.getValue().getConditionExpression());
+        assertEquals(targetingGroup, actualTargetingGroup);
+        verify(injector).inject(predicate);
     }
 
     @Test
@@ -0,0 +1,95 @@
+package com.amazon.ata.advertising.service.dependency;
+
+import com.amazon.ata.advertising.service.targeting.DeadlineStatistics;
+import com.amazon.ata.advertising.service.targeting.SelectionEngine;
+import com.amazon.ata.advertising.service.util.MetricsReporter;
+import com.amazon.ata.advertising.service.util.MonitoredThreadPoolExecutor;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class EvaluationModuleTest {
+    private static final String SELECTION_ENGINE_PROPERTY = "ata.advertising.evaluation.selectionEngine";
+
+    private MonitoredThreadPoolExecutor platformThreadPool;
+
+    @BeforeEach
+    public void setup() {
+        platformThreadPool = new MonitoredThreadPoolExecutor("test-pool", 1, 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        platformThreadPool.shutdownNow();
+        System.clearProperty(SELECTION_ENGINE_PROPERTY);
+    }
+
+    @Test
+    public void provideEvaluationExecutor_returnsSharedPool() {
+        // GIVEN
+        EvaluationModule module = new EvaluationModule();
+
+        // WHEN
+        ExecutorService executor = module.provideEvaluationExecutor(platformThreadPool);
+
+        // THEN
+        assertSame(platformThreadPool, executor);
+    }
+
+    @Test
+    public void provideSelectionDeadlineMillis_propertyNotSet_noDeadline() {
+        // GIVEN
+        System.clearProperty("ata.advertising.evaluation.selectionDeadlineMillis");
+
+        // WHEN
+        long deadlineMillis = new EvaluationModule().provideSelectionDeadlineMillis();
+
+        // THEN
+        assertEquals(0, deadlineMillis);
+    }
+
+    @Test
+    public void provideDeadlineStatistics_selectionRecorded_publishedToMetrics() {
+        // GIVEN
+        MetricsReporter metrics = new MetricsReporter(0);
+        DeadlineStatistics deadlineStatistics = new EvaluationModule().provideDeadlineStatistics(metrics);
+
+        // WHEN
+        deadlineStatistics.record(DeadlineStatistics.Stage.PREDICATE_EVALUATION);
+
+        // THEN
+        assertEquals(1L, metrics.read().get("adSelection.selections"));
+        assertEquals(1L, metrics.read().get("adSelection.deadlineHits.predicateEvaluation"));
+        assertEquals(0L, metrics.read().get("adSelection.deadlineHits.targetingIndex"));
+    }
+
+    @Test
+    public void provideSelectionEngine_engineNamed_namedEngine() {
+        // GIVEN
+        System.setProperty(SELECTION_ENGINE_PROPERTY, "PREDICATE_INDEX");
+
+        // WHEN
+        SelectionEngine engine = new EvaluationModule().provideSelectionEngine();
+
+        // THEN
+        assertEquals(SelectionEngine.PREDICATE_INDEX, engine);
+    }
+
+    @Test
+    public void provideSelectionEngine_unknownEngine_linearScan() {
+        // GIVEN
+        System.setProperty(SELECTION_ENGINE_PROPERTY, "predicate-index");
+
+        // WHEN
+        SelectionEngine engine = new EvaluationModule().provideSelectionEngine();
+
+        // THEN
+        assertEquals(SelectionEngine.LINEAR_SCAN, engine);
+    }
+}
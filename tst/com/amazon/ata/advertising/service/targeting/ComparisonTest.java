@@ -49,4 +49,17 @@ class ComparisonTest {
         assertFalse(Comparison.EQ.compare(-5, -4));
     }
 
-}
\ No newline at end of file
+    @Test
+    public void compareComparables_matchesIntComparison() {
+        assertTrue(Comparison.LT.compare("a", "b"));
+        assertTrue(Comparison.GT.compare(Integer.valueOf(5), Integer.valueOf(4)));
+        assertTrue(Comparison.EQ.compare("a", "a"));
+        assertFalse(Comparison.EQ.compare(Integer.valueOf(5), Integer.valueOf(4)));
+    }
+
+    @Test
+    public void compareInts_extremeValues_doesNotOverflow() {
+        assertTrue(Comparison.LT.compare(Integer.MIN_VALUE, Integer.MAX_VALUE));
+        assertTrue(Comparison.GT.compare(Integer.MAX_VALUE, Integer.MIN_VALUE));
+    }
+}
@@ -0,0 +1,52 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendValueTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.RecognizedTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+import com.amazon.ata.customerservice.Category;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class CompiledTargetingGroupTest {
+
+    @Test
+    public void compile_mixedPredicates_splitIntoLocalAndRemote() {
+        // GIVEN
+        TargetingPredicate recognized = new RecognizedTargetingPredicate();
+        TargetingPredicate spend = new CategorySpendValueTargetingPredicate(Category.KINDLE, Comparison.GT, 20);
+        TargetingGroup group = new TargetingGroup("tg1", "content1", 0.5, Arrays.asList(spend, recognized));
+
+        // WHEN
+        CompiledTargetingGroup compiled = CompiledTargetingGroup.compile(group);
+
+        // THEN
+        assertEquals(Arrays.asList(spend, recognized), compiled.getPredicates());
+        assertEquals(Collections.singletonList(recognized), compiled.getLocalPredicates());
+        assertEquals(Collections.singletonList(spend), compiled.getRemotePredicates());
+    }
+
+    @Test
+    public void compile_equalPredicatesInDifferentGroups_shareOneInstance() {
+        // GIVEN
+        Interner<TargetingPredicate> canonicalPredicates = Interners.newStrongInterner();
+        TargetingGroup group = new TargetingGroup("tg1", "content1", 0.5, Collections.singletonList(
+            new CategorySpendValueTargetingPredicate(Category.TECHNICAL_BOOKS, Comparison.GT, 20)));
+        TargetingGroup otherGroup = new TargetingGroup("tg2", "content2", 0.5, Collections.singletonList(
+            new CategorySpendValueTargetingPredicate(Category.TECHNICAL_BOOKS, Comparison.GT, 20)));
+
+        // WHEN
+        CompiledTargetingGroup compiled = CompiledTargetingGroup.compile(group, canonicalPredicates);
+        CompiledTargetingGroup otherCompiled = CompiledTargetingGroup.compile(otherGroup, canonicalPredicates);
+
+        // THEN
+        assertSame(compiled.getRemotePredicates().get(0), otherCompiled.getRemotePredicates().get(0));
+        assertSame(compiled.getPredicates().get(0), otherCompiled.getPredicates().get(0));
+    }
+}
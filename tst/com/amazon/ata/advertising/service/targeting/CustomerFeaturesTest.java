@@ -0,0 +1,89 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.customerservice.AgeRange;
+import com.amazon.ata.customerservice.Category;
+import com.amazon.ata.customerservice.CustomerProfile;
+import com.amazon.ata.customerservice.Spend;
+import com.amazon.ata.primeclubservice.Benefit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CustomerFeaturesTest {
+
+    @Test
+    public void ordinals_knownValues_matchPositionInValues() {
+        assertEquals(Arrays.asList(AgeRange.values()).indexOf(AgeRange.AGE_26_TO_30),
+            CustomerFeatures.ageRangeOrdinal(AgeRange.AGE_26_TO_30));
+        assertEquals(Arrays.asList(Category.values()).indexOf(Category.KINDLE),
+            CustomerFeatures.categoryOrdinal(Category.KINDLE));
+        assertEquals(Arrays.asList(Benefit.values()).indexOf(Benefit.DIM_SUM),
+            CustomerFeatures.benefitOrdinal(Benefit.DIM_SUM));
+    }
+
+    @Test
+    public void ordinals_unknownValues_unknown() {
+        assertEquals(CustomerFeatures.UNKNOWN, CustomerFeatures.ageRangeOrdinal(null));
+        assertEquals(CustomerFeatures.UNKNOWN, CustomerFeatures.categoryOrdinal("NOT_A_CATEGORY"));
+        assertEquals(CustomerFeatures.UNKNOWN, CustomerFeatures.benefitOrdinal("NOT_A_BENEFIT"));
+    }
+
+    @Test
+    public void build_withProfile_ageRangeAndParentFilledIn() {
+        // GIVEN
+        CustomerProfile profile = CustomerProfile.builder()
+            .withAgeRange(AgeRange.AGE_26_TO_30.toLowerCase())
+            .withParent(true)
+            .build();
+
+        // WHEN
+        CustomerFeatures features = CustomerFeatures.builder().withProfile(profile).build();
+
+        // THEN
+        assertEquals(CustomerFeatures.ageRangeOrdinal(AgeRange.AGE_26_TO_30), features.getAgeRangeOrdinal());
+        assertTrue(features.isParent());
+        assertEquals(0, features.getUsdSpent(CustomerFeatures.categoryOrdinal(Category.KINDLE)));
+        assertFalse(features.hasBenefit(CustomerFeatures.benefitOrdinal(Benefit.DIM_SUM)));
+    }
+
+    @Test
+    public void build_withSpend_spendIndexedByCategory() {
+        // GIVEN
+        Spend kindleSpend = Spend.builder().withUsdSpent(50).withNumberOfPurchases(3).build();
+
+        // WHEN
+        CustomerFeatures features = CustomerFeatures.builder()
+            .withSpend(ImmutableMap.of(Category.KINDLE, kindleSpend, "NOT_A_CATEGORY", kindleSpend))
+            .build();
+
+        // THEN
+        assertEquals(50, features.getUsdSpent(CustomerFeatures.categoryOrdinal(Category.KINDLE)));
+        assertEquals(3, features.getNumberOfPurchases(CustomerFeatures.categoryOrdinal(Category.KINDLE)));
+        assertEquals(0, features.getUsdSpent(CustomerFeatures.categoryOrdinal(Category.ECHO)));
+        assertEquals(0, features.getNumberOfPurchases(CustomerFeatures.UNKNOWN));
+        assertEquals(CustomerFeatures.UNKNOWN, features.getAgeRangeOrdinal());
+        assertNull(features.isParent());
+    }
+
+    @Test
+    public void build_withBenefits_onlyThoseBenefitsSet() {
+        // WHEN
+        CustomerFeatures features = CustomerFeatures.builder()
+            .withBenefits(ImmutableList.of(Benefit.MOM_LITE, Benefit.AMZN4KIDS, "NOT_A_BENEFIT"))
+            .build();
+
+        // THEN
+        assertTrue(features.hasBenefit(CustomerFeatures.benefitOrdinal(Benefit.MOM_LITE)));
+        assertTrue(features.hasBenefit(CustomerFeatures.benefitOrdinal(Benefit.AMZN4KIDS)));
+        assertFalse(features.hasBenefit(CustomerFeatures.benefitOrdinal(Benefit.DIM_SUM)));
+        assertFalse(features.hasBenefit(CustomerFeatures.UNKNOWN));
+    }
+}
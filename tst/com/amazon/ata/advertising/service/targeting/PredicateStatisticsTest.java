@@ -0,0 +1,71 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.advertising.service.targeting.predicate.AgeTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.ParentPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+import com.amazon.ata.customerservice.AgeRange;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class PredicateStatisticsTest {
+    private static final long FAST_NANOS = 1_000;
+    private static final long SLOW_NANOS = 1_000_000;
+
+    private PredicateStatistics predicateStatistics;
+    private TargetingPredicate agePredicate;
+    private TargetingPredicate parentPredicate;
+
+    @BeforeEach
+    public void setup() {
+        predicateStatistics = new PredicateStatistics();
+        agePredicate = new AgeTargetingPredicate(AgeRange.AGE_18_TO_21);
+        parentPredicate = new ParentPredicate();
+    }
+
+    @Test
+    public void orderByExpectedCost_noObservations_keepsOrder() {
+        // GIVEN / WHEN
+        List<TargetingPredicate> ordered = predicateStatistics.orderByExpectedCost(
+            Arrays.asList(parentPredicate, agePredicate));
+
+        // THEN
+        assertEquals(Arrays.asList(parentPredicate, agePredicate), ordered);
+    }
+
+    @Test
+    public void orderByExpectedCost_fastSelectivePredicate_orderedFirst() {
+        // GIVEN
+        for (int i = 0; i < 10; i++) {
+            predicateStatistics.record(parentPredicate, SLOW_NANOS, true);
+            predicateStatistics.record(agePredicate, FAST_NANOS, false);
+        }
+
+        // WHEN
+        List<TargetingPredicate> ordered = predicateStatistics.orderByExpectedCost(
+            Arrays.asList(parentPredicate, agePredicate));
+
+        // THEN
+        assertEquals(Arrays.asList(agePredicate, parentPredicate), ordered);
+    }
+
+    @Test
+    public void orderByExpectedCost_slowPredicateUsuallyFalse_beatsFastPredicateAlmostAlwaysTrue() {
+        // GIVEN
+        for (int i = 0; i < 100; i++) {
+            predicateStatistics.record(parentPredicate, FAST_NANOS * 10, true);
+            predicateStatistics.record(agePredicate, FAST_NANOS * 20, false);
+        }
+
+        // WHEN
+        List<TargetingPredicate> ordered = predicateStatistics.orderByExpectedCost(
+            Arrays.asList(parentPredicate, agePredicate));
+
+        // THEN
+        assertEquals(Arrays.asList(agePredicate, parentPredicate), ordered);
+    }
+}
@@ -0,0 +1,93 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.customerservice.Category;
+import com.amazon.ata.customerservice.Spend;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SpendThresholdIndexTest {
+    private static final int[] THRESHOLDS = {0, 10, 20, 20, 30};
+
+    @Test
+    public void forEachMet_everyComparisonAndInverse_matchesComparingEachThreshold() {
+        // GIVEN
+        int kindle = CustomerFeatures.categoryOrdinal(Category.KINDLE);
+        List<SpendThresholdIndex.Condition> conditions = new ArrayList<>();
+        SpendThresholdIndex.Builder builder = SpendThresholdIndex.builder();
+        for (Comparison comparison : Comparison.values()) {
+            for (boolean inverse : new boolean[] {false, true}) {
+                for (int threshold : THRESHOLDS) {
+                    SpendThresholdIndex.Condition condition =
+                        new SpendThresholdIndex.Condition(kindle, false, comparison, threshold, inverse);
+                    builder.add(condition, conditions.size());
+                    conditions.add(condition);
+                }
+            }
+        }
+        SpendThresholdIndex index = builder.build();
+
+        for (int usdSpent : new int[] {0, 5, 10, 20, 25, 30, 35}) {
+            CustomerFeatures features = CustomerFeatures.builder()
+                .withSpend(ImmutableMap.of(Category.KINDLE, Spend.builder().withUsdSpent(usdSpent).build()))
+                .build();
+
+            // WHEN
+            Set<Integer> met = new HashSet<>();
+            index.forEachMet(features, ranks -> {
+                for (int rank : ranks) {
+                    met.add(rank);
+                }
+            });
+
+            // THEN
+            Set<Integer> expected = new HashSet<>();
+            int rank = 0;
+            for (Comparison comparison : Comparison.values()) {
+                for (boolean inverse : new boolean[] {false, true}) {
+                    for (int threshold : THRESHOLDS) {
+                        if (comparison.compare(usdSpent, threshold) != inverse) {
+                            expected.add(rank);
+                        }
+                        rank++;
+                    }
+                }
+            }
+            assertEquals(expected, met, "Spent " + usdSpent);
+        }
+    }
+
+    @Test
+    public void forEachMet_purchasesAndUnknownCategory_comparedSeparately() {
+        // GIVEN
+        SpendThresholdIndex index = SpendThresholdIndex.builder()
+            .add(new SpendThresholdIndex.Condition(CustomerFeatures.categoryOrdinal(Category.KINDLE), true,
+                Comparison.GT, 2, false), 0)
+            .add(new SpendThresholdIndex.Condition(CustomerFeatures.categoryOrdinal(Category.KINDLE), false,
+                Comparison.GT, 2, false), 1)
+            .add(new SpendThresholdIndex.Condition(CustomerFeatures.UNKNOWN, false, Comparison.EQ, 0, false), 2)
+            .build();
+        CustomerFeatures features = CustomerFeatures.builder()
+            .withSpend(ImmutableMap.of(Category.KINDLE,
+                Spend.builder().withUsdSpent(1).withNumberOfPurchases(3).build()))
+            .build();
+
+        // WHEN
+        Set<Integer> met = new HashSet<>();
+        index.forEachMet(features, ranks -> {
+            for (int rank : ranks) {
+                met.add(rank);
+            }
+        });
+
+        // THEN
+        assertEquals(new HashSet<>(Arrays.asList(0, 2)), met);
+    }
+}
@@ -1,18 +1,27 @@
 package com.amazon.ata.advertising.service.targeting;
 
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
 import com.amazon.ata.advertising.service.model.RequestContext;
 import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
 import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicateResult;
+import com.amazon.ata.advertising.service.util.Deadline;
+import com.amazon.ata.advertising.service.util.RequestScopedCache;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -26,15 +35,21 @@ public class TargetingEvaluatorTest {
     @Mock
     private TargetingPredicate predicate2;
 
+    @Mock
+    private TargetingPredicate predicate3;
+
+    @Mock
+    private AsyncReadableDao<String, Boolean> downstreamDao;
+
     @Mock
     private RequestContext requestContext;
 
-    @InjectMocks
     private TargetingEvaluator targetingEvaluator;
 
     @BeforeEach
     public void setup() {
         initMocks(this);
+        targetingEvaluator = new TargetingEvaluator(requestContext, new PredicateStatistics());
         targetingPredicates = new ArrayList<>();
         targetingGroup = new TargetingGroup(UUID.randomUUID().toString(), UUID.randomUUID().toString(), 0, targetingPredicates);
     }
@@ -116,4 +131,138 @@ public class TargetingEvaluatorTest {
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
 
+    @Test
+    public void evaluateAsync_localPredicateFalse_remotePredicatesNotEvaluated() {
+        when(requestContext.isRecognizedCustomer()).thenReturn(true);
+        when(predicate1.requiresRemoteData()).thenReturn(true);
+        when(predicate1.evaluateAsync(requestContext)).thenReturn(
+            CompletableFuture.completedFuture(TargetingPredicateResult.TRUE));
+        when(predicate2.requiresRemoteData()).thenReturn(false);
+        when(predicate2.evaluate(requestContext)).thenReturn(TargetingPredicateResult.FALSE);
+        targetingPredicates.add(predicate1);
+        targetingPredicates.add(predicate2);
+
+        TargetingPredicateResult result = targetingEvaluator.evaluateAsync(
+            CompiledTargetingGroup.compile(targetingGroup)).join();
+
+        assertEquals(TargetingPredicateResult.FALSE, result);
+        verify(predicate1, never()).evaluateAsync(any());
+    }
+
+    @Test
+    public void evaluateAsync_remotePredicateFalse_groupFalse() {
+        when(requestContext.isRecognizedCustomer()).thenReturn(true);
+        when(requestContext.getDeadline()).thenReturn(Deadline.none());
+        when(requestContext.getRequestCache()).thenReturn(new RequestScopedCache());
+        when(predicate1.requiresRemoteData()).thenReturn(true);
+        when(predicate1.evaluateAsync(requestContext)).thenReturn(
+            CompletableFuture.completedFuture(TargetingPredicateResult.TRUE));
+        when(predicate2.requiresRemoteData()).thenReturn(true);
+        when(predicate2.evaluateAsync(requestContext)).thenReturn(
+            CompletableFuture.completedFuture(TargetingPredicateResult.FALSE));
+        targetingPredicates.add(predicate1);
+        targetingPredicates.add(predicate2);
+
+        TargetingPredicateResult result = targetingEvaluator.evaluateAsync(
+            CompiledTargetingGroup.compile(targetingGroup)).join();
+
+        assertEquals(TargetingPredicateResult.FALSE, result);
+    }
+
+    @Test
+    public void evaluateAsync_remotePredicatePendingAtDeadline_isFalse() {
+        RequestContext context = new RequestContext("A123B456", "1", Deadline.after(10, TimeUnit.MILLISECONDS));
+        TargetingEvaluator evaluator = new TargetingEvaluator(context, new PredicateStatistics());
+        when(predicate1.requiresRemoteData()).thenReturn(true);
+        when(predicate1.evaluateAsync(context)).thenReturn(new CompletableFuture<>());
+        targetingPredicates.add(predicate1);
+
+        TargetingPredicateResult result = evaluator.evaluateAsync(CompiledTargetingGroup.compile(targetingGroup))
+            .join();
+        assertEquals(TargetingPredicateResult.FALSE, result);
+        assertTrue(evaluator.hasHitDeadline());
+    }
+
+    @Test
+    public void evaluateAsync_deadlineAlreadyPassed_remotePredicateNotEvaluated() {
+        RequestContext context = new RequestContext("A123B456", "1", Deadline.after(0, TimeUnit.MILLISECONDS));
+        TargetingEvaluator evaluator = new TargetingEvaluator(context, new PredicateStatistics());
+        when(predicate1.requiresRemoteData()).thenReturn(true);
+        targetingPredicates.add(predicate1);
+
+        TargetingPredicateResult result = evaluator.evaluateAsync(CompiledTargetingGroup.compile(targetingGroup))
+            .join();
+        assertEquals(TargetingPredicateResult.FALSE, result);
+        assertTrue(evaluator.hasHitDeadline());
+        verify(predicate1, never()).evaluateAsync(any());
+    }
+
+    @Test
+    public void evaluateAsync_predicateSharedByTwoGroups_evaluatedOnce() {
+        RequestContext context = new RequestContext("A123B456", "1");
+        TargetingEvaluator evaluator = new TargetingEvaluator(context, new PredicateStatistics());
+        when(predicate1.requiresRemoteData()).thenReturn(true);
+        when(predicate1.evaluateAsync(context))
+            .thenReturn(CompletableFuture.completedFuture(TargetingPredicateResult.TRUE));
+        targetingPredicates.add(predicate1);
+        TargetingGroup otherGroup = new TargetingGroup(UUID.randomUUID().toString(), UUID.randomUUID().toString(), 0,
+            targetingPredicates);
+
+        TargetingPredicateResult result = evaluator.evaluateAsync(CompiledTargetingGroup.compile(targetingGroup))
+            .join();
+        TargetingPredicateResult otherResult = evaluator.evaluateAsync(CompiledTargetingGroup.compile(otherGroup))
+            .join();
+        assertEquals(TargetingPredicateResult.TRUE, result);
+        assertEquals(TargetingPredicateResult.TRUE, otherResult);
+        verify(predicate1, times(1)).evaluateAsync(context);
+    }
+
+    @Test
+    public void evaluateAsync_firstRemotePredicateFalse_noFurtherDownstreamCalls() {
+        RequestContext context = new RequestContext("A123B456", "1");
+        TargetingEvaluator evaluator = new TargetingEvaluator(context, new PredicateStatistics());
+        CompletableFuture<Boolean> firstCall = new CompletableFuture<>();
+        when(downstreamDao.getAsync("first")).thenReturn(firstCall);
+        when(downstreamDao.getAsync("second")).thenReturn(CompletableFuture.completedFuture(true));
+        callsDownstream(predicate1, context, "first");
+        callsDownstream(predicate2, context, "second");
+        targetingPredicates.add(predicate1);
+        targetingPredicates.add(predicate2);
+
+        CompletableFuture<TargetingPredicateResult> result =
+            evaluator.evaluateAsync(CompiledTargetingGroup.compile(targetingGroup));
+        firstCall.complete(false);
+
+        assertEquals(TargetingPredicateResult.FALSE, result.join());
+        verify(downstreamDao, times(1)).getAsync(any());
+        verify(predicate2, never()).evaluateAsync(any());
+    }
+
+    @Test
+    public void evaluateAsync_remotePredicatesInFlightLimit_startsNextOnlyWhenOneIsTrue() {
+        RequestContext context = new RequestContext("A123B456", "1");
+        TargetingEvaluator evaluator = new TargetingEvaluator(context, new PredicateStatistics(), 2);
+        CompletableFuture<Boolean> firstCall = new CompletableFuture<>();
+        when(downstreamDao.getAsync("first")).thenReturn(firstCall);
+        when(downstreamDao.getAsync("second")).thenReturn(new CompletableFuture<>());
+        when(downstreamDao.getAsync("third")).thenReturn(new CompletableFuture<>());
+        callsDownstream(predicate1, context, "first");
+        callsDownstream(predicate2, context, "second");
+        callsDownstream(predicate3, context, "third");
+        targetingPredicates.add(predicate1);
+        targetingPredicates.add(predicate2);
+        targetingPredicates.add(predicate3);
+
+        evaluator.evaluateAsync(CompiledTargetingGroup.compile(targetingGroup));
+        verify(downstreamDao, never()).getAsync("third");
+        firstCall.complete(true);
+
+        verify(downstreamDao, times(3)).getAsync(any());
+    }
+
+    private void callsDownstream(TargetingPredicate predicate, RequestContext context, String key) {
+        when(predicate.requiresRemoteData()).thenReturn(true);
+        when(predicate.evaluateAsync(context)).thenAnswer(invocation -> downstreamDao.getAsync(key)
+            .thenApply(isTrue -> isTrue ? TargetingPredicateResult.TRUE : TargetingPredicateResult.FALSE));
+    }
 }
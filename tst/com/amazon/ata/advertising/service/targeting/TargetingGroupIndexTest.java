@@ -0,0 +1,118 @@
+package com.amazon.ata.advertising.service.targeting;
+
+import com.amazon.ata.advertising.service.targeting.predicate.AgeTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendFrequencyTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.CategorySpendValueTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.ParentPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.PrimeBenefitTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.RecognizedTargetingPredicate;
+import com.amazon.ata.advertising.service.targeting.predicate.TargetingPredicate;
+import com.amazon.ata.customerservice.AgeRange;
+import com.amazon.ata.customerservice.Category;
+import com.amazon.ata.customerservice.CustomerProfile;
+import com.amazon.ata.customerservice.Spend;
+import com.amazon.ata.primeclubservice.Benefit;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TargetingGroupIndexTest {
+    private static final CustomerFeatures CUSTOMER = CustomerFeatures.combine(
+        CustomerFeatures.builder()
+            .withProfile(CustomerProfile.builder().withAgeRange(AgeRange.AGE_26_TO_30).withParent(true).build())
+            .build(),
+        CustomerFeatures.builder()
+            .withSpend(ImmutableMap.of(Category.KINDLE, Spend.builder().withUsdSpent(50).withNumberOfPurchases(3)
+                .build()))
+            .build(),
+        CustomerFeatures.builder()
+            .withBenefits(ImmutableList.of(Benefit.DIM_SUM))
+            .build());
+
+    @Test
+    public void candidatesForRecognizedCustomer_matchingGroups_retrievedInRankOrder() {
+        // GIVEN
+        TargetingGroupIndex index = TargetingGroupIndex.build(Arrays.asList(
+            group("age", new AgeTargetingPredicate(AgeRange.AGE_26_TO_30)),
+            group("otherAge", new AgeTargetingPredicate(AgeRange.AGE_31_TO_35)),
+            group("parentAndBenefit", new ParentPredicate(), new PrimeBenefitTargetingPredicate(Benefit.DIM_SUM)),
+            group("notParent", new ParentPredicate(true)),
+            group("spend", new CategorySpendValueTargetingPredicate(Category.KINDLE, Comparison.GT, 20),
+                new CategorySpendFrequencyTargetingPredicate(Category.KINDLE, Comparison.EQ, 3)),
+            group("tooLittleSpend", new CategorySpendValueTargetingPredicate(Category.KINDLE, Comparison.GT, 60)),
+            group("empty")));
+
+        // WHEN
+        List<CompiledTargetingGroup> candidates = index.candidatesForRecognizedCustomer(CUSTOMER);
+
+        // THEN
+        assertEquals(Arrays.asList("age", "parentAndBenefit", "spend", "empty"), ids(candidates));
+    }
+
+    @Test
+    public void candidatesForRecognizedCustomer_invertedPredicates_excludeMatchingCustomers() {
+        // GIVEN
+        TargetingGroupIndex index = TargetingGroupIndex.build(Arrays.asList(
+            group("noDimSum", new PrimeBenefitTargetingPredicate(Benefit.DIM_SUM, true)),
+            group("noMomLite", new PrimeBenefitTargetingPredicate(Benefit.MOM_LITE, true)),
+            group("notAge", new RecognizedTargetingPredicate(), new AgeTargetingPredicate(AgeRange.AGE_26_TO_30, true)),
+            group("littleSpend", new CategorySpendValueTargetingPredicate(Category.KINDLE, Comparison.GT, 60, true))));
+
+        // WHEN
+        List<CompiledTargetingGroup> candidates = index.candidatesForRecognizedCustomer(CUSTOMER);
+
+        // THEN
+        assertEquals(Arrays.asList("noMomLite", "littleSpend"), ids(candidates));
+    }
+
+    @Test
+    public void candidatesForUnrecognizedCustomer_onlyGroupsForUnrecognizedCustomers() {
+        // GIVEN
+        TargetingGroupIndex index = TargetingGroupIndex.build(Arrays.asList(
+            group("recognized", new RecognizedTargetingPredicate()),
+            group("unrecognized", new RecognizedTargetingPredicate(true)),
+            group("noMomLite", new PrimeBenefitTargetingPredicate(Benefit.MOM_LITE, true)),
+            group("empty")));
+
+        // WHEN
+        List<CompiledTargetingGroup> candidates = index.candidatesForUnrecognizedCustomer();
+
+        // THEN
+        assertEquals(Arrays.asList("unrecognized", "empty"), ids(candidates));
+    }
+
+    @Test
+    public void candidates_predicateIndexCannotUnderstand_alwaysCandidate() {
+        // GIVEN
+        TargetingGroupIndex index = TargetingGroupIndex.build(Collections.singletonList(
+            group("unknown", new AgeTargetingPredicate(AgeRange.AGE_31_TO_35),
+                Mockito.mock(TargetingPredicate.class))));
+
+        // WHEN
+        List<CompiledTargetingGroup> recognizedCandidates = index.candidatesForRecognizedCustomer(CUSTOMER);
+        List<CompiledTargetingGroup> unrecognizedCandidates = index.candidatesForUnrecognizedCustomer();
+
+        // THEN
+        assertEquals(Collections.singletonList("unknown"), ids(recognizedCandidates));
+        assertEquals(Collections.singletonList("unknown"), ids(unrecognizedCandidates));
+    }
+
+    private static CompiledTargetingGroup group(String targetingGroupId, TargetingPredicate... predicates) {
+        return CompiledTargetingGroup.compile(new TargetingGroup(targetingGroupId, targetingGroupId, 0.5,
+            Arrays.asList(predicates)));
+    }
+
+    private static List<String> ids(List<CompiledTargetingGroup> groups) {
+        return groups.stream()
+            .map(group -> group.getTargetingGroup().getTargetingGroupId())
+            .collect(Collectors.toList());
+    }
+}
@@ -1,25 +1,35 @@
 package com.amazon.ata.advertising.service.targeting.predicate;
 
+import com.amazon.ata.advertising.service.dao.AsyncReadableDao;
 import com.amazon.ata.advertising.service.dao.ReadableDao;
+import com.amazon.ata.advertising.service.exceptions.DependencyUnavailableException;
 import com.amazon.ata.advertising.service.model.RequestContext;
+import com.amazon.ata.advertising.service.util.Futures;
 import com.amazon.ata.customerservice.AgeRange;
 import com.amazon.ata.customerservice.CustomerProfile;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 
+import java.util.concurrent.CompletableFuture;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 public class AgeTargetingPredicateTest {
     private static final String CUSTOMER_ID = "1";
     private static final String MARKETPLACE_ID = "2";
-    private static final RequestContext REQUEST_CONTEXT = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
+    private final RequestContext requestContext = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
 
     @Mock
     private ReadableDao<String, CustomerProfile> customerProfileDao;
 
+    @Mock
+    private AsyncReadableDao<String, CustomerProfile> asyncCustomerProfileDao;
+
     private AgeTargetingPredicate predicate;
 
     @BeforeEach
@@ -27,6 +37,7 @@ public class AgeTargetingPredicateTest {
         initMocks(this);
         predicate = new AgeTargetingPredicate(AgeRange.AGE_18_TO_21);
         predicate.setCustomerProfileDao(customerProfileDao);
+        predicate.setAsyncCustomerProfileDao(asyncCustomerProfileDao);
     }
 
     @Test
@@ -35,11 +46,35 @@ public class AgeTargetingPredicateTest {
                 .withAgeRange(AgeRange.AGE_18_TO_21)
                 .build());
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
 
+    @Test
+    public void evaluateAsync_matchesAgeRange_inverse() {
+        when(asyncCustomerProfileDao.getAsync(CUSTOMER_ID)).thenReturn(CompletableFuture.completedFuture(
+                CustomerProfile.builder().withAgeRange(AgeRange.AGE_18_TO_21).build()));
+        predicate.setInverse(true);
+
+        TargetingPredicateResult result = predicate.evaluateAsync(requestContext).join();
+
+        assertEquals(TargetingPredicateResult.FALSE, result);
+    }
+
+    @Test
+    public void evaluateAsync_profileAlreadyLoaded_reusesProfile() {
+        when(customerProfileDao.get(CUSTOMER_ID)).thenReturn(CustomerProfile.builder()
+                .withAgeRange(AgeRange.AGE_18_TO_21)
+                .build());
+        predicate.evaluate(requestContext);
+
+        TargetingPredicateResult result = predicate.evaluateAsync(requestContext).join();
+
+        assertEquals(TargetingPredicateResult.TRUE, result);
+        verify(asyncCustomerProfileDao, never()).getAsync(CUSTOMER_ID);
+    }
+
     @Test
     public void matchesAgeRange_inverse() {
         when(customerProfileDao.get(CUSTOMER_ID)).thenReturn(CustomerProfile.builder()
@@ -47,7 +82,7 @@ public class AgeTargetingPredicateTest {
                 .build());
         predicate.setInverse(true);
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.FALSE, result);
     }
@@ -58,7 +93,7 @@ public class AgeTargetingPredicateTest {
                 .withAgeRange(AgeRange.UNDER_18)
                 .build());
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.FALSE, result);
     }
@@ -70,7 +105,7 @@ public class AgeTargetingPredicateTest {
                 .build());
         predicate.setInverse(true);
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
@@ -82,4 +117,24 @@ public class AgeTargetingPredicateTest {
         assertEquals(TargetingPredicateResult.INDETERMINATE, result);
     }
 
+    @Test
+    public void evaluateAsync_customerServiceUnavailable_isIndeterminate() {
+        when(asyncCustomerProfileDao.getAsync(CUSTOMER_ID))
+                .thenReturn(Futures.failed(new DependencyUnavailableException("CustomerService is failing")));
+
+        TargetingPredicateResult result = predicate.evaluateAsync(requestContext).join();
+
+        assertEquals(TargetingPredicateResult.INDETERMINATE, result);
+    }
+
+    @Test
+    public void evaluateAsync_invertedAndCustomerServiceUnavailable_isIndeterminate() {
+        predicate.setInverse(true);
+        when(asyncCustomerProfileDao.getAsync(CUSTOMER_ID))
+                .thenReturn(Futures.failed(new DependencyUnavailableException("CustomerService is failing")));
+
+        TargetingPredicateResult result = predicate.evaluateAsync(requestContext).join();
+
+        assertEquals(TargetingPredicateResult.INDETERMINATE, result);
+    }
 }
@@ -19,7 +19,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 public class CategorySpendFrequencyTargetingPredicateTest {
     private static final String CUSTOMER_ID = "1";
     private static final String MARKETPLACE_ID = "2";
-    private static final RequestContext REQUEST_CONTEXT = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
+    private final RequestContext requestContext = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
 
     private static final String CATEGORY = Category.COMPUTERS;
     private static final int PURCHASES = 2;
@@ -33,7 +33,7 @@ public class CategorySpendFrequencyTargetingPredicateTest {
     @BeforeEach
     public void setup() {
         initMocks(this);
-        when(spendDao.get(REQUEST_CONTEXT)).thenReturn(Collections.singletonMap(CATEGORY, SPEND));
+        when(spendDao.get(requestContext)).thenReturn(Collections.singletonMap(CATEGORY, SPEND));
     }
 
 
@@ -42,7 +42,7 @@ public class CategorySpendFrequencyTargetingPredicateTest {
         predicate = new CategorySpendFrequencyTargetingPredicate(CATEGORY, Comparison.LT, PURCHASES + 5);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
@@ -52,7 +52,7 @@ public class CategorySpendFrequencyTargetingPredicateTest {
         predicate = new CategorySpendFrequencyTargetingPredicate(CATEGORY, Comparison.GT, PURCHASES + 5);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.FALSE, result);
     }
@@ -62,7 +62,7 @@ public class CategorySpendFrequencyTargetingPredicateTest {
         predicate = new CategorySpendFrequencyTargetingPredicate(CATEGORY, Comparison.GT, PURCHASES + 5, true);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
 
@@ -73,7 +73,7 @@ public class CategorySpendFrequencyTargetingPredicateTest {
         predicate = new CategorySpendFrequencyTargetingPredicate(CATEGORY, Comparison.LT, PURCHASES + 5, true);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.FALSE, result);
 
@@ -81,11 +81,11 @@ public class CategorySpendFrequencyTargetingPredicateTest {
 
     @Test
     public void categoryNotPresentInMap() {
-        when(spendDao.get(REQUEST_CONTEXT)).thenReturn(Collections.singletonMap(Category.AMAZON_MUSIC, SPEND));
+        when(spendDao.get(requestContext)).thenReturn(Collections.singletonMap(Category.AMAZON_MUSIC, SPEND));
         predicate = new CategorySpendFrequencyTargetingPredicate(CATEGORY, Comparison.LT, PURCHASES + 5);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
 
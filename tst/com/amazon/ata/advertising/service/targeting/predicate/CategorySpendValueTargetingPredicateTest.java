@@ -13,13 +13,14 @@ import java.util.Collections;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
 
 public class CategorySpendValueTargetingPredicateTest {
     private static final String CUSTOMER_ID = "1";
     private static final String MARKETPLACE_ID = "2";
-    private static final RequestContext REQUEST_CONTEXT = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
+    private final RequestContext requestContext = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
 
     private static final String CATEGORY = Category.COMPUTERS;
     private static final int USD_SPENT = 1000;
@@ -33,7 +34,7 @@ public class CategorySpendValueTargetingPredicateTest {
     @BeforeEach
     public void setup() {
         initMocks(this);
-        when(spendDao.get(REQUEST_CONTEXT)).thenReturn(Collections.singletonMap(CATEGORY, SPEND));
+        when(spendDao.get(requestContext)).thenReturn(Collections.singletonMap(CATEGORY, SPEND));
     }
 
 
@@ -42,7 +43,7 @@ public class CategorySpendValueTargetingPredicateTest {
         predicate = new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.LT, USD_SPENT + 100);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
@@ -52,7 +53,7 @@ public class CategorySpendValueTargetingPredicateTest {
         predicate = new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.GT, USD_SPENT + 100);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.FALSE, result);
     }
@@ -62,7 +63,7 @@ public class CategorySpendValueTargetingPredicateTest {
         predicate = new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.GT, USD_SPENT + 100, true);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
@@ -72,18 +73,18 @@ public class CategorySpendValueTargetingPredicateTest {
         predicate = new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.LT, USD_SPENT + 100, true);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.FALSE, result);
     }
 
     @Test
     public void categoryNotPresentInMap() {
-        when(spendDao.get(REQUEST_CONTEXT)).thenReturn(Collections.singletonMap(Category.AMAZON_MUSIC, SPEND));
+        when(spendDao.get(requestContext)).thenReturn(Collections.singletonMap(Category.AMAZON_MUSIC, SPEND));
         predicate = new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.LT, USD_SPENT + 100);
         predicate.setSpendDao(spendDao);
 
-        final TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        final TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
@@ -110,4 +111,24 @@ public class CategorySpendValueTargetingPredicateTest {
         assertEquals(TargetingPredicateResult.INDETERMINATE, result);
     }
 
+    @Test
+    public void equals_sameTypeAttributesAndInverse_equal() {
+        predicate = new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.GT, USD_SPENT, true);
+        CategorySpendValueTargetingPredicate other =
+            new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.GT, USD_SPENT, true);
+
+        assertEquals(predicate, other);
+        assertEquals(predicate.hashCode(), other.hashCode());
+    }
+
+    @Test
+    public void equals_differentAttributesOrInverse_notEqual() {
+        predicate = new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.GT, USD_SPENT);
+
+        assertNotEquals(predicate, new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.GT, USD_SPENT, true));
+        assertNotEquals(predicate, new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.LT, USD_SPENT));
+        assertNotEquals(predicate, new CategorySpendValueTargetingPredicate(CATEGORY, Comparison.GT, USD_SPENT + 1));
+        assertNotEquals(predicate,
+            new CategorySpendFrequencyTargetingPredicate(CATEGORY, Comparison.GT, USD_SPENT));
+    }
 }
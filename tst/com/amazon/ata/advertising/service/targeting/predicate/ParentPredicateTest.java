@@ -14,7 +14,7 @@ import static org.mockito.MockitoAnnotations.initMocks;
 public class ParentPredicateTest {
     private static final String CUSTOMER_ID = "1";
     private static final String MARKETPLACE_ID = "2";
-    private static final RequestContext REQUEST_CONTEXT = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
+    private final RequestContext requestContext = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
 
     @Mock
     private ReadableDao<String, CustomerProfile> customerProfileDao;
@@ -32,7 +32,7 @@ public class ParentPredicateTest {
     public void matchesParentStatus() {
         when(customerProfileDao.get(CUSTOMER_ID)).thenReturn(CustomerProfile.builder().withParent(true).build());
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
@@ -41,7 +41,7 @@ public class ParentPredicateTest {
     public void nullParentStatus() {
         when(customerProfileDao.get(CUSTOMER_ID)).thenReturn(CustomerProfile.builder().withParent(null).build());
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.INDETERMINATE, result);
     }
@@ -53,7 +53,7 @@ public class ParentPredicateTest {
 
         when(customerProfileDao.get(CUSTOMER_ID)).thenReturn(CustomerProfile.builder().withParent(true).build());
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.FALSE, result);
     }
@@ -62,7 +62,7 @@ public class ParentPredicateTest {
     public void doesNotMatchParentStatus() {
         when(customerProfileDao.get(CUSTOMER_ID)).thenReturn(CustomerProfile.builder().withParent(false).build());
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.FALSE, result);
     }
@@ -72,7 +72,7 @@ public class ParentPredicateTest {
         when(customerProfileDao.get(CUSTOMER_ID)).thenReturn(CustomerProfile.builder().withParent(false).build());
         predicate.setInverse(true);
 
-        TargetingPredicateResult result = predicate.evaluate(REQUEST_CONTEXT);
+        TargetingPredicateResult result = predicate.evaluate(requestContext);
 
         assertEquals(TargetingPredicateResult.TRUE, result);
     }
@@ -20,8 +20,8 @@ public class PrimeBenefitTargetingPredicateTest {
     private static final String MARKETPLACE_ID = "1";
     private static final String CUSTOMER_ID = "A123456";
 
-    private static RequestContext RECOGNIZED_CUSTOMER_CONEXT = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
-    private static RequestContext UNRECOGNIZED_CUSTOMER_CONEXT = new RequestContext(null, MARKETPLACE_ID);
+    private final RequestContext recognizedCustomerContext = new RequestContext(CUSTOMER_ID, MARKETPLACE_ID);
+    private final RequestContext unrecognizedCustomerContext = new RequestContext(null, MARKETPLACE_ID);
     private static String BENEFIT_TYPE = Benefit.FREE_EXPEDITED_SHIPPING;
 
     @Mock
@@ -38,26 +38,26 @@ public class PrimeBenefitTargetingPredicateTest {
 
     @Test
     public void evaluate_customerNotRecognized_inverseFalse() {
-        assertEquals(TargetingPredicateResult.INDETERMINATE, predicate.evaluate(UNRECOGNIZED_CUSTOMER_CONEXT));
+        assertEquals(TargetingPredicateResult.INDETERMINATE, predicate.evaluate(unrecognizedCustomerContext));
     }
 
     @Test
     public void evaluate_customerNotRecognized_inverseTrue() {
-        assertEquals(TargetingPredicateResult.INDETERMINATE, predicate.evaluate(UNRECOGNIZED_CUSTOMER_CONEXT));
+        assertEquals(TargetingPredicateResult.INDETERMINATE, predicate.evaluate(unrecognizedCustomerContext));
     }
 
     @Test
     public void evaluate_customerHasBenefit_inverseFalse() {
         when(primeDao.get(any(RequestContext.class))).thenReturn(Collections.singletonList(BENEFIT_TYPE));
 
-        assertEquals(TargetingPredicateResult.TRUE, predicate.evaluate(RECOGNIZED_CUSTOMER_CONEXT));
+        assertEquals(TargetingPredicateResult.TRUE, predicate.evaluate(recognizedCustomerContext));
     }
 
     @Test
     public void evaluate_customerHasMultipleBenefits_inverseFalse() {
         when(primeDao.get(any(RequestContext.class))).thenReturn(Arrays.asList(Benefit.DIM_SUM, BENEFIT_TYPE));
 
-        assertEquals(TargetingPredicateResult.TRUE, predicate.evaluate(RECOGNIZED_CUSTOMER_CONEXT));
+        assertEquals(TargetingPredicateResult.TRUE, predicate.evaluate(recognizedCustomerContext));
     }
 
     @Test
@@ -66,14 +66,14 @@ public class PrimeBenefitTargetingPredicateTest {
 
         when(primeDao.get(any(RequestContext.class))).thenReturn(Collections.singletonList(BENEFIT_TYPE));
 
-        assertEquals(TargetingPredicateResult.FALSE, predicate.evaluate(RECOGNIZED_CUSTOMER_CONEXT));
+        assertEquals(TargetingPredicateResult.FALSE, predicate.evaluate(recognizedCustomerContext));
     }
 
     @Test
     public void evaluate_customerDoesNotHaveBenefit_inverseFalse() {
         when(primeDao.get(any(RequestContext.class))).thenReturn(Collections.emptyList());
 
-        assertEquals(TargetingPredicateResult.FALSE, predicate.evaluate(RECOGNIZED_CUSTOMER_CONEXT));
+        assertEquals(TargetingPredicateResult.FALSE, predicate.evaluate(recognizedCustomerContext));
     }
 
     @Test
@@ -82,6 +82,6 @@ public class PrimeBenefitTargetingPredicateTest {
 
         when(primeDao.get(any(RequestContext.class))).thenReturn(Collections.emptyList());
 
-        assertEquals(TargetingPredicateResult.TRUE, predicate.evaluate(RECOGNIZED_CUSTOMER_CONEXT));
+        assertEquals(TargetingPredicateResult.TRUE, predicate.evaluate(recognizedCustomerContext));
     }
 }
@@ -5,10 +5,12 @@ import com.google.common.collect.Lists;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class TargetingPredicateTypeConverterTest {
@@ -85,4 +87,24 @@ public class TargetingPredicateTypeConverterTest {
         PrimeBenefitTargetingPredicate primeBenefitTargetingPredicate = (PrimeBenefitTargetingPredicate) targetingPredicate;
         assertEquals(benefit, primeBenefitTargetingPredicate.getBenefitToHave());
     }
+
+    @Test
+    public void unconvert_manyRows_leavesInjectionToTheSharedInjector() {
+        // GIVEN
+        int rows = 50;
+
+        // WHEN
+        List<TargetingPredicate> predicates = new ArrayList<>();
+        for (int i = 0; i < rows; i++) {
+            predicates.addAll(converter.unconvert(PREDICATE_LIST_2_STRING));
+        }
+
+        // THEN
+        assertEquals(rows * 2, predicates.size());
+        for (TargetingPredicate predicate : predicates) {
+            PrimeBenefitTargetingPredicate primeBenefitPredicate = (PrimeBenefitTargetingPredicate) predicate;
+            assertNull(primeBenefitPredicate.primeDao, "Expected no dependency graph to be built per row");
+            assertNull(primeBenefitPredicate.asyncPrimeDao, "Expected no dependency graph to be built per row");
+        }
+    }
 }
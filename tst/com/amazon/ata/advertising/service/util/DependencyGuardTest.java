@@ -0,0 +1,160 @@
+package com.amazon.ata.advertising.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DependencyGuardTest {
+
+    @Test
+    public void tryAcquire_consecutiveFailuresReachThreshold_breakerOpens() {
+        // GIVEN
+        DependencyGuard guard = new DependencyGuard("service", 2, 60_000, 10);
+        fail(guard);
+        fail(guard);
+
+        // WHEN
+        boolean allowed = guard.tryAcquire();
+
+        // THEN
+        assertFalse(allowed);
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertEquals(1, guard.getOpenCount());
+        assertEquals(1, guard.getBreakerRejectionCount());
+    }
+
+    @Test
+    public void tryAcquire_successBetweenFailures_breakerStaysClosed() {
+        // GIVEN
+        DependencyGuard guard = new DependencyGuard("service", 2, 60_000, 10);
+        fail(guard);
+        assertTrue(guard.tryAcquire());
+        guard.onSuccess();
+        fail(guard);
+
+        // WHEN
+        boolean allowed = guard.tryAcquire();
+
+        // THEN
+        assertTrue(allowed);
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    public void tryAcquire_openIntervalPassed_oneTrialCallAllowed() {
+        // GIVEN
+        DependencyGuard guard = new DependencyGuard("service", 1, 0, 10);
+        fail(guard);
+
+        // WHEN
+        boolean trialAllowed = guard.tryAcquire();
+        boolean secondAllowed = guard.tryAcquire();
+
+        // THEN
+        assertTrue(trialAllowed);
+        assertFalse(secondAllowed);
+        assertEquals(DependencyGuard.State.HALF_OPEN, guard.getState());
+    }
+
+    @Test
+    public void onSuccess_trialCallSucceeds_breakerCloses() {
+        // GIVEN
+        DependencyGuard guard = new DependencyGuard("service", 1, 0, 10);
+        fail(guard);
+        assertTrue(guard.tryAcquire());
+
+        // WHEN
+        guard.onSuccess();
+
+        // THEN
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+        assertTrue(guard.tryAcquire());
+    }
+
+    @Test
+    public void onSuccess_callStartedBeforeBreakerOpened_breakerStaysOpen() {
+        // GIVEN
+        DependencyGuard guard = new DependencyGuard("service", 1, 60_000, 10);
+        assertTrue(guard.tryAcquire());
+        fail(guard);
+
+        // WHEN
+        guard.onSuccess();
+
+        // THEN
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertFalse(guard.tryAcquire());
+        assertEquals(0, guard.getActiveCalls());
+    }
+
+    @Test
+    public void publishTo_breakerOpened_stateAndCountersPublished() {
+        // GIVEN
+        MetricsReporter metrics = new MetricsReporter(0);
+        DependencyGuard guard = new DependencyGuard("service", 1, 60_000, 10);
+        guard.publishTo(metrics);
+        fail(guard);
+
+        // WHEN
+        guard.tryAcquire();
+
+        // THEN
+        assertEquals(DependencyGuard.State.OPEN.ordinal(), metrics.read().get("service.breakerState"));
+        assertEquals(1L, metrics.read().get("service.timesOpened"));
+        assertEquals(1L, metrics.read().get("service.breakerRejections"));
+    }
+
+    @Test
+    public void onFailure_trialCallFails_breakerReopens() {
+        // GIVEN
+        DependencyGuard guard = new DependencyGuard("service", 1, 0, 10);
+        fail(guard);
+        assertTrue(guard.tryAcquire());
+
+        // WHEN
+        guard.onFailure();
+
+        // THEN
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertEquals(2, guard.getOpenCount());
+    }
+
+    @Test
+    public void tryAcquire_bulkheadFull_callRejected() {
+        // GIVEN
+        DependencyGuard guard = new DependencyGuard("service", 1, 60_000, 2);
+        assertTrue(guard.tryAcquire());
+        assertTrue(guard.tryAcquire());
+
+        // WHEN
+        boolean allowed = guard.tryAcquire();
+
+        // THEN
+        assertFalse(allowed);
+        assertEquals(2, guard.getActiveCalls());
+        assertEquals(1, guard.getBulkheadRejectionCount());
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    public void onAbandoned_callCancelled_permitReleasedWithoutFailure() {
+        // GIVEN
+        DependencyGuard guard = new DependencyGuard("service", 1, 60_000, 1);
+        assertTrue(guard.tryAcquire());
+
+        // WHEN
+        guard.onAbandoned();
+
+        // THEN
+        assertEquals(0, guard.getActiveCalls());
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+        assertTrue(guard.tryAcquire());
+    }
+
+    private static void fail(DependencyGuard guard) {
+        assertTrue(guard.tryAcquire());
+        guard.onFailure();
+    }
+}
@@ -0,0 +1,53 @@
+package com.amazon.ata.advertising.service.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MetricsReporterTest {
+    private MetricsReporter metrics;
+
+    @BeforeEach
+    public void setup() {
+        metrics = new MetricsReporter(0);
+    }
+
+    @Test
+    public void read_registeredMetrics_currentValuesByName() {
+        // GIVEN
+        AtomicLong counter = new AtomicLong();
+        metrics.register("pool.rejectedTasks", counter::get);
+        metrics.register("cache.hitRatio", () -> 0.5);
+        counter.set(3);
+
+        // WHEN
+        Map<String, Number> values = metrics.read();
+
+        // THEN
+        assertEquals(Arrays.asList("cache.hitRatio", "pool.rejectedTasks"), new ArrayList<>(values.keySet()));
+        assertEquals(3L, values.get("pool.rejectedTasks"));
+        assertEquals(0.5, values.get("cache.hitRatio"));
+    }
+
+    @Test
+    public void read_metricFails_otherMetricsStillRead() {
+        // GIVEN
+        metrics.register("broken", () -> {
+            throw new IllegalStateException("Not started");
+        });
+        metrics.register("working", () -> 1);
+
+        // WHEN
+        Map<String, Number> values = metrics.read();
+
+        // THEN
+        assertEquals(1, values.size());
+        assertEquals(1, values.get("working"));
+    }
+}
@@ -0,0 +1,77 @@
+package com.amazon.ata.advertising.service.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MonitoredThreadPoolExecutorTest {
+    private MonitoredThreadPoolExecutor executor;
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setup() {
+        executor = new MonitoredThreadPoolExecutor("test-pool", 1, 1);
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void submit_poolAvailable_runsOnNamedPoolThread() throws Exception {
+        // GIVEN / WHEN
+        Future<String> threadName = executor.submit(() -> Thread.currentThread().getName());
+
+        // THEN
+        assertTrue(threadName.get(1, TimeUnit.SECONDS).startsWith("test-pool-"));
+        assertEquals(0, executor.getRejectedTaskCount());
+    }
+
+    @Test
+    public void submit_poolAndQueueFull_runsOnCallerAndCountsRejection() throws Exception {
+        // GIVEN
+        CountDownLatch started = new CountDownLatch(1);
+        executor.submit(() -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        started.await(1, TimeUnit.SECONDS);
+        executor.submit(() -> null);
+
+        // WHEN
+        Future<String> threadName = executor.submit(() -> Thread.currentThread().getName());
+
+        // THEN
+        assertEquals(Thread.currentThread().getName(), threadName.get(1, TimeUnit.SECONDS));
+        assertEquals(1, executor.getRejectedTaskCount());
+        assertEquals(1, executor.getQueueDepth());
+        assertEquals(1, executor.getActiveThreads());
+    }
+
+    @Test
+    public void publishTo_metricsRead_gaugesNamedAfterPool() {
+        // GIVEN
+        MetricsReporter metrics = new MetricsReporter(0);
+
+        // WHEN
+        executor.publishTo(metrics);
+
+        // THEN
+        Map<String, Number> values = metrics.read();
+        assertEquals(0, values.get("test-pool.queueDepth"));
+        assertEquals(0, values.get("test-pool.activeThreads"));
+        assertEquals(0L, values.get("test-pool.rejectedTasks"));
+    }
+}
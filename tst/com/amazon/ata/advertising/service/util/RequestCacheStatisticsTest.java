@@ -0,0 +1,49 @@
+package com.amazon.ata.advertising.service.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class RequestCacheStatisticsTest {
+
+    @Test
+    public void record_severalRequests_lookupsAddedUp() {
+        // GIVEN
+        RequestCacheStatistics statistics = new RequestCacheStatistics();
+        RequestScopedCache firstRequest = new RequestScopedCache();
+        firstRequest.get("profile", () -> "loaded");
+        firstRequest.get("profile", () -> "loaded");
+        RequestScopedCache secondRequest = new RequestScopedCache();
+        secondRequest.get("profile", () -> "loaded");
+
+        // WHEN
+        statistics.record(firstRequest);
+        statistics.record(secondRequest);
+
+        // THEN
+        assertEquals(2, statistics.getMissCount());
+        assertEquals(1, statistics.getHitCount());
+        assertEquals(0, statistics.getCoalescedCount());
+    }
+
+    @Test
+    public void publishTo_reporter_countersReadable() {
+        // GIVEN
+        RequestCacheStatistics statistics = new RequestCacheStatistics();
+        RequestScopedCache requestCache = new RequestScopedCache();
+        requestCache.get("profile", () -> "loaded");
+        statistics.record(requestCache);
+        MetricsReporter metrics = new MetricsReporter(0);
+
+        // WHEN
+        statistics.publishTo(metrics);
+
+        // THEN
+        Map<String, Number> values = metrics.read();
+        assertEquals(1L, values.get("requestCache.misses"));
+        assertEquals(0L, values.get("requestCache.hits"));
+        assertEquals(0L, values.get("requestCache.coalesced"));
+    }
+}
@@ -0,0 +1,100 @@
+package com.amazon.ata.advertising.service.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class RequestScopedCacheTest {
+    private static final String KEY = "key";
+
+    private RequestScopedCache requestCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setup() {
+        requestCache = new RequestScopedCache();
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    public void get_sameKeyTwice_loadsOnce() {
+        // GIVEN
+        requestCache.get(KEY, loads::incrementAndGet);
+
+        // WHEN
+        Integer value = requestCache.get(KEY, loads::incrementAndGet);
+
+        // THEN
+        assertEquals(1, value);
+        assertEquals(1, loads.get());
+        assertEquals(1, requestCache.getMissCount());
+        assertEquals(1, requestCache.getHitCount());
+    }
+
+    @Test
+    public void get_differentKeys_loadsEach() {
+        // GIVEN / WHEN
+        requestCache.get(KEY, loads::incrementAndGet);
+        requestCache.get("otherKey", loads::incrementAndGet);
+
+        // THEN
+        assertEquals(2, loads.get());
+        assertEquals(2, requestCache.getMissCount());
+    }
+
+    @Test
+    public void get_loadFails_nextCallerLoadsAgain() {
+        // GIVEN
+        assertThrows(IllegalStateException.class, () -> requestCache.get(KEY, () -> {
+            throw new IllegalStateException("Downstream unavailable");
+        }));
+
+        // WHEN
+        Integer value = requestCache.get(KEY, loads::incrementAndGet);
+
+        // THEN
+        assertEquals(1, value);
+        assertEquals(2, requestCache.getMissCount());
+    }
+
+    @Test
+    public void get_whileAnotherCallerIsLoading_waitsForThatLoad() throws Exception {
+        // GIVEN
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Integer> first = CompletableFuture.supplyAsync(() -> requestCache.get(KEY, () -> {
+            loading.countDown();
+            awaitUninterruptibly(release);
+            return loads.incrementAndGet();
+        }));
+        loading.await(1, TimeUnit.SECONDS);
+
+        // WHEN
+        CompletableFuture<Integer> second = CompletableFuture.supplyAsync(() ->
+            requestCache.get(KEY, loads::incrementAndGet));
+        while (requestCache.getCoalescedCount() == 0) {
+            Thread.sleep(1);
+        }
+        release.countDown();
+
+        // THEN
+        assertEquals(1, first.get(1, TimeUnit.SECONDS));
+        assertEquals(1, second.get(1, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}